@@ -0,0 +1,462 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import android.hardware.Sensor;
+
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+import com.nachintoch.sensorlistenerslibrary.core.SensorTypes;
+
+/**
+ * Comprueba que los receptores de Android no crean objetos al procesar un
+ * evento ni al armar el texto de la pantalla.<p/>
+ * 
+ * Cada receptor recibe lecturas sint&eacute;ticas con
+ * <tt>onSensorSample</tt>, como lo hace <tt>onSensorChanged</tt>, y tras cada
+ * una arma su texto con <tt>formatDisplay(SampleFormatter)</tt> como lo hace
+ * <tt>advertize()</tt>. Se miden los bytes que asigna el hilo de la prueba
+ * con <tt>com.sun.management.ThreadMXBean</tt> despu&eacute;s de calentar el
+ * receptor; si la m&aacute;quina virtual no puede medirlo, la prueba se
+ * omite.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class AllocationTest {
+
+	// atributos de clase
+	
+	/**
+	 * Cu&aacute;ntos eventos se procesan antes de medir.
+	 */
+	private static final int WARMUP = 50000;
+	
+	/**
+	 * Cu&aacute;ntos eventos se miden.
+	 */
+	private static final int EVENTS = 20000;
+	
+	// métodos de implementación
+	
+	/**
+	 * El receptor gen&eacute;rico no crea objetos por evento.
+	 */
+	@Test
+	public void genericListenerDoesNotAllocate(){
+		check(new Subject<GenericListener>(new GenericListener(
+				SensorTypes.TYPE_ACCELEROMETER), 3, 0, 10){
+			@Override
+			void format(SampleFormatter out){
+				listener.format(out);
+			}//format
+		});
+	}//genericListenerDoesNotAllocate
+	
+	/**
+	 * Los receptores de tres ejes no crean objetos por evento.
+	 */
+	@Test
+	public void threeAxisListenersDoNotAllocate(){
+		check(accelerometer(AccelerometerListener.getInstance()));
+		check(new Subject<GravitySensorListener>(
+				GravitySensorListener.getInstance(), 3, 0, 10){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		});
+		check(gyroscope(GyroscopeListener.getInstance()));
+		check(linear(LinearAccelerationSensorListener.getInstance()));
+		check(magnetometer(MagneticFieldSensorListener.getInstance()));
+		check(new Subject<OrientationSensorListener>(
+				OrientationSensorListener.getInstance(), 3, 0, 180){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		});
+		check(accelerometer(StepDetectorListener.getInstance()));
+		check(new Subject<VirtualGravityListener>(
+				VirtualGravityListener.getInstance(2f), 3, 0, 10){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		});
+		check(linear(VirtualLinearAccelerationListener.getInstance(2f)));
+	}//threeAxisListenersDoNotAllocate
+	
+	/**
+	 * Los receptores de un valor no crean objetos por evento.
+	 */
+	@Test
+	public void scalarListenersDoNotAllocate(){
+		check(light(LightSensorListener.getInstance()));
+		check(pressure(PressureSensorListener.getInstance()));
+		check(new Subject<ProximitySensorListener>(
+				ProximitySensorListener.getInstance(), 1, 5, 5){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		});
+		check(new Subject<HumiditySensorListener>(
+				HumiditySensorListener.getInstance(), 1, 50, 10){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		});
+		check(new Subject<TermometerListener>(TermometerListener.getInstance(),
+				1, 20, 5){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		});
+	}//scalarListenersDoNotAllocate
+	
+	/**
+	 * El receptor de rotaci&oacute;n no crea objetos por evento, con o sin
+	 * el coseno de la rotaci&oacute;n, ni al dar el cuaterni&oacute;n, la
+	 * matriz de rotaci&oacute;n y los &aacute;ngulos.
+	 */
+	@Test
+	public void rotationListenerDoesNotAllocate(){
+		check(rotation(RotationSensorListener.getInstance(), 3));
+		check(rotation(RotationSensorListener.getInstance(), 4));
+	}//rotationListenerDoesNotAllocate
+	
+	/**
+	 * Los receptores con historial, estad&iacute;sticas, reducci&oacute;n de
+	 * frecuencia, banda muerta y filtro de Kalman no crean objetos por
+	 * evento; tampoco con la compensaci&oacute;n del giroscopio, la
+	 * calibraci&oacute;n del magnet&oacute;metro ni la estimaci&oacute;n de la
+	 * altitud con aceleraci&oacute;n.
+	 */
+	@Test
+	public void listenersWithStagesDoNotAllocate(){
+		AccelerometerListener accelerometer = AccelerometerListener.getInstance();
+		enableStages(accelerometer);
+		check(accelerometer(accelerometer));
+		GyroscopeListener gyroscope = GyroscopeListener.getInstance();
+		gyroscope.enableBiasCompensation(64);
+		enableStages(gyroscope);
+		check(gyroscope(gyroscope));
+		MagneticFieldSensorListener magnetometer =
+				MagneticFieldSensorListener.getInstance();
+		magnetometer.enableCalibration();
+		enableStages(magnetometer);
+		check(magnetometer(magnetometer));
+		LinearAccelerationSensorListener linear =
+				LinearAccelerationSensorListener.getInstance();
+		PressureSensorListener pressure = PressureSensorListener.getInstance();
+		pressure.enableAltitude(1013.25f, linear);
+		enableStages(pressure);
+		check(linear(linear));
+		check(pressure(pressure));
+		RotationSensorListener rotation = RotationSensorListener.getInstance();
+		enableStages(rotation);
+		check(rotation(rotation, 4));
+		LightSensorListener light = LightSensorListener.getInstance();
+		enableStages(light);
+		check(light(light));
+	}//listenersWithStagesDoNotAllocate
+	
+	// métodos auxiliares
+	
+	/**
+	 * Habilita las etapas comunes a todos los receptores. La banda muerta no
+	 * limita el tiempo entre lecturas, pues entregar la pendiente requiere un
+	 * <tt>Looper</tt>.
+	 * @param listener - El receptor.
+	 */
+	private static void enableStages(NachintochSensorListener listener){
+		listener.enableHistory(256);
+		listener.enableStatistics(64);
+		listener.enableDecimation(2);
+		listener.enableDeadband(0.01f, 0, 0);
+		listener.enableKalmanSmoothing(1f, 0.1f, true);
+	}//enableStages
+	
+	/**
+	 * Comprueba que el receptor no crea objetos por evento.
+	 * @param subject - El receptor y sus lecturas.
+	 */
+	private static void check(Subject<?> subject){
+		String name = subject.listener.getClass().getSuperclass()
+				.getSimpleName();
+		assertEquals(name, 0, bytesPerEvent(subject));
+	}//check
+	
+	/**
+	 * Calienta el receptor y mide cu&aacute;ntos bytes asigna por evento.
+	 * @param subject - El receptor y sus lecturas.
+	 * @return long - Los bytes asignados por evento, redondeados hacia abajo.
+	 */
+	private static long bytesPerEvent(Subject<?> subject){
+		java.lang.management.ThreadMXBean threads =
+				ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean meter =
+				(com.sun.management.ThreadMXBean)threads;
+		assumeTrue(meter.isThreadAllocatedMemorySupported());
+		meter.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+		long timestamp = subject.drive(0, WARMUP);
+		long before = meter.getThreadAllocatedBytes(thread);
+		subject.drive(timestamp, EVENTS);
+		long after = meter.getThreadAllocatedBytes(thread);
+		return (after -before) /EVENTS;
+	}//bytesPerEvent
+	
+	/**
+	 * Da el sujeto de un aceler&oacute;metro.
+	 * @param listener - El receptor.
+	 * @return Subject - El sujeto.
+	 */
+	private static Subject<AccelerometerListener> accelerometer(
+			AccelerometerListener listener){
+		return new Subject<AccelerometerListener>(listener, 3, 0, 10){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		};
+	}//accelerometer
+	
+	/**
+	 * Da el sujeto de un giroscopio.
+	 * @param listener - El receptor.
+	 * @return Subject - El sujeto.
+	 */
+	private static Subject<GyroscopeListener> gyroscope(
+			GyroscopeListener listener){
+		return new Subject<GyroscopeListener>(listener, 3, 0, 2){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		};
+	}//gyroscope
+	
+	/**
+	 * Da el sujeto de un receptor de aceleraci&oacute;n lineal.
+	 * @param listener - El receptor.
+	 * @return Subject - El sujeto.
+	 */
+	private static Subject<LinearAccelerationSensorListener> linear(
+			LinearAccelerationSensorListener listener){
+		return new Subject<LinearAccelerationSensorListener>(listener, 3, 0,
+				2){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		};
+	}//linear
+	
+	/**
+	 * Da el sujeto de un magnet&oacute;metro.
+	 * @param listener - El receptor.
+	 * @return Subject - El sujeto.
+	 */
+	private static Subject<MagneticFieldSensorListener> magnetometer(
+			MagneticFieldSensorListener listener){
+		return new Subject<MagneticFieldSensorListener>(listener, 3, 0, 50){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		};
+	}//magnetometer
+	
+	/**
+	 * Da el sujeto de un receptor de luz.
+	 * @param listener - El receptor.
+	 * @return Subject - El sujeto.
+	 */
+	private static Subject<LightSensorListener> light(
+			LightSensorListener listener){
+		return new Subject<LightSensorListener>(listener, 1, 500, 400){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		};
+	}//light
+	
+	/**
+	 * Da el sujeto de un bar&oacute;metro.
+	 * @param listener - El receptor.
+	 * @return Subject - El sujeto.
+	 */
+	private static Subject<PressureSensorListener> pressure(
+			PressureSensorListener listener){
+		return new Subject<PressureSensorListener>(listener, 1, 1013.25f, 2){
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+			}//format
+		};
+	}//pressure
+	
+	/**
+	 * Da el sujeto de un receptor de rotaci&oacute;n, que tras cada lectura
+	 * da tambi&eacute;n los valores derivados.
+	 * @param listener - El receptor.
+	 * @param axes - 3 para que calcule el coseno de la rotaci&oacute;n, o 4
+	 * para entregarlo.
+	 * @return Subject - El sujeto.
+	 */
+	private static Subject<RotationSensorListener> rotation(
+			RotationSensorListener listener, int axes){
+		return new Subject<RotationSensorListener>(listener, axes, 0, 0.5f){
+			private final float[] matrix = new float[16];
+			private final float[] angles = new float[3];
+			@Override
+			void format(SampleFormatter out){
+				listener.formatDisplay(out);
+				listener.getQuaternion(matrix);
+				listener.getRotationMatrix(matrix);
+				listener.getOrientation(angles);
+				angles[0] = listener.getAzimuth() +listener.getPitch()
+						+listener.getRoll();
+			}//format
+		};
+	}//rotation
+	
+	/**
+	 * Un receptor a medir, las lecturas que recibe y c&oacute;mo arma su
+	 * texto. <tt>formatDisplay</tt> es protegido, as&iacute; que s&oacute;lo
+	 * se puede llamar con el tipo de la clase que lo sobreescribe.
+	 * @param <L> - El tipo del receptor.
+	 */
+	private static abstract class Subject<L extends NachintochSensorListener> {
+		
+		/**
+		 * El receptor.
+		 */
+		final L listener;
+		
+		/**
+		 * Donde se escriben las lecturas.
+		 */
+		private final float[] values;
+		
+		/**
+		 * El valor alrededor del cual oscilan las lecturas.
+		 */
+		private final float base;
+		
+		/**
+		 * Cu&aacute;nto oscilan las lecturas.
+		 */
+		private final float amplitude;
+		
+		/**
+		 * Donde se arma el texto de la pantalla.
+		 */
+		private final SampleFormatter out = new SampleFormatter();
+		
+		/**
+		 * Construye un sujeto.
+		 * @param listener - El receptor.
+		 * @param axes - Cu&aacute;ntos valores tiene cada lectura.
+		 * @param base - El valor alrededor del cual oscilan las lecturas.
+		 * @param amplitude - Cu&aacute;nto oscilan las lecturas.
+		 */
+		Subject(L listener, int axes, float base, float amplitude){
+			this.listener = listener;
+			values = new float[axes];
+			this.base = base;
+			this.amplitude = amplitude;
+		}//constructor
+		
+		/**
+		 * Arma el texto de la pantalla como lo hace <tt>advertize()</tt>.
+		 * @param out - Donde se arma el texto.
+		 */
+		abstract void format(SampleFormatter out);
+		
+		/**
+		 * Entrega lecturas sint&eacute;ticas a 200 Hz, una senoide desfasada
+		 * en cada eje, y tras cada una arma el texto de la pantalla.
+		 * @param timestamp - El momento de la lectura anterior en
+		 * nanosegundos.
+		 * @param events - Cu&aacute;ntas lecturas entregar.
+		 * @return long - El momento de la &uacute;ltima lectura.
+		 */
+		long drive(long timestamp, int events){
+			for(int i = 0; i < events; i++){
+				timestamp += 5000000L;
+				double phase = timestamp *1e-9 *2 *Math.PI *1.8;
+				for(int axis = 0; axis < values.length; axis++)
+					values[axis] = (float)(base +amplitude *Math.sin(phase
+							+axis));
+				listener.onSensorSample(3, timestamp, values);
+				out.clear();
+				format(out);
+				out.commit();
+			}//entrega las lecturas
+			return timestamp;
+		}//drive
+		
+	}//Subject class
+	
+	/**
+	 * Un receptor como el de <tt>NachintochSensorListener.getInstance(int)
+	 * </tt>, que permite armar su texto desde la prueba.
+	 */
+	private static class GenericListener extends NachintochSensorListener {
+		
+		/**
+		 * Construye un receptor del tipo dado.
+		 * @param type - El tipo del sensor.
+		 */
+		GenericListener(int type){
+			super(type);
+		}//constructor
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		/**
+		 * Arma el texto de la pantalla.
+		 * @param out - Donde se arma el texto.
+		 */
+		void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//GenericListener class
+	
+}//AllocationTest class
@@ -0,0 +1,129 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.nachintoch.sensorlistenerslibrary.core.ComplementaryFilter;
+import com.nachintoch.sensorlistenerslibrary.core.MadgwickFilter;
+import com.nachintoch.sensorlistenerslibrary.core.OrientationFilter;
+
+/**
+ * Fija los &aacute;ngulos que entrega <tt>FusionOrientationListener</tt>
+ * con las convenciones del sensor de orientaci&oacute;n, para vectores de
+ * gravedad y campo magn&eacute;tico conocidos.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class FusionOrientationListenerTest {
+
+	// atributos de clase
+	
+	/**
+	 * Los casos de prueba: la direcci&oacute;n hacia arriba y hacia el norte
+	 * en los ejes del dispositivo, y el azimut, la inclinaci&oacute;n y el
+	 * giro del sensor de orientaci&oacute;n en grados.
+	 */
+	private static final float[][] CASES = {
+		// plano, con el borde superior hacia el norte
+		{0, 0, 1, 0, 1, 0, 0, 0, 0},
+		// plano, hacia el este
+		{0, 0, 1, -1, 0, 0, 90, 0, 0},
+		// plano, hacia el suroeste: el azimut va de 0 a 360
+		{0, 0, 1, 0.70710678f, -0.70710678f, 0, 225, 0, 0},
+		// borde superior levantado 30 grados: inclinación negativa
+		{0, 0.5f, 0.8660254f, 0, 0.8660254f, -0.5f, 0, -30, 0},
+		// borde derecho levantado 30 grados: giro positivo
+		{0.5f, 0, 0.8660254f, 0, 1, 0, 0, 0, 30},
+		// ambos bordes levantados, con el este perpendicular al eje y
+		{0.5f, 0.4330127f, 0.75f, -0.2401922f, 0.9013878f, -0.3602883f, 0,
+				-30, 30},
+	};
+	
+	/**
+	 * Tolerancia de los &aacute;ngulos en grados.
+	 */
+	private static final float TOLERANCE = 0.1f;
+	
+	// métodos de implementación
+	
+	/**
+	 * Con ambos filtros, la orientaci&oacute;n estimada se entrega como la
+	 * del sensor de orientaci&oacute;n.
+	 */
+	@Test
+	public void convertsFilterAnglesToOrientationSensor(){
+		for(float[] c : CASES){
+			check(new ComplementaryFilter(), c);
+			check(new MadgwickFilter(), c);
+		}//revisa cada caso
+	}//convertsFilterAnglesToOrientationSensor
+	
+	/**
+	 * Boca abajo la inclinaci&oacute;n es de 180 grados, que
+	 * <tt>getOrientation</tt> da como un giro.
+	 */
+	@Test
+	public void faceDownIsAHalfTurnOfPitch(){
+		float[] orientation = {0, 0, (float)Math.PI};
+		FusionOrientationListener.toOrientationSensor(orientation);
+		assertEquals(0, orientation[0], TOLERANCE);
+		assertEquals(180, Math.abs(orientation[1]), TOLERANCE);
+		assertEquals(0, orientation[2], TOLERANCE);
+	}//faceDownIsAHalfTurnOfPitch
+	
+	/**
+	 * Los azimuts negativos de <tt>getOrientation</tt> se llevan a
+	 * [0, 360).
+	 */
+	@Test
+	public void wrapsNegativeAzimuths(){
+		float[] orientation = {(float)(-Math.PI /2), 0, 0};
+		FusionOrientationListener.toOrientationSensor(orientation);
+		assertEquals(270, orientation[0], TOLERANCE);
+		orientation = new float[]{(float)(Math.PI /4), 0, 0};
+		FusionOrientationListener.toOrientationSensor(orientation);
+		assertEquals(45, orientation[0], TOLERANCE);
+	}//wrapsNegativeAzimuths
+	
+	// métodos auxiliares
+	
+	/**
+	 * Inicia un filtro con las lecturas de un caso, como lo hace el receptor
+	 * con la primera lectura del giroscopio, y comprueba los &aacute;ngulos
+	 * convertidos.
+	 * @param filter - El filtro.
+	 * @param c - El caso.
+	 */
+	private static void check(OrientationFilter filter, float[] c){
+		filter.setAccelerometer(9.81f *c[0], 9.81f *c[1], 9.81f *c[2]);
+		filter.setMagnetometer(22 *c[3] -40 *c[0], 22 *c[4] -40 *c[1],
+				22 *c[5] -40 *c[2]);
+		assertTrue(filter.updateGyroscope(1000, 0, 0, 0));
+		float[] orientation = new float[3];
+		filter.readOrientation(orientation);
+		FusionOrientationListener.toOrientationSensor(orientation);
+		for(int i = 0; i < 3; i++)
+			assertEquals(c[6 +i], orientation[i], TOLERANCE);
+	}//check
+	
+}//FusionOrientationListenerTest class
@@ -0,0 +1,138 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
+/**
+ * Comprueba que los receptores de Android registran sus datos y los
+ * muestran, sin llamar a la plataforma; las lecturas se entregan con
+ * <tt>onSensorSample</tt> como lo hace <tt>onSensorChanged</tt>.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class ListenersTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Los receptores de tres ejes registran cada eje.
+	 */
+	@Test
+	public void threeAxisListenersRetrieveEachAxis(){
+		float[] values = {1.5f, -2.25f, 9.75f};
+		AccelerometerListener accelerometer = AccelerometerListener.getInstance();
+		accelerometer.onSensorSample(3, 10L, values);
+		assertAxes(values, accelerometer.getX_Axis(),
+				accelerometer.getY_Axis(), accelerometer.getZ_Axis());
+		GyroscopeListener gyroscope = GyroscopeListener.getInstance();
+		gyroscope.onSensorSample(3, 10L, values);
+		assertAxes(values, gyroscope.getX_Axis(), gyroscope.getY_Axis(),
+				gyroscope.getZ_Axis());
+		MagneticFieldSensorListener magnetometer =
+				MagneticFieldSensorListener.getInstance();
+		magnetometer.onSensorSample(3, 10L, values);
+		assertAxes(values, magnetometer.getX_Axis(), magnetometer.getY_Axis(),
+				magnetometer.getZ_Axis());
+		GravitySensorListener gravity = GravitySensorListener.getInstance();
+		gravity.onSensorSample(3, 10L, values);
+		assertAxes(values, gravity.getX_Axis(), gravity.getY_Axis(),
+				gravity.getZ_Axis());
+		LinearAccelerationSensorListener linear =
+				LinearAccelerationSensorListener.getInstance();
+		linear.onSensorSample(3, 10L, values);
+		assertAxes(values, linear.getX_Axis(), linear.getY_Axis(),
+				linear.getZ_Axis());
+		assertEquals(10L, linear.getEventTime());
+		assertEquals(3, linear.getAccuracy());
+	}//threeAxisListenersRetrieveEachAxis
+	
+	/**
+	 * Los receptores de un valor registran su lectura.
+	 */
+	@Test
+	public void scalarListenersRetrieveTheirValue(){
+		float[] values = {42.5f};
+		LightSensorListener light = LightSensorListener.getInstance();
+		light.onSensorSample(0, 1L, values);
+		assertEquals(42.5f, light.getAmbientLight(), 0);
+		PressureSensorListener pressure = PressureSensorListener.getInstance();
+		pressure.onSensorSample(0, 1L, values);
+		assertEquals(42.5f, pressure.getAtmosphericPressure(), 0);
+		ProximitySensorListener proximity = ProximitySensorListener.getInstance();
+		proximity.onSensorSample(0, 1L, values);
+		assertEquals(42.5f, proximity.getProximity(), 0);
+		HumiditySensorListener humidity = HumiditySensorListener.getInstance();
+		humidity.onSensorSample(0, 1L, values);
+		assertEquals(42.5f, humidity.getRelativeHumidity(), 0);
+		TermometerListener termometer = TermometerListener.getInstance();
+		termometer.onSensorSample(0, 1L, values);
+		assertEquals(42.5f, termometer.getTemperature(), 0);
+	}//scalarListenersRetrieveTheirValue
+	
+	/**
+	 * El texto de la pantalla contiene el tipo y los valores le&iacute;dos.
+	 */
+	@Test
+	public void formatDisplayWritesTypeAndValues(){
+		AccelerometerListener accelerometer = AccelerometerListener.getInstance();
+		accelerometer.onSensorSample(3, 10L, new float[]{1, 2, 3});
+		SampleFormatter out = new SampleFormatter();
+		accelerometer.formatDisplay(out);
+		String text = out.toString();
+		assertTrue(text, text.startsWith(accelerometer.getTypeString()));
+		assertTrue(text, text.contains("X: 1.000"));
+		assertTrue(text, text.contains("Z: 3.000"));
+	}//formatDisplayWritesTypeAndValues
+	
+	/**
+	 * La presi&oacute;n est&aacute;ndar da una altitud cercana a cero.
+	 */
+	@Test
+	public void pressureListenerEstimatesAltitude(){
+		PressureSensorListener pressure = PressureSensorListener.getInstance();
+		assertTrue(Float.isNaN(pressure.getAltitude()));
+		pressure.enableAltitude();
+		pressure.onSensorSample(0, 1L, new float[]{1013.25f});
+		assertEquals(0, pressure.getAltitude(), 0.01f);
+		pressure.disableAltitude();
+		assertTrue(Float.isNaN(pressure.getAltitude()));
+	}//pressureListenerEstimatesAltitude
+	
+	// métodos auxiliares
+	
+	/**
+	 * Comprueba los tres ejes registrados.
+	 * @param expected - Los valores entregados.
+	 * @param x - El eje x registrado.
+	 * @param y - El eje y registrado.
+	 * @param z - El eje z registrado.
+	 */
+	private static void assertAxes(float[] expected, float x, float y, float z){
+		assertEquals(expected[0], x, 0);
+		assertEquals(expected[1], y, 0);
+		assertEquals(expected[2], z, 0);
+	}//assertAxes
+	
+}//ListenersTest class
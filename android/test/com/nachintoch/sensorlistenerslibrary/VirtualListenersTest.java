@@ -0,0 +1,105 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.nachintoch.sensorlistenerslibrary.core.FirstOrderFilter;
+
+/**
+ * Comprueba los receptores que estiman la gravedad y la aceleraci&oacute;n
+ * lineal con las lecturas del aceler&oacute;metro.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class VirtualListenersTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Con la misma frecuencia de corte, la gravedad virtual m&aacute;s la
+	 * aceleraci&oacute;n lineal virtual reconstruyen cada lectura del
+	 * aceler&oacute;metro.
+	 */
+	@Test
+	public void gravityPlusLinearReconstructsTheAccelerometer(){
+		VirtualGravityListener gravity = VirtualGravityListener.getInstance(2f);
+		VirtualLinearAccelerationListener linear =
+				VirtualLinearAccelerationListener.getInstance(2f);
+		assertEquals(2, gravity.getCutoff(), 1e-5f);
+		assertEquals(2, linear.getCutoff(), 1e-5f);
+		for(int i = 1; i <= 500; i++){
+			long time = i *5000000L;
+			double t = time *1e-9;
+			float[] reading = {(float)Math.sin(2 *Math.PI *4 *t),
+					(float)(0.5 *Math.cos(2 *Math.PI *t)), 9.81f};
+			gravity.onSensorSample(3, time, reading.clone());
+			linear.onSensorSample(3, time, reading.clone());
+			assertEquals(reading[0], gravity.getX_Axis() +linear.getX_Axis(),
+					1e-5f);
+			assertEquals(reading[1], gravity.getY_Axis() +linear.getY_Axis(),
+					1e-5f);
+			assertEquals(reading[2], gravity.getZ_Axis() +linear.getZ_Axis(),
+					1e-5f);
+		}//entrega cada lectura
+		assertEquals(9.81f, gravity.getZ_Axis(), 1e-5f);
+		assertEquals(0, linear.getZ_Axis(), 1e-5f);
+	}//gravityPlusLinearReconstructsTheAccelerometer
+	
+	/**
+	 * Ante un cambio brusco de la gravedad, la virtual llega a
+	 * <tt>1 - 1/e</tt> del cambio tras la constante de tiempo del filtro.
+	 */
+	@Test
+	public void gravityFollowsAStepAtTheCutoff(){
+		VirtualGravityListener gravity = VirtualGravityListener.getInstance(1f);
+		gravity.onSensorSample(3, 0, new float[]{0, 0, 9.81f});
+		long steps = Math.round(1e9 /(2 *Math.PI) /1000000L);
+		for(long i = 1; i <= steps; i++)
+			gravity.onSensorSample(3, i *1000000L, new float[]{9.81f, 0, 0});
+		assertEquals(9.81 *(1 -Math.exp(-1)), gravity.getX_Axis(), 0.05);
+		assertEquals(9.81 *Math.exp(-1), gravity.getZ_Axis(), 0.05);
+	}//gravityFollowsAStepAtTheCutoff
+	
+	/**
+	 * Tras una pausa mayor a <tt>MAX_GAP</tt> los filtros se reinician: la
+	 * gravedad toma la lectura y la aceleraci&oacute;n lineal vuelve a cero.
+	 */
+	@Test
+	public void restartAfterMaxGap(){
+		VirtualGravityListener gravity = VirtualGravityListener.getInstance(1f);
+		VirtualLinearAccelerationListener linear =
+				VirtualLinearAccelerationListener.getInstance(1f);
+		for(int i = 0; i < 100; i++){
+			gravity.onSensorSample(3, i *10000000L, new float[]{0, 0, 9.81f});
+			linear.onSensorSample(3, i *10000000L, new float[]{0, 0, 9.81f});
+		}//reposa plano
+		long time = 99 *10000000L +FirstOrderFilter.MAX_GAP +1;
+		float[] reading = {0, 9.81f, 0};
+		gravity.onSensorSample(3, time, reading.clone());
+		linear.onSensorSample(3, time, reading.clone());
+		assertEquals(9.81f, gravity.getY_Axis(), 0);
+		assertEquals(0, gravity.getZ_Axis(), 0);
+		assertEquals(0, linear.getY_Axis(), 0);
+		assertEquals(0, linear.getZ_Axis(), 0);
+	}//restartAfterMaxGap
+	
+}//VirtualListenersTest class
@@ -0,0 +1,111 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nachintoch.sensorlistenerslibrary.NachintochSensorListener;
+
+/**
+ * Mide el costo de procesar un evento con cada receptor concreto de
+ * Android.<p/>
+ * 
+ * A diferencia de <tt>ListenerEventBenchmark</tt>, que mide el n&uacute;cleo,
+ * aqu&iacute; el evento pasa por el <tt>processEvent</tt> de
+ * <tt>NachintochSensorListener</tt> y por el <tt>retrieveData</tt> de cada
+ * clase, que copia los valores a sus ejes. Las lecturas se entregan con
+ * <tt>onSensorSample</tt>, como lo hace <tt>onSensorChanged</tt>, pues
+ * <tt>SensorEvent</tt> no puede construirse fuera de la plataforma.<p/>
+ * 
+ * Debe ejecutarse con <tt>-prof gc</tt>; procesar un evento no debe crear
+ * objetos.
+ * @see BenchmarkListeners#NAMES
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AndroidListenerBenchmark {
+
+	// atributos de clase
+	
+	/**
+	 * La clase del receptor.
+	 */
+	@Param({"AccelerometerListener", "MagneticFieldSensorListener",
+			"OrientationSensorListener", "GyroscopeListener",
+			"LightSensorListener", "PressureSensorListener",
+			"ProximitySensorListener", "GravitySensorListener",
+			"LinearAccelerationSensorListener", "RotationSensorListener",
+			"HumiditySensorListener", "TermometerListener",
+			"NachintochSensorListener"})
+	public String listenerClass;
+	
+	/**
+	 * El receptor a medir.
+	 */
+	private NachintochSensorListener listener;
+	
+	/**
+	 * Las lecturas sint&eacute;ticas.
+	 */
+	private SyntheticSamples samples;
+	
+	// métodos de implementación
+	
+	/**
+	 * Prepara el receptor y las lecturas.
+	 */
+	@Setup
+	public void setUp(){
+		listener = BenchmarkListeners.create(listenerClass);
+		samples = new SyntheticSamples(listener.SENSOR_TYPE, 1024, 5000000L,
+				42L);
+		listener.onSensorSample(3, samples.timestamp(), samples.next());
+	}//setUp
+	
+	/**
+	 * Procesa un evento.
+	 * @return long - La versi&oacute;n de las lecturas, para que el evento no
+	 * se descarte.
+	 */
+	@Benchmark
+	public long onSensorSample(){
+		float[] values = samples.next();
+		listener.onSensorSample(3, samples.timestamp(), values);
+		return listener.getVersion();
+	}//onSensorSample
+	
+}//AndroidListenerBenchmark class
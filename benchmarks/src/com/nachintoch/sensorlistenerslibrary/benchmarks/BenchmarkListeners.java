@@ -0,0 +1,422 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.nachintoch.sensorlistenerslibrary.AccelerometerListener;
+import com.nachintoch.sensorlistenerslibrary.GravitySensorListener;
+import com.nachintoch.sensorlistenerslibrary.GyroscopeListener;
+import com.nachintoch.sensorlistenerslibrary.HumiditySensorListener;
+import com.nachintoch.sensorlistenerslibrary.LightSensorListener;
+import com.nachintoch.sensorlistenerslibrary.LinearAccelerationSensorListener;
+import com.nachintoch.sensorlistenerslibrary.MagneticFieldSensorListener;
+import com.nachintoch.sensorlistenerslibrary.NachintochSensorListener;
+import com.nachintoch.sensorlistenerslibrary.OrientationSensorListener;
+import com.nachintoch.sensorlistenerslibrary.PressureSensorListener;
+import com.nachintoch.sensorlistenerslibrary.ProximitySensorListener;
+import com.nachintoch.sensorlistenerslibrary.RotationSensorListener;
+import com.nachintoch.sensorlistenerslibrary.TermometerListener;
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+import com.nachintoch.sensorlistenerslibrary.core.SensorTypes;
+
+import android.hardware.Sensor;
+
+/**
+ * Crea los receptores de Android para las pruebas de rendimiento.<p/>
+ * 
+ * Cada receptor es una subclase de la clase concreta que implementa
+ * <tt>Screen</tt>, de modo que las mediciones pueden armar su texto con el
+ * <tt>formatDisplay</tt> protegido de la clase, como lo hace
+ * <tt>advertize()</tt>, sin una pantalla.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+final class BenchmarkListeners {
+
+	// atributos de clase
+	
+	/**
+	 * Los nombres de los receptores concretos de la biblioteca, en el orden
+	 * de los tipos de sensor; <tt>NachintochSensorListener</tt> es un
+	 * receptor como el de <tt>NachintochSensorListener.getInstance(int)</tt>
+	 * para el aceler&oacute;metro.
+	 */
+	static final String[] NAMES = {"AccelerometerListener",
+			"MagneticFieldSensorListener", "OrientationSensorListener",
+			"GyroscopeListener", "LightSensorListener", "PressureSensorListener",
+			"ProximitySensorListener", "GravitySensorListener",
+			"LinearAccelerationSensorListener", "RotationSensorListener",
+			"HumiditySensorListener", "TermometerListener",
+			"NachintochSensorListener"};
+	
+	// métodos constructores
+	
+	/**
+	 * No se permiten instancias de &eacute;sta clase.
+	 */
+	private BenchmarkListeners(){}
+	
+	// métodos estáticos
+	
+	/**
+	 * Crea un receptor de la clase dada.
+	 * @param name - El nombre de la clase del receptor.
+	 * @return NachintochSensorListener - El receptor, que implementa
+	 * <tt>Screen</tt>.
+	 * @throws IllegalArgumentException - Si no es uno de <tt>NAMES</tt>.
+	 * @see #NAMES
+	 */
+	static NachintochSensorListener create(String name){
+		if("AccelerometerListener".equals(name))
+			return new Accelerometer();
+		if("MagneticFieldSensorListener".equals(name))
+			return new MagneticField();
+		if("OrientationSensorListener".equals(name))
+			return new Orientation();
+		if("GyroscopeListener".equals(name))
+			return new Gyroscope();
+		if("LightSensorListener".equals(name))
+			return new Light();
+		if("PressureSensorListener".equals(name))
+			return new Pressure();
+		if("ProximitySensorListener".equals(name))
+			return new Proximity();
+		if("GravitySensorListener".equals(name))
+			return new Gravity();
+		if("LinearAccelerationSensorListener".equals(name))
+			return new LinearAcceleration();
+		if("RotationSensorListener".equals(name))
+			return new Rotation();
+		if("HumiditySensorListener".equals(name))
+			return new Humidity();
+		if("TermometerListener".equals(name))
+			return new Termometer();
+		if("NachintochSensorListener".equals(name))
+			return new Generic();
+		throw new IllegalArgumentException("receptor desconocido: " +name);
+	}//create
+	
+	/**
+	 * Un receptor cuyo texto de la pantalla se puede armar desde las
+	 * mediciones.
+	 */
+	interface Screen {
+		
+		/**
+		 * Arma el texto de la pantalla con el <tt>formatDisplay</tt> del
+		 * receptor.
+		 * @param out - Donde se arma el texto.
+		 */
+		void format(SampleFormatter out);
+		
+	}//Screen interface
+	
+	/**
+	 * Un <tt>AccelerometerListener</tt> para las mediciones.
+	 */
+	private static final class Accelerometer extends AccelerometerListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Accelerometer class
+	
+	/**
+	 * Un <tt>MagneticFieldSensorListener</tt> para las mediciones.
+	 */
+	private static final class MagneticField extends MagneticFieldSensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//MagneticField class
+	
+	/**
+	 * Un <tt>OrientationSensorListener</tt> para las mediciones.
+	 */
+	private static final class Orientation extends OrientationSensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Orientation class
+	
+	/**
+	 * Un <tt>GyroscopeListener</tt> para las mediciones.
+	 */
+	private static final class Gyroscope extends GyroscopeListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Gyroscope class
+	
+	/**
+	 * Un <tt>LightSensorListener</tt> para las mediciones.
+	 */
+	private static final class Light extends LightSensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Light class
+	
+	/**
+	 * Un <tt>PressureSensorListener</tt> para las mediciones.
+	 */
+	private static final class Pressure extends PressureSensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Pressure class
+	
+	/**
+	 * Un <tt>ProximitySensorListener</tt> para las mediciones.
+	 */
+	private static final class Proximity extends ProximitySensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Proximity class
+	
+	/**
+	 * Un <tt>GravitySensorListener</tt> para las mediciones.
+	 */
+	private static final class Gravity extends GravitySensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Gravity class
+	
+	/**
+	 * Un <tt>LinearAccelerationSensorListener</tt> para las mediciones.
+	 */
+	private static final class LinearAcceleration extends
+			LinearAccelerationSensorListener implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//LinearAcceleration class
+	
+	/**
+	 * Un <tt>RotationSensorListener</tt> para las mediciones.
+	 */
+	private static final class Rotation extends RotationSensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Rotation class
+	
+	/**
+	 * Un <tt>HumiditySensorListener</tt> para las mediciones.
+	 */
+	private static final class Humidity extends HumiditySensorListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Humidity class
+	
+	/**
+	 * Un <tt>TermometerListener</tt> para las mediciones.
+	 */
+	private static final class Termometer extends TermometerListener
+			implements Screen {
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Termometer class
+	
+	/**
+	 * Un <tt>NachintochSensorListener</tt> para las mediciones.
+	 */
+	private static final class Generic extends NachintochSensorListener
+			implements Screen {
+		
+		/**
+		 * Construye un receptor del aceler&oacute;metro.
+		 */
+		Generic(){
+			super(SensorTypes.TYPE_ACCELEROMETER);
+		}//constructor
+		
+		@Override
+		public void onAccuracyChanged(Sensor sensor, int accuracy){
+			this.accuracy = accuracy;
+			didAccuracyChanged = true;
+		}//onAccuracyChanged
+		
+		@Override
+		protected void notificate(){}
+		
+		@Override
+		public void format(SampleFormatter out){
+			formatDisplay(out);
+		}//format
+		
+	}//Generic class
+	
+}//BenchmarkListeners class
@@ -0,0 +1,154 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nachintoch.sensorlistenerslibrary.core.SensorSampleListener;
+import com.nachintoch.sensorlistenerslibrary.core.SensorSnapshot;
+
+/**
+ * Mide la tasa de eventos que procesa un receptor mientras otros hilos leen
+ * sus datos.<p/>
+ * 
+ * Un hilo entrega eventos al receptor como lo har&iacute;a el sistema y otros
+ * tres leen copias consistentes del &uacute;ltimo evento o copian el
+ * historial; que es como la aplicaci&oacute;n consulta los datos desde otros
+ * hilos.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContendedReadBenchmark {
+
+	// atributos de clase
+	
+	/**
+	 * El tipo de sensor del receptor.
+	 */
+	@Param({"1", "6", "11"})
+	public int sensorType;
+	
+	/**
+	 * El receptor compartido.
+	 */
+	private SensorSampleListener listener;
+	
+	/**
+	 * Las lecturas sint&eacute;ticas. S&oacute;lo las usa el hilo escritor.
+	 */
+	private SyntheticSamples samples;
+	
+	// métodos de implementación
+	
+	/**
+	 * Prepara el receptor y las lecturas.
+	 */
+	@Setup
+	public void setUp(){
+		listener = SensorSampleListener.getInstance(sensorType);
+		listener.enableHistory(1024);
+		samples = new SyntheticSamples(sensorType, 1024, 5000000L, 42L);
+		listener.onSensorSample(3, samples.timestamp(), samples.next());
+	}//setUp
+	
+	/**
+	 * Procesa un evento mientras otros hilos toman copias consistentes.
+	 */
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(1)
+	public void writeWithSnapshotReaders(){
+		float[] values = samples.next();
+		listener.onSensorSample(3, samples.timestamp(), values);
+	}//writeWithSnapshotReaders
+	
+	/**
+	 * Toma una copia consistente del &uacute;ltimo evento.
+	 */
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(3)
+	public long readSnapshot(ReaderState reader){
+		return listener.readSnapshot(reader.snapshot);
+	}//readSnapshot
+	
+	/**
+	 * Procesa un evento mientras otros hilos copian el historial.
+	 */
+	@Benchmark
+	@Group("history")
+	@GroupThreads(1)
+	public void writeWithHistoryReaders(){
+		float[] values = samples.next();
+		listener.onSensorSample(3, samples.timestamp(), values);
+	}//writeWithHistoryReaders
+	
+	/**
+	 * Copia las &uacute;ltimas 64 lecturas del historial.
+	 */
+	@Benchmark
+	@Group("history")
+	@GroupThreads(3)
+	public int copyHistory(ReaderState reader){
+		return listener.getHistory().copyLast(64, reader.times, reader.axes);
+	}//copyHistory
+	
+	/**
+	 * Los arreglos propios de cada hilo lector.
+	 */
+	@State(Scope.Thread)
+	public static class ReaderState {
+		
+		/**
+		 * Donde se copia el &uacute;ltimo evento.
+		 */
+		public final SensorSnapshot snapshot = new SensorSnapshot();
+		
+		/**
+		 * Donde se copian los momentos del historial.
+		 */
+		public final long[] times = new long[64];
+		
+		/**
+		 * Donde se copian los valores del historial.
+		 */
+		public final float[][] axes = new float[4][64];
+		
+	}//ReaderState class
+	
+}//ContendedReadBenchmark class
@@ -0,0 +1,137 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nachintoch.sensorlistenerslibrary.NachintochSensorListener;
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
+/**
+ * Mide el costo de armar el texto de la pantalla de cada receptor concreto
+ * de Android.<p/>
+ * 
+ * Cada operaci&oacute;n procesa un evento y arma el texto como
+ * <tt>advertize()</tt>, con el <tt>formatDisplay</tt> de la clase y un
+ * <tt>SampleFormatter</tt>, sin entregarlo a la pantalla. Como
+ * comparaci&oacute;n se mide <tt>showLectures()</tt>, que arma una cadena
+ * nueva con cada evento.<p/>
+ * 
+ * Debe ejecutarse con <tt>-prof gc</tt>; armar el texto no debe crear
+ * objetos.
+ * @see BenchmarkListeners.Screen
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisplayFormatBenchmark {
+
+	// atributos de clase
+	
+	/**
+	 * La clase del receptor.
+	 */
+	@Param({"AccelerometerListener", "MagneticFieldSensorListener",
+			"OrientationSensorListener", "GyroscopeListener",
+			"LightSensorListener", "PressureSensorListener",
+			"ProximitySensorListener", "GravitySensorListener",
+			"LinearAccelerationSensorListener", "RotationSensorListener",
+			"HumiditySensorListener", "TermometerListener",
+			"NachintochSensorListener"})
+	public String listenerClass;
+	
+	/**
+	 * El receptor a medir.
+	 */
+	private NachintochSensorListener listener;
+	
+	/**
+	 * El mismo receptor, para armar su texto.
+	 */
+	private BenchmarkListeners.Screen screen;
+	
+	/**
+	 * Donde se arma el texto de la pantalla.
+	 */
+	private SampleFormatter displayText;
+	
+	/**
+	 * Las lecturas sint&eacute;ticas.
+	 */
+	private SyntheticSamples samples;
+	
+	// métodos de implementación
+	
+	/**
+	 * Prepara el receptor y las lecturas.
+	 */
+	@Setup
+	public void setUp(){
+		listener = BenchmarkListeners.create(listenerClass);
+		screen = (BenchmarkListeners.Screen)listener;
+		displayText = new SampleFormatter();
+		samples = new SyntheticSamples(listener.SENSOR_TYPE, 1024, 5000000L,
+				42L);
+		listener.onSensorSample(3, samples.timestamp(), samples.next());
+		screen.format(displayText);
+		displayText.commit();
+	}//setUp
+	
+	/**
+	 * Procesa un evento y arma el texto de la pantalla.
+	 * @return boolean - Si el texto cambi&oacute;.
+	 */
+	@Benchmark
+	public boolean formatScreen(){
+		float[] values = samples.next();
+		listener.onSensorSample(3, samples.timestamp(), values);
+		displayText.clear();
+		screen.format(displayText);
+		return displayText.commit();
+	}//formatScreen
+	
+	/**
+	 * Procesa un evento y genera la cadena con sus lecturas.
+	 * @return String - La cadena.
+	 */
+	@Benchmark
+	public String showLectures(){
+		float[] values = samples.next();
+		listener.onSensorSample(3, samples.timestamp(), values);
+		return listener.showLectures();
+	}//showLectures
+	
+}//DisplayFormatBenchmark class
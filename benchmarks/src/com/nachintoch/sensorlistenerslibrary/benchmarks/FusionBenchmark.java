@@ -0,0 +1,166 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.nachintoch.sensorlistenerslibrary.core.ComplementaryFilter;
+import com.nachintoch.sensorlistenerslibrary.core.MadgwickFilter;
+import com.nachintoch.sensorlistenerslibrary.core.OrientationFilter;
+import com.nachintoch.sensorlistenerslibrary.core.Quaternions;
+import com.nachintoch.sensorlistenerslibrary.core.SensorTypes;
+
+/**
+ * Mide el costo de estimar la orientaci&oacute;n con cada lectura del
+ * giroscopio.<p/>
+ *
+ * Cada operaci&oacute;n registra una lectura del aceler&oacute;metro, una del
+ * magnet&oacute;metro y una del giroscopio, y lee el azimut, la
+ * inclinaci&oacute;n y el giro. Se comparan los filtros de fusi&oacute;n con
+ * el c&aacute;lculo del sensor de orientaci&oacute;n obsoleto; que obtiene
+ * la orientaci&oacute;n s&oacute;lo del aceler&oacute;metro y el
+ * magnet&oacute;metro, como <tt>SensorManager.getRotationMatrix</tt> y
+ * <tt>SensorManager.getOrientation</tt>, con los arreglos nuevos que suelen
+ * crearse en cada evento.<p/>
+ *
+ * Debe ejecutarse con <tt>-prof gc</tt> para comparar la asignaci&oacute;n de
+ * memoria; los filtros no deben crear objetos.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FusionBenchmark {
+
+	// atributos de clase
+	
+	/**
+	 * Lecturas sint&eacute;ticas del aceler&oacute;metro.
+	 */
+	private SyntheticSamples accelerometer;
+	
+	/**
+	 * Lecturas sint&eacute;ticas del magnet&oacute;metro.
+	 */
+	private SyntheticSamples magnetometer;
+	
+	/**
+	 * Lecturas sint&eacute;ticas del giroscopio.
+	 */
+	private SyntheticSamples gyroscope;
+	
+	/**
+	 * El filtro complementario.
+	 */
+	private ComplementaryFilter complementary;
+	
+	/**
+	 * El filtro de Madgwick.
+	 */
+	private MadgwickFilter madgwick;
+	
+	/**
+	 * Donde se leen el azimut, la inclinaci&oacute;n y el giro.
+	 */
+	private final float[] orientation = new float[3];
+	
+	// métodos de implementación
+	
+	/**
+	 * Prepara las lecturas y los filtros.
+	 */
+	@Setup
+	public void setUp(){
+		accelerometer = new SyntheticSamples(SensorTypes.TYPE_ACCELEROMETER,
+				1024, 5000000L, 42L);
+		magnetometer = new SyntheticSamples(SensorTypes.TYPE_MAGNETIC_FIELD,
+				1024, 5000000L, 43L);
+		gyroscope = new SyntheticSamples(SensorTypes.TYPE_GYROSCOPE, 1024,
+				5000000L, 44L);
+		complementary = new ComplementaryFilter();
+		madgwick = new MadgwickFilter();
+	}//setUp
+	
+	/**
+	 * Estima la orientaci&oacute;n con el filtro complementario.
+	 */
+	@Benchmark
+	public float complementary(){
+		return fuse(complementary);
+	}//complementary
+	
+	/**
+	 * Estima la orientaci&oacute;n con el filtro de Madgwick.
+	 */
+	@Benchmark
+	public float madgwick(){
+		return fuse(madgwick);
+	}//madgwick
+	
+	/**
+	 * Calcula la orientaci&oacute;n como el sensor de orientaci&oacute;n
+	 * obsoleto: sin giroscopio y con arreglos nuevos en cada evento.
+	 */
+	@Benchmark
+	public void deprecatedOrientation(Blackhole blackhole){
+		float[] gravity = accelerometer.next().clone();
+		float[] geomagnetic = magnetometer.next().clone();
+		gyroscope.next();
+		float[] r = new float[9];
+		float[] values = new float[3];
+		if(Quaternions.fromGravityAndField(gravity, geomagnetic, r))
+			Quaternions.toOrientation(r, values);
+		blackhole.consume(values);
+	}//deprecatedOrientation
+	
+	// métodos auxiliares
+	
+	/**
+	 * Registra una lectura de cada sensor en el filtro y lee la
+	 * orientaci&oacute;n.
+	 * @param filter - El filtro.
+	 * @return float - El azimut estimado.
+	 */
+	private float fuse(OrientationFilter filter){
+		float[] a = accelerometer.next();
+		filter.setAccelerometer(a[0], a[1], a[2]);
+		float[] m = magnetometer.next();
+		filter.setMagnetometer(m[0], m[1], m[2]);
+		float[] g = gyroscope.next();
+		filter.updateGyroscope(gyroscope.timestamp(), g[0], g[1], g[2]);
+		filter.readOrientation(orientation);
+		return orientation[0];
+	}//fuse
+	
+}//FusionBenchmark class
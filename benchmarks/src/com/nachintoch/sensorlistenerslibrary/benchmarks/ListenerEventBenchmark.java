@@ -0,0 +1,135 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.nachintoch.sensorlistenerslibrary.core.SensorSampleListener;
+
+/**
+ * Mide el costo de procesar un evento con cada tipo de receptor.<p/>
+ * 
+ * Aqu&iacute; se mide el n&uacute;cleo con la instancia de
+ * <tt>SensorSampleListener.getInstance(int)</tt> para cada uno de los tipos
+ * de sensor de la biblioteca y con el n&uacute;mero de valores que entrega
+ * cada uno; los receptores concretos de Android se miden en
+ * <tt>AndroidListenerBenchmark</tt> y <tt>DisplayFormatBenchmark</tt>. Tambi&eacute;n se miden las cadenas que se generan
+ * para mostrar los datos.<p/>
+ * 
+ * Para medir la tasa de asignaci&oacute;n de memoria debe ejecutarse con el
+ * perfilador de recolecci&oacute;n de basura de JMH (<tt>-prof gc</tt>);
+ * <tt>onSensorSample</tt> no debe crear objetos.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerEventBenchmark {
+
+	// atributos de clase
+	
+	/**
+	 * El tipo de sensor del receptor.
+	 */
+	@Param({"1", "2", "3", "4", "5", "6", "8", "9", "10", "11", "12", "13"})
+	public int sensorType;
+	
+	/**
+	 * Capacidad del historial del receptor; 0 para no conservarlo.
+	 */
+	@Param({"0", "1024"})
+	public int historyCapacity;
+	
+	/**
+	 * El receptor a medir.
+	 */
+	private SensorSampleListener listener;
+	
+	/**
+	 * Las lecturas sint&eacute;ticas.
+	 */
+	private SyntheticSamples samples;
+	
+	// métodos de implementación
+	
+	/**
+	 * Prepara el receptor y las lecturas.
+	 */
+	@Setup
+	public void setUp(){
+		listener = SensorSampleListener.getInstance(sensorType);
+		if(historyCapacity > 0)
+			listener.enableHistory(historyCapacity);
+		samples = new SyntheticSamples(sensorType, 1024, 5000000L, 42L);
+		listener.onSensorSample(3, samples.timestamp(), samples.next());
+	}//setUp
+	
+	/**
+	 * Procesa un evento.
+	 */
+	@Benchmark
+	public void onSensorSample(){
+		float[] values = samples.next();
+		listener.onSensorSample(3, samples.timestamp(), values);
+	}//onSensorSample
+	
+	/**
+	 * Obtiene el nombre del tipo de sensor.
+	 */
+	@Benchmark
+	public String getTypeString(){
+		return listener.getTypeString();
+	}//getTypeString
+	
+	/**
+	 * Obtiene la presici&oacute;n como cadena.
+	 */
+	@Benchmark
+	public String getAccuracyString(){
+		return listener.getAccuracyString();
+	}//getAccuracyString
+	
+	/**
+	 * Procesa un evento y genera la cadena con sus lecturas; como cuando se
+	 * muestran los datos en pantalla con cada evento.
+	 */
+	@Benchmark
+	public void showLectures(Blackhole blackhole){
+		float[] values = samples.next();
+		listener.onSensorSample(3, samples.timestamp(), values);
+		blackhole.consume(listener.showLectures());
+	}//showLectures
+	
+}//ListenerEventBenchmark class
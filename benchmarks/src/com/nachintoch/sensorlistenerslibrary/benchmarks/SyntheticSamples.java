@@ -0,0 +1,178 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Random;
+
+import com.nachintoch.sensorlistenerslibrary.core.SensorTypes;
+
+/**
+ * Generador de lecturas sint&eacute;ticas para las pruebas de rendimiento.<p/>
+ * 
+ * Las lecturas se generan una sola vez al construir el objeto, con el
+ * n&uacute;mero de valores y magnitudes t&iacute;picas de cada tipo de
+ * sensor, y despu&eacute;s se recorren c&iacute;clicamente; de modo que
+ * obtener la siguiente lectura no crea objetos ni afecta la medici&oacute;n.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SyntheticSamples {
+
+	// atributos de clase
+	
+	/**
+	 * Los tipos de sensor que tienen un receptor en la biblioteca.
+	 */
+	public static final String[] LISTENER_TYPES = {"1", "2", "3", "4", "5",
+			"6", "8", "9", "10", "11", "12", "13"};
+	
+	/**
+	 * Las lecturas generadas.
+	 */
+	private final float[][] lectures;
+	
+	/**
+	 * La siguiente lectura a entregar.
+	 */
+	private int next;
+	
+	/**
+	 * El momento de la siguiente lectura en nanosegundos.
+	 */
+	private long timestamp;
+	
+	/**
+	 * Tiempo entre lecturas en nanosegundos.
+	 */
+	private final long period;
+	
+	// métodos constructores
+	
+	/**
+	 * Genera lecturas para el tipo de sensor dado.
+	 * @param sensorType - El tipo de sensor.
+	 * @param count - Cu&aacute;ntas lecturas distintas generar; debe ser una
+	 * potencia de 2.
+	 * @param period - El tiempo entre lecturas en nanosegundos.
+	 * @param seed - La semilla del generador de n&uacute;meros aleatorios.
+	 */
+	public SyntheticSamples(int sensorType, int count, long period, long seed){
+		Random random = new Random(seed);
+		int axes = axisCount(sensorType);
+		float base = baseValue(sensorType);
+		float noise = noise(sensorType);
+		lectures = new float[count][axes];
+		for(int i = 0; i < count; i++){
+			double phase = 2 *Math.PI *i /count;
+			for(int j = 0; j < axes; j++)
+				lectures[i][j] = (float)(base *Math.cos(phase +j)
+						+noise *random.nextGaussian());
+		}//genera las lecturas
+		this.period = period;
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Da la siguiente lectura.
+	 * @return float[] - Los valores de la lectura. No deben modificarse.
+	 */
+	public float[] next(){
+		float[] current = lectures[next];
+		next = (next +1) & (lectures.length -1);
+		timestamp += period;
+		return current;
+	}//next
+	
+	/**
+	 * Da el momento de la &uacute;ltima lectura entregada.
+	 * @return long - El momento en nanosegundos.
+	 */
+	public long timestamp(){
+		return timestamp;
+	}//timestamp
+	
+	// métodos estáticos
+	
+	/**
+	 * Indica cu&aacute;ntos valores entrega un evento del tipo de sensor dado.
+	 * @param sensorType - El tipo de sensor.
+	 * @return int - El n&uacute;mero de valores.
+	 */
+	public static int axisCount(int sensorType){
+		switch(sensorType){
+		case SensorTypes.TYPE_ROTATION_VECTOR :
+			return 4;
+		case SensorTypes.TYPE_ACCELEROMETER :
+		case SensorTypes.TYPE_MAGNETIC_FIELD :
+		case SensorTypes.TYPE_ORIENTATION :
+		case SensorTypes.TYPE_GYROSCOPE :
+		case SensorTypes.TYPE_GRAVITY :
+		case SensorTypes.TYPE_LINEAR_ACCELERATION :
+			return 3;
+		default :
+			return 1;
+		}//identifica el número de valores
+	}//axisCount
+	
+	/**
+	 * Indica la magnitud t&iacute;pica de las lecturas del tipo de sensor dado.
+	 */
+	private static float baseValue(int sensorType){
+		switch(sensorType){
+		case SensorTypes.TYPE_ACCELEROMETER :
+		case SensorTypes.TYPE_GRAVITY :
+			return 9.81f;
+		case SensorTypes.TYPE_MAGNETIC_FIELD :
+			return 45f;
+		case SensorTypes.TYPE_ORIENTATION :
+			return 180f;
+		case SensorTypes.TYPE_PRESSURE :
+			return 1013.25f;
+		case SensorTypes.TYPE_LIGHT :
+			return 300f;
+		case SensorTypes.TYPE_RELATIVE_HUMIDITY :
+			return 45f;
+		case SensorTypes.TYPE_AMBIENT_TEMPERATURE :
+		case SensorTypes.TYPE_TEMPERATURE :
+			return 22f;
+		case SensorTypes.TYPE_PROXIMITY :
+			return 5f;
+		case SensorTypes.TYPE_ROTATION_VECTOR :
+			return 0.5f;
+		default :
+			return 1f;
+		}//identifica la magnitud
+	}//baseValue
+	
+	/**
+	 * Indica el ruido t&iacute;pico de las lecturas del tipo de sensor dado.
+	 */
+	private static float noise(int sensorType){
+		switch(sensorType){
+		case SensorTypes.TYPE_ROTATION_VECTOR :
+			return 0.001f;
+		case SensorTypes.TYPE_PRESSURE :
+		case SensorTypes.TYPE_GYROSCOPE :
+			return 0.02f;
+		default :
+			return 0.05f *baseValue(sensorType);
+		}//identifica el ruido
+	}//noise
+	
+}//SyntheticSamples class
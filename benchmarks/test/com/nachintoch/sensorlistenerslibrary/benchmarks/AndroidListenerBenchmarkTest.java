@@ -0,0 +1,67 @@
+package com.nachintoch.sensorlistenerslibrary.benchmarks;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Comprueba que las mediciones de los receptores de Android corren con cada
+ * receptor, sin ejecutar JMH.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class AndroidListenerBenchmarkTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Las mediciones recorren todos los receptores concretos.
+	 */
+	@Test
+	public void benchmarksCoverEveryListener() throws Exception {
+		assertArrayEquals(BenchmarkListeners.NAMES, AndroidListenerBenchmark.class
+				.getField("listenerClass").getAnnotation(Param.class).value());
+		assertArrayEquals(BenchmarkListeners.NAMES, DisplayFormatBenchmark.class
+				.getField("listenerClass").getAnnotation(Param.class).value());
+	}//benchmarksCoverEveryListener
+	
+	/**
+	 * Cada receptor procesa los eventos y arma el texto de su pantalla.
+	 */
+	@Test
+	public void everyListenerProcessesAndFormats(){
+		for(String name : BenchmarkListeners.NAMES){
+			AndroidListenerBenchmark events = new AndroidListenerBenchmark();
+			events.listenerClass = name;
+			events.setUp();
+			assertEquals(name, 2, events.onSensorSample());
+			DisplayFormatBenchmark format = new DisplayFormatBenchmark();
+			format.listenerClass = name;
+			format.setUp();
+			assertTrue(name, format.formatScreen());
+			assertTrue(name, format.showLectures().startsWith("Datos 0:"));
+		}//recorre los receptores
+	}//everyListenerProcessesAndFormats
+	
+}//AndroidListenerBenchmarkTest class
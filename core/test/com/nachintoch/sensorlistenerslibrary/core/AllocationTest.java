@@ -0,0 +1,129 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+/**
+ * Comprueba que procesar un evento no crea objetos.<p/>
+ * 
+ * Mide los bytes que asigna el hilo de la prueba, con
+ * <tt>com.sun.management.ThreadMXBean</tt>, mientras un receptor procesa
+ * lecturas sint&eacute;ticas despu&eacute;s de calentarlo para que el
+ * compilador ya haya optimizado el c&oacute;digo. Si la m&aacute;quina
+ * virtual no puede medirlo, la prueba se omite.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class AllocationTest {
+
+	// atributos de clase
+	
+	/**
+	 * Cu&aacute;ntos eventos se procesan antes de medir.
+	 */
+	private static final int WARMUP = 50000;
+	
+	/**
+	 * Cu&aacute;ntos eventos se miden.
+	 */
+	private static final int EVENTS = 20000;
+	
+	// métodos de implementación
+	
+	/**
+	 * Un receptor sin etapas no crea objetos por evento.
+	 */
+	@Test
+	public void plainListenerDoesNotAllocate(){
+		SensorSampleListener listener =
+				SensorSampleListener.getInstance(SensorTypes.TYPE_ACCELEROMETER);
+		assertEquals(0, bytesPerEvent(listener));
+	}//plainListenerDoesNotAllocate
+	
+	/**
+	 * Un receptor con historial, estad&iacute;sticas, reducci&oacute;n de
+	 * frecuencia, filtro de Kalman, an&aacute;lisis del espectro y detector
+	 * de pasos tampoco crea objetos por evento.
+	 */
+	@Test
+	public void listenerWithStagesDoesNotAllocate(){
+		SensorSampleListener listener =
+				SensorSampleListener.getInstance(SensorTypes.TYPE_ACCELEROMETER);
+		listener.enableHistory(256);
+		listener.enableStatistics(64);
+		listener.enableKalmanSmoothing(1f, 0.1f, true);
+		listener.addStage(new SpectrumAnalyzer(64, 16,
+				new float[]{0, 2, 5, 10}, null));
+		listener.addStage(new StepDetector(null));
+		listener.enableDecimation(2);
+		assertEquals(0, bytesPerEvent(listener));
+	}//listenerWithStagesDoesNotAllocate
+	
+	// métodos auxiliares
+	
+	/**
+	 * Calienta el receptor y mide cu&aacute;ntos bytes asigna por evento.
+	 * @param listener - El receptor.
+	 * @return long - Los bytes asignados por evento, redondeados hacia abajo.
+	 */
+	private static long bytesPerEvent(SensorSampleListener listener){
+		java.lang.management.ThreadMXBean threads =
+				ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean meter =
+				(com.sun.management.ThreadMXBean)threads;
+		assumeTrue(meter.isThreadAllocatedMemorySupported());
+		meter.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+		float[] values = new float[3];
+		long timestamp = drive(listener, values, 0, WARMUP);
+		long before = meter.getThreadAllocatedBytes(thread);
+		drive(listener, values, timestamp, EVENTS);
+		long after = meter.getThreadAllocatedBytes(thread);
+		return (after -before) /EVENTS;
+	}//bytesPerEvent
+	
+	/**
+	 * Entrega lecturas sint&eacute;ticas a 200 Hz: una caminata con
+	 * gravedad.
+	 * @param listener - El receptor.
+	 * @param values - Donde se escriben las lecturas.
+	 * @param timestamp - El momento de la lectura anterior en nanosegundos.
+	 * @param events - Cu&aacute;ntas lecturas entregar.
+	 * @return long - El momento de la &uacute;ltima lectura.
+	 */
+	private static long drive(SensorSampleListener listener, float[] values,
+			long timestamp, int events){
+		for(int i = 0; i < events; i++){
+			timestamp += 5000000L;
+			double phase = timestamp *1e-9 *2 *Math.PI *1.8;
+			values[0] = (float)(0.3 *Math.sin(phase));
+			values[1] = (float)(0.2 *Math.cos(phase));
+			values[2] = (float)(9.81 +2 *Math.sin(phase));
+			listener.onSensorSample(3, timestamp, values);
+		}//entrega las lecturas
+		return timestamp;
+	}//drive
+	
+}//AllocationTest class
@@ -0,0 +1,152 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Comprueba la estimaci&oacute;n de la altitud y la velocidad vertical.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class AltitudeEstimatorTest {
+
+	// atributos de clase
+	
+	/**
+	 * Periodo de las lecturas del man&oacute;metro: 10 Hz.
+	 */
+	private static final long PERIOD = 100000000L;
+	
+	// métodos de implementación
+	
+	/**
+	 * Al subir a velocidad constante la velocidad estimada converge a ella y
+	 * la altitud sigue a la verdadera.
+	 */
+	@Test
+	public void tracksAConstantClimb(){
+		AltitudeEstimator estimator = new AltitudeEstimator();
+		float[] values = new float[1];
+		assertTrue(Float.isNaN(estimator.getAltitude()));
+		long time = 0;
+		for(int i = 0; i <= 600; i++){
+			time = i *PERIOD;
+			values[0] = pressureAt(2 *i *0.1f);
+			estimator.process(time, values, 1);
+		}//sube a 2 m/s durante un minuto
+		assertEquals(2, estimator.getVerticalSpeed(), 0.05f);
+		assertEquals(120, estimator.getAltitude(), 0.2f);
+		assertEquals(120, estimator.getRawAltitude(), 0.05f);
+		float[] estimate = new float[4];
+		estimator.readEstimate(estimate);
+		assertTrue(estimate[3] < AltitudeEstimator.DEFAULT_MEASUREMENT_NOISE);
+	}//tracksAConstantClimb
+	
+	/**
+	 * Despu&eacute;s de una pausa mayor a <tt>MAX_GAP</tt> el filtro se
+	 * reinicia con la siguiente presi&oacute;n.
+	 */
+	@Test
+	public void restartsAfterALongGap(){
+		AltitudeEstimator estimator = new AltitudeEstimator();
+		float[] values = new float[1];
+		long time = 0;
+		for(int i = 0; i <= 300; i++){
+			time = i *PERIOD;
+			values[0] = pressureAt(2 *i *0.1f);
+			estimator.process(time, values, 1);
+		}//sube a 2 m/s
+		assertEquals(2, estimator.getVerticalSpeed(), 0.1f);
+		values[0] = pressureAt(500);
+		estimator.process(time +AltitudeEstimator.MAX_GAP +1, values, 1);
+		assertEquals(0, estimator.getVerticalSpeed(), 0);
+		assertEquals(estimator.getRawAltitude(), estimator.getAltitude(), 0);
+		assertEquals(500, estimator.getAltitude(), 0.05f);
+		float[] estimate = new float[4];
+		estimator.readEstimate(estimate);
+		assertEquals(AltitudeEstimator.DEFAULT_MEASUREMENT_NOISE, estimate[3],
+				0);
+	}//restartsAfterALongGap
+	
+	/**
+	 * La aceleraci&oacute;n vertical reciente predice la velocidad entre dos
+	 * presiones; una aceleraci&oacute;n m&aacute;s antigua que
+	 * <tt>MAX_ACCELERATION_AGE</tt> ya no se usa.
+	 */
+	@Test
+	public void predictsWithRecentAcceleration(){
+		AltitudeEstimator estimator = new AltitudeEstimator();
+		SampleStage stage = estimator.getAccelerationStage();
+		float[] pressure = {pressureAt(0)};
+		float[] acceleration = {0, 0, 2};
+		estimator.process(0, pressure, 1);
+		for(long t = 0; t <= 1000000000L; t += 10000000L)
+			assertTrue(stage.process(t, acceleration, 3));
+		// la presión coincide con la altitud de la aceleración constante
+		pressure[0] = pressureAt(1);
+		estimator.process(1000000000L, pressure, 1);
+		assertEquals(2, estimator.getVerticalSpeed(), 0.05f);
+		assertEquals(1, estimator.getAltitude(), 0.05f);
+		// la última aceleración tiene un segundo al llegar la presión
+		pressure[0] = pressureAt(3);
+		estimator.process(2000000000L, pressure, 1);
+		assertEquals(2, estimator.getVerticalSpeed(), 0.05f);
+		assertEquals(3, estimator.getAltitude(), 0.05f);
+		assertEquals(2, acceleration[2], 0);
+	}//predictsWithRecentAcceleration
+	
+	/**
+	 * Una presi&oacute;n repetida reutiliza la conversi&oacute;n anterior,
+	 * pero no si cambi&oacute; la referencia.
+	 */
+	@Test
+	public void recomputesWhenTheReferenceChanges(){
+		AltitudeEstimator estimator = new AltitudeEstimator();
+		float[] values = {1000};
+		estimator.process(0, values, 1);
+		float standard = estimator.getRawAltitude();
+		assertEquals(44330 *(1 -Math.pow(1000 /1013.25, 1 /5.255)), standard,
+				1e-3);
+		estimator.setReferencePressure(1000);
+		estimator.process(PERIOD, values, 1);
+		assertEquals(0, estimator.getRawAltitude(), 1e-4f);
+		estimator.process(2 *PERIOD, values, 1);
+		assertEquals(0, estimator.getRawAltitude(), 1e-4f);
+		estimator.setReferencePressure(AltitudeEstimator.STANDARD_PRESSURE);
+		estimator.process(3 *PERIOD, values, 1);
+		assertEquals(standard, estimator.getRawAltitude(), 0);
+	}//recomputesWhenTheReferenceChanges
+	
+	// métodos auxiliares
+	
+	/**
+	 * Da la presi&oacute;n est&aacute;ndar a una altitud; el inverso de la
+	 * f&oacute;rmula barom&eacute;trica.
+	 * @param altitude - La altitud en metros.
+	 * @return float - La presi&oacute;n en hectopascales.
+	 */
+	private static float pressureAt(float altitude){
+		return (float)(AltitudeEstimator.STANDARD_PRESSURE *
+				Math.pow(1 -altitude /44330.0, 5.255));
+	}//pressureAt
+	
+}//AltitudeEstimatorTest class
@@ -0,0 +1,257 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Comprueba las pol&iacute;ticas de la cola de <tt>CallbackExecutor</tt>.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class CallbackExecutorTest {
+
+	// atributos de clase
+	
+	/**
+	 * Las lecturas procesadas, como <tt>fuente:valor</tt>, en orden.
+	 */
+	private final List<String> processed = new ArrayList<String>();
+	
+	/**
+	 * Las tareas recibidas por <tt>manual</tt>, que no las ejecuta hasta
+	 * llamar a <tt>runPending()</tt>.
+	 */
+	private final List<Runnable> tasks = new ArrayList<Runnable>();
+	
+	/**
+	 * Un <tt>Executor</tt> que s&oacute;lo guarda las tareas.
+	 */
+	private final Executor manual = new Executor(){
+		@Override
+		public void execute(Runnable task){
+			tasks.add(task);
+		}//execute
+	};
+	
+	// métodos de implementación
+	
+	/**
+	 * Con la cola llena <tt>DROP_OLDEST</tt> descarta la lectura m&aacute;s
+	 * antigua y <tt>DROP_NEWEST</tt> la que llega; en ambos casos se programa
+	 * una sola tarea.
+	 */
+	@Test
+	public void dropPoliciesDiscardTheRightEnd(){
+		SensorSampleListener a = recorder("a");
+		CallbackExecutor oldest = new CallbackExecutor(manual, 3,
+				CallbackExecutor.DROP_OLDEST);
+		for(int i = 1; i <= 5; i++)
+			assertTrue(oldest.submit(a, 3, i, new float[]{i}, 1));
+		assertEquals(1, tasks.size());
+		assertEquals(2, oldest.getDroppedCount());
+		runPending();
+		assertEquals("[a:3, a:4, a:5]", processed.toString());
+		processed.clear();
+		CallbackExecutor newest = new CallbackExecutor(manual, 3,
+				CallbackExecutor.DROP_NEWEST);
+		for(int i = 1; i <= 5; i++)
+			assertEquals(i <= 3, newest.submit(a, 3, i, new float[]{i}, 1));
+		assertEquals(2, newest.getDroppedCount());
+		runPending();
+		assertEquals("[a:1, a:2, a:3]", processed.toString());
+		assertEquals(5, newest.getSubmittedCount());
+		assertEquals(3, newest.getExecutedCount());
+		assertEquals(0, newest.getPendingCount());
+	}//dropPoliciesDiscardTheRightEnd
+	
+	/**
+	 * Con <tt>COALESCE</tt> cada lectura reemplaza a la pendiente del mismo
+	 * receptor en su lugar de la cola, aunque la cola no est&eacute; llena;
+	 * y si est&aacute; llena con lecturas de otros, se descarta la m&aacute;s
+	 * antigua.
+	 */
+	@Test
+	public void coalesceKeepsTheLatestPerListener(){
+		SensorSampleListener a = recorder("a");
+		SensorSampleListener b = recorder("b");
+		SensorSampleListener c = recorder("c");
+		CallbackExecutor executor = new CallbackExecutor(manual, 2,
+				CallbackExecutor.COALESCE);
+		executor.submit(a, 3, 1, new float[]{1}, 1);
+		executor.submit(b, 3, 2, new float[]{2}, 1);
+		executor.submit(a, 3, 3, new float[]{3}, 1);
+		executor.submit(a, 3, 4, new float[]{4}, 1);
+		assertEquals(2, executor.getCoalescedCount());
+		assertEquals(2, executor.getPendingCount());
+		executor.submit(c, 3, 5, new float[]{5}, 1);
+		assertEquals(1, executor.getDroppedCount());
+		runPending();
+		assertEquals("[b:2, c:5]", processed.toString());
+		processed.clear();
+		executor.submit(a, 3, 6, new float[]{6}, 1);
+		executor.submit(a, 3, 7, new float[]{7}, 1);
+		runPending();
+		assertEquals("[a:7]", processed.toString());
+		assertEquals(3, executor.getCoalescedCount());
+	}//coalesceKeepsTheLatestPerListener
+	
+	/**
+	 * Con <tt>BLOCK</tt> el hilo del sensor espera mientras la cola
+	 * est&aacute; llena, y no se pierde ninguna lectura.
+	 */
+	@Test(timeout = 10000)
+	public void blockWaitsForSpace() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<String> seen = new ArrayList<String>();
+		final SensorSampleListener slow =
+				new SensorSampleListener(SensorTypes.TYPE_LIGHT){
+			@Override
+			protected void notificate(){}
+			@Override
+			protected void processEvent(int accuracy, long time,
+					float[] values){
+				try{
+					release.await();
+				}catch(InterruptedException e){
+					Thread.currentThread().interrupt();
+				}//espera a que la prueba lo libere
+				synchronized(seen){
+					seen.add(String.valueOf((int)values[0]));
+				}//registra la lectura
+			}//processEvent
+		};
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		final CallbackExecutor executor = new CallbackExecutor(pool, 2,
+				CallbackExecutor.BLOCK);
+		Thread producer = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				for(int i = 1; i <= 6; i++)
+					executor.submit(slow, 3, i, new float[]{i}, 1);
+			}//run
+		});
+		producer.start();
+		long deadline = System.currentTimeMillis() +5000;
+		while(producer.getState() != Thread.State.WAITING &&
+				System.currentTimeMillis() < deadline)
+			Thread.sleep(1);
+		assertEquals(Thread.State.WAITING, producer.getState());
+		assertEquals(2, executor.getPendingCount());
+		release.countDown();
+		producer.join();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals("[1, 2, 3, 4, 5, 6]", seen.toString());
+		assertEquals(0, executor.getDroppedCount());
+	}//blockWaitsForSpace
+	
+	/**
+	 * Con <tt>BLOCK</tt>, una lectura que llega en el hilo del
+	 * <tt>Executor</tt> con la cola llena no espera, pues nunca habr&iacute;a
+	 * espacio: descarta la m&aacute;s antigua.
+	 */
+	@Test(timeout = 10000)
+	public void blockDropsOldestOnTheExecutorThread(){
+		final SensorSampleListener b = recorder("b");
+		Executor direct = new Executor(){
+			@Override
+			public void execute(Runnable task){
+				task.run();
+			}//execute
+		};
+		final CallbackExecutor[] queue = new CallbackExecutor[1];
+		SensorSampleListener a = new SensorSampleListener(SensorTypes.TYPE_LIGHT){
+			@Override
+			protected void notificate(){}
+			@Override
+			protected void processEvent(int accuracy, long time,
+					float[] values){
+				processed.add("a:" +(int)values[0]);
+				for(int i = 1; i <= 3; i++)
+					assertTrue(queue[0].submit(b, 3, i, new float[]{i}, 1));
+			}//processEvent
+		};
+		queue[0] = new CallbackExecutor(direct, 2, CallbackExecutor.BLOCK);
+		queue[0].submit(a, 3, 0, new float[]{0}, 1);
+		assertEquals("[a:0, b:2, b:3]", processed.toString());
+		assertEquals(1, queue[0].getDroppedCount());
+	}//blockDropsOldestOnTheExecutorThread
+	
+	/**
+	 * Con <tt>BLOCK</tt>, si el <tt>Executor</tt> no comienza a vaciar la
+	 * cola en <tt>FIRST_RUN_WAIT</tt>, la lectura no espera m&aacute;s y se
+	 * descarta la m&aacute;s antigua.
+	 */
+	@Test(timeout = 10000)
+	public void blockGivesUpWhenTheExecutorNeverRuns(){
+		SensorSampleListener a = recorder("a");
+		CallbackExecutor executor = new CallbackExecutor(manual, 1,
+				CallbackExecutor.BLOCK);
+		executor.submit(a, 3, 1, new float[]{1}, 1);
+		long start = System.nanoTime();
+		assertTrue(executor.submit(a, 3, 2, new float[]{2}, 1));
+		assertTrue(System.nanoTime() -start >=
+				CallbackExecutor.FIRST_RUN_WAIT /2);
+		assertEquals(1, executor.getDroppedCount());
+		assertFalse(tasks.isEmpty());
+		runPending();
+		assertEquals("[a:2]", processed.toString());
+	}//blockGivesUpWhenTheExecutorNeverRuns
+	
+	// métodos auxiliares
+	
+	/**
+	 * Da un receptor que registra en <tt>processed</tt> las lecturas que
+	 * procesa.
+	 * @param name - El nombre del receptor.
+	 * @return SensorSampleListener - El receptor.
+	 */
+	private SensorSampleListener recorder(final String name){
+		return new SensorSampleListener(SensorTypes.TYPE_LIGHT){
+			@Override
+			protected void notificate(){}
+			@Override
+			protected void processEvent(int accuracy, long time,
+					float[] values){
+				processed.add(name +":" +(int)values[0]);
+			}//processEvent
+		};
+	}//recorder
+	
+	/**
+	 * Ejecuta las tareas guardadas por <tt>manual</tt>.
+	 */
+	private void runPending(){
+		while(!tasks.isEmpty())
+			tasks.remove(0).run();
+	}//runPending
+	
+}//CallbackExecutorTest class
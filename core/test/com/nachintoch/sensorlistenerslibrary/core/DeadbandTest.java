@@ -0,0 +1,120 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Comprueba el filtro que descarta las lecturas sin cambios significativos.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class DeadbandTest {
+
+	// métodos de implementación
+	
+	/**
+	 * S&oacute;lo contin&uacute;an los cambios mayores al umbral absoluto o
+	 * relativo respecto a la &uacute;ltima lectura que continu&oacute;, y se
+	 * cuentan las que pasan y las descartadas.
+	 */
+	@Test
+	public void passesOnlySignificantChanges(){
+		Deadband deadband = new Deadband(2, 0.5f, 0.1f, 0);
+		assertTrue(deadband.process(0, new float[]{10, 0}, 2));
+		// el umbral del primer eje es 10% de 10
+		assertFalse(deadband.process(1, new float[]{10.9f, 0}, 2));
+		assertTrue(deadband.process(2, new float[]{11.1f, 0}, 2));
+		// el umbral del segundo eje es el absoluto
+		assertFalse(deadband.process(3, new float[]{11.1f, 0.4f}, 2));
+		assertTrue(deadband.process(4, new float[]{11.1f, 0.6f}, 2));
+		// un cambio lento termina por pasar
+		assertFalse(deadband.process(5, new float[]{11.1f, 0.9f}, 2));
+		assertTrue(deadband.process(6, new float[]{11.1f, 1.2f}, 2));
+		assertEquals(4, deadband.getPassedCount());
+		assertEquals(3, deadband.getSuppressedCount());
+		deadband.clear();
+		assertTrue(deadband.process(7, new float[]{11.1f, 1.2f}, 2));
+	}//passesOnlySignificantChanges
+	
+	/**
+	 * Una lectura que cambi&oacute; antes del tiempo m&iacute;nimo queda
+	 * pendiente, y <tt>flush(long, float[])</tt> la entrega al vencer el
+	 * tiempo.
+	 */
+	@Test
+	public void flushDeliversAPendingChange(){
+		Deadband deadband = new Deadband(1, 1, 0, 100);
+		float[] out = new float[1];
+		assertTrue(deadband.process(1000, new float[]{0}, 1));
+		assertEquals(-1, deadband.getDeadline());
+		assertFalse(deadband.process(1040, new float[]{5}, 1));
+		assertEquals(1100, deadband.getDeadline());
+		assertEquals(-1, deadband.flush(1099, out));
+		assertEquals(1040, deadband.flush(1100, out));
+		assertEquals(5, out[0], 0);
+		assertEquals(-1, deadband.getDeadline());
+		assertEquals(-1, deadband.flush(2000, out));
+		assertEquals(2, deadband.getPassedCount());
+		assertEquals(1, deadband.getSuppressedCount());
+		// la lectura entregada es la nueva referencia
+		assertFalse(deadband.process(1300, new float[]{5.5f}, 1));
+		assertTrue(deadband.process(1400, new float[]{7}, 1));
+	}//flushDeliversAPendingChange
+	
+	/**
+	 * Si la siguiente lectura ya no se aleja de la &uacute;ltima que
+	 * continu&oacute;, la pendiente se olvida.
+	 */
+	@Test
+	public void unchangedReadingDropsThePendingOne(){
+		Deadband deadband = new Deadband(1, 1, 0, 100);
+		float[] out = new float[1];
+		assertTrue(deadband.process(0, new float[]{0}, 1));
+		assertFalse(deadband.process(30, new float[]{5}, 1));
+		assertFalse(deadband.process(60, new float[]{0.5f}, 1));
+		assertEquals(-1, deadband.getDeadline());
+		assertEquals(-1, deadband.flush(500, out));
+		assertEquals(1, deadband.getPassedCount());
+		assertEquals(2, deadband.getSuppressedCount());
+	}//unchangedReadingDropsThePendingOne
+	
+	/**
+	 * Si la siguiente lectura llega despu&eacute;s del tiempo y a&uacute;n
+	 * cambi&oacute;, es &eacute;sta la que contin&uacute;a en lugar de la
+	 * pendiente.
+	 */
+	@Test
+	public void laterChangedReadingReplacesThePendingOne(){
+		Deadband deadband = new Deadband(1, 1, 0, 100);
+		float[] out = new float[1];
+		assertTrue(deadband.process(0, new float[]{0}, 1));
+		assertFalse(deadband.process(30, new float[]{5}, 1));
+		assertFalse(deadband.process(60, new float[]{6}, 1));
+		assertTrue(deadband.process(120, new float[]{7}, 1));
+		assertEquals(-1, deadband.getDeadline());
+		assertEquals(-1, deadband.flush(500, out));
+		assertEquals(2, deadband.getPassedCount());
+		assertEquals(2, deadband.getSuppressedCount());
+	}//laterChangedReadingReplacesThePendingOne
+	
+}//DeadbandTest class
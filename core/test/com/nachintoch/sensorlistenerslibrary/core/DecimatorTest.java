@@ -0,0 +1,88 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Comprueba la reducci&oacute;n de frecuencia con filtro antialias.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class DecimatorTest {
+
+	// métodos de implementación
+	
+	/**
+	 * De cada <tt>RATIO</tt> lecturas contin&uacute;a una, y los valores
+	 * constantes pasan sin cambio.
+	 */
+	@Test
+	public void keepsOneOfRatioAndPassesConstants(){
+		Decimator decimator = new Decimator(3, 4);
+		float[] values = new float[3];
+		int passed = 0;
+		for(int i = 0; i < 400; i++){
+			values[0] = 1;
+			values[1] = -2;
+			values[2] = 9.81f;
+			if(decimator.process(i, values, 3)){
+				passed++;
+				assertEquals(1, values[0], 1e-4f);
+				assertEquals(-2, values[1], 1e-4f);
+				assertEquals(9.81f, values[2], 1e-4f);
+			}//si la lectura continuó
+		}//procesa las lecturas
+		assertEquals(100, passed);
+	}//keepsOneOfRatioAndPassesConstants
+	
+	/**
+	 * Una frecuencia que ya no cabe en la frecuencia reducida se
+	 * aten&uacute;a, mientras que una frecuencia baja se conserva.
+	 */
+	@Test
+	public void attenuatesFrequenciesAboveTheReducedNyquist(){
+		assertTrue(amplitude(0.02) > 0.9);
+		assertTrue(amplitude(0.2) < 0.1);
+	}//attenuatesFrequenciesAboveTheReducedNyquist
+	
+	// métodos auxiliares
+	
+	/**
+	 * Reduce por 4 un seno de amplitud 1 y mide la amplitud de las lecturas
+	 * que contin&uacute;an, despu&eacute;s de que el filtro se asienta.
+	 * @param frequency - La frecuencia del seno en ciclos por lectura
+	 * original; la frecuencia reducida corta en 0.125.
+	 * @return double - La amplitud m&aacute;xima a la salida.
+	 */
+	private static double amplitude(double frequency){
+		Decimator decimator = new Decimator(1, 4);
+		float[] value = new float[1];
+		double peak = 0;
+		for(int i = 0; i < 4000; i++){
+			value[0] = (float)Math.sin(2 *Math.PI *frequency *i);
+			if(decimator.process(i, value, 1) && i > 400)
+				peak = Math.max(peak, Math.abs(value[0]));
+		}//procesa las lecturas
+		return peak;
+	}//amplitude
+	
+}//DecimatorTest class
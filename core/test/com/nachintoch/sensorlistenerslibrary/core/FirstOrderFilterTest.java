@@ -0,0 +1,145 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Comprueba los filtros de primer orden pasa bajas y pasa altas.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class FirstOrderFilterTest {
+
+	// atributos de clase
+	
+	/**
+	 * Frecuencia de corte de las pruebas, en hertz.
+	 */
+	private static final float CUTOFF = 1;
+	
+	// métodos de implementación
+	
+	/**
+	 * El pasa bajas m&aacute;s el pasa altas con la misma frecuencia de
+	 * corte reconstruyen la lectura, aun con intervalos irregulares.
+	 */
+	@Test
+	public void lowPlusHighReconstructsTheInput(){
+		FirstOrderFilter low = new FirstOrderFilter(2, CUTOFF, false);
+		FirstOrderFilter high = new FirstOrderFilter(2, CUTOFF, true);
+		float[] a = new float[2], b = new float[2];
+		long time = 0;
+		for(int i = 0; i < 2000; i++){
+			time += 3000000L +(i %7) *1000000L;
+			double t = time *1e-9;
+			float x = (float)(9.81 +Math.sin(2 *Math.PI *3 *t));
+			float y = (float)(Math.cos(2 *Math.PI *0.2 *t) +(i %2));
+			a[0] = b[0] = x;
+			a[1] = b[1] = y;
+			low.process(time, a, 2);
+			high.process(time, b, 2);
+			assertEquals(x, a[0] +b[0], 1e-5f);
+			assertEquals(y, a[1] +b[1], 1e-5f);
+		}//filtra cada lectura
+	}//lowPlusHighReconstructsTheInput
+	
+	/**
+	 * Ante un escal&oacute;n, el pasa bajas llega a <tt>1 - 1/e</tt> tras la
+	 * constante de tiempo <tt>1 / (2 pi fc)</tt>, y el pasa altas baja a
+	 * <tt>1/e</tt>; sin importar la frecuencia de las lecturas.
+	 */
+	@Test
+	public void stepResponseFollowsTheTimeConstant(){
+		double rc = 1 /(2 *Math.PI *CUTOFF);
+		long[] periods = {1000000L, 10000000L};
+		for(long period : periods){
+			FirstOrderFilter low = new FirstOrderFilter(1, CUTOFF, false);
+			FirstOrderFilter high = new FirstOrderFilter(1, CUTOFF, true);
+			float[] a = {0}, b = {0};
+			low.process(0, a, 1);
+			high.process(0, b, 1);
+			long steps = Math.round(rc *1e9 /period);
+			for(long i = 1; i <= steps; i++){
+				a[0] = b[0] = 1;
+				low.process(i *period, a, 1);
+				high.process(i *period, b, 1);
+			}//entrega el escalón
+			assertEquals(1 -Math.exp(-1), a[0], 0.02);
+			assertEquals(Math.exp(-1), b[0], 0.02);
+		}//revisa cada frecuencia de lecturas
+		assertEquals(CUTOFF, new FirstOrderFilter(1, CUTOFF, false).getCutoff(),
+				1e-6f);
+	}//stepResponseFollowsTheTimeConstant
+	
+	/**
+	 * Una senoidal a la frecuencia de corte sale de ambos filtros con
+	 * amplitud <tt>1 / sqrt(2)</tt>.
+	 */
+	@Test
+	public void gainAtTheCutoffIsHalfPower(){
+		FirstOrderFilter low = new FirstOrderFilter(1, CUTOFF, false);
+		FirstOrderFilter high = new FirstOrderFilter(1, CUTOFF, true);
+		float[] a = new float[1], b = new float[1];
+		float lowPeak = 0, highPeak = 0;
+		for(int i = 0; i <= 10000; i++){
+			a[0] = b[0] = (float)Math.sin(2 *Math.PI *CUTOFF *i *1e-3);
+			low.process(i *1000000L, a, 1);
+			high.process(i *1000000L, b, 1);
+			if(i >= 5000){
+				lowPeak = Math.max(lowPeak, Math.abs(a[0]));
+				highPeak = Math.max(highPeak, Math.abs(b[0]));
+			}//mide después de estabilizarse
+		}//filtra diez periodos
+		assertEquals(Math.sqrt(0.5), lowPeak, 0.01);
+		assertEquals(Math.sqrt(0.5), highPeak, 0.01);
+	}//gainAtTheCutoffIsHalfPower
+	
+	/**
+	 * Despu&eacute;s de una pausa mayor a <tt>MAX_GAP</tt>, o de
+	 * <tt>clear()</tt>, la siguiente lectura inicia el filtro con sus propios
+	 * valores.
+	 */
+	@Test
+	public void restartsAfterMaxGap(){
+		FirstOrderFilter low = new FirstOrderFilter(1, CUTOFF, false);
+		FirstOrderFilter high = new FirstOrderFilter(1, CUTOFF, true);
+		float[] a = {0}, b = {0};
+		low.process(0, a, 1);
+		high.process(0, b, 1);
+		long time = FirstOrderFilter.MAX_GAP;
+		a[0] = b[0] = 5;
+		low.process(time, a, 1);
+		high.process(time, b, 1);
+		// una pausa igual a MAX_GAP todavía se filtra
+		assertEquals(5 *(1 -1 /(1 +2 *Math.PI)), a[0], 1e-4);
+		time += FirstOrderFilter.MAX_GAP +1;
+		a[0] = b[0] = 7;
+		low.process(time, a, 1);
+		high.process(time, b, 1);
+		assertEquals(7, a[0], 0);
+		assertEquals(0, b[0], 0);
+		low.clear();
+		a[0] = -3;
+		low.process(time +1000000L, a, 1);
+		assertEquals(-3, a[0], 0);
+	}//restartsAfterMaxGap
+	
+}//FirstOrderFilterTest class
@@ -0,0 +1,163 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Comprueba la estimaci&oacute;n del sesgo del giroscopio.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class GyroscopeBiasTest {
+
+	// atributos de clase
+	
+	/**
+	 * El sesgo de las lecturas sint&eacute;ticas.
+	 */
+	private static final float[] BIAS = {0.01f, -0.02f, 0.03f};
+	
+	/**
+	 * Periodo de las lecturas sint&eacute;ticas: 100 Hz.
+	 */
+	private static final long PERIOD = 10000000L;
+	
+	// métodos de implementación
+	
+	/**
+	 * Con el dispositivo quieto el sesgo converge al promedio de las
+	 * lecturas, y se resta de ellas.
+	 */
+	@Test
+	public void convergesToTheMeanWhenStill(){
+		GyroscopeBias estimator = new GyroscopeBias(10);
+		float[] values = new float[3];
+		for(int i = 0; i < 1000; i++)
+			feed(estimator, i, 0.001f, values);
+		assertTrue(estimator.isStationary());
+		assertEquals(991, estimator.getStationaryCount());
+		float[] bias = new float[3];
+		estimator.readBias(bias);
+		assertArrayEquals(BIAS, bias, 1e-4f);
+		// la última lectura corregida sólo tiene el ruido
+		for(int i = 0; i < 3; i++)
+			assertEquals(0, values[i], 0.0012f);
+	}//convergesToTheMeanWhenStill
+	
+	/**
+	 * Si la varianza supera el umbral, o el promedio supera el sesgo
+	 * m&aacute;ximo, el dispositivo no est&aacute; quieto y el sesgo no
+	 * cambia.
+	 */
+	@Test
+	public void ignoresMotionAndSlowTurns(){
+		GyroscopeBias estimator = new GyroscopeBias(10);
+		float[] values = new float[3];
+		for(int i = 0; i < 200; i++)
+			feed(estimator, i, 0.05f, values);
+		assertFalse(estimator.isStationary());
+		assertEquals(0, estimator.getStationaryCount());
+		estimator.setThresholds(GyroscopeBias.DEFAULT_GYROSCOPE_VARIANCE,
+				GyroscopeBias.DEFAULT_ACCELEROMETER_VARIANCE, 0.025f);
+		for(int i = 200; i < 400; i++)
+			feed(estimator, i, 0, values);
+		assertFalse(estimator.isStationary());
+		assertEquals(0, estimator.getStationaryCount());
+		float[] bias = new float[3];
+		estimator.readBias(bias);
+		assertArrayEquals(new float[3], bias, 0);
+	}//ignoresMotionAndSlowTurns
+	
+	/**
+	 * Con las estad&iacute;sticas del aceler&oacute;metro, el sesgo
+	 * s&oacute;lo cambia si &eacute;ste tambi&eacute;n est&aacute; quieto y
+	 * sus estad&iacute;sticas no tienen m&aacute;s de
+	 * <tt>MAX_ACCELEROMETER_AGE</tt>.
+	 */
+	@Test
+	public void requiresFreshStillAccelerometer(){
+		GyroscopeBias estimator = new GyroscopeBias(10);
+		SlidingStatistics accelerometer = new SlidingStatistics(5, 3);
+		estimator.setAccelerometerStatistics(accelerometer);
+		float[] values = new float[3];
+		float[] gravity = {0, 0, 9.81f};
+		for(int i = 0; i < 5; i++)
+			accelerometer.process(0, gravity, 3);
+		// las estadísticas del acelerómetro son de hace más de medio segundo
+		for(int i = 100; i < 200; i++)
+			feed(estimator, i, 0, values);
+		assertEquals(0, estimator.getStationaryCount());
+		for(int i = 200; i < 300; i++){
+			float shake = i %2 == 0 ? 1 : -1;
+			accelerometer.process(i *PERIOD, new float[]{shake, 0, 9.81f}, 3);
+			feed(estimator, i, 0, values);
+		}//el acelerómetro se mueve
+		assertEquals(0, estimator.getStationaryCount());
+		for(int i = 300; i < 400; i++){
+			accelerometer.process(i *PERIOD, gravity, 3);
+			feed(estimator, i, 0, values);
+		}//el acelerómetro está quieto
+		assertTrue(estimator.isStationary());
+		assertEquals(96, estimator.getStationaryCount());
+	}//requiresFreshStillAccelerometer
+	
+	/**
+	 * El sesgo asignado se resta de cada lectura aunque el dispositivo se
+	 * mueva; las lecturas con menos de tres valores no se tocan.
+	 */
+	@Test
+	public void subtractsTheBias(){
+		GyroscopeBias estimator = new GyroscopeBias(10);
+		estimator.setBias(1, 2, 3);
+		float[] values = {5, 5, 5};
+		estimator.process(0, values, 3);
+		assertArrayEquals(new float[]{4, 3, 2}, values, 0);
+		values = new float[]{5, 5};
+		estimator.process(1, values, 2);
+		assertArrayEquals(new float[]{5, 5}, values, 0);
+		estimator.clear();
+		float[] bias = new float[3];
+		estimator.readBias(bias);
+		assertArrayEquals(new float[3], bias, 0);
+	}//subtractsTheBias
+	
+	// métodos auxiliares
+	
+	/**
+	 * Entrega una lectura sint&eacute;tica: el sesgo m&aacute;s un ruido que
+	 * alterna de signo.
+	 * @param estimator - El estimador.
+	 * @param i - El n&uacute;mero de la lectura.
+	 * @param noise - La amplitud del ruido.
+	 * @param values - Donde se escribe la lectura; queda corregida.
+	 */
+	private static void feed(GyroscopeBias estimator, int i, float noise,
+			float[] values){
+		float sign = i %2 == 0 ? 1 : -1;
+		for(int a = 0; a < 3; a++)
+			values[a] = BIAS[a] +sign *noise;
+		estimator.process(i *PERIOD, values, 3);
+	}//feed
+	
+}//GyroscopeBiasTest class
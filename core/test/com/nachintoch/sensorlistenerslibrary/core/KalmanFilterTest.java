@@ -0,0 +1,83 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Comprueba el filtro de Kalman contra el caso escalar, que tiene
+ * soluci&oacute;n cerrada.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class KalmanFilterTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Sin ruido del proceso, con estado inicial 0 de varianza <tt>p</tt> y
+	 * mediciones de varianza <tt>r</tt>, tras <tt>n</tt> mediciones el
+	 * estimado es su promedio ponderado con el estado inicial,
+	 * <tt>p (z1 + ... + zn) / (r + n p)</tt>, y su varianza
+	 * <tt>p r / (r + n p)</tt>.
+	 */
+	@Test
+	public void scalarFilterMatchesClosedForm(){
+		double p = 4, r = 0.5;
+		KalmanFilter filter = new KalmanFilter(1, 1);
+		filter.getObservation()[0] = 1;
+		filter.getMeasurementNoise()[0] = r;
+		filter.reset(p);
+		float[] measurement = new float[1];
+		double sum = 0;
+		for(int n = 1; n <= 50; n++){
+			measurement[0] = (float)(3 +Math.sin(n *1.7));
+			sum += measurement[0];
+			filter.predict();
+			assertTrue(filter.update(measurement));
+			assertEquals(p *sum /(r +n *p), filter.getState()[0], 1e-9);
+			assertEquals(p *r /(r +n *p), filter.getCovariance()[0], 1e-12);
+		}//procesa las mediciones
+	}//scalarFilterMatchesClosedForm
+	
+	/**
+	 * Con ruido del proceso la varianza converge a la soluci&oacute;n de la
+	 * ecuaci&oacute;n de Riccati escalar: la varianza predicha
+	 * <tt>P = (q + sqrt(q&sup2; + 4 q r)) / 2</tt>.
+	 */
+	@Test
+	public void scalarCovarianceConvergesToRiccati(){
+		double q = 0.1, r = 2;
+		KalmanFilter filter = new KalmanFilter(1, 1);
+		filter.getObservation()[0] = 1;
+		filter.getProcessNoise()[0] = q;
+		filter.getMeasurementNoise()[0] = r;
+		float[] measurement = new float[1];
+		for(int n = 0; n < 500; n++){
+			filter.predict();
+			filter.update(measurement);
+		}//procesa las mediciones
+		double predicted = (q +Math.sqrt(q *q +4 *q *r)) /2;
+		assertEquals(predicted *r /(predicted +r), filter.getCovariance()[0],
+				1e-9);
+	}//scalarCovarianceConvergesToRiccati
+	
+}//KalmanFilterTest class
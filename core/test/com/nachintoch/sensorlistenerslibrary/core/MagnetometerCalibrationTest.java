@@ -0,0 +1,80 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Comprueba la calibraci&oacute;n del magnet&oacute;metro con lecturas
+ * sint&eacute;ticas sobre un elipsoide conocido.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class MagnetometerCalibrationTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Las lecturas de un campo de 45 microteslas, desplazadas y estiradas
+	 * distinto en cada eje, recuperan el desplazamiento y las proporciones de
+	 * la escala; y las lecturas corregidas quedan sobre una esfera.
+	 */
+	@Test
+	public void recoversOffsetAndScaleOfAnEllipsoid(){
+		float[] center = {12, -7, 25};
+		float[] stretch = {1.2f, 0.9f, 1.05f};
+		MagnetometerCalibration calibration = new MagnetometerCalibration();
+		Random random = new Random(3);
+		float[] values = new float[3];
+		for(int i = 0; i < 3000; i++){
+			double z = 2 *random.nextDouble() -1;
+			double angle = 2 *Math.PI *random.nextDouble();
+			double ring = Math.sqrt(1 -z *z);
+			double[] direction = {ring *Math.cos(angle), ring *Math.sin(angle),
+					z};
+			for(int axis = 0; axis < 3; axis++)
+				values[axis] = (float)(center[axis] +45 *stretch[axis]
+						*direction[axis] +0.05 *random.nextGaussian());
+			calibration.process(i, values, 3);
+		}//procesa las lecturas
+		assertTrue(calibration.isCalibrated());
+		assertEquals(1, calibration.getCoverage(), 0);
+		assertTrue(calibration.getResidual() < 0.01f);
+		assertTrue(calibration.getQuality() > 0.9f);
+		float[] offset = new float[3];
+		float[] scale = new float[3];
+		float radius = calibration.readCalibration(offset, scale);
+		for(int axis = 0; axis < 3; axis++){
+			assertEquals(center[axis], offset[axis], 0.5f);
+			assertEquals(radius, 45 *stretch[axis] *scale[axis], 0.5f);
+		}//revisa cada eje
+		values[0] = center[0] +45 *stretch[0];
+		values[1] = center[1];
+		values[2] = center[2];
+		calibration.process(3000, values, 3);
+		assertEquals(radius, values[0], 0.5f);
+		assertEquals(0, values[1], 0.5f);
+		assertEquals(0, values[2], 0.5f);
+	}//recoversOffsetAndScaleOfAnEllipsoid
+	
+}//MagnetometerCalibrationTest class
@@ -0,0 +1,170 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Fija el azimut, la inclinaci&oacute;n y el giro que estiman los filtros de
+ * orientaci&oacute;n para vectores de gravedad y campo magn&eacute;tico
+ * conocidos; con las convenciones de <tt>SensorManager.getOrientation</tt>.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class OrientationFilterTest {
+
+	// atributos de clase
+	
+	/**
+	 * Los casos de prueba: la direcci&oacute;n hacia arriba y hacia el norte
+	 * en los ejes del dispositivo, y el azimut, la inclinaci&oacute;n y el
+	 * giro esperados en grados.
+	 */
+	private static final float[][] CASES = {
+		// plano, con el borde superior hacia el norte
+		{0, 0, 1, 0, 1, 0, 0, 0, 0},
+		// plano, hacia el este
+		{0, 0, 1, -1, 0, 0, 90, 0, 0},
+		// plano, hacia el suroeste
+		{0, 0, 1, 0.70710678f, -0.70710678f, 0, -135, 0, 0},
+		// borde superior levantado 30 grados
+		{0, 0.5f, 0.8660254f, 0, 0.8660254f, -0.5f, 0, -30, 0},
+		// borde derecho levantado 30 grados
+		{0.5f, 0, 0.8660254f, 0, 1, 0, 0, 0, -30},
+		// ambos bordes levantados, con el este perpendicular al eje y
+		{0.5f, 0.4330127f, 0.75f, -0.2401922f, 0.9013878f, -0.3602883f, 0,
+				-25.658906f, -33.690068f},
+	};
+	
+	/**
+	 * Tolerancia de los &aacute;ngulos en radianes.
+	 */
+	private static final float TOLERANCE = 1e-3f;
+	
+	// métodos de implementación
+	
+	/**
+	 * El filtro complementario se inicia con la orientaci&oacute;n de la
+	 * gravedad y el campo magn&eacute;tico.
+	 */
+	@Test
+	public void complementaryStartsAtKnownOrientations(){
+		for(float[] c : CASES)
+			checkInitial(new ComplementaryFilter(), c);
+	}//complementaryStartsAtKnownOrientations
+	
+	/**
+	 * El filtro de Madgwick se inicia con la orientaci&oacute;n de la
+	 * gravedad y el campo magn&eacute;tico.
+	 */
+	@Test
+	public void madgwickStartsAtKnownOrientations(){
+		for(float[] c : CASES)
+			checkInitial(new MadgwickFilter(), c);
+	}//madgwickStartsAtKnownOrientations
+	
+	/**
+	 * Con el giroscopio quieto, los dos filtros corrigen la orientaci&oacute;n
+	 * hacia la de nuevas lecturas del aceler&oacute;metro y del
+	 * magnet&oacute;metro, sin quedarse con la inicial. El de Madgwick
+	 * tarda en salir de un cambio de rumbo de 90&deg;, pues al inicio su
+	 * gradiente es peque&ntilde;o; por eso se le da un minuto de lecturas.
+	 */
+	@Test
+	public void filtersConvergeToNewReadings(){
+		OrientationFilter[] filters = {new ComplementaryFilter(),
+				new MadgwickFilter()};
+		for(OrientationFilter filter : filters){
+			for(int c = 1; c < CASES.length; c++){
+				filter.reset();
+				setReadings(filter, CASES[0]);
+				assertTrue(filter.updateGyroscope(0, 0, 0, 0));
+				setReadings(filter, CASES[c]);
+				for(int i = 1; i <= 6000; i++)
+					filter.updateGyroscope(i *10000000L, 0, 0, 0);
+				checkOrientation(filter, CASES[c], 0.01f);
+			}//gira a cada caso
+		}//revisa cada filtro
+	}//filtersConvergeToNewReadings
+	
+	/**
+	 * Sin aceler&oacute;metro ni magnet&oacute;metro los filtros s&oacute;lo
+	 * integran el giroscopio: girar a 1 rad/s alrededor de z durante medio
+	 * segundo reduce el azimut medio radi&aacute;n.
+	 */
+	@Test
+	public void filtersIntegrateTheGyroscope(){
+		OrientationFilter[] filters = {new ComplementaryFilter(),
+				new MadgwickFilter()};
+		for(OrientationFilter filter : filters){
+			assertFalse(filter.updateGyroscope(0, 0, 0, 1));
+			for(int i = 1; i <= 50; i++)
+				assertTrue(filter.updateGyroscope(i *10000000L, 0, 0, 1));
+			checkOrientation(filter, new float[]{0, 0, 0, 0, 0, 0,
+					(float)Math.toDegrees(-0.5), 0, 0}, TOLERANCE);
+			assertEquals(50, filter.getVersion());
+		}//revisa cada filtro
+	}//filtersIntegrateTheGyroscope
+	
+	// métodos auxiliares
+	
+	/**
+	 * Inicia un filtro con las lecturas de un caso y comprueba su
+	 * orientaci&oacute;n.
+	 * @param filter - El filtro.
+	 * @param c - El caso.
+	 */
+	private static void checkInitial(OrientationFilter filter, float[] c){
+		setReadings(filter, c);
+		assertTrue(filter.updateGyroscope(1000, 0, 0, 0));
+		checkOrientation(filter, c, TOLERANCE);
+	}//checkInitial
+	
+	/**
+	 * Entrega al filtro las lecturas de un caso: la gravedad de 9.81 hacia
+	 * arriba y un campo de 22 microteslas hacia el norte y 40 hacia abajo.
+	 * @param filter - El filtro.
+	 * @param c - El caso.
+	 */
+	private static void setReadings(OrientationFilter filter, float[] c){
+		filter.setAccelerometer(9.81f *c[0], 9.81f *c[1], 9.81f *c[2]);
+		filter.setMagnetometer(22 *c[3] -40 *c[0], 22 *c[4] -40 *c[1],
+				22 *c[5] -40 *c[2]);
+	}//setReadings
+	
+	/**
+	 * Comprueba la orientaci&oacute;n de un filtro.
+	 * @param filter - El filtro.
+	 * @param c - El caso, con los &aacute;ngulos esperados en grados.
+	 * @param tolerance - La tolerancia en radianes.
+	 */
+	private static void checkOrientation(OrientationFilter filter, float[] c,
+			float tolerance){
+		float[] orientation = new float[3];
+		filter.readOrientation(orientation);
+		String name = filter.getClass().getSimpleName();
+		for(int i = 0; i < 3; i++)
+			assertEquals(name, Math.toRadians(c[6 +i]), orientation[i],
+					tolerance);
+	}//checkOrientation
+	
+}//OrientationFilterTest class
@@ -0,0 +1,164 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Comprueba la entrega de lecturas a frecuencia fija.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class ResamplerTest {
+
+	// atributos de clase
+	
+	// lo que recibe la etapa: instantes, primer valor y huecos
+	private final List<Long> ticks = new ArrayList<Long>();
+	private final List<Float> values = new ArrayList<Float>();
+	private final List<long[]> gaps = new ArrayList<long[]>();
+	
+	/**
+	 * Guarda lo que entrega la etapa.
+	 */
+	private final Resampler.Receiver receiver = new Resampler.Receiver(){
+		
+		@Override
+		public void onResample(long timestamp, float[] output, int count){
+			ticks.add(timestamp);
+			values.add(output[0]);
+		}//onResample
+		
+		@Override
+		public void onGap(long from, long to){
+			gaps.add(new long[]{from, to});
+		}//onGap
+		
+	};
+	
+	// métodos de implementación
+	
+	/**
+	 * Lecturas a intervalos irregulares de una rampa se entregan en cada
+	 * m&uacute;ltiplo del periodo con el valor de la rampa en ese instante;
+	 * las lecturas tard&iacute;as se descartan.
+	 */
+	@Test
+	public void emitsAtFixedRateFromIrregularInput(){
+		Resampler resampler = new Resampler(receiver, 1, 10, 100);
+		long[] times = {3, 17, 21, 38, 37, 60};
+		for(long time : times)
+			resampler.process(time, new float[]{time}, 1);
+		assertEquals(6, ticks.size());
+		for(int i = 0; i < ticks.size(); i++){
+			assertEquals(10 *(i +1), ticks.get(i).longValue());
+			assertEquals(10 *(i +1), values.get(i), 1e-4f);
+		}//revisa cada instante
+		assertEquals(6, resampler.getEmittedCount());
+		assertEquals(1, resampler.getLateCount());
+		assertEquals(0, resampler.getGapCount());
+	}//emitsAtFixedRateFromIrregularInput
+	
+	/**
+	 * Si entre dos lecturas pasan m&aacute;s de <tt>MAX_GAP</tt>
+	 * nanosegundos se avisa del hueco, no se entregan los instantes entre
+	 * ellas y se contin&uacute;a despu&eacute;s de &eacute;l.
+	 */
+	@Test
+	public void reportsGapsPastTheLimit(){
+		Resampler resampler = new Resampler(receiver, 1, 10, 30);
+		resampler.process(5, new float[]{5}, 1);
+		resampler.process(12, new float[]{12}, 1);
+		resampler.process(42, new float[]{42}, 1);
+		resampler.process(85, new float[]{85}, 1);
+		resampler.process(95, new float[]{95}, 1);
+		assertEquals(1, resampler.getGapCount());
+		assertEquals(1, gaps.size());
+		assertEquals(42, gaps.get(0)[0]);
+		assertEquals(85, gaps.get(0)[1]);
+		long[] expected = {10, 20, 30, 40, 90};
+		assertEquals(expected.length, ticks.size());
+		for(int i = 0; i < expected.length; i++){
+			assertEquals(expected[i], ticks.get(i).longValue());
+			assertEquals(expected[i], values.get(i), 1e-4f);
+		}//revisa cada instante
+	}//reportsGapsPastTheLimit
+	
+	/**
+	 * La primera lectura, y la primera despu&eacute;s de <tt>clear()</tt>,
+	 * s&oacute;lo se entrega si cae en un instante; el siguiente instante es
+	 * el primer m&uacute;ltiplo del periodo que no es anterior a ella.
+	 */
+	@Test
+	public void restartsAfterClear(){
+		Resampler resampler = new Resampler(receiver, 1, 10, 100);
+		resampler.process(20, new float[]{7}, 1);
+		assertEquals(1, ticks.size());
+		assertEquals(20, ticks.get(0).longValue());
+		assertEquals(7, values.get(0), 0);
+		resampler.clear();
+		// tras limpiar, una lectura anterior ya no es tardía
+		resampler.process(13, new float[]{13}, 1);
+		assertEquals(1, ticks.size());
+		resampler.process(31, new float[]{31}, 1);
+		assertEquals(3, ticks.size());
+		assertEquals(20, ticks.get(1).longValue());
+		assertEquals(20, values.get(1), 1e-4f);
+		assertEquals(30, ticks.get(2).longValue());
+		assertEquals(0, resampler.getLateCount());
+		assertEquals(0, resampler.getGapCount());
+	}//restartsAfterClear
+	
+	/**
+	 * Los vectores de rotaci&oacute;n se interpolan esf&eacute;ricamente:
+	 * a dos tercios de un giro de 90&deg; alrededor de z se entrega el giro
+	 * de 60&deg;, tambi&eacute;n si las lecturas no traen el cuarto
+	 * componente.
+	 */
+	@Test
+	public void interpolatesRotationsSpherically(){
+		final float[] last = new float[4];
+		Resampler.Receiver capture = new Resampler.Receiver(){
+			
+			@Override
+			public void onResample(long timestamp, float[] output, int count){
+				System.arraycopy(output, 0, last, 0, count);
+			}//onResample
+			
+			@Override
+			public void onGap(long from, long to){}
+			
+		};
+		float half = (float)Math.sin(Math.PI /4);
+		Resampler resampler = new Resampler(capture, 4, 10, 100, true);
+		resampler.process(4, new float[]{0, 0, 0, 1}, 4);
+		resampler.process(13, new float[]{0, 0, half, half}, 4);
+		assertEquals((float)Math.sin(Math.PI /6), last[2], 1e-5f);
+		assertEquals((float)Math.cos(Math.PI /6), last[3], 1e-5f);
+		resampler = new Resampler(capture, 3, 10, 100, true);
+		resampler.process(4, new float[]{0, 0, 0}, 3);
+		resampler.process(13, new float[]{0, 0, half}, 3);
+		assertEquals((float)Math.sin(Math.PI /6), last[2], 1e-5f);
+	}//interpolatesRotationsSpherically
+	
+}//ResamplerTest class
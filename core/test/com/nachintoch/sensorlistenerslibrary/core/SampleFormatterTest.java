@@ -0,0 +1,174 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Comprueba el texto que arma <tt>SampleFormatter</tt>.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SampleFormatterTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Los flotantes se escriben con el n&uacute;mero fijo de decimales,
+	 * rellenando con ceros.
+	 */
+	@Test
+	public void writesFixedPrecision(){
+		assertEquals("1.500", format(3, 1.5f));
+		assertEquals("0.000", format(3, 0f));
+		assertEquals("0.050", format(3, 0.05f));
+		assertEquals("123.25", format(2, 123.25f));
+		assertEquals("7", format(0, 7f));
+		assertEquals("0.000001000", format(9, 0.000001f));
+	}//writesFixedPrecision
+	
+	/**
+	 * Los negativos llevan signo, salvo los que se redondean a cero.
+	 */
+	@Test
+	public void writesNegatives(){
+		assertEquals("-1.500", format(3, -1.5f));
+		assertEquals("-0.250", format(3, -0.25f));
+		assertEquals("0.000", format(3, -0.0004f));
+		assertEquals("0.000", format(3, -0f));
+		assertEquals("-0.001", format(3, -0.0006f));
+	}//writesNegatives
+	
+	/**
+	 * El redondeo que alcanza la parte entera la incrementa.
+	 */
+	@Test
+	public void carriesRoundingIntoTheIntegerPart(){
+		assertEquals("10.000", format(3, 9.9996f));
+		assertEquals("1.000", format(3, 0.99999f));
+		assertEquals("-100.0", format(1, -99.96f));
+		assertEquals("2", format(0, 1.5f));
+		assertEquals("-2", format(0, -1.5f));
+	}//carriesRoundingIntoTheIntegerPart
+	
+	/**
+	 * Los valores no num&eacute;ricos, infinitos o muy grandes se escriben
+	 * como lo hace <tt>Float.toString(float)</tt>.
+	 */
+	@Test
+	public void writesSpecialValuesLikeFloatToString(){
+		assertEquals("NaN", format(3, Float.NaN));
+		assertEquals("Infinity", format(3, Float.POSITIVE_INFINITY));
+		assertEquals("-Infinity", format(3, Float.NEGATIVE_INFINITY));
+		assertEquals(Float.toString(3e12f), format(3, 3e12f));
+		assertEquals(Float.toString(-Float.MAX_VALUE),
+				format(3, -Float.MAX_VALUE));
+		assertEquals("999999.000", format(3, 999999f));
+	}//writesSpecialValuesLikeFloatToString
+	
+	/**
+	 * Los enteros se escriben completos, incluyendo <tt>Long.MIN_VALUE</tt>.
+	 */
+	@Test
+	public void writesLongs(){
+		SampleFormatter formatter = new SampleFormatter();
+		formatter.append(0L).append(' ').append(-42L).append(' ')
+				.append(Long.MAX_VALUE).append(' ').append(Long.MIN_VALUE);
+		assertEquals("0 -42 9223372036854775807 -9223372036854775808",
+				formatter.toString());
+	}//writesLongs
+	
+	/**
+	 * <tt>commit()</tt> s&oacute;lo cambia el texto confirmado si es
+	 * distinto, y el arreglo entregado no se modifica mientras no cambie.
+	 */
+	@Test
+	public void commitSwapsOnlyOnChange(){
+		SampleFormatter formatter = new SampleFormatter();
+		assertTrue(formatter.append("x=").append(1.5f).commit());
+		char[] shown = formatter.getCommitted();
+		assertEquals("x=1.500", committed(formatter));
+		assertEquals(0, formatter.length());
+		assertFalse(formatter.append("x=").append(1.5f).commit());
+		assertSame(shown, formatter.getCommitted());
+		formatter.append("x=").append(2.5f);
+		assertEquals("x=1.500", new String(shown, 0, 7));
+		assertTrue(formatter.commit());
+		assertEquals("x=2.500", committed(formatter));
+	}//commitSwapsOnlyOnChange
+	
+	/**
+	 * El arreglo crece para textos largos sin perder lo escrito.
+	 */
+	@Test
+	public void growsForLongText(){
+		SampleFormatter formatter = new SampleFormatter(0);
+		StringBuilder expected = new StringBuilder();
+		for(int i = 0; i < 100; i++){
+			formatter.append((float)i).append(',');
+			expected.append(i).append(',');
+		}//escribe más de lo que cabe al inicio
+		assertEquals(expected.toString(), formatter.toString());
+		assertTrue(formatter.commit());
+		assertEquals(expected.toString(), committed(formatter));
+	}//growsForLongText
+	
+	/**
+	 * Los decimales fuera de rango se rechazan.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsPrecisionAboveMax(){
+		new SampleFormatter(SampleFormatter.MAX_PRECISION +1);
+	}//rejectsPrecisionAboveMax
+	
+	/**
+	 * Los decimales negativos se rechazan.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNegativePrecision(){
+		new SampleFormatter().setPrecision(-1);
+	}//rejectsNegativePrecision
+	
+	// métodos auxiliares
+	
+	/**
+	 * Escribe un flotante con los decimales dados.
+	 * @param precision - El n&uacute;mero de decimales.
+	 * @param value - El flotante.
+	 * @return String - El texto escrito.
+	 */
+	private static String format(int precision, float value){
+		return new SampleFormatter(precision).append(value).toString();
+	}//format
+	
+	/**
+	 * Da el texto confirmado como cadena.
+	 * @param formatter - El formateador.
+	 * @return String - El texto confirmado.
+	 */
+	private static String committed(SampleFormatter formatter){
+		return new String(formatter.getCommitted(), 0,
+				formatter.getCommittedLength());
+	}//committed
+	
+}//SampleFormatterTest class
@@ -0,0 +1,227 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Comprueba la uni&oacute;n de lecturas de varios receptores por su
+ * momento.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SampleJoinerTest {
+
+	// atributos de clase
+	
+	// receptores de la prueba; el principal tiene un eje y el acelerómetro tres
+	private final SensorSampleListener main =
+			SensorSampleListener.getInstance(SensorTypes.TYPE_LIGHT);
+	private final SensorSampleListener motion =
+			SensorSampleListener.getInstance(SensorTypes.TYPE_ACCELEROMETER);
+	private final SensorSampleListener slow =
+			SensorSampleListener.getInstance(SensorTypes.TYPE_PRESSURE);
+	
+	/**
+	 * Guarda una copia de cada tupla entregada.
+	 */
+	private final Recorder recorder = new Recorder();
+	
+	// métodos de implementación
+	
+	/**
+	 * Las lecturas con el mismo momento se juntan en cuanto llega la pareja,
+	 * con los valores de cada receptor en su posici&oacute;n.
+	 */
+	@Test
+	public void joinsExactMatches(){
+		SampleJoiner joiner = new SampleJoiner(recorder, 10, 8, false, main,
+				motion);
+		assertEquals(0, joiner.getOffset(0));
+		assertEquals(1, joiner.getOffset(1));
+		send(joiner, main, 100, 1);
+		assertEquals(0, recorder.size());
+		send(joiner, motion, 100, 2, 3, 4);
+		send(joiner, motion, 200, 5, 6, 7);
+		send(joiner, main, 200, 8);
+		assertEquals(2, recorder.size());
+		recorder.check(0, 100, new float[]{1, 2, 3, 4}, 100, 100);
+		recorder.check(1, 200, new float[]{8, 5, 6, 7}, 200, 200);
+		assertEquals(2, joiner.getEmittedCount());
+		assertEquals(0, joiner.getUnmatchedCount());
+	}//joinsExactMatches
+	
+	/**
+	 * Se toma la lectura m&aacute;s cercana si est&aacute; a no m&aacute;s de
+	 * <tt>MAX_SKEW</tt>; si no hay ninguna, la lectura principal se cuenta
+	 * como sin pareja. Las lecturas anteriores a la &uacute;ltima del mismo
+	 * receptor se descartan como tard&iacute;as.
+	 */
+	@Test
+	public void joinsNearestWithinMaxSkew(){
+		SampleJoiner joiner = new SampleJoiner(recorder, 10, 8, false, main,
+				slow);
+		send(joiner, slow, 95, 1);
+		send(joiner, main, 100, 2);
+		send(joiner, slow, 108, 3);
+		send(joiner, slow, 104, 4);
+		assertEquals(1, joiner.getLateCount());
+		recorder.check(0, 100, new float[]{2, 1}, 100, 95);
+		send(joiner, main, 200, 5);
+		send(joiner, slow, 230, 6);
+		assertEquals(1, recorder.size());
+		assertEquals(1, joiner.getEmittedCount());
+		assertEquals(1, joiner.getUnmatchedCount());
+	}//joinsNearestWithinMaxSkew
+	
+	/**
+	 * Con <tt>INTERPOLATE</tt> los valores se interpolan entre la lectura
+	 * anterior y la posterior al momento de la principal; si una de ellas
+	 * est&aacute; demasiado lejos se toma la m&aacute;s cercana.
+	 */
+	@Test
+	public void interpolatesBetweenNeighbours(){
+		SampleJoiner joiner = new SampleJoiner(recorder, 50, 8, true, main,
+				motion);
+		send(joiner, motion, 80, 0, 10, -4);
+		send(joiner, main, 90, 1);
+		send(joiner, main, 100, 2);
+		send(joiner, motion, 120, 4, 30, 4);
+		recorder.check(0, 90, new float[]{1, 1, 15, -2}, 90, 90);
+		recorder.check(1, 100, new float[]{2, 2, 20, 0}, 100, 100);
+		send(joiner, main, 150, 3);
+		send(joiner, motion, 210, 8, 8, 8);
+		// la lectura en 210 está a más de MAX_SKEW; se toma la de 120
+		recorder.check(2, 150, new float[]{3, 4, 30, 4}, 150, 120);
+	}//interpolatesBetweenNeighbours
+	
+	/**
+	 * Un receptor r&aacute;pido no obliga a juntar antes de que llegue la
+	 * pareja de uno lento.
+	 */
+	@Test
+	public void waitsForLaggingPartners(){
+		SampleJoiner joiner = new SampleJoiner(recorder, 10, 8, false, main,
+				motion, slow);
+		send(joiner, main, 100, 1);
+		send(joiner, motion, 100, 2, 3, 4);
+		send(joiner, main, 200, 5);
+		send(joiner, motion, 200, 6, 7, 8);
+		send(joiner, motion, 300, 9, 9, 9);
+		assertEquals(0, recorder.size());
+		send(joiner, slow, 104, 10);
+		assertEquals(1, recorder.size());
+		recorder.check(0, 100, new float[]{1, 2, 3, 4, 10}, 100, 100, 104);
+		send(joiner, slow, 201, 11);
+		recorder.check(1, 200, new float[]{5, 6, 7, 8, 11}, 200, 200, 201);
+		assertEquals(0, joiner.getForcedCount());
+	}//waitsForLaggingPartners
+	
+	/**
+	 * Si un receptor deja de entregar lecturas y se llenan las
+	 * <tt>CAPACITY</tt> lecturas retenidas, la m&aacute;s antigua se junta con
+	 * lo que haya; <tt>flush()</tt> junta las dem&aacute;s.
+	 */
+	@Test
+	public void forcesJoinsWhenPendingIsFull(){
+		SampleJoiner joiner = new SampleJoiner(recorder, 10, 3, false, main,
+				slow);
+		send(joiner, slow, 98, 1);
+		send(joiner, main, 100, 2);
+		send(joiner, main, 110, 3);
+		send(joiner, main, 120, 4);
+		assertEquals(0, recorder.size());
+		send(joiner, main, 130, 5);
+		assertEquals(1, joiner.getForcedCount());
+		assertEquals(1, recorder.size());
+		recorder.check(0, 100, new float[]{2, 1}, 100, 98);
+		joiner.flush();
+		assertEquals(1, joiner.getEmittedCount());
+		assertEquals(3, joiner.getUnmatchedCount());
+		assertEquals(1, joiner.getForcedCount());
+	}//forcesJoinsWhenPendingIsFull
+	
+	// métodos auxiliares
+	
+	/**
+	 * Entrega una lectura al objeto que junta.
+	 * @param joiner - El objeto que junta las lecturas.
+	 * @param source - El receptor que la entrega.
+	 * @param timestamp - El momento de la lectura.
+	 * @param values - Los valores.
+	 */
+	private static void send(SampleJoiner joiner, SensorSampleListener source,
+			long timestamp, float... values){
+		joiner.onSensorEvent(source, source.SENSOR_TYPE, 3, timestamp, values,
+				0, values.length);
+	}//send
+	
+	/**
+	 * Guarda una copia de cada tupla entregada.
+	 */
+	private static final class Recorder implements SampleJoiner.Receiver {
+		
+		// atributos de clase
+		
+		// las tuplas recibidas
+		private final List<Long> stamps = new ArrayList<Long>();
+		private final List<float[]> values = new ArrayList<float[]>();
+		private final List<long[]> times = new ArrayList<long[]>();
+		
+		// métodos de acceso
+		
+		/**
+		 * Da cu&aacute;ntas tuplas se recibieron.
+		 * @return int - El n&uacute;mero de tuplas.
+		 */
+		int size(){
+			return stamps.size();
+		}//size
+		
+		/**
+		 * Comprueba una tupla recibida.
+		 * @param index - El n&uacute;mero de la tupla.
+		 * @param timestamp - El momento esperado.
+		 * @param expected - Los valores esperados.
+		 * @param sourceTimes - El momento esperado de cada receptor.
+		 */
+		void check(int index, long timestamp, float[] expected,
+				long... sourceTimes){
+			assertEquals(timestamp, stamps.get(index).longValue());
+			assertArrayEquals(expected, values.get(index), 1e-5f);
+			assertArrayEquals(sourceTimes, times.get(index));
+		}//check
+		
+		// métodos de implementación
+		
+		@Override
+		public void onTuple(long timestamp, float[] values, long[] timestamps){
+			stamps.add(timestamp);
+			this.values.add(values.clone());
+			times.add(timestamps.clone());
+		}//onTuple
+		
+	}//Recorder class
+	
+}//SampleJoinerTest class
@@ -0,0 +1,142 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Comprueba que el distribuidor entrega en orden de tiempo las lecturas de
+ * varios receptores que llegan desordenadas.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SensorEventDispatcherTest {
+
+	// atributos de clase
+	
+	/**
+	 * La ventana de reordenamiento en nanosegundos.
+	 */
+	private static final long WINDOW = 20000000L;
+	
+	// métodos de implementación
+	
+	/**
+	 * Lecturas de dos receptores, desordenadas por menos que la ventana, se
+	 * entregan todas y en orden; ninguna es tard&iacute;a.
+	 */
+	@Test
+	public void deliversInterleavedSourcesInTimeOrder(){
+		Recorder recorder = new Recorder(1000);
+		SensorEventDispatcher dispatcher =
+				new SensorEventDispatcher(recorder, 2048, WINDOW, 100000L);
+		SensorSampleListener accelerometer =
+				SensorSampleListener.getInstance(SensorTypes.TYPE_ACCELEROMETER);
+		SensorSampleListener gyroscope =
+				SensorSampleListener.getInstance(SensorTypes.TYPE_GYROSCOPE);
+		long[] order = new long[1000];
+		for(int i = 0; i < order.length; i++)
+			order[i] = i *1000000L;
+		Random random = new Random(11);
+		for(int block = 0; block < order.length; block += 8)
+			for(int i = block +7; i > block; i--){
+				int j = block +random.nextInt(i -block +1);
+				long swap = order[i];
+				order[i] = order[j];
+				order[j] = swap;
+			}//desordena cada bloque de 8 lecturas
+		dispatcher.start();
+		float[] values = {1, 2, 3};
+		for(long timestamp : order)
+			assertTrue(dispatcher.publish((timestamp /1000000L) %2 == 0 ?
+					accelerometer : gyroscope, 3, timestamp, values, 3));
+		dispatcher.stop();
+		assertFalse(dispatcher.isRunning());
+		assertEquals(1000, recorder.count);
+		assertEquals(1000, dispatcher.getDeliveredCount());
+		assertEquals(0, dispatcher.getLateCount());
+		for(int i = 1; i < recorder.count; i++)
+			assertTrue(recorder.timestamps[i -1] <= recorder.timestamps[i]);
+		assertEquals(SensorTypes.TYPE_ACCELEROMETER, recorder.types[0]);
+		assertEquals(SensorTypes.TYPE_GYROSCOPE, recorder.types[1]);
+	}//deliversInterleavedSourcesInTimeOrder
+	
+	/**
+	 * Sin que lleguen m&aacute;s lecturas, las retenidas se entregan al pasar
+	 * la ventana, sin detener el distribuidor.
+	 */
+	@Test
+	public void releasesHeldReadingsAfterAQuietWindow()
+			throws InterruptedException {
+		Recorder recorder = new Recorder(4);
+		SensorEventDispatcher dispatcher =
+				new SensorEventDispatcher(recorder, 16, WINDOW, 100000L);
+		SensorSampleListener light =
+				SensorSampleListener.getInstance(SensorTypes.TYPE_LIGHT);
+		dispatcher.start();
+		float[] values = {100};
+		dispatcher.publish(light, 3, 2000L, values, 1);
+		dispatcher.publish(light, 3, 1000L, values, 1);
+		long deadline = System.nanoTime() +2000000000L;
+		while(dispatcher.getDeliveredCount() < 2 && System.nanoTime() < deadline)
+			Thread.sleep(1);
+		assertTrue(dispatcher.isRunning());
+		assertEquals(2, dispatcher.getDeliveredCount());
+		dispatcher.stop();
+		assertEquals(1000L, recorder.timestamps[0]);
+		assertEquals(2000L, recorder.timestamps[1]);
+	}//releasesHeldReadingsAfterAQuietWindow
+	
+	/**
+	 * Guarda el momento y el tipo de cada lectura entregada.
+	 */
+	private static class Recorder implements SensorEventDispatcher.Consumer {
+		
+		// las lecturas entregadas
+		final long[] timestamps;
+		final int[] types;
+		volatile int count;
+		
+		/**
+		 * Construye un registro para el n&uacute;mero de lecturas dado.
+		 * @param capacity - Cu&aacute;ntas lecturas puede guardar.
+		 */
+		Recorder(int capacity){
+			timestamps = new long[capacity];
+			types = new int[capacity];
+		}//constructor
+		
+		@Override
+		public void onSensorEvent(SensorSampleListener source, int sensorType,
+				int accuracy, long timestamp, float[] values, int offset,
+				int count){
+			int index = this.count;
+			timestamps[index] = timestamp;
+			types[index] = sensorType;
+			this.count = index +1;
+		}//onSensorEvent
+		
+	}//Recorder class
+	
+}//SensorEventDispatcherTest class
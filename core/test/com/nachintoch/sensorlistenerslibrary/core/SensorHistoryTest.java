@@ -0,0 +1,152 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Comprueba el historial circular de lecturas.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SensorHistoryTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Al dar la vuelta al buffer se conservan las &uacute;ltimas lecturas, de
+	 * la m&aacute;s antigua a la m&aacute;s reciente.
+	 */
+	@Test
+	public void keepsTheLastReadingsAcrossWraparound(){
+		SensorHistory history = new SensorHistory(4, 2);
+		for(int i = 1; i <= 11; i++)
+			history.record(i, new float[]{i, -i}, 2);
+		assertEquals(11, history.getTotalCount());
+		assertEquals(4, history.size());
+		long[] times = new long[6];
+		float[][] axes = {new float[6], new float[6]};
+		assertEquals(4, history.copyLast(6, times, axes));
+		for(int i = 0; i < 4; i++){
+			assertEquals(8 +i, times[i]);
+			assertEquals(8 +i, axes[0][i], 0);
+			assertEquals(-8 -i, axes[1][i], 0);
+		}//revisa cada lectura
+		assertEquals(2, history.copyLast(2, times, null));
+		assertEquals(10, times[0]);
+		assertEquals(11, times[1]);
+	}//keepsTheLastReadingsAcrossWraparound
+	
+	/**
+	 * Los ejes que faltan en una lectura se registran como <tt>NaN</tt>, y
+	 * limpiar el historial lo deja vac&iacute;o.
+	 */
+	@Test
+	public void fillsMissingAxesAndClears(){
+		SensorHistory history = new SensorHistory(3, 3);
+		history.record(5, new float[]{1}, 1);
+		float[][] axes = {null, new float[1], new float[1]};
+		assertEquals(1, history.copyLast(3, null, axes));
+		assertTrue(Float.isNaN(axes[1][0]));
+		assertTrue(Float.isNaN(axes[2][0]));
+		history.clear();
+		assertEquals(0, history.size());
+		assertEquals(0, history.copyLast(3, new long[3], null));
+	}//fillsMissingAxesAndClears
+	
+	/**
+	 * Pasando el &uacute;ltimo momento copiado se recorre el historial por
+	 * partes sin perder ni repetir lecturas, tambi&eacute;n al dar la vuelta.
+	 */
+	@Test
+	public void copySinceWalksTheHistoryInChunks(){
+		SensorHistory history = new SensorHistory(8, 1);
+		for(int i = 1; i <= 13; i++)
+			history.record(i *10, new float[]{i}, 1);
+		long[] times = new long[3];
+		float[][] axes = {new float[3]};
+		long since = 0;
+		int expected = 6;
+		int copied;
+		while((copied = history.copySince(since, times, axes)) > 0){
+			for(int i = 0; i < copied; i++){
+				assertEquals(expected *10, times[i]);
+				assertEquals(expected, axes[0][i], 0);
+				expected++;
+			}//revisa la parte copiada
+			since = times[copied -1];
+		}//copia por partes
+		assertEquals(14, expected);
+		assertEquals(0, history.copySince(130, times, axes));
+		assertEquals(2, history.copySince(115, times, axes));
+		assertEquals(120, times[0]);
+	}//copySinceWalksTheHistoryInChunks
+	
+	/**
+	 * Los lectores descartan las lecturas que el escritor sobreescribe
+	 * mientras las copian: cada lectura copiada es consistente y las copias
+	 * son consecutivas.
+	 */
+	@Test
+	public void readersDiscardOverwrittenSlots() throws InterruptedException {
+		final SensorHistory history = new SensorHistory(16, 2);
+		final AtomicBoolean done = new AtomicBoolean();
+		final AtomicLong torn = new AtomicLong();
+		final AtomicLong copies = new AtomicLong();
+		Thread[] readers = new Thread[2];
+		for(int r = 0; r < readers.length; r++){
+			readers[r] = new Thread(new Runnable(){
+				@Override
+				public void run(){
+					long[] times = new long[16];
+					float[][] axes = {new float[16], new float[16]};
+					while(!done.get()){
+						int copied = history.copyLast(16, times, axes);
+						for(int i = 0; i < copied; i++){
+							if(axes[0][i] != (float)times[i] ||
+									axes[1][i] != -(float)times[i] ||
+									(i > 0 && times[i] != times[i -1] +1))
+								torn.incrementAndGet();
+						}//revisa cada lectura copiada
+						copies.incrementAndGet();
+					}//lee mientras escribe el escritor
+				}//run
+			});
+			readers[r].start();
+		}//inicia los lectores
+		float[] values = new float[2];
+		// hasta 2^24 los valores son exactos en float
+		for(int i = 1; i <= 2000000; i++){
+			values[0] = i;
+			values[1] = -i;
+			history.record(i, values, 2);
+		}//escribe
+		done.set(true);
+		for(Thread reader : readers)
+			reader.join();
+		assertEquals(0, torn.get());
+		assertTrue(copies.get() > 0);
+	}//readersDiscardOverwrittenSlots
+	
+}//SensorHistoryTest class
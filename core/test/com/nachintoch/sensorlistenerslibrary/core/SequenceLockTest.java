@@ -0,0 +1,109 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Comprueba el contador de secuencia con un escritor y varios lectores.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SequenceLockTest {
+
+	// atributos de clase
+	
+	// los datos que protege el contador en la prueba concurrente
+	private final SequenceLock lock = new SequenceLock();
+	private long first;
+	private long second;
+	
+	// métodos de implementación
+	
+	/**
+	 * La versi&oacute;n cuenta las escrituras completadas, y una lectura no
+	 * es v&aacute;lida si comenz&oacute; o se cruz&oacute; con una escritura.
+	 */
+	@Test
+	public void validatesOnlyReadsWithoutWrites(){
+		SequenceLock sequence = new SequenceLock();
+		assertEquals(0, sequence.getVersion());
+		long start = sequence.beginRead();
+		assertTrue(sequence.validate(start));
+		sequence.beginWrite();
+		assertEquals(-1, sequence.tryBeginRead());
+		assertFalse(sequence.validate(sequence.tryBeginRead()));
+		assertFalse(sequence.validate(start));
+		sequence.endWrite();
+		assertFalse(sequence.validate(start));
+		assertEquals(1, sequence.getVersion());
+		start = sequence.tryBeginRead();
+		assertEquals(1, sequence.versionOf(start));
+		assertTrue(sequence.validate(start));
+	}//validatesOnlyReadsWithoutWrites
+	
+	/**
+	 * Los lectores nunca validan una copia a medias mientras el escritor
+	 * cambia los datos.
+	 */
+	@Test
+	public void readersNeverValidateTornCopies() throws InterruptedException {
+		final AtomicBoolean done = new AtomicBoolean();
+		final AtomicLong torn = new AtomicLong();
+		final AtomicLong validated = new AtomicLong();
+		Thread[] readers = new Thread[2];
+		for(int r = 0; r < readers.length; r++){
+			readers[r] = new Thread(new Runnable(){
+				@Override
+				public void run(){
+					while(!done.get()){
+						long start = lock.beginRead();
+						long a = first;
+						long b = second;
+						if(!lock.validate(start))
+							continue;
+						validated.incrementAndGet();
+						if(b != -a)
+							torn.incrementAndGet();
+					}//lee mientras escribe el escritor
+				}//run
+			});
+			readers[r].start();
+		}//inicia los lectores
+		for(long i = 1; i <= 2000000; i++){
+			lock.beginWrite();
+			first = i;
+			second = -i;
+			lock.endWrite();
+		}//escribe
+		done.set(true);
+		for(Thread reader : readers)
+			reader.join();
+		assertEquals(0, torn.get());
+		assertTrue(validated.get() > 0);
+		assertEquals(2000000, lock.getVersion());
+	}//readersNeverValidateTornCopies
+	
+}//SequenceLockTest class
@@ -0,0 +1,161 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compara las estad&iacute;sticas de ventana con su c&aacute;lculo directo
+ * sobre las mismas lecturas.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SlidingStatisticsTest {
+
+	// atributos de clase
+	
+	/**
+	 * N&uacute;mero de lecturas de la ventana de prueba.
+	 */
+	private static final int WINDOW = 7;
+	
+	// métodos de implementación
+	
+	/**
+	 * Con lecturas aleatorias que se repiten a menudo, el promedio, la
+	 * varianza, el m&iacute;nimo y el m&aacute;ximo coinciden con los de la
+	 * ventana calculados directamente, antes y despu&eacute;s de dar varias
+	 * vueltas.
+	 */
+	@Test
+	public void matchesBruteForceOnRandomReadings(){
+		Random random = new Random(7);
+		float[] stream = new float[500];
+		for(int i = 0; i < stream.length; i++)
+			stream[i] = random.nextInt(5) -2 +(i < 250 ? 0 : 100);
+		check(stream);
+	}//matchesBruteForceOnRandomReadings
+	
+	/**
+	 * Rachas de valores iguales, crecientes y decrecientes; en las que las
+	 * colas mon&oacute;tonas deben quitar a los iguales y dejar salir de la
+	 * ventana al m&iacute;nimo o m&aacute;ximo m&aacute;s antiguo.
+	 */
+	@Test
+	public void matchesBruteForceOnRunsOfEqualValues(){
+		float[] stream = new float[120];
+		for(int i = 0; i < stream.length; i++){
+			int phase = i /20;
+			switch(phase){
+			case 0 :
+			case 3 :
+				stream[i] = 4;
+				break;
+			case 1 :
+				stream[i] = i;
+				break;
+			case 2 :
+				stream[i] = -i;
+				break;
+			default :
+				stream[i] = (i /3) %2 == 0 ? 1 : 9;
+			}//elige la racha
+		}//genera las lecturas
+		check(stream);
+	}//matchesBruteForceOnRunsOfEqualValues
+	
+	/**
+	 * Limpiar la ventana reinicia las estad&iacute;sticas, y un valor no
+	 * num&eacute;rico contamina las de su eje.
+	 */
+	@Test
+	public void clearRestartsTheWindow(){
+		SlidingStatistics statistics = new SlidingStatistics(WINDOW, 2);
+		StatisticsSnapshot snapshot = new StatisticsSnapshot(2);
+		for(int i = 0; i < 20; i++)
+			statistics.process(i, new float[]{i, Float.NaN}, 2);
+		statistics.clear();
+		assertEquals(0, statistics.size());
+		statistics.process(30, new float[]{3, 5}, 2);
+		statistics.process(31, new float[]{5, 5}, 1);
+		assertEquals(2, statistics.readSnapshot(snapshot));
+		assertEquals(2, snapshot.count);
+		assertEquals(31, snapshot.timestamp);
+		assertEquals(4, snapshot.mean[0], 1e-9);
+		assertEquals(1, snapshot.variance[0], 1e-9);
+		assertEquals(3, snapshot.min[0], 0);
+		assertEquals(5, snapshot.max[0], 0);
+		assertTrue(Double.isNaN(snapshot.mean[1]));
+	}//clearRestartsTheWindow
+	
+	// métodos auxiliares
+	
+	/**
+	 * Procesa las lecturas en tres ejes, el segundo y el tercero con signo y
+	 * desplazamiento distintos, y despu&eacute;s de cada una compara las
+	 * estad&iacute;sticas con las calculadas directamente.
+	 * @param stream - Las lecturas del primer eje.
+	 */
+	private static void check(float[] stream){
+		SlidingStatistics statistics = new SlidingStatistics(WINDOW, 3);
+		StatisticsSnapshot snapshot = new StatisticsSnapshot(3);
+		float[][] axes = new float[3][stream.length];
+		for(int i = 0; i < stream.length; i++){
+			axes[0][i] = stream[i];
+			axes[1][i] = -stream[i];
+			axes[2][i] = stream[i] +1000;
+		}//genera los tres ejes
+		float[] values = new float[3];
+		for(int t = 0; t < stream.length; t++){
+			for(int a = 0; a < 3; a++)
+				values[a] = axes[a][t];
+			statistics.process(t, values, 3);
+			statistics.readSnapshot(snapshot);
+			int from = Math.max(0, t -WINDOW +1);
+			int n = t -from +1;
+			assertEquals(n, snapshot.count);
+			for(int a = 0; a < 3; a++){
+				double sum = 0;
+				float min = Float.POSITIVE_INFINITY;
+				float max = Float.NEGATIVE_INFINITY;
+				for(int k = from; k <= t; k++){
+					sum += axes[a][k];
+					min = Math.min(min, axes[a][k]);
+					max = Math.max(max, axes[a][k]);
+				}//suma la ventana
+				double mean = sum /n;
+				double squares = 0;
+				for(int k = from; k <= t; k++)
+					squares += (axes[a][k] -mean) *(axes[a][k] -mean);
+				String where = "lectura " +t +", eje " +a;
+				assertEquals(where, mean, snapshot.mean[a], 1e-6);
+				assertEquals(where, squares /n, snapshot.variance[a], 1e-6);
+				assertEquals(where, Math.sqrt(squares /n +mean *mean),
+						snapshot.rms[a], 1e-6);
+				assertEquals(where, min, snapshot.min[a], 0);
+				assertEquals(where, max, snapshot.max[a], 0);
+			}//compara cada eje
+		}//procesa cada lectura
+	}//check
+	
+}//SlidingStatisticsTest class
@@ -0,0 +1,62 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Comprueba que el an&aacute;lisis del espectro encuentra la frecuencia
+ * dominante de una se&ntilde;al sint&eacute;tica.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SpectrumAnalyzerTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Un seno de 12.3 Hz muestreado a 100 Hz, con una componente menor de
+	 * 30 Hz, tiene su frecuencia dominante en 12.3 Hz; entre frecuencias de
+	 * la transformada, que est&aacute;n a 0.39 Hz.
+	 */
+	@Test
+	public void findsTheDominantFrequency(){
+		SpectrumAnalyzer analyzer = new SpectrumAnalyzer(256, 64,
+				SpectrumAnalyzer.WINDOW_HANN, 0, new float[]{0, 10, 20, 50},
+				null);
+		float[] value = new float[3];
+		long period = 10000000L;
+		for(int i = 0; i < 1024; i++){
+			double t = i *period *1e-9;
+			value[0] = (float)(2 *Math.sin(2 *Math.PI *12.3 *t)
+					+0.5 *Math.sin(2 *Math.PI *30 *t) +9.81);
+			analyzer.process(i *period, value, 3);
+		}//procesa las lecturas
+		SpectrumSnapshot snapshot = new SpectrumSnapshot(analyzer);
+		assertEquals(analyzer.getSpectrumCount(), analyzer.readSnapshot(snapshot));
+		assertTrue(snapshot.version > 0);
+		assertEquals(100, snapshot.sampleRate, 0.01f);
+		assertEquals(12.3f, snapshot.dominantFrequency, 0.1f);
+		assertTrue(snapshot.bandEnergy[1] > 10 *snapshot.bandEnergy[2]);
+		assertTrue(snapshot.bandEnergy[2] > 10 *snapshot.bandEnergy[0]);
+	}//findsTheDominantFrequency
+	
+}//SpectrumAnalyzerTest class
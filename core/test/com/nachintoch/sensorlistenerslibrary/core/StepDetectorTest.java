@@ -0,0 +1,66 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Comprueba el detector de pasos con una caminata sint&eacute;tica.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class StepDetectorTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Veinte segundos a 1.8 pasos por segundo, con ruido, dan unos 36 pasos;
+	 * el dispositivo quieto antes y despu&eacute;s no da ninguno.
+	 */
+	@Test
+	public void countsTheStepsOfASyntheticGait(){
+		final long[] received = new long[1];
+		StepDetector detector = new StepDetector(new StepDetector.Receiver(){
+			@Override
+			public void onStep(long timestamp, long steps){
+				received[0] = steps;
+			}//onStep
+		});
+		Random random = new Random(7);
+		float[] values = new float[3];
+		long period = 20000000L;
+		for(int i = 0; i < 30 *50; i++){
+			double t = i *period *1e-9;
+			boolean walking = t >= 5 && t < 25;
+			double bounce = walking ? 2.5 *Math.sin(2 *Math.PI *1.8 *(t -5)) : 0;
+			values[0] = (float)(0.05 *random.nextGaussian());
+			values[1] = (float)(0.05 *random.nextGaussian());
+			values[2] = (float)(9.81 +bounce +0.1 *random.nextGaussian());
+			detector.process(i *period, values, 3);
+			if(t < 5)
+				assertEquals(0, detector.getStepCount());
+		}//procesa las lecturas
+		assertEquals(36, detector.getStepCount(), 2);
+		assertEquals(detector.getStepCount(), received[0]);
+	}//countsTheStepsOfASyntheticGait
+	
+}//StepDetectorTest class
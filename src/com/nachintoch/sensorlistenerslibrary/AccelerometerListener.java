@@ -17,10 +17,11 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
@@ -107,22 +108,20 @@ public abstract class AccelerometerListener extends NachintochSensorListener {
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event) {
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		xAxis = event.values[0];
-		yAxis = event.values[1];
-		zAxis = event.values[2];
-		advertize();
-		notificate();
-	}//onSensorChanged
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		xAxis = values[0];
+		yAxis = values[1];
+		zAxis = values[2];
+	}//retrieveData
 
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tDatos leidos: \n\t\tX: "
-				+xAxis +"\n\t\tY: " +yAxis +"\n\t\tZ: " +zAxis);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tDatos leidos: \n\t\tX: ").append(xAxis)
+				.append("\n\t\tY: ").append(yAxis).append("\n\t\tZ: ")
+				.append(zAxis);
+	}//formatDisplay
 	
 	// métodos estáticos
 	
@@ -0,0 +1,241 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.nachintoch.sensorlistenerslibrary.core.OrientationFilter;
+
+import android.app.Activity;
+import android.app.Service;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorManager;
+import android.widget.TextView;
+
+/**
+ * Obtiene la orientaci&oacute;n del dispositivo combinando el giroscopio, el
+ * aceler&oacute;metro y el magnet&oacute;metro; en lugar de usar el sensor de
+ * orientaci&oacute;n, que Android considera obsoleto.<p/>
+ *
+ * Debe registrarse para los tres sensores, por ejemplo con
+ * <tt>register(SensorManager, int)</tt>. Las lecturas del aceler&oacute;metro
+ * y del magnet&oacute;metro s&oacute;lo se entregan al filtro; con cada
+ * lectura del giroscopio el filtro actualiza la orientaci&oacute;n y
+ * &eacute;sta se procesa como un evento del sensor de orientaci&oacute;n: el
+ * azimut, la inclinaci&oacute;n y el giro en grados.<p/>
+ *
+ * El filtro estima los &aacute;ngulos con la convenci&oacute;n de
+ * <tt>SensorManager.getOrientation</tt>, que no es la del sensor de
+ * orientaci&oacute;n; antes de procesarlos se convierten a la de
+ * &eacute;ste: el azimut entre 0 y 360, la inclinaci&oacute;n alrededor del
+ * eje x entre -180 y 180, negativa al levantar el borde superior, y el giro
+ * alrededor del eje y entre -90 y 90, positivo al levantar el borde derecho.
+ * As&iacute; puede usarse en lugar de <tt>OrientationSensorListener</tt> y
+ * entrega la orientaci&oacute;n a la frecuencia del giroscopio.
+ * @see com.nachintoch.sensorlistenerslibrary.core.ComplementaryFilter
+ * @see com.nachintoch.sensorlistenerslibrary.core.MadgwickFilter
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public abstract class FusionOrientationListener extends
+		OrientationSensorListener {
+
+	// atributos de clase
+	
+	/**
+	 * El filtro que estima la orientaci&oacute;n.
+	 */
+	protected final OrientationFilter filter;
+	
+	/**
+	 * La orientaci&oacute;n que se procesa como evento; se reutiliza en cada
+	 * lectura del giroscopio.
+	 */
+	private final float[] orientation = new float[3];
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un receptor que estima la orientaci&oacute;n con el filtro
+	 * dado.
+	 * @param filter - El filtro de orientaci&oacute;n.
+	 */
+	public FusionOrientationListener(OrientationFilter filter){
+		super();
+		this.filter = filter;
+	}//constructor
+	
+	/**
+	 * Construye un receptor que estima la orientaci&oacute;n con el filtro
+	 * dado y con el <tt>TextView</tt> y actividad dados.
+	 * @param view - La pantalla donde se mostrar&aacute;n los datos del sensor.
+	 * @param activity - Una actividad de la aplicaci&oacute;n.
+	 * @param filter - El filtro de orientaci&oacute;n.
+	 */
+	public FusionOrientationListener(TextView view, Activity activity,
+			OrientationFilter filter){
+		super(view, activity);
+		this.filter = filter;
+	}//constructor con característica de gui update y actividad
+	
+	/**
+	 * Construye un receptor que estima la orientaci&oacute;n con el filtro
+	 * dado y con el <tt>TextView</tt> y servicio dados.
+	 * @param view - La pantalla donde se mostrar&aacute;n los datos del sensor.
+	 * @param service - Un servicio de la aplicaci&oacute;n.
+	 * @param filter - El filtro de orientaci&oacute;n.
+	 */
+	public FusionOrientationListener(TextView view, Service service,
+			OrientationFilter filter){
+		super(view, service);
+		this.filter = filter;
+	}//constructor con característica de gui update y servicio
+	
+	// métodos de modificación
+	
+	/**
+	 * Registra &eacute;ste receptor para el giroscopio, el aceler&oacute;metro
+	 * y el magnet&oacute;metro. Sin magnet&oacute;metro el azimut es relativo
+	 * a la orientaci&oacute;n inicial.
+	 * @param manager - El administrador de sensores.
+	 * @param rate - La frecuencia de los eventos, como en
+	 * <tt>SensorManager.registerListener</tt>.
+	 * @return boolean - <tt>false</tt> si el dispositivo no tiene giroscopio o
+	 * aceler&oacute;metro; en cuyo caso no se registra nada.
+	 */
+	public boolean register(SensorManager manager, int rate){
+		Sensor gyroscope = manager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+		Sensor accelerometer =
+				manager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+		if(gyroscope == null || accelerometer == null)
+			return false;
+		Sensor magnetometer =
+				manager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+		manager.registerListener(this, accelerometer, rate);
+		if(magnetometer != null)
+			manager.registerListener(this, magnetometer, rate);
+		manager.registerListener(this, gyroscope, rate);
+		return true;
+	}//register
+	
+	/**
+	 * Deja de recibir eventos de los tres sensores y olvida la
+	 * orientaci&oacute;n estimada.
+	 * @param manager - El administrador de sensores.
+	 */
+	public void unregister(SensorManager manager){
+		manager.unregisterListener(this);
+		filter.reset();
+	}//unregister
+	
+	// métodos de acceso
+	
+	/**
+	 * Da el filtro que estima la orientaci&oacute;n; por ejemplo, para leer
+	 * el cuaterni&oacute;n.
+	 * @return OrientationFilter - El filtro.
+	 * @see OrientationFilter#readQuaternion(float[])
+	 */
+	public OrientationFilter getFilter(){
+		return filter;
+	}//getFilter
+	
+	// métodos de implementación
+	
+	/**
+	 * Entrega la lectura al filtro seg&uacute;n el sensor que la produjo; y si
+	 * es del giroscopio, procesa la orientaci&oacute;n estimada.
+	 * @see OrientationFilter#updateGyroscope(long, float, float, float)
+	 */
+	@Override
+	public void onSensorChanged(SensorEvent event){
+		float[] values = event.values;
+		switch(event.sensor.getType()){
+		case Sensor.TYPE_ACCELEROMETER :
+			filter.setAccelerometer(values[0], values[1], values[2]);
+			break;
+		case Sensor.TYPE_MAGNETIC_FIELD :
+			filter.setMagnetometer(values[0], values[1], values[2]);
+			break;
+		case Sensor.TYPE_GYROSCOPE :
+			if(filter.updateGyroscope(event.timestamp, values[0], values[1],
+					values[2])){
+				filter.readOrientation(orientation);
+				toOrientationSensor(orientation);
+				onSensorSample(event.accuracy, event.timestamp, orientation);
+			}//si se actualizó la orientación
+			break;
+		default :
+			break;
+		}//identifica el sensor
+	}//onSensorChanged
+	
+	// métodos auxiliares
+	
+	/**
+	 * Convierte los &aacute;ngulos de <tt>SensorManager.getOrientation</tt> a
+	 * los del sensor de orientaci&oacute;n.<p/>
+	 * 
+	 * Con la inclinaci&oacute;n <i>p</i> y el giro <i>r</i> de
+	 * <tt>getOrientation</tt>, la direcci&oacute;n hacia arriba en los ejes
+	 * del dispositivo es <i>(-cos p sen r, -sen p, cos p cos r)</i>; de ella
+	 * se obtienen la inclinaci&oacute;n <i>atan2(sen p, cos p cos r)</i> y el
+	 * giro <i>asen(-cos p sen r)</i> del sensor de orientaci&oacute;n. El
+	 * azimut es el mismo.
+	 * @param orientation - El azimut, la inclinaci&oacute;n y el giro en
+	 * radianes; se reemplazan por los del sensor de orientaci&oacute;n en
+	 * grados.
+	 */
+	static void toOrientationSensor(float[] orientation){
+		double pitch = orientation[1];
+		double roll = orientation[2];
+		double cosPitch = Math.cos(pitch);
+		float azimuth = (float)Math.toDegrees(orientation[0]);
+		orientation[0] = azimuth < 0 ? azimuth +360 : azimuth;
+		orientation[1] = (float)Math.toDegrees(Math.atan2(Math.sin(pitch),
+				cosPitch *Math.cos(roll)));
+		orientation[2] = (float)Math.toDegrees(Math.asin(-cosPitch
+				*Math.sin(roll)));
+	}//toOrientationSensor
+	
+	// métodos estáticos
+	
+	/**
+	 * Da una instancia de &eacute;sta clase con el filtro dado y con una
+	 * implementaci&oacute;n del m&eacute;todo <tt><b>onAccuracyChanged</b>(
+	 * android.hardware.<b>Sensor</b>, <b>int</b>)</tt> que consiste en
+	 * actualizar la informaci&oacute;n de presici&oacute;n registrada del
+	 * sensor y tomar nota de que la presici&oacute;n ha cambiado.<p/>
+	 *
+	 * La implementaci&oacute;n de <tt><b>notificate</b></tt> consiste en un
+	 * m&eacute;todo vac&iacute;o.
+	 * @param filter - El filtro de orientaci&oacute;n.
+	 * @see android.hardware.SensorEventListener#onAccuracyChanged(android.hardware.Sensor, int)
+	 * @return FusionOrientationListener - Una instancia de &eacute;sta clase.
+	 */
+	public static FusionOrientationListener getInstance(
+			OrientationFilter filter){
+		return new FusionOrientationListener(filter) {
+			public void onAccuracyChanged(Sensor sensor, int accuracy){
+				this.accuracy = accuracy;
+				didAccuracyChanged = true;
+			}
+			protected void notificate(){}
+		};
+	}//getInstance
+	
+}//FusionOrientationListener class
@@ -17,10 +17,12 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.GyroscopeBias;
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
@@ -47,6 +49,13 @@ public abstract class GyroscopeListener extends NachintochSensorListener {
 	 */
 	protected float zAxis;
 	
+	/**
+	 * Estimador que resta el sesgo de las lecturas. Es una referencia nula
+	 * mientras no se solicite.
+	 * @see #enableBiasCompensation(int)
+	 */
+	protected GyroscopeBias bias;
+	
 	/**
 	 * Contructor por omisi&oacute;n.
 	 */
@@ -76,8 +85,54 @@ public abstract class GyroscopeListener extends NachintochSensorListener {
 		super(view, service, Sensor.TYPE_GYROSCOPE);
 	}//constructor con característica de gui update y servicio
 	
+	// métodos de modificación
+	
+	/**
+	 * Comienza a estimar y restar el sesgo del giroscopio.<p/>
+	 * 
+	 * Se agrega una etapa que, cuando las lecturas de la ventana casi no
+	 * var&iacute;an, toma su promedio como el sesgo; y lo resta de cada
+	 * lectura antes de que se registre, de modo que los ejes y
+	 * <tt>notificate()</tt> ven la velocidad angular corregida. Si ya se
+	 * compensaba, se comienza de nuevo.
+	 * @param window - El n&uacute;mero de lecturas con las que se decide si
+	 * el dispositivo est&aacute; quieto; por ejemplo, las de un segundo.
+	 * @return GyroscopeBias - El estimador; por ejemplo, para exigir
+	 * tambi&eacute;n que el aceler&oacute;metro est&eacute; quieto.
+	 * @throws IllegalArgumentException - Si la ventana no es positiva.
+	 * @see GyroscopeBias#setAccelerometerStatistics(com.nachintoch.sensorlistenerslibrary.core.SlidingStatistics)
+	 */
+	public GyroscopeBias enableBiasCompensation(int window){
+		disableBiasCompensation();
+		GyroscopeBias created = new GyroscopeBias(window);
+		bias = created;
+		addStage(created);
+		return created;
+	}//enableBiasCompensation
+	
+	/**
+	 * Deja de estimar y restar el sesgo.
+	 */
+	public void disableBiasCompensation(){
+		GyroscopeBias current = bias;
+		if(current == null)
+			return;
+		removeStage(current);
+		bias = null;
+	}//disableBiasCompensation
+	
 	// métodos de acceso
 	
+	/**
+	 * Da el estimador que resta el sesgo de las lecturas.
+	 * @return GyroscopeBias - El estimador, o una referencia nula si no se
+	 * ha solicitado.
+	 * @see #enableBiasCompensation(int)
+	 */
+	public GyroscopeBias getBiasCompensation(){
+		return bias;
+	}//getBiasCompensation
+	
 	/**
 	 * Devuelve los valores le&iacute;dos para el eje x.
 	 * @return float - El campo magn&eacute;tico en el eje x.
@@ -105,22 +160,20 @@ public abstract class GyroscopeListener extends NachintochSensorListener {
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event) {
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		xAxis = event.values[0];
-		yAxis = event.values[1];
-		zAxis = event.values[2];
-		advertize();
-		notificate();
-	}//onSensorChanged
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		xAxis = values[0];
+		yAxis = values[1];
+		zAxis = values[2];
+	}//retrieveData
 	
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tDatos leidos: \n\t\tX: "
-				+xAxis +"\n\t\tY: " +yAxis +"\n\t\tZ: " +zAxis);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tDatos leidos: \n\t\tX: ").append(xAxis)
+				.append("\n\t\tY: ").append(yAxis).append("\n\t\tZ: ")
+				.append(zAxis);
+	}//formatDisplay
 	
 	// métodos estáticos
 	
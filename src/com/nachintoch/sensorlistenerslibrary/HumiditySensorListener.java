@@ -17,10 +17,11 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
@@ -81,20 +82,17 @@ public abstract class HumiditySensorListener extends NachintochSensorListener {
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event){
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		relativeHumidity = event.values[0];
-		advertize();
-		notificate();
-	}//onSensorChanged
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		relativeHumidity = values[0];
+	}//retrieveData
 	
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tHumedad relativa en el ambiente: "
-				+relativeHumidity);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tHumedad relativa en el ambiente: ")
+				.append(relativeHumidity);
+	}//formatDisplay
 	
 	// métodos estáticos
 	
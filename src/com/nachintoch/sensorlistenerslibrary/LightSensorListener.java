@@ -17,10 +17,11 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
@@ -81,20 +82,17 @@ public abstract class LightSensorListener extends NachintochSensorListener {
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event){
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		ambientLight = event.values[0];
-		advertize();
-		notificate();
-	}//onSensorChanged
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		ambientLight = values[0];
+	}//retrieveData
 	
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tIntesidad luminosa ambiental: "
-				+ambientLight);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tIntesidad luminosa ambiental: ")
+				.append(ambientLight);
+	}//formatDisplay
 	
 	// métodos estáticos
 	
@@ -17,10 +17,12 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.MagnetometerCalibration;
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
@@ -47,6 +49,13 @@ public abstract class MagneticFieldSensorListener extends NachintochSensorListen
 	 */
 	protected float zAxis;
 	
+	/**
+	 * Calibraci&oacute;n que corrige las lecturas. Es una referencia nula
+	 * mientras no se solicite.
+	 * @see #enableCalibration()
+	 */
+	protected MagnetometerCalibration calibration;
+	
 	// métodos constructores
 	
 	/**
@@ -78,8 +87,51 @@ public abstract class MagneticFieldSensorListener extends NachintochSensorListen
 		super(view, service, Sensor.TYPE_MAGNETIC_FIELD);
 	}//constructor con característica de gui update y servicio
 	
+	// métodos de modificación
+	
+	/**
+	 * Comienza a calibrar el magnet&oacute;metro mientras se usa.<p/>
+	 * 
+	 * Se agrega una etapa que ajusta el desplazamiento y la escala de cada
+	 * eje con las lecturas y, desde que tiene un ajuste v&aacute;lido,
+	 * corrige cada lectura antes de que se registre; de modo que los ejes y
+	 * <tt>notificate()</tt> ven el campo corregido. Conviene girar el
+	 * dispositivo en todas direcciones hasta que la calidad sea alta. Si ya
+	 * se calibraba, se comienza de nuevo.
+	 * @return MagnetometerCalibration - La calibraci&oacute;n.
+	 * @see MagnetometerCalibration#getQuality()
+	 */
+	public MagnetometerCalibration enableCalibration(){
+		disableCalibration();
+		MagnetometerCalibration created = new MagnetometerCalibration();
+		calibration = created;
+		addStage(created);
+		return created;
+	}//enableCalibration
+	
+	/**
+	 * Deja de calibrar y de corregir las lecturas.
+	 */
+	public void disableCalibration(){
+		MagnetometerCalibration current = calibration;
+		if(current == null)
+			return;
+		removeStage(current);
+		calibration = null;
+	}//disableCalibration
+	
 	// métodos de acceso
 	
+	/**
+	 * Da la calibraci&oacute;n que corrige las lecturas.
+	 * @return MagnetometerCalibration - La calibraci&oacute;n, o una
+	 * referencia nula si no se ha solicitado.
+	 * @see #enableCalibration()
+	 */
+	public MagnetometerCalibration getCalibration(){
+		return calibration;
+	}//getCalibration
+	
 	/**
 	 * Devuelve los valores le&iacute;dos para el eje x.
 	 * @return float - El campo magn&eacute;tico en el eje x.
@@ -107,22 +159,20 @@ public abstract class MagneticFieldSensorListener extends NachintochSensorListen
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event) {
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		xAxis = event.values[0];
-		yAxis = event.values[1];
-		zAxis = event.values[2];
-		advertize();
-		notificate();
-	}//onSensorChanged
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		xAxis = values[0];
+		yAxis = values[1];
+		zAxis = values[2];
+	}//retrieveData
 	
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tDatos leidos: \n\t\tX: "
-				+xAxis +"\n\t\tY: " +yAxis +"\n\t\tZ: " +zAxis);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tDatos leidos: \n\t\tX: ").append(xAxis)
+				.append("\n\t\tY: ").append(yAxis).append("\n\t\tZ: ")
+				.append(zAxis);
+	}//formatDisplay
 	
 	// métodos estáticos
 	
@@ -17,12 +17,17 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.Deadband;
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+import com.nachintoch.sensorlistenerslibrary.core.SensorSampleListener;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
-import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.widget.TextView;
 
@@ -54,64 +59,81 @@ import android.widget.TextView;
  * a un objeto en memoria; al ajustar el otro como otra referencia, se pierde
  * la referencia del primero haciendose nula.<p/>
  * 
+ * El estado y el procesamiento de las lecturas no dependen de Android y se
+ * heredan de <tt>SensorSampleListener</tt>; &eacute;sta clase s&oacute;lo
+ * traduce los eventos de sensor y muestra los datos en pantalla.<p/>
+ * 
  * El prop&oacute;sito de &eacute;sta biblioteca es facilitar el uso de receptores
  * de eventos de sensores.
  * @see android.hardware.SensorEventListener
  * @see android.hardware.Sensor
  * @see android.hardware.SensorEvent
+ * @see com.nachintoch.sensorlistenerslibrary.core.SensorSampleListener
  * @author <a href="manuelignacio_castillolpez@yahoo.com">nacintoch</a>
  * @version 1.1, Enero 2013.
  */
-public abstract class NachintochSensorListener implements SensorEventListener {
+public abstract class NachintochSensorListener extends SensorSampleListener
+		implements SensorEventListener {
 
 	// Atributos de clase
 	
 	/**
-	 * La presici&oacute;n del evento.
+	 * Encargado de actualizar la pantalla con una frecuencia limitada. Si es
+	 * una referencia nula se usa el compartido por todos los receptores.
+	 * @see ScreenRefresher#getInstance()
 	 */
-	protected int accuracy;
+	protected ScreenRefresher refresher;
 	
 	/**
-	 * El momento en el que ocurrio el evento en nanosegundos.
+	 * Indica que hay datos nuevos que a&uacute;n no se muestran en pantalla.
 	 */
-	protected long eventTime;
+	private volatile boolean dirty;
 	
 	/**
-	 * Indica si en alg&uacute;n momento cambi&oacute; la presici&oacute;n del
-	 * sensor desde que se comenz&oacute; su monitorizaci&oacute;n.
+	 * Donde se arma el texto que se muestra en pantalla. S&oacute;lo se usa
+	 * desde el hilo de la interfaz.
+	 * @see #advertize()
 	 */
-	protected boolean didAccuracyChanged;
+	protected final SampleFormatter displayText = new SampleFormatter();
 	
 	/**
-	 * Contiene los valores registrados por el sensor.
+	 * Programa la entrega de la lectura pendiente de <tt>enableDeadband</tt>
+	 * en el hilo que procesa los eventos. Es una referencia nula hasta que
+	 * hace falta.
+	 * @see #flushDeadband(long)
 	 */
-	protected float[] lectures;
-
-	/*
-	 * Referencia a un objeto de tipo <tt>Handler</tt> para actualizar la pantalla
-	 * cada vez que ocurran cambios en los datos del sensor de acuerdo al
-	 * m&eacute;todo <tt>Run()</tt> del objeto runnable que se le pase como
-	 * par&aacute;metro al <tt>Handler</tt>.<p/>
-	 * 
-	 * &Eacute;sta caracter&iacute;stica puede no funcionar si <tt>doRefresh</tt>
-	 * es <tt>false</tt>.
-	 * @see android.os.Handler
-	 * @see #doRefresh
-	 *
-	protected Handler guiUpdater;*/
+	private Handler flushHandler;
 	
-	/*
-	 * Referencia a un objeto de tipo <tt>Runnable</tt> con las instrucciones
-	 * para actualizar la pantalla.
-	 * @see #guiUpdater
-	 *
-	protected Runnable thread;*/
+	/**
+	 * Indica si hay una entrega de la lectura pendiente programada.
+	 */
+	private boolean flushPosted;
+	
+	/**
+	 * El momento, en el reloj de los eventos, para el que se program&oacute;
+	 * la entrega de la lectura pendiente.
+	 */
+	private long flushDeadline;
+	
+	/**
+	 * Entrega la lectura pendiente y, si para entonces hay otra, vuelve a
+	 * programarse.
+	 */
+	private final Runnable flusher = new Runnable(){
+		@Override
+		public void run(){
+			flushPosted = false;
+			long now = flushDeadline;
+			flushDeadband(now);
+			scheduleFlush(now);
+		}//run
+	};
 	
 	/**
 	 * Indica si cuando se registren cambios en los datos del sensor, se debe
 	 * actualizar la pantalla.
 	 * 
-	 * @see #guiUpdater
+	 * @see #refresher
 	 */
 	protected boolean doRefresh;
 	
@@ -124,19 +146,6 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 * Referencia a un servicio.
 	 */
 	protected Service service;
-
-	/*
-	 * Tiempo de actualizaci&oacute;n de la pantalla para la
-	 * caracter&iacute;stica de refrescar la pantalla.
-	 *
-	protected long refreshTime;*/
-	
-	/*
-	 * Encargado manejar la actalizaci&oacute;n de la pantalla basada en el
-	 * tiempo de actualizaci&oacute;n.
-	 * @see #refreshTime
-	 *
-	protected Timer updateTimer;*/
 	
 	/**
 	 * Referencia a la pantalla del programa para mostrar los datos leidos por el
@@ -162,13 +171,13 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 * debido a que <tt>screen</tt> es una referencia nula.
 	 */
 	public static final byte NULL_SCREEN = 2;
-
+	
 	/*
 	 * Indica que no es posible actualizar la pantalla
 	 * debido a que <tt>thread</tt> es una referencia nula.
 	 *
 	public static final byte NULL_THREAD = 3;
-
+	
 	/**
 	 * Indica que no es posible actualizar la pantalla
 	 * debido a que no se ha hecho la petici&oacute;n y
@@ -189,7 +198,7 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 * <tt>thread</tt> son referencias nulas.
 	 *
 	public static final byte NULL_UPDATER_NULL_THREAD = 6;*/
-
+	
 	/**
 	 * Indica que no es posible actualizar la pantalla
 	 * debido a que no se ha hecho la peticion y
@@ -197,28 +206,20 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 */
 	public static final byte SCREEN_UPDATING_UNAVAILABLE = 7;
 	
-	/**
-	 * Tipo del sensor observado.
-	 */
-	public final int SENSOR_TYPE;
-	
 	// métodos constructores
 	
 	/**
 	 * Método constructor por omisi&oacute;n.
 	 * @param type - El identificador del tipo de sensor.
 	 * @see android.hardware.Sensor*//*<p/>
-	 * Ajusta el tiempo de actualizaci&oacute;n de la pantalla a 500
-	 * microsegundos. */ /*Asigna a <tt>accuracy</tt> el
+	 * Asigna a <tt>accuracy</tt> el
 	 * valor que indica que los datos obtenidos por el sensor no son de fiar.
 	 * @see #accuracy
 	 * @see android.hardware.SensorManager#SENSOR_STATUS_UNRELIABLE
 	 */
 	public NachintochSensorListener(int type){
 		//accuracy = SensorManager.SENSOR_STATUS_UNRELIABLE;
-		//refreshTime = 500;
-		//updateTimer = new Timer("guiUpdater");
-		SENSOR_TYPE = type;
+		super(type);
 	}//constructor por omisión
 	
 	/**
@@ -230,13 +231,9 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 * @param type - El tipo del sesnor.
 	 */
 	public NachintochSensorListener(TextView view, Activity activity, int type){
-		//guiUpdater = handler;
-		//this.thread = thread;
-		//refreshTime = time;
+		super(type);
 		screen = view;
 		this.activity = activity;
-		SENSOR_TYPE = type;
-		//updateTimer = new Timer("guiUpdater");
 	}//constructor con característica de gui update y actividad
 	
 	/**
@@ -248,12 +245,9 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 * @param type - El tipo del sensor.
 	 */
 	public NachintochSensorListener(TextView view, Service service, int type){
-		//guiUpdater = handler;
-		//this.thread = thread;
-		//refreshTime = time;
+		super(type);
 		screen = view;
 		this.service = service;
-		SENSOR_TYPE = type;
 	}//constructor con característica de gui update y servicio
 	
 	// métodos de modificación
@@ -267,134 +261,52 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 		screen = view;
 	}//setGUIUpdater
 	
-	/*
-	 * Altera el hilo de ejecuci&oacute;n dise&ntilde;ado para refrescar la
-	 * pantalla.
-	 * @param guiThread - El hilo de ejecuci&oacute;n que debe encargarse de
-	 * refrescar la pantalla.
-	 * @see android.os.Handler#post(java.lang.Runnable)
-	 *
-	public void setThread(Runnable guiThread){
-		thread = guiThread;
-	}//setThread*/
-	
-	/*
-	 * Ajusta el tiempo que pasa entre periodos de actualizaci&oacute;n de la
-	 * pantalla.
-	 * @see #refreshTime
-	 *
-	public void setRefreshTime(long time){
-		refreshTime = time;
-	}//setRefreshTime*/
-	
-	// métodos de acceso
-	
 	/**
-	 * Indica la presici&oacute;n.
-	 * @return int - La presici&oacute;n.
+	 * Ajusta el n&uacute;mero de decimales con los que se muestran los valores
+	 * en pantalla.
+	 * @param precision - El n&uacute;mero de decimales.
+	 * @throws IllegalArgumentException - Si los decimales son negativos o
+	 * mayores a <tt>SampleFormatter.MAX_PRECISION</tt>.
 	 */
-	public int getAccuracy() {
-		return accuracy;
-	}//getAccuracy
+	public void setDisplayPrecision(int precision){
+		displayText.setPrecision(precision);
+	}//setDisplayPrecision
 	
 	/**
-	 * Indica el momento del evento.
-	 * @return long - El momento en el que ocurrio el evento en nanosegundos.
-	 */
-	public long getEventTime(){
-		return eventTime;
-	}//getEventTime
+	 * Asigna el encargado de actualizar la pantalla.<p/>
+	 * 
+	 * Por omisi&oacute;n todos los receptores comparten el mismo; basta con
+	 * asignar otro si se quiere que &eacute;ste receptor se actualice con una
+	 * frecuencia distinta.
+	 * @param refresher - El encargado de actualizar la pantalla; o una
+	 * referencia nula para usar el compartido.
+	 * @see ScreenRefresher#getInstance()
+	 */
+	public void setScreenRefresher(ScreenRefresher refresher){
+		boolean registered = doRefresh;
+		if(registered)
+			stopScreenUpdating();
+		this.refresher = refresher;
+		if(registered)
+			screenUpdated();
+	}//setScreenRefresher
 	
 	// métodos de implementación
-
+	
 	/**
-	 * Indica la presici&oacute;n.<p/>
+	 * Recibe los eventos del sensor.<p/>
 	 * 
-	 * La presici&oacute;n se indica explicitamente como cadena.
-	 * @return String - La presici&oacute;n.
-	 */
-	public String getAccuracyString(){
-		switch(accuracy){
-		case SensorManager.SENSOR_STATUS_UNRELIABLE :
-			return "Los datos obtenidos por el sensor no son confiables";
-		case SensorManager.SENSOR_STATUS_ACCURACY_LOW :
-			return "La presici\u00F3n es baja";
-		case SensorManager.SENSOR_STATUS_ACCURACY_MEDIUM :
-			return "La presici\u00F3n es promedio";
-		case SensorManager.SENSOR_STATUS_ACCURACY_HIGH :
-			return "La presici\u00F3n es \u00F3ptima";
-		default :
-			return "La presici\u00F3n es desconocida";
-		}//muestra la presición como cadena
-	}//getAccuracy
-	
-	/**
-	 * Devuelve como cadena de caracteres el tipo del sensor.
-	 */
-	@SuppressWarnings("deprecation")
-	public String getTypeString(){
-		switch(SENSOR_TYPE) {
-		case Sensor.TYPE_ACCELEROMETER :
-			return "Aceler\u00F3metro";
-		case Sensor.TYPE_GRAVITY :
-			return "Aceler\u00F3metro gravitacional";
-		case Sensor.TYPE_GYROSCOPE :
-			return "Giroscopio";
-		case Sensor.TYPE_LIGHT :
-			return "Sensor fotoel\u00E9ctrico";
-		case Sensor.TYPE_LINEAR_ACCELERATION :
-			return "Aceler\u00F3metro lineal";
-		case Sensor.TYPE_MAGNETIC_FIELD :
-			return "Magnet\u00F3metro";
-		case Sensor.TYPE_PRESSURE :
-			return "Bar\u00F3metro";
-		case Sensor.TYPE_PROXIMITY :
-			return "Sensor de proximidad";
-		case Sensor.TYPE_ROTATION_VECTOR :
-			return "Sensor de rotaci\u00F3n";
-		case Sensor.TYPE_AMBIENT_TEMPERATURE :
-			return "Term\u00F3metro";
-		case Sensor.TYPE_RELATIVE_HUMIDITY :
-			return "Sensor de humedad";
-		case Sensor.TYPE_ORIENTATION :
-			return "Sensor de orientaci\u00F3n del dispositivo";
-		case Sensor.TYPE_TEMPERATURE :
-			return "Term\u00F3metro";
-		default:
-			return "Sensor no identificado";
-		}//identifica o no el tipo de sensor
-	}//getTypeString
-	
-	/**
-	 * Ajusta los atributos comunes los eventos de sensor.
+	 * Todos los receptores reciben sus eventos con &eacute;ste m&eacute;todo;
+	 * los descendientes s&oacute;lo especializan <tt>retrieveData</tt> para
+	 * tomar sus propios datos.
 	 * @param event - El evento ocurrido.
 	 * @see android.hardware.SensorEventListener#onSensorChanged(android.hardware.SensorEvent)
-	 * @see #retrieveData(android.hardware.SensorEvent)
+	 * @see #onSensorSample(int, long, float[])
 	 */
 	@Override
 	public void onSensorChanged(SensorEvent event) {
-		retrieveData(event.accuracy, event.timestamp, event.values);
-		if(doRefresh && (screen != null) /*&& (thread != null)*/)
-			advertize();
-		notificate();
+		onSensorSample(event.accuracy, event.timestamp, event.values);
 	}//onSensorChanged
-
-	/**
-	 * Muestra las lecturas como una cadena.
-	 * @return String - Una representacion legible de las lecturas del sensor.
-	 */
-	public String showLectures(){
-		String data = "";
-		if(lectures != null){
-			for(int i = 0; i < lectures.length; i++){
-				data += "Datos " +i +":\t";
-				data += lectures[i];
-				data += "\n";
-			}//recupera los datos leidos
-			data = data.substring(0, data.length() -2);
-		}//si hay datos
-		return data;
-	}//showLectures
 	
 	/**
 	 * Indica si un objeto <tt>View</tt> es equivalente al que se pasa como
@@ -405,15 +317,6 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 		return screen.equals(other);
 	}//handlerEquals
 	
-	/*
-	 * Indica si un objeto <tt>Runnable</tt> es equvalente al que se pasa como
-	 * par&aacute;metro.
-	 * @see java.lang.Object#equals(java.lang.Object)
-	 *
-	public boolean runnableEquals(Runnable other){
-		return thread.equals(other);
-	}//runnableEquals*/
-	
 	/**
 	 * Hace la peticion de actualizar la pantalla cada vez que se registran
 	 * cambios en los datos del sensor.<p/>
@@ -421,11 +324,17 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 * Para poder actualizar la pantalla, es necesario primero asignar una
 	 * referencia a un objeto existente en memoria a <tt>screen</tt>. De otro
 	 * modo; aunque se haga la petici&oacute;n de actualizar la pantalla con
-	 * &eacute;ste m&eacute;ste m&eacute;todo, no ocurrira tal cosa.
+	 * &eacute;ste m&eacute;ste m&eacute;todo, no ocurrira tal cosa.<p/>
+	 * 
+	 * La pantalla se actualiza en el hilo de la interfaz con la frecuencia del
+	 * encargado de actualizarla; sin importar con qu&eacute; frecuencia ocurran
+	 * los eventos, s&oacute;lo se muestra el &uacute;ltimo.
 	 * @see #doRefresh
+	 * @see #setScreenRefresher(ScreenRefresher)
 	 */
 	public void screenUpdated(){
 		doRefresh = true;
+		getScreenRefresher().register(this);
 	}//screenUpdated
 	
 	/**
@@ -434,6 +343,7 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 */
 	public void stopScreenUpdating(){
 		doRefresh = false;
+		getScreenRefresher().unregister(this);
 	}//stopScreenUpdating
 	
 	/**
@@ -447,18 +357,10 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	 * @see #SCREEN_UPDATING_UNAVAILABLE
 	 */
 	public byte screenUpdatingState(){
-		/*if(!doRefresh && (guiUpdater == null) && (thread == null))
-			return SCREEN_UPDATING_UNAVAILABLE;
-		if((guiUpdater == null) && (thread == null))
-			return NULL_UPDATER_NULL_THREAD;*/
 		if(!doRefresh && (screen == null))
 			return SCREEN_UPDATING_UNAVAILABLE;
-		/*if(!doRefresh && (guiUpdater == null))
-			return SCREEN_UPDATING_NOT_REQUESTED_NULL_UPDATER;*/
 		if(screen == null)
 			return NULL_SCREEN;
-		/*if(guiUpdater == null)
-			return NULL_GUI_UPDATER;*/
 		if(!doRefresh)
 			return SCREEN_UPDATING_NOT_REQUESTED;
 		return SCREEN_UPDATING_AVAILABLE;
@@ -493,39 +395,103 @@ public abstract class NachintochSensorListener implements SensorEventListener {
 	// métodos auxiliares
 	
 	/**
-	 * Notifica de alguna manera que acaba de ocurrir un cambio en los datos
-	 * del sensor.
-	 * @see #onSensorChanger(android.hardware.SensorEvent)
+	 * Marca que hay datos nuevos por mostrar; si se solicit&oacute; actualizar
+	 * la pantalla con <tt>screenUpdated()</tt>.<p/>
+	 * 
+	 * La pantalla no se actualiza aqu&iacute; sino en el hilo de la interfaz,
+	 * cuando lo indique el encargado de actualizarla; as&iacute; que procesar
+	 * un evento nunca crea objetos nuevos ni espera a la interfaz.
+	 * @see #screenUpdated()
+	 * @see ScreenRefresher
 	 */
-	protected abstract void notificate();
-	
-	/**
-	 * Recupera los datos leidos del sensor.
+	@Override
+	protected void display(){
+		if(doRefresh && (screen != null))
+			dirty = true;
+	}//display
+	
+	/**
+	 * Procesa un evento de sensor y, si la etapa de <tt>enableDeadband</tt>
+	 * se qued&oacute; con una lectura pendiente, programa su entrega para
+	 * cuando pase el tiempo m&iacute;nimo. La entrega se programa en el hilo
+	 * que procesa los eventos, as&iacute; que s&oacute;lo ocurre si &eacute;ste
+	 * tiene un <tt>Looper</tt>, como el hilo de la interfaz o el del
+	 * <tt>Handler</tt> con el que se registr&oacute; el receptor.
 	 * @param accuracy - La presici&oacute;n del sensor.
 	 * @param timeOcurred - El momento en el que ocurrio el evento.
 	 * @param values - Los valores recuperados por el sensor.
-	 * @see android.hardware.SensorEvent
+	 * @see #flushDeadband(long)
 	 */
-	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
-		this.accuracy = accuracy;
-		eventTime = timeOcurred;
-		lectures = values;
-	}//retrieveData
+	@Override
+	protected void processEvent(int accuracy, long timeOcurred, float[] values){
+		super.processEvent(accuracy, timeOcurred, values);
+		if(deadband != null)
+			scheduleFlush(timeOcurred);
+	}//processEvent
+	
+	/**
+	 * Programa la entrega de la lectura pendiente de <tt>enableDeadband</tt>,
+	 * si hay una y no se ha programado ya.
+	 * @param now - El momento actual en el reloj de los eventos.
+	 */
+	private void scheduleFlush(long now){
+		Deadband current = deadband;
+		if(flushPosted || (current == null))
+			return;
+		long deadline = current.getDeadline();
+		if(deadline < 0)
+			return;
+		Looper looper = Looper.myLooper();
+		if(looper == null)
+			return;
+		Handler target = flushHandler;
+		if((target == null) || (target.getLooper() != looper))
+			flushHandler = target = new Handler(looper);
+		flushDeadline = deadline;
+		flushPosted = true;
+		target.postDelayed(flusher, (Math.max(deadline -now, 0) +999999)
+				/1000000);
+	}//scheduleFlush
+	
+	/**
+	 * Da el encargado de actualizar la pantalla de &eacute;ste receptor.
+	 * @return ScreenRefresher - El encargado asignado o el compartido.
+	 */
+	protected ScreenRefresher getScreenRefresher(){
+		ScreenRefresher current = refresher;
+		return current != null ? current : ScreenRefresher.getInstance();
+	}//getScreenRefresher
+	
+	/**
+	 * Actualiza la pantalla si hay datos nuevos por mostrar. Lo llama el
+	 * encargado de actualizar la pantalla desde el hilo de la interfaz.
+	 */
+	void refreshScreen(){
+		if(!dirty)
+			return;
+		dirty = false;
+		if(doRefresh && (screen != null))
+			advertize();
+	}//refreshScreen
 	
 	/**
 	 * Actualiza la pantalla; de ser posible y notifica de un evento de sensor.
 	 * &Eacute;ste m&eacute;todo es llamado autom&aacute;ticamente siempre
-	 * que ocurre un evento de sensor.
+	 * que ocurre un evento de sensor.<p/>
+	 * 
+	 * El texto se arma con <tt>formatDisplay(SampleFormatter)</tt> sin crear
+	 * objetos nuevos, y s&oacute;lo se entrega a la pantalla si es distinto
+	 * al que ya muestra.
+	 * @see #formatDisplay(SampleFormatter)
 	 */
-	protected void advertize(){
-		/*Timer updateTimer = new Timer("guiUpdater");
-		updateTimer.scheduleAtFixedRate(new TimerTask() {
-			public void run(){
-				guiUpdater.post(thread);
-			}
-		}, 0, refreshTime);*/
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tDatos leidos: " +lectures);
+	public void advertize(){
+		if(screen == null)
+			return;
+		displayText.clear();
+		formatDisplay(displayText);
+		if(displayText.commit())
+			screen.setText(displayText.getCommitted(), 0,
+					displayText.getCommittedLength());
 	}//advertize
 	
 	// métodos estáticos
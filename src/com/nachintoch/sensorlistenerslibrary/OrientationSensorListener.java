@@ -17,10 +17,11 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
@@ -33,6 +34,11 @@ public abstract class OrientationSensorListener extends
 
 	// atributos de clase
 	
+	/**
+	 * Datos leidos para el eje x; el azimut.
+	 */
+	protected float xAxis;
+	
 	/**
 	 * Datos leidos para el eje y
 	 */
@@ -79,6 +85,14 @@ public abstract class OrientationSensorListener extends
 	
 	// métodos de acceso
 	
+	/**
+	 * Devuelve los valores le&iacute;dos para el eje x.
+	 * @return float - El azimut en grados.
+	 */
+	public float getX_Axis(){
+		return xAxis;
+	}//getX_Axis
+	
 	/**
 	 * Devuelve los valores le&iacute;dos para el eje y.
 	 * @return float - La aceleraci&oacute;n en el eje y.
@@ -98,21 +112,20 @@ public abstract class OrientationSensorListener extends
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event) {
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		yAxis = event.values[1];
-		zAxis = event.values[2];
-		advertize();
-		notificate();
-	}//onSensorChanged
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		xAxis = values[0];
+		yAxis = values[1];
+		zAxis = values[2];
+	}//retrieveData
 
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tDatos leidos: \n\t\tX: "
-				+yAxis +"\n\t\tZ: " +zAxis);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tDatos leidos: \n\t\tX: ").append(xAxis)
+				.append("\n\t\tY: ").append(yAxis).append("\n\t\tZ: ")
+				.append(zAxis);
+	}//formatDisplay
 	
 	// métodos estáticos
 	
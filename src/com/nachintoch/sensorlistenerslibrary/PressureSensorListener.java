@@ -17,10 +17,12 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.AltitudeEstimator;
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
@@ -37,6 +39,19 @@ public abstract class PressureSensorListener extends NachintochSensorListener {
 	 */
 	protected float atmosphericPressure;
 	
+	/**
+	 * Estimador de la altitud y la velocidad vertical. Es una referencia nula
+	 * mientras no se solicite.
+	 * @see #enableAltitude(float)
+	 */
+	protected AltitudeEstimator altimeter;
+	
+	/**
+	 * El receptor de aceleraci&oacute;n lineal que alimenta al estimador; o
+	 * una referencia nula si no se usa.
+	 */
+	protected LinearAccelerationSensorListener fusedAcceleration;
+	
 	// métodos constructores
 	
 	/**
@@ -68,8 +83,114 @@ public abstract class PressureSensorListener extends NachintochSensorListener {
 		super(view, service, Sensor.TYPE_PRESSURE);
 	}//constructor con característica de gui update y servicio
 	
+	// métodos de modificación
+	
+	/**
+	 * Comienza a estimar la altitud y la velocidad vertical con la
+	 * presi&oacute;n est&aacute;ndar al nivel del mar como referencia.
+	 * @return AltitudeEstimator - El estimador.
+	 * @see #enableAltitude(float)
+	 */
+	public AltitudeEstimator enableAltitude(){
+		return enableAltitude(AltitudeEstimator.STANDARD_PRESSURE);
+	}//enableAltitude
+	
+	/**
+	 * Comienza a estimar la altitud y la velocidad vertical.<p/>
+	 * 
+	 * Se agrega una etapa que convierte cada presi&oacute;n en altitud y la
+	 * filtra; la presi&oacute;n registrada no cambia. Si ya se estimaba, se
+	 * comienza de nuevo.
+	 * @param referencePressure - La presi&oacute;n a la altitud cero en
+	 * hectopascales.
+	 * @return AltitudeEstimator - El estimador.
+	 * @throws IllegalArgumentException - Si la presi&oacute;n no es positiva.
+	 * @see #enableAltitude(float, LinearAccelerationSensorListener)
+	 */
+	public AltitudeEstimator enableAltitude(float referencePressure){
+		return enableAltitude(referencePressure, null);
+	}//enableAltitude
+	
+	/**
+	 * Comienza a estimar la altitud y la velocidad vertical, prediciendo
+	 * tambi&eacute;n con la aceleraci&oacute;n vertical del receptor dado.
+	 * <p/>
+	 * 
+	 * Se usa el eje z de la aceleraci&oacute;n lineal, que es vertical
+	 * mientras el dispositivo est&aacute; horizontal; as&iacute; la velocidad
+	 * vertical responde antes que con la presi&oacute;n sola. El receptor
+	 * debe recibir sus eventos en el mismo hilo que &eacute;ste. Si ya se
+	 * estimaba, se comienza de nuevo.
+	 * @param referencePressure - La presi&oacute;n a la altitud cero en
+	 * hectopascales.
+	 * @param acceleration - El receptor de aceleraci&oacute;n lineal; o una
+	 * referencia nula para usar s&oacute;lo la presi&oacute;n.
+	 * @return AltitudeEstimator - El estimador.
+	 * @throws IllegalArgumentException - Si la presi&oacute;n no es positiva.
+	 * @see AltitudeEstimator#getAccelerationStage()
+	 */
+	public AltitudeEstimator enableAltitude(float referencePressure,
+			LinearAccelerationSensorListener acceleration){
+		AltitudeEstimator created = new AltitudeEstimator(referencePressure);
+		disableAltitude();
+		altimeter = created;
+		addStage(created);
+		if(acceleration != null){
+			fusedAcceleration = acceleration;
+			acceleration.addStage(created.getAccelerationStage());
+		}//si se usa la aceleración
+		return created;
+	}//enableAltitude
+	
+	/**
+	 * Deja de estimar la altitud y de usar la aceleraci&oacute;n.
+	 */
+	public void disableAltitude(){
+		AltitudeEstimator current = altimeter;
+		if(current == null)
+			return;
+		if(fusedAcceleration != null){
+			fusedAcceleration.removeStage(current.getAccelerationStage());
+			fusedAcceleration = null;
+		}//si se usaba la aceleración
+		removeStage(current);
+		altimeter = null;
+	}//disableAltitude
+	
 	// métodos de acceso
 	
+	/**
+	 * Da el estimador de la altitud.
+	 * @return AltitudeEstimator - El estimador, o una referencia nula si no
+	 * se ha solicitado.
+	 * @see #enableAltitude(float)
+	 */
+	public AltitudeEstimator getAltitudeEstimator(){
+		return altimeter;
+	}//getAltitudeEstimator
+	
+	/**
+	 * Da la altitud estimada.
+	 * @return float - La altitud en metros; o <tt>NaN</tt> si no se
+	 * est&aacute; estimando o a&uacute;n no hay lecturas.
+	 * @see #enableAltitude(float)
+	 */
+	public float getAltitude(){
+		AltitudeEstimator current = altimeter;
+		return current == null ? Float.NaN : current.getAltitude();
+	}//getAltitude
+	
+	/**
+	 * Da la velocidad vertical estimada; positiva al subir.
+	 * @return float - La velocidad en metros por segundo; o <tt>NaN</tt> si
+	 * no se est&aacute; estimando o a&uacute;n no hay lecturas.
+	 * @see #enableAltitude(float)
+	 */
+	public float getVerticalSpeed(){
+		AltitudeEstimator current = altimeter;
+		return current == null ? Float.NaN : current.getVerticalSpeed();
+	}//getVerticalSpeed
+	
 	/**
 	 * Indica la presi&oacute;n atmosf&eacute;rica registrada.
 	 * @return float - La presi&oacute;n atmosf&eacute;rica.
@@ -81,20 +202,17 @@ public abstract class PressureSensorListener extends NachintochSensorListener {
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event){
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		atmosphericPressure = event.values[0];
-		advertize();
-		notificate();
-	}//onSensorChanged
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		atmosphericPressure = values[0];
+	}//retrieveData
 	
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tPresi\u00F3n atmosf\u00E9rica: "
-				+atmosphericPressure);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tPresi\u00F3n atmosf\u00E9rica: ")
+				.append(atmosphericPressure);
+	}//formatDisplay
 	
 	// métodos estáticos
 	
@@ -17,14 +17,22 @@ package com.nachintoch.sensorlistenerslibrary;
  * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.nachintoch.sensorlistenerslibrary.core.Quaternions;
+import com.nachintoch.sensorlistenerslibrary.core.SampleFormatter;
+
 import android.app.Activity;
 import android.app.Service;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
 import android.widget.TextView;
 
 /**
- * Escucha un sensor de rotavi&oacute;n.
+ * Escucha un sensor de rotavi&oacute;n.<p/>
+ *
+ * Adem&aacute;s de los componentes le&iacute;dos da el cuaterni&oacute;n
+ * completo, la matriz de rotaci&oacute;n y el azimut, la inclinaci&oacute;n y
+ * el giro. Estos se calculan s&oacute;lo cuando se piden, una vez por lectura,
+ * y deben pedirse desde el hilo que recibe los eventos; por ejemplo en
+ * <tt>notificate</tt>.
  * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
  * @version 1.0, enero 2013
  */
@@ -48,11 +56,45 @@ public abstract class RotationSensorListener extends NachintochSensorListener {
 	protected float zAxis;
 	
 	/**
-	 * Valor adicional no siempre disponible que contiene el coseno de medio
-	 * &aacute;ngulo de la rotaci&oacute;n. Dado que no siempre est&aacute;
-	 * disponible, tiene un valor de 2 por omisi&oacute;n.
+	 * El coseno del medio &aacute;ngulo de la rotaci&oacute;n. Cuando el
+	 * sensor no lo reporta se reconstruye de los otros tres componentes, que
+	 * forman un cuaterni&oacute;n unitario.
 	 */
 	protected float rotationCos;
+	
+	/**
+	 * Indica si el sensor report&oacute; el coseno de la rotaci&oacute;n en la
+	 * &uacute;ltima lectura.
+	 */
+	protected boolean rotationCosReported;
+	
+	/**
+	 * El cuaterni&oacute;n <tt>{w, x, y, z}</tt> de la &uacute;ltima lectura.
+	 */
+	private final float[] quaternion = {1, 0, 0, 0};
+	
+	/**
+	 * La matriz de rotaci&oacute;n de la &uacute;ltima lectura; s&oacute;lo es
+	 * v&aacute;lida si <tt>matrixReady</tt>.
+	 */
+	private final float[] rotationMatrix = {1, 0, 0, 0, 1, 0, 0, 0, 1};
+	
+	/**
+	 * El azimut, la inclinaci&oacute;n y el giro de la &uacute;ltima lectura;
+	 * s&oacute;lo son v&aacute;lidos si <tt>orientationReady</tt>.
+	 */
+	private final float[] orientation = new float[3];
+	
+	/**
+	 * Indica si <tt>rotationMatrix</tt> corresponde a la &uacute;ltima
+	 * lectura.
+	 */
+	private boolean matrixReady = true;
+	
+	/**
+	 * Indica si <tt>orientation</tt> corresponde a la &uacute;ltima lectura.
+	 */
+	private boolean orientationReady = true;
 
 	// métodos constructores
 	
@@ -60,12 +102,12 @@ public abstract class RotationSensorListener extends NachintochSensorListener {
 	 * Construye un contestador para sensor de rotaci&oacute;n por
 	 * omisi&oacute;n.<p/>
 	 * 
-	 * Asigna a <tt>rotationCos</tt> 2.
+	 * Asigna a <tt>rotationCos</tt> 1; la rotaci&oacute;n nula.
 	 * @see #rotationCos
 	 */
 	public RotationSensorListener(){
 		super(Sensor.TYPE_ROTATION_VECTOR);
-		rotationCos = 2;
+		rotationCos = 1;
 	}//constructor por omisión
 	
 	/**
@@ -77,6 +119,7 @@ public abstract class RotationSensorListener extends NachintochSensorListener {
 	 */
 	public RotationSensorListener(TextView view, Activity activity){
 		super(view, activity, Sensor.TYPE_ROTATION_VECTOR);
+		rotationCos = 1;
 	}//constructor con característica de gui update y actividad
 	
 	/**
@@ -88,6 +131,7 @@ public abstract class RotationSensorListener extends NachintochSensorListener {
 	 */
 	public RotationSensorListener(TextView view, Service service){
 		super(view, service, Sensor.TYPE_ROTATION_VECTOR);
+		rotationCos = 1;
 	}//constructor con característica de gui update y servicio
 	
 	// métodos de acceso
@@ -117,37 +161,156 @@ public abstract class RotationSensorListener extends NachintochSensorListener {
 	}//getZ_Axis
 	
 	/**
-	 * Devuelve el valor del coseno de la rotaci&oacute;n.
+	 * Devuelve el valor del coseno de la rotaci&oacute;n; reportado por el
+	 * sensor o reconstruido de los otros tres componentes.
 	 * @return float - El coseno del medio &aacute;ngulo de la rotaci&oacute;n.
+	 * @see #isRotationCosReported()
 	 */
 	public float getRotationCos(){
 		return rotationCos;
 	}//getRotationCos
 	
+	/**
+	 * Indica si el sensor report&oacute; el coseno de la rotaci&oacute;n en la
+	 * &uacute;ltima lectura, o si se reconstruy&oacute;.
+	 * @return boolean - <tt>true</tt> si el sensor lo report&oacute;.
+	 */
+	public boolean isRotationCosReported(){
+		return rotationCosReported;
+	}//isRotationCosReported
+	
+	/**
+	 * Copia el cuaterni&oacute;n de la &uacute;ltima lectura.
+	 * @param out - Donde se copia el cuaterni&oacute;n <tt>{w, x, y, z}</tt>.
+	 */
+	public void getQuaternion(float[] out){
+		out[0] = quaternion[0];
+		out[1] = quaternion[1];
+		out[2] = quaternion[2];
+		out[3] = quaternion[3];
+	}//getQuaternion
+	
+	/**
+	 * Copia la matriz de rotaci&oacute;n de la &uacute;ltima lectura; igual que
+	 * <tt>SensorManager.getRotationMatrixFromVector</tt>. La matriz se calcula
+	 * s&oacute;lo la primera vez que se pide en cada lectura.
+	 * @param out - Donde se copia la matriz; de 9 elementos, o de 16 para una
+	 * matriz de 4x4.
+	 */
+	public void getRotationMatrix(float[] out){
+		float[] r = rotationMatrix;
+		if(!matrixReady){
+			Quaternions.toRotationMatrix(quaternion, r);
+			matrixReady = true;
+		}//calcula la matriz una vez por lectura
+		if(out.length == 16){
+			out[0] = r[0];
+			out[1] = r[1];
+			out[2] = r[2];
+			out[3] = 0;
+			out[4] = r[3];
+			out[5] = r[4];
+			out[6] = r[5];
+			out[7] = 0;
+			out[8] = r[6];
+			out[9] = r[7];
+			out[10] = r[8];
+			out[11] = 0;
+			out[12] = 0;
+			out[13] = 0;
+			out[14] = 0;
+			out[15] = 1;
+		}else
+			System.arraycopy(r, 0, out, 0, 9);
+	}//getRotationMatrix
+	
+	/**
+	 * Copia el azimut, la inclinaci&oacute;n y el giro de la &uacute;ltima
+	 * lectura; igual que <tt>SensorManager.getOrientation</tt>. Se calculan
+	 * s&oacute;lo la primera vez que se piden en cada lectura.
+	 * @param out - Donde se copian el azimut, la inclinaci&oacute;n y el giro,
+	 * en radianes.
+	 */
+	public void getOrientation(float[] out){
+		float[] o = computeOrientation();
+		out[0] = o[0];
+		out[1] = o[1];
+		out[2] = o[2];
+	}//getOrientation
+	
+	/**
+	 * Da el azimut de la &uacute;ltima lectura.
+	 * @return float - El azimut en radianes, entre -pi y pi.
+	 * @see #getOrientation(float[])
+	 */
+	public float getAzimuth(){
+		return computeOrientation()[0];
+	}//getAzimuth
+	
+	/**
+	 * Da la inclinaci&oacute;n de la &uacute;ltima lectura.
+	 * @return float - La inclinaci&oacute;n en radianes.
+	 * @see #getOrientation(float[])
+	 */
+	public float getPitch(){
+		return computeOrientation()[1];
+	}//getPitch
+	
+	/**
+	 * Da el giro de la &uacute;ltima lectura.
+	 * @return float - El giro en radianes.
+	 * @see #getOrientation(float[])
+	 */
+	public float getRoll(){
+		return computeOrientation()[2];
+	}//getRoll
+	
 	// métodos de implementación
 	
 	@Override
-	public void onSensorChanged(SensorEvent event) {
-		super.retrieveData(event.accuracy, event.timestamp, event.values);
-		xAxis = event.values[0];
-		yAxis = event.values[1];
-		zAxis = event.values[2];
-		if(event.values.length == 4)
-			rotationCos = event.values[3];
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		super.retrieveData(accuracy, timeOcurred, values);
+		xAxis = values[0];
+		yAxis = values[1];
+		zAxis = values[2];
+		rotationCosReported = values.length >= 4;
+		if(rotationCosReported)
+			rotationCos = values[3];
 		else
-			rotationCos = 2;
-		advertize();
-		notificate();
-	}//onSensorChanged
+			rotationCos = (float)Math.sqrt(Math.max(0, 1 -xAxis *xAxis
+					-yAxis *yAxis -zAxis *zAxis));
+		quaternion[0] = rotationCos;
+		quaternion[1] = xAxis;
+		quaternion[2] = yAxis;
+		quaternion[3] = zAxis;
+		matrixReady = false;
+		orientationReady = false;
+	}//retrieveData
 
 	@Override
-	public void advertize(){
-		if(screen != null)
-		screen.setText(getTypeString() +"\n\tPresici\u00F3n: "+
-				getAccuracyString() +"\n\tDatos leidos: \n\t\tX: "
-				+xAxis +"\n\t\tY: " +yAxis +"\n\t\tZ: " +zAxis +"\n\t\tCoseno" +
-						" de la rotaci\u00F3n: " +rotationCos);
-	}//advertize
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tDatos leidos: \n\t\tX: ").append(xAxis)
+				.append("\n\t\tY: ").append(yAxis).append("\n\t\tZ: ")
+				.append(zAxis).append("\n\t\tCoseno de la rotaci\u00F3n: ")
+				.append(rotationCos);
+	}//formatDisplay
+	
+	// métodos auxiliares
+	
+	/**
+	 * Calcula el azimut, la inclinaci&oacute;n y el giro si a&uacute;n no se
+	 * han calculado para la &uacute;ltima lectura.
+	 * @return float[] - El arreglo con el azimut, la inclinaci&oacute;n y el
+	 * giro.
+	 */
+	private float[] computeOrientation(){
+		if(!orientationReady){
+			Quaternions.quaternionToOrientation(quaternion, orientation);
+			orientationReady = true;
+		}//calcula la orientación una vez por lectura
+		return orientation;
+	}//computeOrientation
 	
 	// métodos estáticos
 	
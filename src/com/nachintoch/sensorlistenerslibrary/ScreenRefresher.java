@@ -0,0 +1,230 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Actualiza la pantalla de los receptores registrados con una frecuencia
+ * limitada.<p/>
+ *
+ * Los sensores pueden reportar cientos de eventos por segundo, pero la
+ * pantalla no necesita actualizarse m&aacute;s de lo que el ojo alcanza a
+ * ver. Los receptores s&oacute;lo marcan que tienen datos nuevos al procesar
+ * un evento y &eacute;ste objeto, en el hilo de la interfaz y a lo m&aacute;s
+ * una vez por periodo, muestra los datos m&aacute;s recientes de cada uno.
+ * Mientras no haya receptores registrados no se programa ninguna
+ * actualizaci&oacute;n.
+ * @see NachintochSensorListener#screenUpdated()
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class ScreenRefresher implements Runnable {
+
+	// atributos de clase
+	
+	/**
+	 * Receptores registrados. Se reemplaza en lugar de modificarse, para que
+	 * el hilo de la interfaz lo recorra sin bloquearse.
+	 */
+	private volatile NachintochSensorListener[] listeners;
+	
+	/**
+	 * Encargado de ejecutar las actualizaciones en el hilo de la interfaz.
+	 */
+	private final Handler handler;
+	
+	/**
+	 * Tiempo en milisegundos entre actualizaciones de la pantalla.
+	 */
+	private volatile long refreshTime;
+	
+	/**
+	 * Indica si hay receptores que actualizar, es decir, si deben programarse
+	 * actualizaciones.
+	 */
+	private boolean ticking;
+	
+	/**
+	 * Indica si hay una actualizaci&oacute;n en la cola del hilo de la
+	 * interfaz. Se lleva aparte de <code>ticking</code> porque una
+	 * actualizaci&oacute;n que ya sali&oacute; de la cola no se puede remover:
+	 * si mientras se ejecuta se remueve el &uacute;ltimo receptor y se registra
+	 * otro, el registro programa una nueva y la que se est&aacute; ejecutando
+	 * no debe programar otra m&aacute;s.
+	 */
+	private boolean posted;
+	
+	/**
+	 * Tiempo de actualizaci&oacute;n por omisi&oacute;n, en milisegundos; unas
+	 * veinte actualizaciones por segundo.
+	 */
+	public static final long DEFAULT_REFRESH_TIME = 50;
+	
+	/**
+	 * Encargado compartido por los receptores que no tienen uno propio.
+	 */
+	private static ScreenRefresher shared;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un encargado de actualizar la pantalla con el tiempo de
+	 * actualizaci&oacute;n por omisi&oacute;n.
+	 * @see #DEFAULT_REFRESH_TIME
+	 */
+	public ScreenRefresher(){
+		this(DEFAULT_REFRESH_TIME);
+	}//constructor
+	
+	/**
+	 * Construye un encargado de actualizar la pantalla con el tiempo de
+	 * actualizaci&oacute;n dado.
+	 * @param refreshTime - Milisegundos entre actualizaciones de la pantalla.
+	 * @throws IllegalArgumentException - Si el tiempo no es positivo.
+	 */
+	public ScreenRefresher(long refreshTime){
+		setRefreshTime(refreshTime);
+		listeners = new NachintochSensorListener[0];
+		handler = new Handler(Looper.getMainLooper());
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta el tiempo que pasa entre actualizaciones de la pantalla.
+	 * @param refreshTime - Milisegundos entre actualizaciones de la pantalla.
+	 * @throws IllegalArgumentException - Si el tiempo no es positivo.
+	 */
+	public void setRefreshTime(long refreshTime){
+		if(refreshTime <= 0)
+			throw new IllegalArgumentException("El tiempo de actualizaci\u00F3n "
+					+"debe ser positivo: " +refreshTime);
+		this.refreshTime = refreshTime;
+	}//setRefreshTime
+	
+	/**
+	 * Da el tiempo que pasa entre actualizaciones de la pantalla.
+	 * @return long - Milisegundos entre actualizaciones de la pantalla.
+	 */
+	public long getRefreshTime(){
+		return refreshTime;
+	}//getRefreshTime
+	
+	/**
+	 * Da la cantidad de receptores registrados.
+	 * @return int - La cantidad de receptores registrados.
+	 */
+	public int getListenerCount(){
+		return listeners.length;
+	}//getListenerCount
+	
+	// métodos de modificación
+	
+	/**
+	 * Registra un receptor para que se actualice su pantalla. Si ya estaba
+	 * registrado no hace nada.
+	 * @param listener - El receptor a registrar.
+	 */
+	public synchronized void register(NachintochSensorListener listener){
+		NachintochSensorListener[] current = listeners;
+		for(NachintochSensorListener registered : current)
+			if(registered == listener)
+				return;
+		NachintochSensorListener[] next =
+				new NachintochSensorListener[current.length +1];
+		System.arraycopy(current, 0, next, 0, current.length);
+		next[current.length] = listener;
+		listeners = next;
+		ticking = true;
+		if(!posted){
+			posted = true;
+			handler.postDelayed(this, refreshTime);
+		}//si no hay actualizaciones programadas
+	}//register
+	
+	/**
+	 * Deja de actualizar la pantalla de un receptor. Si no estaba registrado no
+	 * hace nada.
+	 * @param listener - El receptor a remover.
+	 */
+	public synchronized void unregister(NachintochSensorListener listener){
+		NachintochSensorListener[] current = listeners;
+		int index = -1;
+		for(int i = 0; i < current.length; i++)
+			if(current[i] == listener){
+				index = i;
+				break;
+			}//si es el receptor buscado
+		if(index < 0)
+			return;
+		NachintochSensorListener[] next =
+				new NachintochSensorListener[current.length -1];
+		System.arraycopy(current, 0, next, 0, index);
+		System.arraycopy(current, index +1, next, index, next.length -index);
+		listeners = next;
+		if(next.length == 0 && ticking){
+			ticking = false;
+			posted = false;
+			handler.removeCallbacks(this);
+		}//si ya no hay receptores
+	}//unregister
+	
+	// métodos de comportamiento
+	
+	/**
+	 * Muestra los datos m&aacute;s recientes de cada receptor registrado que
+	 * tenga datos nuevos y programa la siguiente actualizaci&oacute;n. Se
+	 * ejecuta en el hilo de la interfaz. S&oacute;lo programa la siguiente si
+	 * a&uacute;n hay receptores y nadie m&aacute;s la program&oacute; mientras
+	 * se ejecutaba, de modo que nunca hay dos en la cola.
+	 */
+	@Override
+	public void run(){
+		synchronized(this){
+			posted = false;
+		}//sincroniza con el registro de receptores
+		for(NachintochSensorListener listener : listeners)
+			listener.refreshScreen();
+		synchronized(this){
+			if(!ticking || posted)
+				return;
+			if(listeners.length > 0){
+				posted = true;
+				handler.postDelayed(this, refreshTime);
+			}else{
+				ticking = false;
+			}//si aún hay receptores
+		}//sincroniza con el registro de receptores
+	}//run
+	
+	// métodos estáticos
+	
+	/**
+	 * Da el encargado de actualizar la pantalla compartido por los receptores
+	 * que no tienen uno propio.
+	 * @return ScreenRefresher - El encargado compartido.
+	 */
+	public static synchronized ScreenRefresher getInstance(){
+		if(shared == null)
+			shared = new ScreenRefresher();
+		return shared;
+	}//getInstance
+	
+}//ScreenRefresher class
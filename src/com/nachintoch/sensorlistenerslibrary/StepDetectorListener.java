@@ -0,0 +1,139 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.nachintoch.sensorlistenerslibrary.core.StepDetector;
+
+import android.app.Activity;
+import android.app.Service;
+import android.hardware.Sensor;
+import android.widget.TextView;
+
+/**
+ * Escucha un aceler&oacute;metro y cuenta los pasos; para los dispositivos
+ * que no tienen contador de pasos.<p/>
+ *
+ * Cada lectura pasa primero por un <tt>StepDetector</tt>, que no modifica
+ * los valores; y con cada paso detectado se llama a
+ * <tt>onStep(long, long)</tt>, en el hilo que procesa los eventos y antes de
+ * registrar la lectura. Fuera de eso se comporta igual que
+ * <tt>AccelerometerListener</tt>.
+ * @see StepDetector
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public abstract class StepDetectorListener extends AccelerometerListener
+		implements StepDetector.Receiver {
+
+	// atributos de clase
+	
+	/**
+	 * El detector de pasos.
+	 */
+	protected final StepDetector detector;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un contador de pasos con los par&aacute;metros por
+	 * omisi&oacute;n del detector.
+	 */
+	public StepDetectorListener(){
+		super();
+		detector = new StepDetector(this);
+		addStage(detector);
+	}//constructor por omisión
+	
+	/**
+	 * Construye un contador de pasos con el <tt>TextView</tt> y actividad
+	 * dados.
+	 * @param view - La pantalla donde se mostrar&aacute;n los datos del sensor.
+	 * @param activity - Una actividad de la aplicaci&oacute;n.
+	 */
+	public StepDetectorListener(TextView view, Activity activity){
+		super(view, activity);
+		detector = new StepDetector(this);
+		addStage(detector);
+	}//constructor con característica de gui update y actividad
+	
+	/**
+	 * Construye un contador de pasos con el <tt>TextView</tt> y servicio
+	 * dados.
+	 * @param view - La pantalla donde se mostrar&aacute;n los datos del sensor.
+	 * @param service - Un servicio de la aplicaci&oacute;n.
+	 */
+	public StepDetectorListener(TextView view, Service service){
+		super(view, service);
+		detector = new StepDetector(this);
+		addStage(detector);
+	}//constructor con característica de gui update y servicio
+	
+	// métodos de acceso
+	
+	/**
+	 * Da cu&aacute;ntos pasos se han detectado.
+	 * @return long - El n&uacute;mero de pasos.
+	 */
+	public long getStepCount(){
+		return detector.getStepCount();
+	}//getStepCount
+	
+	/**
+	 * Da el detector de pasos; por ejemplo, para reiniciar la cuenta.
+	 * @return StepDetector - El detector.
+	 */
+	public StepDetector getDetector(){
+		return detector;
+	}//getDetector
+	
+	// métodos de implementación
+	
+	/**
+	 * Recibe cada paso detectado. La implementaci&oacute;n por omisi&oacute;n
+	 * no hace nada.
+	 * @param timestamp - El momento del paso en nanosegundos.
+	 * @param steps - Cu&aacute;ntos pasos se han detectado.
+	 */
+	@Override
+	public void onStep(long timestamp, long steps){}
+	
+	// métodos estáticos
+	
+	/**
+	 * Da una instancia de &eacute;sta clase con una implementaci&oacute;n
+	 * del m&eacute;todo <tt><b>onAccuracyChanged</b>(android.hardware.<b>Sensor</b>,
+	 * <b>int</b>)</tt> que consiste en actualizar la informaci&oacute;n de
+	 * presici&oacute;n registrada del sensor y tomar nota de que la
+	 * presici&oacute;n ha cambiado.<p/>
+	 *
+	 * La implementaci&oacute;n de <tt><b>notificate</b></tt> consiste en un
+	 * m&eacute;todo vac&iacute;o.
+	 * @see android.hardware.SensorEventListener#onAccuracyChanged(android.hardware.Sensor, int)
+	 * @return StepDetectorListener - Una instancia de &eacute;sta clase.
+	 */
+	public static StepDetectorListener getInstance(){
+		return new StepDetectorListener() {
+			public void onAccuracyChanged(Sensor sensor, int accuracy){
+				this.accuracy = accuracy;
+				didAccuracyChanged = true;
+			}
+			protected void notificate(){}
+		};
+	}//getInstance
+	
+}//StepDetectorListener class
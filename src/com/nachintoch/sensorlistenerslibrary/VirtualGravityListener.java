@@ -0,0 +1,179 @@
+package com.nachintoch.sensorlistenerslibrary;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.nachintoch.sensorlistenerslibrary.core.FirstOrderFilter;
+
+import android.app.Activity;
+import android.app.Service;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.widget.TextView;
+
+/**
+ * Escucha un sensor de gravedad virtual; que estima la gravedad con las
+ * lecturas del aceler&oacute;metro, para los dispositivos que no tienen
+ * sensor de gravedad o cuyo sensor tiene mucho retraso.<p/>
+ *
+ * Debe registrarse para el aceler&oacute;metro, por ejemplo con
+ * <tt>register(SensorManager, int)</tt>. Cada lectura pasa primero por un
+ * filtro pasa bajas, de modo que los ejes y el resto del procesamiento ven
+ * la gravedad estimada, igual que en <tt>GravitySensorListener</tt>; y
+ * as&iacute; puede usarse en su lugar. Una frecuencia de corte menor da una
+ * gravedad m&aacute;s estable pero m&aacute;s lenta.
+ * @see FirstOrderFilter
+ * @see VirtualLinearAccelerationListener
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public abstract class VirtualGravityListener extends GravitySensorListener {
+
+	// atributos de clase
+	
+	/**
+	 * El filtro con el que se estima la gravedad.
+	 */
+	protected final FirstOrderFilter filter;
+	
+	/**
+	 * Frecuencia de corte por omisi&oacute;n, en hertz.
+	 */
+	public static final float DEFAULT_CUTOFF = 0.5f;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un receptor con la frecuencia de corte por omisi&oacute;n.
+	 * @see #DEFAULT_CUTOFF
+	 */
+	public VirtualGravityListener(){
+		this(DEFAULT_CUTOFF);
+	}//constructor por omisión
+	
+	/**
+	 * Construye un receptor con la frecuencia de corte dada.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @throws IllegalArgumentException - Si la frecuencia no es positiva.
+	 */
+	public VirtualGravityListener(float cutoff){
+		super();
+		filter = new FirstOrderFilter(3, cutoff, false);
+		addStage(filter);
+	}//constructor
+	
+	/**
+	 * Construye un receptor con la frecuencia de corte dada y con el
+	 * <tt>TextView</tt> y actividad dados.
+	 * @param view - La pantalla donde se mostrar&aacute;n los datos del sensor.
+	 * @param activity - Una actividad de la aplicaci&oacute;n.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @throws IllegalArgumentException - Si la frecuencia no es positiva.
+	 */
+	public VirtualGravityListener(TextView view, Activity activity, float cutoff){
+		super(view, activity);
+		filter = new FirstOrderFilter(3, cutoff, false);
+		addStage(filter);
+	}//constructor con característica de gui update y actividad
+	
+	/**
+	 * Construye un receptor con la frecuencia de corte dada y con el
+	 * <tt>TextView</tt> y servicio dados.
+	 * @param view - La pantalla donde se mostrar&aacute;n los datos del sensor.
+	 * @param service - Un servicio de la aplicaci&oacute;n.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @throws IllegalArgumentException - Si la frecuencia no es positiva.
+	 */
+	public VirtualGravityListener(TextView view, Service service, float cutoff){
+		super(view, service);
+		filter = new FirstOrderFilter(3, cutoff, false);
+		addStage(filter);
+	}//constructor con característica de gui update y servicio
+	
+	// métodos de modificación
+	
+	/**
+	 * Registra &eacute;ste receptor para el aceler&oacute;metro.
+	 * @param manager - El administrador de sensores.
+	 * @param rate - La frecuencia de los eventos, como en
+	 * <tt>SensorManager.registerListener</tt>.
+	 * @return boolean - <tt>false</tt> si el dispositivo no tiene
+	 * aceler&oacute;metro; en cuyo caso no se registra.
+	 */
+	public boolean register(SensorManager manager, int rate){
+		Sensor accelerometer =
+				manager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+		if(accelerometer == null)
+			return false;
+		return manager.registerListener(this, accelerometer, rate);
+	}//register
+	
+	/**
+	 * Deja de recibir eventos del aceler&oacute;metro y reinicia el filtro.
+	 * @param manager - El administrador de sensores.
+	 */
+	public void unregister(SensorManager manager){
+		manager.unregisterListener(this);
+		filter.clear();
+	}//unregister
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta la frecuencia de corte del filtro. Puede llamarse desde
+	 * cualquier hilo.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @throws IllegalArgumentException - Si la frecuencia no es positiva.
+	 */
+	public void setCutoff(float cutoff){
+		filter.setCutoff(cutoff);
+	}//setCutoff
+	
+	/**
+	 * Da la frecuencia de corte del filtro.
+	 * @return float - La frecuencia de corte en hertz.
+	 */
+	public float getCutoff(){
+		return filter.getCutoff();
+	}//getCutoff
+	
+	// métodos estáticos
+	
+	/**
+	 * Da una instancia de &eacute;sta clase con la frecuencia de corte dada y
+	 * con una implementaci&oacute;n del m&eacute;todo <tt><b>onAccuracyChanged
+	 * </b>(android.hardware.<b>Sensor</b>, <b>int</b>)</tt> que consiste en
+	 * actualizar la informaci&oacute;n de presici&oacute;n registrada del
+	 * sensor y tomar nota de que la presici&oacute;n ha cambiado.<p/>
+	 *
+	 * La implementaci&oacute;n de <tt><b>notificate</b></tt> consiste en un
+	 * m&eacute;todo vac&iacute;o.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @see android.hardware.SensorEventListener#onAccuracyChanged(android.hardware.Sensor, int)
+	 * @return VirtualGravityListener - Una instancia de &eacute;sta clase.
+	 */
+	public static VirtualGravityListener getInstance(float cutoff){
+		return new VirtualGravityListener(cutoff) {
+			public void onAccuracyChanged(Sensor sensor, int accuracy){
+				this.accuracy = accuracy;
+				didAccuracyChanged = true;
+			}
+			protected void notificate(){}
+		};
+	}//getInstance
+	
+}//VirtualGravityListener class
@@ -0,0 +1,428 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Estima la altitud y la velocidad vertical con las lecturas del
+ * man&oacute;metro.<p/>
+ *
+ * Cada presi&oacute;n se convierte en altitud con la f&oacute;rmula
+ * barom&eacute;trica internacional, <tt>h = 44330 (1 - (p / p0)^(1 /
+ * 5.255))</tt>, respecto a una presi&oacute;n de referencia <tt>p0</tt>; se
+ * guardan su inverso y la &uacute;ltima conversi&oacute;n, porque los
+ * man&oacute;metros suelen repetir la misma lectura. Un filtro de Kalman de
+ * dos estados, la altitud y la velocidad vertical, suaviza la altitud y
+ * estima su derivada sin diferenciar las lecturas ruidosas. El estado y su
+ * covarianza son escalares, as&iacute; que cada paso cuesta unas cuantas
+ * multiplicaciones y no crea objetos.<p/>
+ *
+ * Opcionalmente el filtro se predice con la aceleraci&oacute;n vertical: la
+ * etapa de <tt>getAccelerationStage()</tt> se agrega al receptor de
+ * aceleraci&oacute;n lineal y toma el eje z de cada lectura, que es vertical
+ * mientras el dispositivo est&aacute; horizontal. Sin aceleraci&oacute;n, o
+ * si la &uacute;ltima es anterior a <tt>MAX_ACCELERATION_AGE</tt>, el
+ * modelo supone una aceleraci&oacute;n aleatoria.<p/>
+ *
+ * Las dos etapas deben procesarse desde un mismo hilo, como sucede al
+ * registrar ambos receptores con el mismo <tt>Handler</tt>; la
+ * estimaci&oacute;n puede leerse desde cualquier otro sin bloquearlo.
+ * @see SensorSampleListener#addStage(SampleStage)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class AltitudeEstimator implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * La presi&oacute;n de referencia en hectopascales.
+	 */
+	private volatile float referencePressure;
+	
+	/**
+	 * La presi&oacute;n de referencia con la que se hizo la &uacute;ltima
+	 * conversi&oacute;n, y su inverso.
+	 */
+	private float cachedReference, inverseReference;
+	
+	// última conversión
+	private float lastPressure = Float.NaN;
+	private float lastAltitude;
+	
+	// estado del filtro
+	private float height, speed;
+	
+	// covarianza del estado
+	private float p00, p01, p11;
+	
+	/**
+	 * El momento hasta el que se ha predicho el estado en nanosegundos; o -1
+	 * si el filtro debe iniciarse con la siguiente presi&oacute;n.
+	 */
+	private long lastTime = -1;
+	
+	/**
+	 * La &uacute;ltima aceleraci&oacute;n vertical.
+	 */
+	private float acceleration;
+	
+	/**
+	 * El momento de la &uacute;ltima aceleraci&oacute;n; o -1 si no ha
+	 * habido ninguna.
+	 */
+	private long accelerationTime = -1;
+	
+	// ruido
+	private volatile float measurementNoise = DEFAULT_MEASUREMENT_NOISE;
+	private volatile float processNoise = DEFAULT_PROCESS_NOISE;
+	private volatile float accelerationNoise = DEFAULT_ACCELERATION_NOISE;
+	
+	// estimación publicada
+	private float publishedAltitude = Float.NaN;
+	private float publishedSpeed = Float.NaN;
+	private float publishedRaw = Float.NaN;
+	private float publishedVariance = Float.NaN;
+	
+	/**
+	 * Contador de secuencia que protege la estimaci&oacute;n publicada.
+	 */
+	private final SequenceLock lock = new SequenceLock();
+	
+	/**
+	 * La etapa que recibe la aceleraci&oacute;n.
+	 */
+	private final SampleStage accelerationStage = new SampleStage() {
+		public boolean process(long timestamp, float[] values, int count){
+			if(count >= 3)
+				updateAcceleration(timestamp, values[2]);
+			return true;
+		}
+	};
+	
+	/**
+	 * Presi&oacute;n est&aacute;ndar al nivel del mar en hectopascales; igual
+	 * a <tt>SensorManager.PRESSURE_STANDARD_ATMOSPHERE</tt>.
+	 */
+	public static final float STANDARD_PRESSURE = 1013.25f;
+	
+	/**
+	 * Varianza por omisi&oacute;n de la altitud de cada lectura, en metros al
+	 * cuadrado.
+	 */
+	public static final float DEFAULT_MEASUREMENT_NOISE = 0.5f;
+	
+	/**
+	 * Varianza por omisi&oacute;n de la aceleraci&oacute;n aleatoria que se
+	 * supone sin aceler&oacute;metro, en metros por segundo al cuadrado, al
+	 * cuadrado.
+	 */
+	public static final float DEFAULT_PROCESS_NOISE = 0.5f;
+	
+	/**
+	 * Varianza por omisi&oacute;n del error de la aceleraci&oacute;n medida.
+	 */
+	public static final float DEFAULT_ACCELERATION_NOISE = 0.1f;
+	
+	/**
+	 * Varianza inicial de la velocidad vertical, en metros por segundo al
+	 * cuadrado.
+	 */
+	public static final float INITIAL_SPEED_VARIANCE = 1;
+	
+	/**
+	 * Intervalo m&aacute;ximo en nanosegundos entre dos predicciones; un
+	 * intervalo mayor reinicia el filtro con la siguiente presi&oacute;n.
+	 */
+	public static final long MAX_GAP = 2000000000L;
+	
+	/**
+	 * Antig&uuml;edad m&aacute;xima en nanosegundos de la aceleraci&oacute;n
+	 * para usarla en la predicci&oacute;n.
+	 */
+	public static final long MAX_ACCELERATION_AGE = 200000000L;
+	
+	/**
+	 * Exponente de la f&oacute;rmula barom&eacute;trica.
+	 */
+	private static final double EXPONENT = 1 /5.255;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un estimador con la presi&oacute;n est&aacute;ndar al nivel
+	 * del mar como referencia; las altitudes son aproximadas hasta que se
+	 * ajuste la referencia.
+	 * @see #STANDARD_PRESSURE
+	 */
+	public AltitudeEstimator(){
+		this(STANDARD_PRESSURE);
+	}//constructor
+	
+	/**
+	 * Construye un estimador con la presi&oacute;n de referencia dada.
+	 * @param referencePressure - La presi&oacute;n a la altitud cero en
+	 * hectopascales; por ejemplo, la del nivel del mar que reporta una
+	 * estaci&oacute;n cercana.
+	 * @throws IllegalArgumentException - Si la presi&oacute;n no es positiva.
+	 */
+	public AltitudeEstimator(float referencePressure){
+		setReferencePressure(referencePressure);
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta la presi&oacute;n de referencia. Puede llamarse desde cualquier
+	 * hilo; la siguiente lectura usa la nueva referencia.
+	 * @param referencePressure - La presi&oacute;n a la altitud cero en
+	 * hectopascales.
+	 * @throws IllegalArgumentException - Si la presi&oacute;n no es positiva.
+	 */
+	public void setReferencePressure(float referencePressure){
+		if(!(referencePressure > 0) || Float.isInfinite(referencePressure))
+			throw new IllegalArgumentException("referencePressure debe ser " +
+					"positiva");
+		this.referencePressure = referencePressure;
+	}//setReferencePressure
+	
+	/**
+	 * Da la presi&oacute;n de referencia.
+	 * @return float - La presi&oacute;n a la altitud cero en hectopascales.
+	 */
+	public float getReferencePressure(){
+		return referencePressure;
+	}//getReferencePressure
+	
+	/**
+	 * Ajusta el ruido del filtro.
+	 * @param measurement - La varianza de la altitud de cada lectura, en
+	 * metros al cuadrado.
+	 * @param process - La varianza de la aceleraci&oacute;n aleatoria sin
+	 * aceler&oacute;metro.
+	 * @param acceleration - La varianza del error de la aceleraci&oacute;n
+	 * medida.
+	 * @throws IllegalArgumentException - Si alguna varianza no es positiva.
+	 */
+	public void setNoise(float measurement, float process,
+			float acceleration){
+		if(!(measurement > 0) || !(process > 0) || !(acceleration > 0))
+			throw new IllegalArgumentException("las varianzas deben ser " +
+					"positivas");
+		measurementNoise = measurement;
+		processNoise = process;
+		accelerationNoise = acceleration;
+	}//setNoise
+	
+	/**
+	 * Da la etapa que predice el filtro con la aceleraci&oacute;n vertical;
+	 * se agrega al receptor de aceleraci&oacute;n lineal y no modifica sus
+	 * lecturas.
+	 * @return SampleStage - La etapa.
+	 */
+	public SampleStage getAccelerationStage(){
+		return accelerationStage;
+	}//getAccelerationStage
+	
+	/**
+	 * Da la altitud estimada.
+	 * @return float - La altitud en metros; o <tt>NaN</tt> si a&uacute;n no
+	 * hay lecturas.
+	 */
+	public float getAltitude(){
+		long start;
+		float value;
+		do{
+			start = lock.beginRead();
+			value = publishedAltitude;
+		}while(!lock.validate(start));
+		return value;
+	}//getAltitude
+	
+	/**
+	 * Da la velocidad vertical estimada; positiva al subir.
+	 * @return float - La velocidad en metros por segundo; o <tt>NaN</tt> si
+	 * a&uacute;n no hay lecturas.
+	 */
+	public float getVerticalSpeed(){
+		long start;
+		float value;
+		do{
+			start = lock.beginRead();
+			value = publishedSpeed;
+		}while(!lock.validate(start));
+		return value;
+	}//getVerticalSpeed
+	
+	/**
+	 * Da la altitud de la &uacute;ltima lectura, sin filtrar.
+	 * @return float - La altitud en metros; o <tt>NaN</tt> si a&uacute;n no
+	 * hay lecturas.
+	 */
+	public float getRawAltitude(){
+		long start;
+		float value;
+		do{
+			start = lock.beginRead();
+			value = publishedRaw;
+		}while(!lock.validate(start));
+		return value;
+	}//getRawAltitude
+	
+	/**
+	 * Copia la estimaci&oacute;n completa, tomada de una misma lectura.
+	 * @param out - Donde se escriben la altitud, la velocidad vertical, la
+	 * altitud sin filtrar y la varianza de la altitud estimada.
+	 * @return long - La versi&oacute;n de la estimaci&oacute;n copiada.
+	 */
+	public long readEstimate(float[] out){
+		long start;
+		do{
+			start = lock.beginRead();
+			out[0] = publishedAltitude;
+			out[1] = publishedSpeed;
+			out[2] = publishedRaw;
+			out[3] = publishedVariance;
+		}while(!lock.validate(start));
+		return lock.versionOf(start);
+	}//readEstimate
+	
+	// métodos de modificación
+	
+	/**
+	 * Olvida la estimaci&oacute;n; la siguiente presi&oacute;n inicia el
+	 * filtro. Debe llamarse desde el hilo que procesa los eventos o antes de
+	 * recibirlos.
+	 */
+	public void clear(){
+		lastTime = -1;
+		accelerationTime = -1;
+		lock.beginWrite();
+		publishedAltitude = Float.NaN;
+		publishedSpeed = Float.NaN;
+		publishedRaw = Float.NaN;
+		publishedVariance = Float.NaN;
+		lock.endWrite();
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		if(count < 1 || !(values[0] > 0))
+			return true;
+		float measured = toAltitude(values[0]);
+		float r = measurementNoise;
+		if(!predict(timestamp)){
+			height = measured;
+			speed = 0;
+			p00 = r;
+			p01 = 0;
+			p11 = INITIAL_SPEED_VARIANCE;
+			lastTime = timestamp;
+		}else{
+			float innovation = measured -height;
+			float s = p00 +r;
+			float k0 = p00 /s, k1 = p01 /s;
+			height += k0 *innovation;
+			speed += k1 *innovation;
+			p11 -= k1 *p01;
+			p01 *= 1 -k0;
+			p00 *= 1 -k0;
+		}//inicia o corrige el filtro
+		lock.beginWrite();
+		publishedAltitude = height;
+		publishedSpeed = speed;
+		publishedRaw = measured;
+		publishedVariance = p00;
+		lock.endWrite();
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Registra una aceleraci&oacute;n vertical, prediciendo antes el estado
+	 * hasta su momento con la aceleraci&oacute;n anterior.
+	 * @param timestamp - El momento de la lectura en nanosegundos.
+	 * @param value - La aceleraci&oacute;n vertical en metros por segundo al
+	 * cuadrado.
+	 */
+	private void updateAcceleration(long timestamp, float value){
+		predict(timestamp);
+		acceleration = value;
+		accelerationTime = timestamp;
+	}//updateAcceleration
+	
+	/**
+	 * Predice el estado hasta el momento dado.
+	 * @param timestamp - El momento en nanosegundos.
+	 * @return boolean - <tt>false</tt> si el filtro no est&aacute; iniciado o
+	 * el intervalo es mayor a <tt>MAX_GAP</tt>, en cuyo caso debe iniciarse.
+	 */
+	private boolean predict(long timestamp){
+		long last = lastTime;
+		if(last < 0)
+			return false;
+		long elapsed = timestamp -last;
+		if(elapsed > MAX_GAP){
+			lastTime = -1;
+			return false;
+		}//si hubo una pausa
+		if(elapsed <= 0)
+			return true;
+		lastTime = timestamp;
+		float dt = elapsed *1e-9f;
+		float a, q;
+		long age = timestamp -accelerationTime;
+		if(accelerationTime >= 0 && age <= MAX_ACCELERATION_AGE){
+			a = acceleration;
+			q = accelerationNoise;
+		}else{
+			a = 0;
+			q = processNoise;
+		}//usa la aceleración si es reciente
+		float dt2 = dt *dt;
+		height += dt *(speed +0.5f *a *dt);
+		speed += a *dt;
+		p00 += dt *(2 *p01 +dt *p11) +q *dt2 *dt2 *0.25f;
+		p01 += dt *p11 +q *dt2 *dt *0.5f;
+		p11 += q *dt2;
+		return true;
+	}//predict
+	
+	/**
+	 * Convierte una presi&oacute;n en altitud, reutilizando la &uacute;ltima
+	 * conversi&oacute;n si la presi&oacute;n y la referencia no cambiaron.
+	 * @param pressure - La presi&oacute;n en hectopascales.
+	 * @return float - La altitud en metros.
+	 */
+	private float toAltitude(float pressure){
+		float reference = referencePressure;
+		if(reference != cachedReference){
+			cachedReference = reference;
+			inverseReference = 1 /reference;
+		}else if(pressure == lastPressure){
+			return lastAltitude;
+		}//si cambió la referencia recalcula su inverso
+		lastPressure = pressure;
+		lastAltitude = (float)(44330 *(1 -Math.pow(pressure *inverseReference,
+				EXPONENT)));
+		return lastAltitude;
+	}//toAltitude
+	
+}//AltitudeEstimator class
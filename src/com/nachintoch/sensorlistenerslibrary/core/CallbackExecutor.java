@@ -0,0 +1,352 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.Executor;
+
+/**
+ * Procesa los eventos de uno o varios receptores en un
+ * <tt>java.util.concurrent.Executor</tt> en lugar del hilo que entrega los
+ * eventos de los sensores.<p/>
+ * 
+ * Las lecturas se copian a una cola de capacidad fija reservada al construir
+ * el objeto. Una sola tarea a la vez vac&iacute;a la cola en el
+ * <tt>Executor</tt>, de modo que cada receptor procesa sus eventos en orden
+ * y desde un solo hilo a la vez. La pol&iacute;tica elegida indica
+ * qu&eacute; hacer con las lecturas:
+ * <ul>
+ * <li><tt>DROP_OLDEST</tt> descarta la lectura m&aacute;s antigua de la
+ * cola cuando est&aacute; llena.</li>
+ * <li><tt>DROP_NEWEST</tt> descarta la lectura que llega cuando la cola
+ * est&aacute; llena.</li>
+ * <li><tt>COALESCE</tt> conserva s&oacute;lo la lectura m&aacute;s reciente
+ * de cada receptor: cada lectura reemplaza a la pendiente del mismo
+ * receptor, est&eacute; o no llena la cola. Si la cola est&aacute; llena con
+ * lecturas de otros receptores, descarta la m&aacute;s antigua.</li>
+ * <li><tt>BLOCK</tt> detiene al hilo del sensor hasta que haya espacio.
+ * Esperar en el mismo hilo en el que el <tt>Executor</tt> procesa la cola,
+ * como un <tt>Handler</tt> del <tt>Looper</tt> de los sensores o un
+ * <tt>Executor</tt> que ejecuta las tareas al recibirlas, la bloquear&iacute;a
+ * para siempre; as&iacute; que en ese hilo se descarta la m&aacute;s
+ * antigua como con <tt>DROP_OLDEST</tt>. Mientras el <tt>Executor</tt> no
+ * haya ejecutado ninguna tarea no se sabe cu&aacute;l es su hilo: se espera
+ * a lo m&aacute;s <tt>FIRST_RUN_WAIT</tt> a que comience, y si no comienza
+ * tambi&eacute;n se descarta la m&aacute;s antigua.</li>
+ * </ul>
+ * @see SensorSampleListener#setCallbackExecutor(CallbackExecutor)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class CallbackExecutor implements Runnable {
+
+	// atributos de clase
+	
+	/**
+	 * Pol&iacute;tica que descarta la lectura m&aacute;s antigua de la cola.
+	 */
+	public static final byte DROP_OLDEST = 0;
+	
+	/**
+	 * Pol&iacute;tica que descarta la lectura que llega.
+	 */
+	public static final byte DROP_NEWEST = 1;
+	
+	/**
+	 * Pol&iacute;tica que reemplaza la lectura pendiente del mismo receptor.
+	 */
+	public static final byte COALESCE = 2;
+	
+	/**
+	 * Pol&iacute;tica que espera a que haya espacio en la cola, salvo en el
+	 * hilo del <tt>Executor</tt>.
+	 */
+	public static final byte BLOCK = 3;
+	
+	/**
+	 * N&uacute;mero m&aacute;ximo de valores que se conservan de cada lectura.
+	 */
+	public static final int MAX_VALUES = SensorSnapshot.DEFAULT_CAPACITY;
+	
+	/**
+	 * Tiempo m&aacute;ximo en nanosegundos que <tt>BLOCK</tt> espera a que el
+	 * <tt>Executor</tt> ejecute su primera tarea.
+	 */
+	public static final long FIRST_RUN_WAIT = 20000000L;
+	
+	/**
+	 * Donde se ejecuta la tarea que vac&iacute;a la cola.
+	 */
+	private final Executor executor;
+	
+	/**
+	 * La pol&iacute;tica cuando la cola est&aacute; llena.
+	 */
+	private final byte policy;
+	
+	// cola circular de lecturas pendientes
+	private final SensorSampleListener[] sources;
+	private final int[] accuracies;
+	private final long[] timestamps;
+	private final int[] counts;
+	private final float[] values;
+	private int head;
+	private int size;
+	
+	/**
+	 * Indica si hay una tarea pendiente o en ejecuci&oacute;n en el
+	 * <tt>Executor</tt>.
+	 */
+	private boolean scheduled;
+	
+	/**
+	 * El &uacute;ltimo hilo en el que el <tt>Executor</tt> vaci&oacute; la
+	 * cola; o una referencia nula si a&uacute;n no lo ha hecho.
+	 */
+	private Thread consumer;
+	
+	/**
+	 * Arreglos para entregar las lecturas a los receptores; uno por cada
+	 * n&uacute;mero posible de valores.
+	 */
+	private final float[][] scratch;
+	
+	// contadores
+	private volatile long submitted;
+	private volatile long executed;
+	private volatile long dropped;
+	private volatile long coalesced;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un ejecutor de eventos.
+	 * @param executor - Donde se procesan los eventos.
+	 * @param capacity - Cu&aacute;ntas lecturas pueden esperar en la cola.
+	 * @param policy - Qu&eacute; hacer cuando la cola est&aacute; llena.
+	 * @throws IllegalArgumentException - Si <tt>executor</tt> es nulo, la
+	 * capacidad no es positiva o la pol&iacute;tica no existe.
+	 * @see #DROP_OLDEST
+	 * @see #DROP_NEWEST
+	 * @see #COALESCE
+	 * @see #BLOCK
+	 */
+	public CallbackExecutor(Executor executor, int capacity, byte policy){
+		if(executor == null)
+			throw new IllegalArgumentException("executor no puede ser nulo");
+		if(capacity <= 0)
+			throw new IllegalArgumentException("capacity debe ser positivo");
+		if(policy < DROP_OLDEST || policy > BLOCK)
+			throw new IllegalArgumentException("pol\u00EDtica desconocida: "
+					+policy);
+		this.executor = executor;
+		this.policy = policy;
+		sources = new SensorSampleListener[capacity];
+		accuracies = new int[capacity];
+		timestamps = new long[capacity];
+		counts = new int[capacity];
+		values = new float[capacity *MAX_VALUES];
+		scratch = new float[MAX_VALUES +1][];
+		for(int i = 0; i <= MAX_VALUES; i++)
+			scratch[i] = new float[i];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas se han recibido.
+	 * @return long - El n&uacute;mero de lecturas recibidas.
+	 */
+	public long getSubmittedCount(){
+		return submitted;
+	}//getSubmittedCount
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas se han procesado.
+	 * @return long - El n&uacute;mero de lecturas procesadas.
+	 */
+	public long getExecutedCount(){
+		return executed;
+	}//getExecutedCount
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas se han descartado por estar llena la cola.
+	 * @return long - El n&uacute;mero de lecturas descartadas.
+	 */
+	public long getDroppedCount(){
+		return dropped;
+	}//getDroppedCount
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas pendientes se han reemplazado por una
+	 * m&aacute;s reciente.
+	 * @return long - El n&uacute;mero de lecturas reemplazadas.
+	 */
+	public long getCoalescedCount(){
+		return coalesced;
+	}//getCoalescedCount
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas esperan en la cola.
+	 * @return int - El n&uacute;mero de lecturas pendientes.
+	 */
+	public synchronized int getPendingCount(){
+		return size;
+	}//getPendingCount
+	
+	// métodos de implementación
+	
+	/**
+	 * Encola una lectura para procesarla en el <tt>Executor</tt>.
+	 * @param source - El receptor que debe procesar la lectura.
+	 * @param accuracy - La presici&oacute;n del evento.
+	 * @param timestamp - El momento del evento en nanosegundos.
+	 * @param lectures - Los valores le&iacute;dos.
+	 * @param count - Cu&aacute;ntos valores de <tt>lectures</tt> son
+	 * v&aacute;lidos. S&oacute;lo se conservan los primeros
+	 * <tt>MAX_VALUES</tt>.
+	 * @return boolean - <tt>false</tt> si la lectura se descart&oacute;.
+	 */
+	public synchronized boolean submit(SensorSampleListener source,
+			int accuracy, long timestamp, float[] lectures, int count){
+		submitted++;
+		int slot = -1;
+		if(policy == COALESCE){
+			slot = pendingOf(source);
+			if(slot >= 0)
+				coalesced++;
+		}//si reemplaza la lectura pendiente del receptor
+		if(slot < 0){
+			if(size < sources.length){
+				slot = (head +size++) %sources.length;
+			}else if(policy == DROP_NEWEST){
+				dropped++;
+				return false;
+			}else if(policy == BLOCK && mayBlock()){
+				while(size == sources.length){
+					try{
+						wait();
+					}catch(InterruptedException e){
+						Thread.currentThread().interrupt();
+						dropped++;
+						return false;
+					}//espera espacio
+				}//mientras la cola esté llena
+				slot = (head +size++) %sources.length;
+			}else{
+				slot = head;
+				head = (head +1) %sources.length;
+				dropped++;
+			}//aplica la política
+		}//si ocupa una casilla nueva
+		int length = Math.min(count, MAX_VALUES);
+		sources[slot] = source;
+		accuracies[slot] = accuracy;
+		timestamps[slot] = timestamp;
+		counts[slot] = length;
+		System.arraycopy(lectures, 0, values, slot *MAX_VALUES, length);
+		if(!scheduled){
+			scheduled = true;
+			try{
+				executor.execute(this);
+			}catch(RuntimeException e){
+				scheduled = false;
+				throw e;
+			}//programa la tarea
+		}//si no hay una tarea pendiente
+		return true;
+	}//submit
+	
+	/**
+	 * Procesa las lecturas pendientes hasta vaciar la cola.
+	 */
+	@Override
+	public void run(){
+		SensorSampleListener source;
+		int accuracy;
+		long timestamp;
+		float[] lectures;
+		while(true){
+			synchronized(this){
+				Thread current = Thread.currentThread();
+				if(consumer != current){
+					consumer = current;
+					notifyAll();
+				}//si cambió el hilo del Executor
+				if(size == 0){
+					scheduled = false;
+					return;
+				}//si ya no hay lecturas
+				source = sources[head];
+				accuracy = accuracies[head];
+				timestamp = timestamps[head];
+				lectures = scratch[counts[head]];
+				System.arraycopy(values, head *MAX_VALUES, lectures, 0,
+						lectures.length);
+				sources[head] = null;
+				head = (head +1) %sources.length;
+				size--;
+				if(policy == BLOCK)
+					notifyAll();
+			}//toma la lectura más antigua
+			source.processEvent(accuracy, timestamp, lectures);
+			executed++;
+		}//mientras haya lecturas
+	}//run
+	
+	// métodos auxiliares
+	
+	/**
+	 * Busca la lectura pendiente del receptor dado. Con <tt>COALESCE</tt>
+	 * cada receptor tiene a lo m&aacute;s una, as&iacute; que el recorrido es
+	 * tan largo como el n&uacute;mero de receptores.
+	 * @return int - La casilla de la lectura, o -1 si no hay ninguna.
+	 */
+	private int pendingOf(SensorSampleListener source){
+		for(int i = size -1; i >= 0; i--){
+			int slot = (head +i) %sources.length;
+			if(sources[slot] == source)
+				return slot;
+		}//recorre la cola de la más reciente a la más antigua
+		return -1;
+	}//pendingOf
+	
+	/**
+	 * Indica si el hilo actual puede esperar a que haya espacio en la cola
+	 * sin bloquear al <tt>Executor</tt>. Si el <tt>Executor</tt> a&uacute;n no
+	 * ha vaciado la cola, espera a lo m&aacute;s <tt>FIRST_RUN_WAIT</tt> a
+	 * que comience.
+	 * @return boolean - <tt>false</tt> si el <tt>Executor</tt> vac&iacute;a la
+	 * cola en &eacute;ste hilo o no ha comenzado a vaciarla.
+	 */
+	private boolean mayBlock(){
+		Thread current = Thread.currentThread();
+		long deadline = System.nanoTime() +FIRST_RUN_WAIT;
+		long remaining = FIRST_RUN_WAIT;
+		while(consumer == null && remaining > 0){
+			try{
+				wait(remaining /1000000, (int)(remaining %1000000));
+			}catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				return false;
+			}//espera la primera tarea
+			remaining = deadline -System.nanoTime();
+		}//mientras no se conozca el hilo del Executor
+		return consumer != null && consumer != current;
+	}//mayBlock
+	
+}//CallbackExecutor class
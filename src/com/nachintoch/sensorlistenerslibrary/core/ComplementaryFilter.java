@@ -0,0 +1,129 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Filtro complementario de orientaci&oacute;n.<p/>
+ *
+ * Integra el giroscopio, que es preciso a corto plazo, y acerca el resultado
+ * a la orientaci&oacute;n absoluta que dan el aceler&oacute;metro y el
+ * magnet&oacute;metro, que es ruidosa pero no deriva. La constante de tiempo
+ * indica cu&aacute;nto tarda en corregirse la deriva: el peso de la
+ * orientaci&oacute;n absoluta en cada paso es <tt>dt / (tau + dt)</tt>.<p/>
+ *
+ * Sin magnet&oacute;metro s&oacute;lo se corrige la inclinaci&oacute;n y el
+ * azimut queda como lo da el giroscopio.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class ComplementaryFilter extends OrientationFilter {
+
+	// atributos de clase
+	
+	/**
+	 * La constante de tiempo en segundos.
+	 */
+	private float timeConstant;
+	
+	/**
+	 * La orientaci&oacute;n absoluta de cada paso.
+	 */
+	private final float[] target = new float[4];
+	
+	/**
+	 * La direcci&oacute;n del norte estimado en las coordenadas del
+	 * dispositivo; sustituye al magnet&oacute;metro cuando no hay lecturas.
+	 */
+	private final float[] north = new float[3];
+	
+	/**
+	 * Constante de tiempo por omisi&oacute;n, en segundos.
+	 */
+	public static final float DEFAULT_TIME_CONSTANT = 0.5f;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un filtro con la constante de tiempo por omisi&oacute;n.
+	 * @see #DEFAULT_TIME_CONSTANT
+	 */
+	public ComplementaryFilter(){
+		this(DEFAULT_TIME_CONSTANT);
+	}//constructor
+	
+	/**
+	 * Construye un filtro con la constante de tiempo dada.
+	 * @param timeConstant - La constante de tiempo en segundos.
+	 * @throws IllegalArgumentException - Si la constante no es positiva.
+	 */
+	public ComplementaryFilter(float timeConstant){
+		setTimeConstant(timeConstant);
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta la constante de tiempo.
+	 * @param timeConstant - La constante de tiempo en segundos.
+	 * @throws IllegalArgumentException - Si la constante no es positiva.
+	 */
+	public void setTimeConstant(float timeConstant){
+		if(!(timeConstant > 0))
+			throw new IllegalArgumentException("timeConstant debe ser " +
+					"positiva");
+		this.timeConstant = timeConstant;
+	}//setTimeConstant
+	
+	/**
+	 * Da la constante de tiempo.
+	 * @return float - La constante de tiempo en segundos.
+	 */
+	public float getTimeConstant(){
+		return timeConstant;
+	}//getTimeConstant
+	
+	// métodos auxiliares
+	
+	@Override
+	protected void integrate(float dt, float x, float y, float z){
+		float[] q = quaternion;
+		Quaternions.integrate(q, x, y, z, dt);
+		if(!hasGravity)
+			return;
+		float[] field = geomagnetic;
+		if(!hasGeomagnetic){
+			north[0] = 2 *(q[1] *q[2] +q[0] *q[3]);
+			north[1] = 1 -2 *(q[1] *q[1] +q[3] *q[3]);
+			north[2] = 2 *(q[2] *q[3] -q[0] *q[1]);
+			field = north;
+		}//si no hay magnetómetro conserva el azimut
+		if(!Quaternions.fromGravityAndField(gravity, field, matrix))
+			return;
+		Quaternions.fromRotationMatrix(matrix, target);
+		float weight = dt /(timeConstant +dt);
+		float keep = 1 -weight;
+		if(Quaternions.dot(q, target) < 0)
+			weight = -weight;
+		q[0] = keep *q[0] +weight *target[0];
+		q[1] = keep *q[1] +weight *target[1];
+		q[2] = keep *q[2] +weight *target[2];
+		q[3] = keep *q[3] +weight *target[3];
+		Quaternions.normalize(q);
+	}//integrate
+	
+}//ComplementaryFilter class
@@ -0,0 +1,276 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Descarta las lecturas que no cambian significativamente.<p/>
+ *
+ * Una lectura contin&uacute;a s&oacute;lo si alg&uacute;n eje se aleja de la
+ * &uacute;ltima lectura que continu&oacute; m&aacute;s que su umbral, y si
+ * desde &eacute;sta pasaron al menos <tt>minInterval</tt> nanosegundos. El
+ * umbral de cada eje es el mayor entre su umbral absoluto y su umbral
+ * relativo multiplicado por el valor anterior; as&iacute; los cambios menores
+ * al ruido del sensor no llegan a <tt>retrieveData</tt>, a la pantalla ni a
+ * <tt>notificate()</tt>. La primera lectura siempre contin&uacute;a.<p/>
+ *
+ * Como la comparaci&oacute;n es con la &uacute;ltima lectura que
+ * continu&oacute; y no con la anterior, un cambio lento termina por pasar.
+ * Los umbrales pueden cambiarse desde cualquier hilo; las lecturas
+ * descartadas se cuentan.<p/>
+ *
+ * Una lectura que cambi&oacute; pero lleg&oacute; antes de
+ * <tt>minInterval</tt> no se pierde: se conserva como pendiente, y si la
+ * siguiente lectura llega despu&eacute;s del tiempo y a&uacute;n cambi&oacute;
+ * es &eacute;sta la que contin&uacute;a. Si la siguiente ya no se aleja de la
+ * &uacute;ltima que continu&oacute;, la pendiente se olvida, pues lo que se
+ * mostr&oacute; sigue siendo correcto. Los sensores que s&oacute;lo reportan
+ * cambios, como los de luz y proximidad, pueden no volver a reportar; para
+ * ellos la pendiente se entrega al vencer el tiempo con
+ * <tt>flush(long, float[])</tt>, que debe llamarse desde el hilo que procesa
+ * las lecturas.
+ * @see #getDeadline()
+ * @see SensorSampleListener#flushDeadband(long)
+ * @see SensorSampleListener#enableDeadband(float, float, long)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class Deadband implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * El umbral absoluto de cada eje.
+	 */
+	private final float[] absolute;
+	
+	/**
+	 * El umbral relativo de cada eje.
+	 */
+	private final float[] relative;
+	
+	/**
+	 * Los valores de la &uacute;ltima lectura que continu&oacute;.
+	 */
+	private final float[] reference;
+	
+	/**
+	 * El momento de la &uacute;ltima lectura que continu&oacute;; o -1 si no
+	 * hay.
+	 */
+	private long lastTime = -1;
+	
+	/**
+	 * El tiempo m&iacute;nimo en nanosegundos entre dos lecturas que
+	 * contin&uacute;an.
+	 */
+	private volatile long minInterval;
+	
+	/**
+	 * Los valores de la lectura pendiente, que cambi&oacute; pero lleg&oacute;
+	 * antes del tiempo m&iacute;nimo.
+	 */
+	private float[] pending;
+	
+	/**
+	 * Cu&aacute;ntos valores tiene la lectura pendiente.
+	 */
+	private int pendingCount;
+	
+	/**
+	 * El momento de la lectura pendiente; o -1 si no hay.
+	 */
+	private long pendingTime = -1;
+	
+	// contadores
+	private volatile long passed;
+	private volatile long suppressed;
+	
+	/**
+	 * N&uacute;mero de ejes de cada lectura.
+	 */
+	public final int AXES;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un filtro con los mismos umbrales para todos los ejes.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @param absolute - El cambio m&iacute;nimo en las unidades del sensor.
+	 * @param relative - El cambio m&iacute;nimo como fracci&oacute;n del valor
+	 * anterior; por ejemplo 0.01 para el 1%.
+	 * @param minInterval - El tiempo m&iacute;nimo en nanosegundos entre dos
+	 * lecturas que contin&uacute;an; o 0 para no limitarlo.
+	 * @throws IllegalArgumentException - Si el n&uacute;mero de ejes no es
+	 * positivo o alg&uacute;n umbral es negativo.
+	 */
+	public Deadband(int axes, float absolute, float relative,
+			long minInterval){
+		if(axes <= 0)
+			throw new IllegalArgumentException("axes debe ser positivo");
+		AXES = axes;
+		this.absolute = new float[axes];
+		this.relative = new float[axes];
+		reference = new float[axes];
+		for(int i = 0; i < axes; i++)
+			setThreshold(i, absolute, relative);
+		setMinInterval(minInterval);
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta los umbrales de un eje.
+	 * @param axis - El eje.
+	 * @param absolute - El cambio m&iacute;nimo en las unidades del sensor.
+	 * @param relative - El cambio m&iacute;nimo como fracci&oacute;n del valor
+	 * anterior.
+	 * @throws IllegalArgumentException - Si alg&uacute;n umbral es negativo.
+	 */
+	public void setThreshold(int axis, float absolute, float relative){
+		if(!(absolute >= 0) || !(relative >= 0))
+			throw new IllegalArgumentException("los umbrales no pueden ser " +
+					"negativos");
+		this.absolute[axis] = absolute;
+		this.relative[axis] = relative;
+	}//setThreshold
+	
+	/**
+	 * Ajusta el tiempo m&iacute;nimo entre dos lecturas que contin&uacute;an.
+	 * @param minInterval - El tiempo en nanosegundos; o 0 para no limitarlo.
+	 * @throws IllegalArgumentException - Si el tiempo es negativo.
+	 */
+	public void setMinInterval(long minInterval){
+		if(minInterval < 0)
+			throw new IllegalArgumentException("minInterval no puede ser " +
+					"negativo");
+		this.minInterval = minInterval;
+	}//setMinInterval
+	
+	/**
+	 * Da el tiempo m&iacute;nimo entre dos lecturas que contin&uacute;an.
+	 * @return long - El tiempo en nanosegundos.
+	 */
+	public long getMinInterval(){
+		return minInterval;
+	}//getMinInterval
+	
+	/**
+	 * Da cu&aacute;ntas lecturas han continuado.
+	 * @return long - El n&uacute;mero de lecturas que continuaron.
+	 */
+	public long getPassedCount(){
+		return passed;
+	}//getPassedCount
+	
+	/**
+	 * Da cu&aacute;ntas lecturas se han descartado.
+	 * @return long - El n&uacute;mero de lecturas descartadas.
+	 */
+	public long getSuppressedCount(){
+		return suppressed;
+	}//getSuppressedCount
+	
+	/**
+	 * Da el momento a partir del cual puede entregarse la lectura pendiente.
+	 * @return long - El momento en nanosegundos, en el reloj de las lecturas;
+	 * o -1 si no hay lectura pendiente.
+	 * @see #flush(long, float[])
+	 */
+	public long getDeadline(){
+		if(pendingTime < 0)
+			return -1;
+		return lastTime +minInterval;
+	}//getDeadline
+	
+	// métodos de modificación
+	
+	/**
+	 * Olvida la &uacute;ltima lectura que continu&oacute;; la siguiente
+	 * lectura contin&uacute;a.
+	 */
+	public void clear(){
+		lastTime = -1;
+		pendingTime = -1;
+	}//clear
+	
+	/**
+	 * Deja continuar la lectura pendiente si ya pas&oacute; el tiempo
+	 * m&iacute;nimo. Debe llamarse desde el hilo que procesa las lecturas.
+	 * @param now - El momento actual en nanosegundos, en el reloj de las
+	 * lecturas.
+	 * @param values - Donde se copian los valores de la lectura pendiente.
+	 * @return long - El momento de la lectura pendiente; o -1 si no hay o
+	 * a&uacute;n no pasa el tiempo m&iacute;nimo.
+	 * @throws IllegalArgumentException - Si los valores pendientes no caben.
+	 * @see #getDeadline()
+	 */
+	public long flush(long now, float[] values){
+		long timestamp = pendingTime;
+		if((timestamp < 0) || (now -lastTime < minInterval))
+			return -1;
+		if(values.length < pendingCount)
+			throw new IllegalArgumentException("la lectura pendiente tiene " +
+					pendingCount +" valores");
+		System.arraycopy(pending, 0, values, 0, pendingCount);
+		System.arraycopy(pending, 0, reference, 0,
+				Math.min(pendingCount, AXES));
+		pendingTime = -1;
+		lastTime = now;
+		passed++;
+		return timestamp;
+	}//flush
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		int n = Math.min(count, AXES);
+		long last = lastTime;
+		if(last >= 0){
+			boolean changed = false;
+			for(int i = 0; i < n && !changed; i++){
+				float previous = reference[i];
+				float threshold = Math.max(absolute[i],
+						relative[i] *Math.abs(previous));
+				float change = Math.abs(values[i] -previous);
+				changed = change > threshold || Float.isNaN(change);
+			}//busca un eje que haya cambiado
+			if(!changed){
+				pendingTime = -1;
+				suppressed++;
+				return false;
+			}//si ningún eje cambió
+			if(timestamp -last < minInterval){
+				float[] kept = pending;
+				if((kept == null) || (kept.length < count))
+					pending = kept = new float[count];
+				System.arraycopy(values, 0, kept, 0, count);
+				pendingCount = count;
+				pendingTime = timestamp;
+				suppressed++;
+				return false;
+			}//si no ha pasado el tiempo mínimo
+		}//si hay una lectura anterior
+		System.arraycopy(values, 0, reference, 0, n);
+		pendingTime = -1;
+		lastTime = timestamp;
+		passed++;
+		return true;
+	}//process
+	
+}//Deadband class
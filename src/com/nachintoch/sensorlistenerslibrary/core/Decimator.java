@@ -0,0 +1,239 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+
+/**
+ * Reduce la frecuencia de las lecturas de un sensor por un factor entero, con
+ * un filtro antialias.<p/>
+ *
+ * De cada <tt>RATIO</tt> lecturas s&oacute;lo contin&uacute;a una, cuyos
+ * valores son los de un filtro pasa bajas de respuesta finita al impulso
+ * aplicado a las lecturas originales; as&iacute; las frecuencias que ya no
+ * caben en la frecuencia reducida se aten&uacute;an en lugar de confundirse
+ * con otras, como ocurre al tomar una de cada <tt>RATIO</tt> lecturas sin
+ * filtrar. El filtro es una ventana de Hamming sobre la funci&oacute;n sinc,
+ * con corte en la mitad de la frecuencia reducida y ganancia 1 para los
+ * valores constantes.<p/>
+ *
+ * El filtro se aplica en forma polif&aacute;sica: sus coeficientes se dividen
+ * en <tt>RATIO</tt> fases y cada lectura s&oacute;lo se multiplica por los de
+ * su fase, acumulando el resultado hasta completar la lectura que
+ * contin&uacute;a. Cada lectura cuesta <tt>TAPS_PER_PHASE</tt> multiplicaciones
+ * por eje, sin importar el factor, y no se crean objetos. Los valores que
+ * contin&uacute;an llevan el momento de la &uacute;ltima lectura original,
+ * aunque el filtro los retrasa <tt>getDelay()</tt> lecturas originales.
+ * @see SensorSampleListener#enableDecimation(int)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class Decimator implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * Los coeficientes del filtro agrupados por fase; los de cada fase en
+	 * orden, del que multiplica la lectura m&aacute;s reciente al que
+	 * multiplica la m&aacute;s antigua.
+	 */
+	private final float[] coefficients;
+	
+	/**
+	 * Las lecturas anteriores de cada eje y fase; arreglos circulares de
+	 * <tt>2 TAPS_PER_PHASE</tt> elementos, con cada lectura escrita dos veces
+	 * para recorrerlos sin calcular residuos.
+	 */
+	private final float[] history;
+	
+	/**
+	 * La posici&oacute;n de la lectura m&aacute;s reciente en el arreglo
+	 * circular de cada fase.
+	 */
+	private final int[] positions;
+	
+	/**
+	 * Las sumas acumuladas de la lectura que contin&uacute;a, por eje.
+	 */
+	private final float[] sums;
+	
+	/**
+	 * La posici&oacute;n de la siguiente lectura en el grupo de
+	 * <tt>RATIO</tt> lecturas.
+	 */
+	private int offset;
+	
+	/**
+	 * Indica si el filtro debe iniciarse con la siguiente lectura.
+	 */
+	private boolean empty = true;
+	
+	/**
+	 * El factor por el que se reduce la frecuencia.
+	 */
+	public final int RATIO;
+	
+	/**
+	 * N&uacute;mero de coeficientes de cada fase.
+	 */
+	public final int TAPS_PER_PHASE;
+	
+	/**
+	 * N&uacute;mero de ejes de cada lectura.
+	 */
+	public final int AXES;
+	
+	/**
+	 * N&uacute;mero de coeficientes por fase por omisi&oacute;n.
+	 */
+	public static final int DEFAULT_TAPS_PER_PHASE = 8;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un reductor para el n&uacute;mero de ejes y el factor dados,
+	 * con el n&uacute;mero de coeficientes por fase por omisi&oacute;n.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @param ratio - El factor por el que se reduce la frecuencia.
+	 * @throws IllegalArgumentException - Si alg&uacute;n par&aacute;metro no
+	 * es positivo.
+	 * @see #DEFAULT_TAPS_PER_PHASE
+	 */
+	public Decimator(int axes, int ratio){
+		this(axes, ratio, DEFAULT_TAPS_PER_PHASE);
+	}//constructor
+	
+	/**
+	 * Construye un reductor para el n&uacute;mero de ejes, el factor y el
+	 * n&uacute;mero de coeficientes por fase dados. M&aacute;s coeficientes
+	 * aten&uacute;an mejor las frecuencias altas, pero cuestan m&aacute;s y
+	 * retrasan m&aacute;s las lecturas.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @param ratio - El factor por el que se reduce la frecuencia.
+	 * @param tapsPerPhase - El n&uacute;mero de coeficientes de cada fase.
+	 * @throws IllegalArgumentException - Si alg&uacute;n par&aacute;metro no
+	 * es positivo.
+	 */
+	public Decimator(int axes, int ratio, int tapsPerPhase){
+		if(axes <= 0 || ratio <= 0 || tapsPerPhase <= 0)
+			throw new IllegalArgumentException("axes, ratio y tapsPerPhase " +
+					"deben ser positivos");
+		AXES = axes;
+		RATIO = ratio;
+		TAPS_PER_PHASE = tapsPerPhase;
+		coefficients = design(ratio, tapsPerPhase);
+		history = new float[axes *ratio *2 *tapsPerPhase];
+		positions = new int[ratio];
+		sums = new float[axes];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Da el retraso del filtro.
+	 * @return float - El retraso en lecturas originales.
+	 */
+	public float getDelay(){
+		return (RATIO *TAPS_PER_PHASE -1) /2f;
+	}//getDelay
+	
+	// métodos de modificación
+	
+	/**
+	 * Olvida las lecturas anteriores; el filtro se inicia con la siguiente
+	 * lectura, como si todas las anteriores hubieran sido iguales a ella.
+	 */
+	public void clear(){
+		empty = true;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		int axes = Math.min(count, AXES);
+		int taps = TAPS_PER_PHASE;
+		int span = 2 *taps;
+		if(empty){
+			for(int axis = 0; axis < axes; axis++){
+				int from = axis *RATIO *span;
+				Arrays.fill(history, from, from +RATIO *span,
+						values[axis]);
+				sums[axis] = 0;
+			}//llena el historial con la lectura
+			Arrays.fill(positions, 0);
+			offset = 0;
+			empty = false;
+		}//si debe iniciarse
+		int phase = RATIO -1 -offset;
+		int position = positions[phase] -1;
+		if(position < 0)
+			position += taps;
+		positions[phase] = position;
+		int first = phase *taps;
+		for(int axis = 0; axis < axes; axis++){
+			int ring = (axis *RATIO +phase) *span;
+			float value = values[axis];
+			history[ring +position] = value;
+			history[ring +position +taps] = value;
+			float sum = 0;
+			for(int j = 0; j < taps; j++)
+				sum += coefficients[first +j] *history[ring +position +j];
+			sums[axis] += sum;
+		}//acumula la fase de la lectura
+		if(++offset < RATIO)
+			return false;
+		offset = 0;
+		for(int axis = 0; axis < axes; axis++){
+			values[axis] = sums[axis];
+			sums[axis] = 0;
+		}//entrega la lectura filtrada
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Calcula los coeficientes del filtro y los agrupa por fase.
+	 * @param ratio - El factor por el que se reduce la frecuencia.
+	 * @param tapsPerPhase - El n&uacute;mero de coeficientes de cada fase.
+	 * @return float[] - Los coeficientes de cada fase, consecutivos.
+	 */
+	private static float[] design(int ratio, int tapsPerPhase){
+		int length = ratio *tapsPerPhase;
+		double[] h = new double[length];
+		double center = (length -1) /2.0;
+		double cutoff = 0.5 /ratio;
+		double total = 0;
+		for(int k = 0; k < length; k++){
+			double t = k -center;
+			double sinc = t == 0 ? 2 *cutoff :
+					Math.sin(2 *Math.PI *cutoff *t) /(Math.PI *t);
+			double window = length == 1 ? 1 :
+					0.54 -0.46 *Math.cos(2 *Math.PI *k /(length -1));
+			h[k] = sinc *window;
+			total += h[k];
+		}//calcula la sinc con ventana de Hamming
+		float[] phases = new float[length];
+		for(int p = 0; p < ratio; p++)
+			for(int j = 0; j < tapsPerPhase; j++)
+				phases[p *tapsPerPhase +j] = (float)(h[j *ratio +p] /total);
+		return phases;
+	}//design
+	
+}//Decimator class
@@ -0,0 +1,145 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Filtro de primer orden, pasa bajas o pasa altas, sobre cada eje de las
+ * lecturas.<p/>
+ *
+ * El pasa bajas es un promedio exponencial: <tt>y += a (x - y)</tt>, con
+ * <tt>a = dt / (RC + dt)</tt> y <tt>RC = 1 / (2 pi fc)</tt> para la
+ * frecuencia de corte <tt>fc</tt>. El peso se calcula con el intervalo real
+ * entre lecturas, as&iacute; que la frecuencia de corte no depende de la
+ * frecuencia del sensor. El pasa altas es la lectura menos el pasa bajas.
+ * Aplicado al aceler&oacute;metro, el pasa bajas estima la gravedad y el
+ * pasa altas la aceleraci&oacute;n lineal.<p/>
+ *
+ * Es una etapa que reemplaza los valores de cada lectura por los filtrados,
+ * sin crear objetos. La primera lectura, o la primera tras una pausa mayor a
+ * <tt>MAX_GAP</tt>, inicia el filtro con sus propios valores.
+ * @see SensorSampleListener#addStage(SampleStage)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class FirstOrderFilter implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * La salida del pasa bajas de cada eje.
+	 */
+	private final float[] low;
+	
+	/**
+	 * La constante de tiempo <tt>RC</tt> en segundos.
+	 */
+	private volatile float timeConstant;
+	
+	/**
+	 * El momento de la lectura anterior en nanosegundos; o -1 si el filtro
+	 * debe iniciarse con la siguiente.
+	 */
+	private long lastTime = -1;
+	
+	/**
+	 * Indica si el filtro es pasa altas.
+	 */
+	public final boolean HIGH_PASS;
+	
+	/**
+	 * Intervalo m&aacute;ximo en nanosegundos entre dos lecturas para
+	 * filtrarlas juntas; un intervalo mayor reinicia el filtro.
+	 */
+	public static final long MAX_GAP = 1000000000L;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un filtro para el n&uacute;mero de ejes y la frecuencia de
+	 * corte dados.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @param highPass - <tt>true</tt> para un pasa altas; <tt>false</tt> para
+	 * un pasa bajas.
+	 * @throws IllegalArgumentException - Si el n&uacute;mero de ejes o la
+	 * frecuencia de corte no son positivos.
+	 */
+	public FirstOrderFilter(int axes, float cutoff, boolean highPass){
+		if(axes <= 0)
+			throw new IllegalArgumentException("axes debe ser positivo");
+		low = new float[axes];
+		HIGH_PASS = highPass;
+		setCutoff(cutoff);
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta la frecuencia de corte. Puede llamarse desde cualquier hilo.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @throws IllegalArgumentException - Si la frecuencia no es positiva.
+	 */
+	public void setCutoff(float cutoff){
+		if(!(cutoff > 0))
+			throw new IllegalArgumentException("cutoff debe ser positiva");
+		timeConstant = (float)(1 /(2 *Math.PI *cutoff));
+	}//setCutoff
+	
+	/**
+	 * Da la frecuencia de corte.
+	 * @return float - La frecuencia de corte en hertz.
+	 */
+	public float getCutoff(){
+		return (float)(1 /(2 *Math.PI *timeConstant));
+	}//getCutoff
+	
+	// métodos de modificación
+	
+	/**
+	 * Olvida el estado del filtro; la siguiente lectura lo inicia.
+	 */
+	public void clear(){
+		lastTime = -1;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		float[] state = low;
+		int n = Math.min(count, state.length);
+		long last = lastTime;
+		lastTime = timestamp;
+		long elapsed = timestamp -last;
+		if(last < 0 || elapsed < 0 || elapsed > MAX_GAP){
+			System.arraycopy(values, 0, state, 0, n);
+		}else{
+			float dt = elapsed *1e-9f;
+			float weight = dt /(timeConstant +dt);
+			for(int i = 0; i < n; i++)
+				state[i] += weight *(values[i] -state[i]);
+		}//inicia o actualiza el pasa bajas
+		if(HIGH_PASS)
+			for(int i = 0; i < n; i++)
+				values[i] -= state[i];
+		else
+			System.arraycopy(state, 0, values, 0, n);
+		return true;
+	}//process
+	
+}//FirstOrderFilter class
@@ -0,0 +1,274 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Estima y resta el sesgo del giroscopio.<p/>
+ *
+ * Un giroscopio quieto no lee cero sino un sesgo que cambia lentamente, y al
+ * integrar las lecturas el sesgo se vuelve deriva. Esta etapa mantiene las
+ * estad&iacute;sticas de una ventana de las lecturas sin corregir con un
+ * <tt>SlidingStatistics</tt>, que se actualiza en tiempo constante; y cuando
+ * la varianza de todos los ejes es menor al umbral y el promedio es menor al
+ * sesgo m&aacute;ximo, considera que el dispositivo est&aacute; quieto y
+ * acerca el sesgo estimado al promedio de la ventana. Opcionalmente
+ * tambi&eacute;n exige que el aceler&oacute;metro est&eacute; quieto, con
+ * las estad&iacute;sticas que ya calcule su receptor.<p/>
+ *
+ * El sesgo estimado se resta de cada lectura antes de que se registre. No se
+ * crean objetos al procesar las lecturas.
+ * @see SensorSampleListener#enableStatistics(int)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class GyroscopeBias implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * Las estad&iacute;sticas de las lecturas sin corregir.
+	 */
+	private final SlidingStatistics statistics;
+	
+	/**
+	 * Copia de las estad&iacute;sticas del giroscopio.
+	 */
+	private final StatisticsSnapshot gyroscope = new StatisticsSnapshot(3);
+	
+	/**
+	 * Copia de las estad&iacute;sticas del aceler&oacute;metro.
+	 */
+	private final StatisticsSnapshot accelerometer = new StatisticsSnapshot(3);
+	
+	/**
+	 * Las estad&iacute;sticas del aceler&oacute;metro; o una referencia nula
+	 * si no se usan.
+	 */
+	private volatile SlidingStatistics accelerometerStatistics;
+	
+	/**
+	 * El sesgo estimado de cada eje.
+	 */
+	private final float[] bias = new float[3];
+	
+	/**
+	 * Contador de secuencia que protege el sesgo mientras se actualiza.
+	 */
+	private final SequenceLock lock = new SequenceLock();
+	
+	// estado
+	private volatile boolean stationary;
+	private volatile long stationaryCount;
+	
+	// umbrales
+	private volatile float gyroscopeVariance = DEFAULT_GYROSCOPE_VARIANCE;
+	private volatile float accelerometerVariance =
+			DEFAULT_ACCELEROMETER_VARIANCE;
+	private volatile float maxBias = DEFAULT_MAX_BIAS;
+	
+	/**
+	 * Cu&aacute;nto se acerca el sesgo al promedio de la ventana con cada
+	 * lectura quieta.
+	 */
+	public static final float GAIN = 0.02f;
+	
+	/**
+	 * Varianza m&aacute;xima por omisi&oacute;n del giroscopio quieto, en
+	 * radianes por segundo al cuadrado.
+	 */
+	public static final float DEFAULT_GYROSCOPE_VARIANCE = 1e-4f;
+	
+	/**
+	 * Varianza m&aacute;xima por omisi&oacute;n del aceler&oacute;metro
+	 * quieto, en metros por segundo al cuadrado, al cuadrado.
+	 */
+	public static final float DEFAULT_ACCELEROMETER_VARIANCE = 0.01f;
+	
+	/**
+	 * Sesgo m&aacute;ximo por omisi&oacute;n en radianes por segundo; un
+	 * promedio mayor se toma como un giro lento.
+	 */
+	public static final float DEFAULT_MAX_BIAS = 0.05f;
+	
+	/**
+	 * Diferencia m&aacute;xima en nanosegundos entre las estad&iacute;sticas
+	 * del aceler&oacute;metro y la lectura del giroscopio para usarlas.
+	 */
+	public static final long MAX_ACCELEROMETER_AGE = 500000000L;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un estimador con la ventana dada.
+	 * @param window - El n&uacute;mero de lecturas de la ventana; por
+	 * ejemplo, las de un segundo.
+	 * @throws IllegalArgumentException - Si la ventana no es positiva.
+	 */
+	public GyroscopeBias(int window){
+		statistics = new SlidingStatistics(window, 3);
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Usa tambi&eacute;n el aceler&oacute;metro para decidir si el
+	 * dispositivo est&aacute; quieto.
+	 * @param accelerometer - Las estad&iacute;sticas del aceler&oacute;metro,
+	 * como las de su receptor; o una referencia nula para no usarlo.
+	 * @see SensorSampleListener#enableStatistics(int)
+	 */
+	public void setAccelerometerStatistics(SlidingStatistics accelerometer){
+		accelerometerStatistics = accelerometer;
+	}//setAccelerometerStatistics
+	
+	/**
+	 * Ajusta los umbrales con los que se decide si el dispositivo est&aacute;
+	 * quieto.
+	 * @param gyroscopeVariance - La varianza m&aacute;xima del giroscopio, en
+	 * radianes por segundo al cuadrado.
+	 * @param accelerometerVariance - La varianza m&aacute;xima del
+	 * aceler&oacute;metro.
+	 * @param maxBias - El sesgo m&aacute;ximo en radianes por segundo.
+	 * @throws IllegalArgumentException - Si alg&uacute;n umbral no es
+	 * positivo.
+	 */
+	public void setThresholds(float gyroscopeVariance,
+			float accelerometerVariance, float maxBias){
+		if(!(gyroscopeVariance > 0) || !(accelerometerVariance > 0) ||
+				!(maxBias > 0))
+			throw new IllegalArgumentException("los umbrales deben ser " +
+					"positivos");
+		this.gyroscopeVariance = gyroscopeVariance;
+		this.accelerometerVariance = accelerometerVariance;
+		this.maxBias = maxBias;
+	}//setThresholds
+	
+	/**
+	 * Copia el sesgo estimado.
+	 * @param out - Donde se copia el sesgo de cada eje, en radianes por
+	 * segundo.
+	 */
+	public void readBias(float[] out){
+		long start;
+		do{
+			start = lock.beginRead();
+			out[0] = bias[0];
+			out[1] = bias[1];
+			out[2] = bias[2];
+		}while(!lock.validate(start));
+	}//readBias
+	
+	/**
+	 * Indica si con la &uacute;ltima lectura el dispositivo estaba quieto.
+	 * @return boolean - <tt>true</tt> si estaba quieto.
+	 */
+	public boolean isStationary(){
+		return stationary;
+	}//isStationary
+	
+	/**
+	 * Da cu&aacute;ntas lecturas se han usado para estimar el sesgo.
+	 * @return long - El n&uacute;mero de lecturas quietas.
+	 */
+	public long getStationaryCount(){
+		return stationaryCount;
+	}//getStationaryCount
+	
+	// métodos de modificación
+	
+	/**
+	 * Asigna un sesgo conocido; por ejemplo, uno guardado de una
+	 * ejecuci&oacute;n anterior. Debe llamarse desde el hilo que procesa los
+	 * eventos o antes de recibirlos.
+	 * @param x - El sesgo en el eje x, en radianes por segundo.
+	 * @param y - El sesgo en el eje y, en radianes por segundo.
+	 * @param z - El sesgo en el eje z, en radianes por segundo.
+	 */
+	public void setBias(float x, float y, float z){
+		lock.beginWrite();
+		bias[0] = x;
+		bias[1] = y;
+		bias[2] = z;
+		lock.endWrite();
+	}//setBias
+	
+	/**
+	 * Olvida la ventana y el sesgo estimado.
+	 */
+	public void clear(){
+		statistics.clear();
+		setBias(0, 0, 0);
+		stationary = false;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		if(count < 3)
+			return true;
+		statistics.process(timestamp, values, count);
+		boolean still = isStill(timestamp);
+		stationary = still;
+		if(still){
+			lock.beginWrite();
+			for(int i = 0; i < 3; i++)
+				bias[i] += GAIN *((float)gyroscope.mean[i] -bias[i]);
+			lock.endWrite();
+			stationaryCount++;
+		}//si está quieto actualiza el sesgo
+		values[0] -= bias[0];
+		values[1] -= bias[1];
+		values[2] -= bias[2];
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Decide si el dispositivo est&aacute; quieto con las estad&iacute;sticas
+	 * de las ventanas.
+	 * @param timestamp - El momento de la lectura del giroscopio.
+	 * @return boolean - <tt>true</tt> si est&aacute; quieto.
+	 */
+	private boolean isStill(long timestamp){
+		if(statistics.size() < statistics.WINDOW)
+			return false;
+		statistics.readSnapshot(gyroscope);
+		float limit = gyroscopeVariance, most = maxBias;
+		for(int i = 0; i < 3; i++)
+			if(!(gyroscope.variance[i] < limit) ||
+					!(Math.abs(gyroscope.mean[i]) < most))
+				return false;
+		SlidingStatistics other = accelerometerStatistics;
+		if(other == null)
+			return true;
+		if(other.size() < other.WINDOW)
+			return false;
+		other.readSnapshot(accelerometer);
+		if(Math.abs(accelerometer.timestamp -timestamp) >
+				MAX_ACCELEROMETER_AGE)
+			return false;
+		limit = accelerometerVariance;
+		for(int i = 0; i < 3; i++)
+			if(!(accelerometer.variance[i] < limit))
+				return false;
+		return true;
+	}//isStill
+	
+}//GyroscopeBias class
@@ -0,0 +1,369 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Filtro de Kalman lineal de dimensiones fijas.<p/>
+ *
+ * El estado <tt>x</tt> tiene <tt>STATE_SIZE</tt> elementos y cada
+ * medici&oacute;n <tt>z</tt> tiene <tt>MEASUREMENT_SIZE</tt>. El modelo es
+ * <tt>x' = F x + w</tt>, con <tt>w</tt> de covarianza <tt>Q</tt>; y
+ * <tt>z = H x + v</tt>, con <tt>v</tt> de covarianza <tt>R</tt>. Todas las
+ * matrices son arreglos planos por renglones que se crean al construir el
+ * filtro; los m&eacute;todos de acceso dan los arreglos mismos, para
+ * ajustar el modelo en su lugar entre pasos, por ejemplo <tt>F</tt> con el
+ * intervalo de cada lectura.<p/>
+ *
+ * <tt>predict()</tt> y <tt>update(float[])</tt> trabajan en su lugar sobre
+ * arreglos de trabajo preasignados y no crean objetos. La ganancia se
+ * obtiene resolviendo con la factorizaci&oacute;n de Cholesky de la
+ * covarianza de la innovaci&oacute;n, sin invertirla. Los c&aacute;lculos
+ * son en doble precisi&oacute;n para que la covarianza siga siendo
+ * sim&eacute;trica y positiva. No es seguro entre hilos: debe usarse desde el
+ * hilo que procesa los eventos.
+ * @see KalmanSmoother
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class KalmanFilter {
+
+	// atributos de clase
+	
+	/**
+	 * El estado <tt>x</tt>.
+	 */
+	private final double[] state;
+	
+	/**
+	 * La covarianza del estado <tt>P</tt>.
+	 */
+	private final double[] covariance;
+	
+	/**
+	 * La matriz de transici&oacute;n <tt>F</tt>.
+	 */
+	private final double[] transition;
+	
+	/**
+	 * La covarianza del ruido del proceso <tt>Q</tt>.
+	 */
+	private final double[] processNoise;
+	
+	/**
+	 * La matriz de observaci&oacute;n <tt>H</tt>.
+	 */
+	private final double[] observation;
+	
+	/**
+	 * La covarianza del ruido de la medici&oacute;n <tt>R</tt>.
+	 */
+	private final double[] measurementNoise;
+	
+	// arreglos de trabajo
+	private final double[] predicted;
+	private final double[] product;
+	private final double[] observed;
+	private final double[] innovation;
+	private final double[] residual;
+	private final double[] gain;
+	
+	/**
+	 * El n&uacute;mero de elementos del estado.
+	 */
+	public final int STATE_SIZE;
+	
+	/**
+	 * El n&uacute;mero de elementos de cada medici&oacute;n.
+	 */
+	public final int MEASUREMENT_SIZE;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un filtro con las dimensiones dadas. La transici&oacute;n y
+	 * la covarianza del estado inician como la identidad, el estado en cero,
+	 * y las dem&aacute;s matrices en cero.
+	 * @param stateSize - El n&uacute;mero de elementos del estado.
+	 * @param measurementSize - El n&uacute;mero de elementos de cada
+	 * medici&oacute;n.
+	 * @throws IllegalArgumentException - Si alguna dimensi&oacute;n no es
+	 * positiva.
+	 */
+	public KalmanFilter(int stateSize, int measurementSize){
+		if(stateSize <= 0 || measurementSize <= 0)
+			throw new IllegalArgumentException("las dimensiones deben ser " +
+					"positivas");
+		STATE_SIZE = stateSize;
+		MEASUREMENT_SIZE = measurementSize;
+		int n = stateSize, m = measurementSize;
+		state = new double[n];
+		covariance = new double[n *n];
+		transition = new double[n *n];
+		processNoise = new double[n *n];
+		observation = new double[m *n];
+		measurementNoise = new double[m *m];
+		predicted = new double[n];
+		product = new double[n *n];
+		observed = new double[m *n];
+		innovation = new double[m *m];
+		residual = new double[m];
+		gain = new double[n *m];
+		setDiagonal(transition, n, 1);
+		setDiagonal(covariance, n, 1);
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Da el estado <tt>x</tt>.
+	 * @return double[] - El arreglo del estado, de <tt>STATE_SIZE</tt>
+	 * elementos.
+	 */
+	public double[] getState(){
+		return state;
+	}//getState
+	
+	/**
+	 * Da la covarianza del estado <tt>P</tt>.
+	 * @return double[] - El arreglo de la matriz de <tt>STATE_SIZE</tt> por
+	 * <tt>STATE_SIZE</tt>, por renglones.
+	 */
+	public double[] getCovariance(){
+		return covariance;
+	}//getCovariance
+	
+	/**
+	 * Da la matriz de transici&oacute;n <tt>F</tt>.
+	 * @return double[] - El arreglo de la matriz de <tt>STATE_SIZE</tt> por
+	 * <tt>STATE_SIZE</tt>, por renglones.
+	 */
+	public double[] getTransition(){
+		return transition;
+	}//getTransition
+	
+	/**
+	 * Da la covarianza del ruido del proceso <tt>Q</tt>.
+	 * @return double[] - El arreglo de la matriz de <tt>STATE_SIZE</tt> por
+	 * <tt>STATE_SIZE</tt>, por renglones.
+	 */
+	public double[] getProcessNoise(){
+		return processNoise;
+	}//getProcessNoise
+	
+	/**
+	 * Da la matriz de observaci&oacute;n <tt>H</tt>.
+	 * @return double[] - El arreglo de la matriz de <tt>MEASUREMENT_SIZE</tt>
+	 * por <tt>STATE_SIZE</tt>, por renglones.
+	 */
+	public double[] getObservation(){
+		return observation;
+	}//getObservation
+	
+	/**
+	 * Da la covarianza del ruido de la medici&oacute;n <tt>R</tt>.
+	 * @return double[] - El arreglo de la matriz de <tt>MEASUREMENT_SIZE</tt>
+	 * por <tt>MEASUREMENT_SIZE</tt>, por renglones.
+	 */
+	public double[] getMeasurementNoise(){
+		return measurementNoise;
+	}//getMeasurementNoise
+	
+	// métodos de modificación
+	
+	/**
+	 * Predice el estado un paso: <tt>x = F x</tt> y <tt>P = F P F' + Q</tt>.
+	 */
+	public void predict(){
+		int n = STATE_SIZE;
+		double[] f = transition, p = covariance, fp = product, x = state;
+		for(int i = 0; i < n; i++){
+			int row = i *n;
+			double sum = 0;
+			for(int k = 0; k < n; k++)
+				sum += f[row +k] *x[k];
+			predicted[i] = sum;
+			for(int j = 0; j < n; j++){
+				double value = 0;
+				for(int k = 0; k < n; k++)
+					value += f[row +k] *p[k *n +j];
+				fp[row +j] = value;
+			}//calcula F P
+		}//recorre los renglones de F
+		System.arraycopy(predicted, 0, x, 0, n);
+		double[] q = processNoise;
+		for(int i = 0; i < n; i++){
+			int row = i *n;
+			for(int j = i; j < n; j++){
+				int column = j *n;
+				double value = q[row +j];
+				for(int k = 0; k < n; k++)
+					value += fp[row +k] *f[column +k];
+				p[row +j] = value;
+				p[column +i] = value;
+			}//calcula F P F' + Q
+		}//recorre los renglones de F P
+	}//predict
+	
+	/**
+	 * Corrige el estado con una medici&oacute;n.<p/>
+	 *
+	 * Calcula la innovaci&oacute;n <tt>y = z - H x</tt>, su covarianza
+	 * <tt>S = H P H' + R</tt> y la ganancia <tt>K = P H' S^-1</tt>; y
+	 * actualiza <tt>x += K y</tt> y <tt>P -= K H P</tt>.
+	 * @param measurement - La medici&oacute;n; se leen sus primeros
+	 * <tt>MEASUREMENT_SIZE</tt> elementos.
+	 * @return boolean - <tt>false</tt> si la covarianza de la
+	 * innovaci&oacute;n no es positiva, en cuyo caso el estado no cambia.
+	 */
+	public boolean update(float[] measurement){
+		int n = STATE_SIZE, m = MEASUREMENT_SIZE;
+		double[] h = observation, p = covariance, hp = observed, x = state;
+		double[] s = innovation, y = residual, k = gain;
+		for(int i = 0; i < m; i++){
+			int row = i *n;
+			double sum = 0;
+			for(int c = 0; c < n; c++)
+				sum += h[row +c] *x[c];
+			y[i] = measurement[i] -sum;
+			for(int j = 0; j < n; j++){
+				double value = 0;
+				for(int c = 0; c < n; c++)
+					value += h[row +c] *p[c *n +j];
+				hp[row +j] = value;
+			}//calcula H P
+		}//recorre los renglones de H
+		double[] r = measurementNoise;
+		for(int i = 0; i < m; i++){
+			int row = i *n;
+			for(int j = 0; j <= i; j++){
+				int column = j *n;
+				double value = r[i *m +j];
+				for(int c = 0; c < n; c++)
+					value += hp[row +c] *h[column +c];
+				s[i *m +j] = value;
+			}//calcula H P H' + R
+		}//recorre los renglones de H P
+		if(!factor(s, m))
+			return false;
+		for(int i = 0; i < n; i++){
+			int row = i *m;
+			for(int j = 0; j < m; j++)
+				k[row +j] = hp[j *n +i];
+			solve(s, m, k, row);
+		}//calcula K = P H' S^-1 por renglones
+		for(int i = 0; i < n; i++){
+			int row = i *m;
+			double sum = 0;
+			for(int j = 0; j < m; j++)
+				sum += k[row +j] *y[j];
+			x[i] += sum;
+		}//corrige el estado
+		for(int i = 0; i < n; i++){
+			int row = i *m;
+			for(int j = i; j < n; j++){
+				double value = 0;
+				for(int c = 0; c < m; c++)
+					value += k[row +c] *hp[c *n +j];
+				double corrected = 0.5 *(p[i *n +j] +p[j *n +i]) -value;
+				p[i *n +j] = corrected;
+				p[j *n +i] = corrected;
+			}//calcula P - K H P
+		}//corrige la covarianza
+		return true;
+	}//update
+	
+	/**
+	 * Pone el estado en cero y su covarianza en un m&uacute;ltiplo de la
+	 * identidad.
+	 * @param variance - La varianza inicial de cada elemento del estado.
+	 */
+	public void reset(double variance){
+		for(int i = 0; i < STATE_SIZE; i++)
+			state[i] = 0;
+		setDiagonal(covariance, STATE_SIZE, variance);
+	}//reset
+	
+	// métodos auxiliares
+	
+	/**
+	 * Reemplaza el tri&aacute;ngulo inferior de una matriz sim&eacute;trica
+	 * por su factor de Cholesky <tt>L</tt>, con <tt>A = L L'</tt>.
+	 * @param a - La matriz, por renglones; s&oacute;lo se lee el
+	 * tri&aacute;ngulo inferior.
+	 * @param size - El n&uacute;mero de renglones.
+	 * @return boolean - <tt>false</tt> si la matriz no es positiva.
+	 */
+	private static boolean factor(double[] a, int size){
+		for(int j = 0; j < size; j++){
+			int row = j *size;
+			double diagonal = a[row +j];
+			for(int c = 0; c < j; c++)
+				diagonal -= a[row +c] *a[row +c];
+			if(!(diagonal > 0))
+				return false;
+			diagonal = Math.sqrt(diagonal);
+			a[row +j] = diagonal;
+			for(int i = j +1; i < size; i++){
+				int other = i *size;
+				double value = a[other +j];
+				for(int c = 0; c < j; c++)
+					value -= a[other +c] *a[row +c];
+				a[other +j] = value /diagonal;
+			}//calcula la columna j de L
+		}//recorre las columnas
+		return true;
+	}//factor
+	
+	/**
+	 * Resuelve <tt>L L' v = b</tt> en su lugar.
+	 * @param l - El factor de Cholesky, por renglones.
+	 * @param size - El n&uacute;mero de renglones.
+	 * @param b - El arreglo que contiene <tt>b</tt> y recibe <tt>v</tt>.
+	 * @param offset - La posici&oacute;n de <tt>b</tt> en el arreglo.
+	 */
+	private static void solve(double[] l, int size, double[] b, int offset){
+		for(int i = 0; i < size; i++){
+			int row = i *size;
+			double value = b[offset +i];
+			for(int c = 0; c < i; c++)
+				value -= l[row +c] *b[offset +c];
+			b[offset +i] = value /l[row +i];
+		}//resuelve L u = b
+		for(int i = size -1; i >= 0; i--){
+			double value = b[offset +i];
+			for(int c = i +1; c < size; c++)
+				value -= l[c *size +i] *b[offset +c];
+			b[offset +i] = value /l[i *size +i];
+		}//resuelve L' v = u
+	}//solve
+	
+	// métodos estáticos
+	
+	/**
+	 * Llena una matriz cuadrada con un m&uacute;ltiplo de la identidad.
+	 * @param matrix - La matriz, por renglones.
+	 * @param size - El n&uacute;mero de renglones.
+	 * @param value - El valor de la diagonal.
+	 */
+	public static void setDiagonal(double[] matrix, int size, double value){
+		for(int i = 0; i < size; i++)
+			for(int j = 0; j < size; j++)
+				matrix[i *size +j] = i == j ? value : 0;
+	}//setDiagonal
+	
+}//KalmanFilter class
@@ -0,0 +1,221 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Suaviza cada eje de las lecturas con un filtro de Kalman.<p/>
+ *
+ * Es una etapa que reemplaza los valores de cada lectura por los estimados.
+ * Con el modelo de nivel cada eje es una caminata aleatoria; con el de
+ * tendencia cada eje tiene tambi&eacute;n una velocidad de cambio que se
+ * estima, de modo que el suavizado se retrasa menos cuando la se&ntilde;al
+ * cambia de manera sostenida. La transici&oacute;n y el ruido del proceso se
+ * ajustan en su lugar con el intervalo real entre lecturas, as&iacute; que
+ * el suavizado no depende de la frecuencia del sensor. La primera lectura, o
+ * la primera tras una pausa mayor a <tt>MAX_GAP</tt>, inicia el filtro con
+ * sus propios valores.<p/>
+ *
+ * Para otros modelos puede usarse directamente el <tt>KalmanFilter</tt> de
+ * <tt>getFilter()</tt>.
+ * @see SensorSampleListener#enableKalmanSmoothing(float, float, boolean)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class KalmanSmoother implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * El filtro; su estado tiene el nivel, y la tendencia si se estima, de
+	 * cada eje.
+	 */
+	private final KalmanFilter filter;
+	
+	/**
+	 * La varianza del ruido del proceso por segundo.
+	 */
+	private volatile float processNoise;
+	
+	/**
+	 * La varianza del ruido de cada lectura.
+	 */
+	private volatile float measurementNoise;
+	
+	/**
+	 * El momento de la lectura anterior en nanosegundos; o -1 si el filtro
+	 * debe iniciarse con la siguiente.
+	 */
+	private long lastTime = -1;
+	
+	/**
+	 * El n&uacute;mero de ejes de cada lectura.
+	 */
+	public final int AXES;
+	
+	/**
+	 * Indica si se estima la tendencia de cada eje.
+	 */
+	public final boolean TREND;
+	
+	/**
+	 * Varianza inicial de la tendencia, en unidades del sensor por segundo al
+	 * cuadrado.
+	 */
+	public static final float INITIAL_TREND_VARIANCE = 1;
+	
+	/**
+	 * Intervalo m&aacute;ximo en nanosegundos entre dos lecturas para
+	 * filtrarlas juntas; un intervalo mayor reinicia el filtro.
+	 */
+	public static final long MAX_GAP = 1000000000L;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un suavizado para el n&uacute;mero de ejes y el ruido dados.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @param processNoise - La varianza por segundo con la que cambia cada
+	 * eje; o con el modelo de tendencia, con la que cambia la tendencia. Con
+	 * m&aacute;s ruido del proceso el suavizado sigue m&aacute;s r&aacute;pido
+	 * a las lecturas.
+	 * @param measurementNoise - La varianza del ruido de cada lectura.
+	 * @param trend - <tt>true</tt> para estimar tambi&eacute;n la tendencia de
+	 * cada eje.
+	 * @throws IllegalArgumentException - Si el n&uacute;mero de ejes o
+	 * alguna varianza no son positivos.
+	 */
+	public KalmanSmoother(int axes, float processNoise, float measurementNoise,
+			boolean trend){
+		if(axes <= 0)
+			throw new IllegalArgumentException("axes debe ser positivo");
+		AXES = axes;
+		TREND = trend;
+		int order = trend ? 2 : 1;
+		filter = new KalmanFilter(axes *order, axes);
+		double[] h = filter.getObservation();
+		int n = filter.STATE_SIZE;
+		for(int i = 0; i < axes; i++)
+			h[i *n +i *order] = 1;
+		setNoise(processNoise, measurementNoise);
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta el ruido del filtro. Puede llamarse desde cualquier hilo; se
+	 * aplica desde la siguiente lectura.
+	 * @param processNoise - La varianza por segundo del proceso.
+	 * @param measurementNoise - La varianza del ruido de cada lectura.
+	 * @throws IllegalArgumentException - Si alguna varianza no es positiva.
+	 */
+	public void setNoise(float processNoise, float measurementNoise){
+		if(!(processNoise > 0) || !(measurementNoise > 0))
+			throw new IllegalArgumentException("las varianzas deben ser " +
+					"positivas");
+		this.processNoise = processNoise;
+		this.measurementNoise = measurementNoise;
+	}//setNoise
+	
+	/**
+	 * Da el filtro. Su estado tiene, por cada eje, el nivel seguido de la
+	 * tendencia si se estima; s&oacute;lo debe leerse desde el hilo que
+	 * procesa los eventos.
+	 * @return KalmanFilter - El filtro.
+	 */
+	public KalmanFilter getFilter(){
+		return filter;
+	}//getFilter
+	
+	// métodos de modificación
+	
+	/**
+	 * Olvida el estado del filtro; la siguiente lectura lo inicia.
+	 */
+	public void clear(){
+		lastTime = -1;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		if(count < AXES)
+			return true;
+		long last = lastTime;
+		lastTime = timestamp;
+		long elapsed = timestamp -last;
+		int axes = AXES, order = TREND ? 2 : 1, n = filter.STATE_SIZE;
+		double r = measurementNoise;
+		double[] noise = filter.getMeasurementNoise();
+		for(int i = 0; i < axes; i++)
+			noise[i *axes +i] = r;
+		if(last < 0 || elapsed < 0 || elapsed > MAX_GAP){
+			double[] x = filter.getState();
+			double[] p = filter.getCovariance();
+			filter.reset(0);
+			for(int i = 0; i < axes; i++){
+				int index = i *order;
+				x[index] = values[i];
+				p[index *n +index] = r;
+				if(TREND)
+					p[(index +1) *n +index +1] = INITIAL_TREND_VARIANCE;
+			}//inicia cada eje con la lectura
+			return true;
+		}//si debe iniciar el filtro
+		if(elapsed > 0){
+			configure(elapsed *1e-9);
+			filter.predict();
+		}//si hay intervalo que predecir
+		if(!filter.update(values))
+			return true;
+		double[] x = filter.getState();
+		for(int i = 0; i < axes; i++)
+			values[i] = (float)x[i *order];
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Ajusta la transici&oacute;n y el ruido del proceso al intervalo dado.
+	 * Con el modelo de tendencia el ruido es el de una tendencia que cambia
+	 * como caminata aleatoria: <tt>q [dt^3/3, dt^2/2; dt^2/2, dt]</tt>.
+	 * @param dt - El intervalo desde la lectura anterior, en segundos.
+	 */
+	private void configure(double dt){
+		double q = processNoise;
+		double[] f = filter.getTransition();
+		double[] w = filter.getProcessNoise();
+		int n = filter.STATE_SIZE;
+		if(!TREND){
+			for(int i = 0; i < n; i++)
+				w[i *n +i] = q *dt;
+			return;
+		}//si sólo estima el nivel
+		double dt2 = dt *dt;
+		for(int i = 0; i < n; i += 2){
+			int level = i *n +i, trend = level +n;
+			f[level +1] = dt;
+			w[level] = q *dt2 *dt /3;
+			w[level +1] = q *dt2 /2;
+			w[trend] = q *dt2 /2;
+			w[trend +1] = q *dt;
+		}//ajusta el bloque de cada eje
+	}//configure
+	
+}//KalmanSmoother class
@@ -0,0 +1,241 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Filtro de orientaci&oacute;n de Madgwick.<p/>
+ *
+ * En cada lectura del giroscopio integra la velocidad angular y le resta un
+ * paso de descenso por gradiente hacia la orientaci&oacute;n que mejor
+ * explica las &uacute;ltimas lecturas del aceler&oacute;metro y del
+ * magnet&oacute;metro. La ganancia <tt>beta</tt> es el tama&ntilde;o de ese
+ * paso en radianes por segundo: con m&aacute;s ganancia converge m&aacute;s
+ * r&aacute;pido pero deja pasar m&aacute;s ruido. No usa funciones
+ * trigonom&eacute;tricas, s&oacute;lo dos ra&iacute;ces cuadradas por eje de
+ * referencia.<p/>
+ *
+ * El algoritmo toma el norte magn&eacute;tico en el eje x; internamente la
+ * orientaci&oacute;n se lleva en ese marco y se publica girada al marco de
+ * <tt>Quaternions</tt>. Sin magnet&oacute;metro s&oacute;lo se corrige la
+ * inclinaci&oacute;n.<p/>
+ *
+ * Basado en S. Madgwick, <i>An efficient orientation filter for inertial and
+ * inertial/magnetic sensor arrays</i> (2010).
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class MadgwickFilter extends OrientationFilter {
+
+	// atributos de clase
+	
+	/**
+	 * La ganancia del descenso por gradiente.
+	 */
+	private float beta;
+	
+	/**
+	 * La orientaci&oacute;n con el norte en el eje x.
+	 */
+	private float q0 = 1, q1, q2, q3;
+	
+	/**
+	 * Ganancia por omisi&oacute;n.
+	 */
+	public static final float DEFAULT_BETA = 0.1f;
+	
+	/**
+	 * Coseno y seno de 45 grados; el medio &aacute;ngulo del giro entre los
+	 * dos marcos.
+	 */
+	private static final float HALF_SQRT2 = (float)Math.sqrt(0.5);
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un filtro con la ganancia por omisi&oacute;n.
+	 * @see #DEFAULT_BETA
+	 */
+	public MadgwickFilter(){
+		this(DEFAULT_BETA);
+	}//constructor
+	
+	/**
+	 * Construye un filtro con la ganancia dada.
+	 * @param beta - La ganancia en radianes por segundo.
+	 * @throws IllegalArgumentException - Si la ganancia es negativa.
+	 */
+	public MadgwickFilter(float beta){
+		setBeta(beta);
+		onReset();
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta la ganancia del descenso por gradiente.
+	 * @param beta - La ganancia en radianes por segundo.
+	 * @throws IllegalArgumentException - Si la ganancia es negativa.
+	 */
+	public void setBeta(float beta){
+		if(!(beta >= 0))
+			throw new IllegalArgumentException("beta no puede ser negativa");
+		this.beta = beta;
+	}//setBeta
+	
+	/**
+	 * Da la ganancia del descenso por gradiente.
+	 * @return float - La ganancia en radianes por segundo.
+	 */
+	public float getBeta(){
+		return beta;
+	}//getBeta
+	
+	// métodos auxiliares
+	
+	@Override
+	protected void onReset(){
+		float[] q = quaternion;
+		float c = HALF_SQRT2;
+		q0 = c *(q[0] +q[3]);
+		q1 = c *(q[1] +q[2]);
+		q2 = c *(q[2] -q[1]);
+		q3 = c *(q[3] -q[0]);
+	}//onReset
+	
+	@Override
+	protected void integrate(float dt, float gx, float gy, float gz){
+		float qDot0 = 0.5f *(-q1 *gx -q2 *gy -q3 *gz);
+		float qDot1 = 0.5f *(q0 *gx +q2 *gz -q3 *gy);
+		float qDot2 = 0.5f *(q0 *gy -q1 *gz +q3 *gx);
+		float qDot3 = 0.5f *(q0 *gz +q1 *gy -q2 *gx);
+		float ax = gravity[0], ay = gravity[1], az = gravity[2];
+		float accelNorm = ax *ax +ay *ay +az *az;
+		if(hasGravity && accelNorm > 0){
+			float inverse = invSqrt(accelNorm);
+			ax *= inverse;
+			ay *= inverse;
+			az *= inverse;
+			float mx = geomagnetic[0], my = geomagnetic[1], mz = geomagnetic[2];
+			float fieldNorm = mx *mx +my *my +mz *mz;
+			float s0, s1, s2, s3;
+			if(hasGeomagnetic && fieldNorm > 0){
+				inverse = invSqrt(fieldNorm);
+				mx *= inverse;
+				my *= inverse;
+				mz *= inverse;
+				float _2q0mx = 2 *q0 *mx;
+				float _2q0my = 2 *q0 *my;
+				float _2q0mz = 2 *q0 *mz;
+				float _2q1mx = 2 *q1 *mx;
+				float _2q0 = 2 *q0;
+				float _2q1 = 2 *q1;
+				float _2q2 = 2 *q2;
+				float _2q3 = 2 *q3;
+				float _2q0q2 = 2 *q0 *q2;
+				float _2q2q3 = 2 *q2 *q3;
+				float q0q0 = q0 *q0;
+				float q0q1 = q0 *q1;
+				float q0q2 = q0 *q2;
+				float q0q3 = q0 *q3;
+				float q1q1 = q1 *q1;
+				float q1q2 = q1 *q2;
+				float q1q3 = q1 *q3;
+				float q2q2 = q2 *q2;
+				float q2q3 = q2 *q3;
+				float q3q3 = q3 *q3;
+				float hx = mx *q0q0 -_2q0my *q3 +_2q0mz *q2 +mx *q1q1
+						+_2q1 *my *q2 +_2q1 *mz *q3 -mx *q2q2 -mx *q3q3;
+				float hy = _2q0mx *q3 +my *q0q0 -_2q0mz *q1 +_2q1mx *q2
+						-my *q1q1 +my *q2q2 +_2q2 *mz *q3 -my *q3q3;
+				float _2bx = (float)Math.sqrt(hx *hx +hy *hy);
+				float _2bz = -_2q0mx *q2 +_2q0my *q1 +mz *q0q0 +_2q1mx *q3
+						-mz *q1q1 +_2q2 *my *q3 -mz *q2q2 +mz *q3q3;
+				float _4bx = 2 *_2bx;
+				float _4bz = 2 *_2bz;
+				float fx = 2 *q1q3 -_2q0q2 -ax;
+				float fy = 2 *q0q1 +_2q2q3 -ay;
+				float fz = 1 -2 *q1q1 -2 *q2q2 -az;
+				float bx = _2bx *(0.5f -q2q2 -q3q3) +_2bz *(q1q3 -q0q2) -mx;
+				float by = _2bx *(q1q2 -q0q3) +_2bz *(q0q1 +q2q3) -my;
+				float bz = _2bx *(q0q2 +q1q3) +_2bz *(0.5f -q1q1 -q2q2) -mz;
+				s0 = -_2q2 *fx +_2q1 *fy -_2bz *q2 *bx
+						+(-_2bx *q3 +_2bz *q1) *by +_2bx *q2 *bz;
+				s1 = _2q3 *fx +_2q0 *fy -4 *q1 *fz +_2bz *q3 *bx
+						+(_2bx *q2 +_2bz *q0) *by +(_2bx *q3 -_4bz *q1) *bz;
+				s2 = -_2q0 *fx +_2q3 *fy -4 *q2 *fz
+						+(-_4bx *q2 -_2bz *q0) *bx +(_2bx *q1 +_2bz *q3) *by
+						+(_2bx *q0 -_4bz *q2) *bz;
+				s3 = _2q1 *fx +_2q2 *fy +(-_4bx *q3 +_2bz *q1) *bx
+						+(-_2bx *q0 +_2bz *q2) *by +_2bx *q1 *bz;
+			}else{
+				float _2q0 = 2 *q0;
+				float _2q1 = 2 *q1;
+				float _2q2 = 2 *q2;
+				float _2q3 = 2 *q3;
+				float _4q0 = 4 *q0;
+				float _4q1 = 4 *q1;
+				float _4q2 = 4 *q2;
+				float _8q1 = 8 *q1;
+				float _8q2 = 8 *q2;
+				float q0q0 = q0 *q0;
+				float q1q1 = q1 *q1;
+				float q2q2 = q2 *q2;
+				float q3q3 = q3 *q3;
+				s0 = _4q0 *q2q2 +_2q2 *ax +_4q0 *q1q1 -_2q1 *ay;
+				s1 = _4q1 *q3q3 -_2q3 *ax +4 *q0q0 *q1 -_2q0 *ay -_4q1
+						+_8q1 *q1q1 +_8q1 *q2q2 +_4q1 *az;
+				s2 = 4 *q0q0 *q2 +_2q0 *ax +_4q2 *q3q3 -_2q3 *ay -_4q2
+						+_8q2 *q1q1 +_8q2 *q2q2 +_4q2 *az;
+				s3 = 4 *q1q1 *q3 -_2q1 *ax +4 *q2q2 *q3 -_2q2 *ay;
+			}//usa el magnetómetro si hay lecturas
+			float stepNorm = s0 *s0 +s1 *s1 +s2 *s2 +s3 *s3;
+			if(stepNorm > 0){
+				inverse = invSqrt(stepNorm);
+				qDot0 -= beta *s0 *inverse;
+				qDot1 -= beta *s1 *inverse;
+				qDot2 -= beta *s2 *inverse;
+				qDot3 -= beta *s3 *inverse;
+			}//si hay corrección
+		}//si hay aceleración
+		q0 += qDot0 *dt;
+		q1 += qDot1 *dt;
+		q2 += qDot2 *dt;
+		q3 += qDot3 *dt;
+		float inverse = invSqrt(q0 *q0 +q1 *q1 +q2 *q2 +q3 *q3);
+		q0 *= inverse;
+		q1 *= inverse;
+		q2 *= inverse;
+		q3 *= inverse;
+		float c = HALF_SQRT2;
+		float[] q = quaternion;
+		q[0] = c *(q0 -q3);
+		q[1] = c *(q1 -q2);
+		q[2] = c *(q2 +q1);
+		q[3] = c *(q3 +q0);
+	}//integrate
+	
+	/**
+	 * Calcula el inverso de la ra&iacute;z cuadrada.
+	 * @param value - Un valor positivo.
+	 * @return float - <tt>1 / sqrt(value)</tt>.
+	 */
+	private static float invSqrt(float value){
+		return (float)(1 /Math.sqrt(value));
+	}//invSqrt
+	
+}//MadgwickFilter class
@@ -0,0 +1,405 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+
+/**
+ * Calibra el magnet&oacute;metro mientras se usa.<p/>
+ *
+ * El metal del dispositivo desplaza las lecturas (hierro duro) y las estira
+ * de forma distinta en cada eje (hierro suave), de modo que al girar el
+ * dispositivo describen un elipsoide en lugar de una esfera centrada. Esta
+ * etapa ajusta por m&iacute;nimos cuadrados un elipsoide alineado con los
+ * ejes, <tt>a x&sup2; + b y&sup2; + c z&sup2; + d x + e y + f z = 1</tt>, del
+ * que obtiene el desplazamiento y la escala de cada eje; y corrige cada
+ * lectura antes de que se registre.<p/>
+ *
+ * El ajuste no conserva lecturas: s&oacute;lo acumula las ecuaciones normales
+ * del sistema, de tama&ntilde;o fijo, con un factor de olvido para seguir los
+ * cambios del entorno, y las resuelve cada <tt>SOLVE_INTERVAL</tt> lecturas
+ * aceptadas. Para no sesgar el ajuste con el dispositivo quieto, una lectura
+ * s&oacute;lo se acumula si se aleja lo suficiente de la anterior
+ * acumulada.<p/>
+ *
+ * La calidad de la calibraci&oacute;n combina la cobertura, la
+ * fracci&oacute;n de los ocho octantes alrededor del centro en los que hay
+ * lecturas, y el residuo, la desviaci&oacute;n relativa de la magnitud de
+ * las lecturas corregidas respecto al radio ajustado. Las lecturas
+ * s&oacute;lo se corrigen desde que hay un ajuste v&aacute;lido.
+ * @see SampleStage
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class MagnetometerCalibration implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * Las ecuaciones normales acumuladas: la matriz de 6x6 seguida de su lado
+	 * derecho.
+	 */
+	private final double[] normal = new double[42];
+	
+	/**
+	 * Copia de trabajo de las ecuaciones normales para resolverlas.
+	 */
+	private final double[] work = new double[42];
+	
+	/**
+	 * Los t&eacute;rminos de la lectura que se acumula.
+	 */
+	private final double[] terms = new double[6];
+	
+	/**
+	 * La soluci&oacute;n del sistema.
+	 */
+	private final double[] solution = new double[6];
+	
+	/**
+	 * La &uacute;ltima lectura acumulada.
+	 */
+	private final float[] lastAccepted = new float[3];
+	
+	// la calibración vigente
+	private final float[] offset = new float[3];
+	private final float[] scale = {1, 1, 1};
+	private float radius;
+	private boolean calibrated;
+	
+	/**
+	 * Cu&aacute;ntas lecturas acumuladas, con el mismo olvido que las
+	 * ecuaciones, cayeron en cada octante alrededor del centro.
+	 */
+	private final float[] octants = new float[8];
+	
+	// estado del ajuste
+	private int accepted;
+	private int sinceSolve;
+	private float residual = 1;
+	
+	/**
+	 * Contador de secuencia que protege la calibraci&oacute;n mientras se
+	 * actualiza.
+	 */
+	private final SequenceLock lock = new SequenceLock();
+	
+	/**
+	 * Cu&aacute;nto se conserva de las ecuaciones acumuladas con cada lectura
+	 * aceptada.
+	 */
+	public final double FORGETTING;
+	
+	/**
+	 * La distancia m&iacute;nima en microteslas entre dos lecturas acumuladas.
+	 */
+	public final float MIN_DISTANCE;
+	
+	/**
+	 * Cada cu&aacute;ntas lecturas aceptadas se resuelve el ajuste.
+	 */
+	public static final int SOLVE_INTERVAL = 25;
+	
+	/**
+	 * Cu&aacute;ntas lecturas aceptadas se necesitan para el primer ajuste.
+	 */
+	public static final int MIN_SAMPLES = 50;
+	
+	/**
+	 * Factor de olvido por omisi&oacute;n; conserva aproximadamente las
+	 * &uacute;ltimas mil lecturas aceptadas.
+	 */
+	public static final double DEFAULT_FORGETTING = 0.999;
+	
+	/**
+	 * Distancia m&iacute;nima por omisi&oacute;n entre dos lecturas
+	 * acumuladas, en microteslas.
+	 */
+	public static final float DEFAULT_MIN_DISTANCE = 2f;
+	
+	/**
+	 * Escala de las lecturas en las ecuaciones, en microteslas; las mantiene
+	 * cerca de 1 para no perder precisi&oacute;n.
+	 */
+	private static final double UNIT = 50;
+	
+	/**
+	 * Cu&aacute;ntas lecturas acumuladas debe tener un octante para contarse
+	 * como cubierto.
+	 */
+	public static final float MIN_OCTANT_WEIGHT = 5f;
+	
+	/**
+	 * Peso de cada lectura en el promedio del residuo.
+	 */
+	private static final float RESIDUAL_SMOOTHING = 0.02f;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye una calibraci&oacute;n con los par&aacute;metros por
+	 * omisi&oacute;n.
+	 */
+	public MagnetometerCalibration(){
+		this(DEFAULT_FORGETTING, DEFAULT_MIN_DISTANCE);
+	}//constructor por omisión
+	
+	/**
+	 * Construye una calibraci&oacute;n.
+	 * @param forgetting - Cu&aacute;nto se conserva de las ecuaciones
+	 * acumuladas con cada lectura aceptada; entre 0 y 1, donde 1 nunca olvida.
+	 * @param minDistance - La distancia m&iacute;nima en microteslas entre dos
+	 * lecturas acumuladas.
+	 * @throws IllegalArgumentException - Si alg&uacute;n par&aacute;metro
+	 * est&aacute; fuera de rango.
+	 */
+	public MagnetometerCalibration(double forgetting, float minDistance){
+		if(!(forgetting > 0 && forgetting <= 1) || !(minDistance >= 0))
+			throw new IllegalArgumentException("par\u00E1metros fuera de " +
+					"rango");
+		FORGETTING = forgetting;
+		MIN_DISTANCE = minDistance;
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica si ya hay un ajuste con el que se corrigen las lecturas.
+	 * @return boolean - <tt>true</tt> si las lecturas se corrigen.
+	 */
+	public boolean isCalibrated(){
+		return calibrated;
+	}//isCalibrated
+	
+	/**
+	 * Da la fracci&oacute;n de los ocho octantes alrededor del centro en los
+	 * que hay al menos <tt>MIN_OCTANT_WEIGHT</tt> lecturas acumuladas.
+	 * @return float - La cobertura, entre 0 y 1.
+	 */
+	public float getCoverage(){
+		int covered = 0;
+		for(float weight : octants)
+			if(weight >= MIN_OCTANT_WEIGHT)
+				covered++;
+		return covered /8f;
+	}//getCoverage
+	
+	/**
+	 * Da la desviaci&oacute;n relativa promedio de la magnitud de las
+	 * lecturas corregidas respecto al radio ajustado.
+	 * @return float - El residuo; 1 si a&uacute;n no hay ajuste.
+	 */
+	public float getResidual(){
+		return residual;
+	}//getResidual
+	
+	/**
+	 * Da la calidad de la calibraci&oacute;n: la cobertura por la
+	 * fracci&oacute;n en la que el residuo es menor al 10%.
+	 * @return float - La calidad, entre 0 y 1.
+	 */
+	public float getQuality(){
+		if(!calibrated)
+			return 0;
+		return getCoverage() *Math.max(0, 1 -residual /0.1f);
+	}//getQuality
+	
+	/**
+	 * Copia la calibraci&oacute;n vigente; por ejemplo, para guardarla y
+	 * restaurarla con <tt>setCalibration</tt>.
+	 * @param offset - Donde se copia el desplazamiento de cada eje, en
+	 * microteslas.
+	 * @param scale - Donde se copia la escala de cada eje.
+	 * @return float - El radio del campo ajustado en microteslas; 0 si no hay
+	 * ajuste.
+	 */
+	public float readCalibration(float[] offset, float[] scale){
+		long start;
+		float field;
+		do{
+			start = lock.beginRead();
+			System.arraycopy(this.offset, 0, offset, 0, 3);
+			System.arraycopy(this.scale, 0, scale, 0, 3);
+			field = radius;
+		}while(!lock.validate(start));
+		return field;
+	}//readCalibration
+	
+	// métodos de modificación
+	
+	/**
+	 * Asigna una calibraci&oacute;n conocida, que se usa hasta el siguiente
+	 * ajuste. Debe llamarse desde el hilo que procesa los eventos o antes de
+	 * recibirlos.
+	 * @param offset - El desplazamiento de cada eje, en microteslas.
+	 * @param scale - La escala de cada eje.
+	 * @param radius - El radio del campo en microteslas.
+	 */
+	public void setCalibration(float[] offset, float[] scale, float radius){
+		lock.beginWrite();
+		System.arraycopy(offset, 0, this.offset, 0, 3);
+		System.arraycopy(scale, 0, this.scale, 0, 3);
+		this.radius = radius;
+		lock.endWrite();
+		calibrated = true;
+	}//setCalibration
+	
+	/**
+	 * Olvida las lecturas acumuladas y la calibraci&oacute;n.
+	 */
+	public void clear(){
+		Arrays.fill(normal, 0);
+		lock.beginWrite();
+		Arrays.fill(offset, 0);
+		Arrays.fill(scale, 1);
+		radius = 0;
+		lock.endWrite();
+		calibrated = false;
+		Arrays.fill(octants, 0);
+		accepted = 0;
+		sinceSolve = 0;
+		residual = 1;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		if(count < 3)
+			return true;
+		float x = values[0], y = values[1], z = values[2];
+		float dx = x -lastAccepted[0];
+		float dy = y -lastAccepted[1];
+		float dz = z -lastAccepted[2];
+		if(accepted == 0 || dx *dx +dy *dy +dz *dz >=
+				MIN_DISTANCE *MIN_DISTANCE){
+			accumulate(x, y, z);
+			if(accepted >= MIN_SAMPLES && sinceSolve >= SOLVE_INTERVAL)
+				solve();
+		}//si la lectura aporta al ajuste
+		if(calibrated){
+			x = (x -offset[0]) *scale[0];
+			y = (y -offset[1]) *scale[1];
+			z = (z -offset[2]) *scale[2];
+			values[0] = x;
+			values[1] = y;
+			values[2] = z;
+			if(radius > 0){
+				float error = Math.abs((float)Math.sqrt(x *x +y *y +z *z)
+						-radius) /radius;
+				residual += RESIDUAL_SMOOTHING *(error -residual);
+			}//si hay radio
+		}//corrige la lectura
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Acumula una lectura en las ecuaciones normales.
+	 * @param x - El campo en el eje x.
+	 * @param y - El campo en el eje y.
+	 * @param z - El campo en el eje z.
+	 */
+	private void accumulate(float x, float y, float z){
+		lastAccepted[0] = x;
+		lastAccepted[1] = y;
+		lastAccepted[2] = z;
+		double u = x /UNIT, v = y /UNIT, w = z /UNIT;
+		terms[0] = u *u;
+		terms[1] = v *v;
+		terms[2] = w *w;
+		terms[3] = u;
+		terms[4] = v;
+		terms[5] = w;
+		double keep = FORGETTING;
+		for(int i = 0; i < 6; i++){
+			for(int j = i; j < 6; j++)
+				normal[i *6 +j] = keep *normal[i *6 +j] +terms[i] *terms[j];
+			normal[36 +i] = keep *normal[36 +i] +terms[i];
+		}//acumula la mitad superior y el lado derecho
+		int octant = (x >= offset[0] ? 1 : 0) | (y >= offset[1] ? 2 : 0) |
+				(z >= offset[2] ? 4 : 0);
+		for(int i = 0; i < 8; i++)
+			octants[i] *= keep;
+		octants[octant]++;
+		accepted++;
+		sinceSolve++;
+	}//accumulate
+	
+	/**
+	 * Resuelve las ecuaciones normales y, si el elipsoide es v&aacute;lido,
+	 * actualiza la calibraci&oacute;n.
+	 */
+	private void solve(){
+		sinceSolve = 0;
+		double[] m = work;
+		for(int i = 0; i < 6; i++){
+			for(int j = 0; j < 6; j++)
+				m[i *7 +j] = j >= i ? normal[i *6 +j] : normal[j *6 +i];
+			m[i *7 +6] = normal[36 +i];
+		}//copia el sistema completo
+		for(int col = 0; col < 6; col++){
+			int pivot = col;
+			for(int row = col +1; row < 6; row++)
+				if(Math.abs(m[row *7 +col]) > Math.abs(m[pivot *7 +col]))
+					pivot = row;
+			if(Math.abs(m[pivot *7 +col]) < 1e-12)
+				return;
+			if(pivot != col)
+				for(int k = col; k < 7; k++){
+					double swap = m[col *7 +k];
+					m[col *7 +k] = m[pivot *7 +k];
+					m[pivot *7 +k] = swap;
+				}//intercambia los renglones
+			for(int row = col +1; row < 6; row++){
+				double factor = m[row *7 +col] /m[col *7 +col];
+				for(int k = col; k < 7; k++)
+					m[row *7 +k] -= factor *m[col *7 +k];
+			}//elimina la columna
+		}//eliminación gaussiana
+		for(int row = 5; row >= 0; row--){
+			double sum = m[row *7 +6];
+			for(int k = row +1; k < 6; k++)
+				sum -= m[row *7 +k] *solution[k];
+			solution[row] = sum /m[row *7 +row];
+		}//sustitución hacia atrás
+		double a = solution[0], b = solution[1], c = solution[2];
+		if(!(a > 0 && b > 0 && c > 0))
+			return;
+		double cx = -solution[3] /(2 *a);
+		double cy = -solution[4] /(2 *b);
+		double cz = -solution[5] /(2 *c);
+		double g = 1 +a *cx *cx +b *cy *cy +c *cz *cz;
+		if(!(g > 0))
+			return;
+		double rx = Math.sqrt(g /a), ry = Math.sqrt(g /b), rz = Math.sqrt(g /c);
+		double mean = Math.cbrt(rx *ry *rz);
+		lock.beginWrite();
+		offset[0] = (float)(cx *UNIT);
+		offset[1] = (float)(cy *UNIT);
+		offset[2] = (float)(cz *UNIT);
+		scale[0] = (float)(mean /rx);
+		scale[1] = (float)(mean /ry);
+		scale[2] = (float)(mean /rz);
+		radius = (float)(mean *UNIT);
+		lock.endWrite();
+		calibrated = true;
+	}//solve
+	
+}//MagnetometerCalibration class
@@ -0,0 +1,249 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Estima la orientaci&oacute;n del dispositivo combinando el giroscopio, el
+ * aceler&oacute;metro y el magnet&oacute;metro.<p/>
+ *
+ * Las lecturas del aceler&oacute;metro y del magnet&oacute;metro s&oacute;lo
+ * se guardan; la orientaci&oacute;n se actualiza con cada lectura del
+ * giroscopio, usando las &uacute;ltimas lecturas de los otros dos para
+ * corregir la deriva. As&iacute; se obtiene una orientaci&oacute;n por cada
+ * lectura del giroscopio con un costo fijo y sin crear objetos.<p/>
+ *
+ * La orientaci&oacute;n es un cuaterni&oacute;n que lleva las coordenadas del
+ * dispositivo a las del mundo, con las convenciones de <tt>Quaternions</tt>.
+ * Se actualiza desde un solo hilo y puede leerse desde cualquier otro sin
+ * bloquearlo.
+ * @see Quaternions
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public abstract class OrientationFilter {
+
+	// atributos de clase
+	
+	/**
+	 * La orientaci&oacute;n estimada.
+	 */
+	protected final float[] quaternion = {1, 0, 0, 0};
+	
+	/**
+	 * La &uacute;ltima lectura del aceler&oacute;metro.
+	 */
+	protected final float[] gravity = new float[3];
+	
+	/**
+	 * La &uacute;ltima lectura del magnet&oacute;metro.
+	 */
+	protected final float[] geomagnetic = new float[3];
+	
+	/**
+	 * Indica si ya hay una lectura del aceler&oacute;metro.
+	 */
+	protected boolean hasGravity;
+	
+	/**
+	 * Indica si ya hay una lectura del magnet&oacute;metro.
+	 */
+	protected boolean hasGeomagnetic;
+	
+	/**
+	 * Matriz de trabajo para los c&aacute;lculos de las subclases.
+	 */
+	protected final float[] matrix = new float[9];
+	
+	/**
+	 * El momento de la &uacute;ltima lectura del giroscopio en nanosegundos; o
+	 * -1 si no ha habido ninguna.
+	 */
+	private long lastGyroscopeTime = -1;
+	
+	/**
+	 * Indica si ya se estim&oacute; la orientaci&oacute;n desde el &uacute;ltimo
+	 * reinicio.
+	 */
+	private boolean estimated;
+	
+	/**
+	 * Contador de secuencia que protege <tt>quaternion</tt> mientras se
+	 * actualiza.
+	 */
+	private final SequenceLock lock = new SequenceLock();
+	
+	/**
+	 * Intervalo m&aacute;ximo en nanosegundos entre dos lecturas del
+	 * giroscopio para integrarlas; un intervalo mayor se toma como una pausa
+	 * del sensor y s&oacute;lo reinicia la integraci&oacute;n.
+	 */
+	public static final long MAX_GYROSCOPE_GAP = 500000000L;
+	
+	// métodos de modificación
+	
+	/**
+	 * Registra una lectura del aceler&oacute;metro.
+	 * @param x - La aceleraci&oacute;n en el eje x.
+	 * @param y - La aceleraci&oacute;n en el eje y.
+	 * @param z - La aceleraci&oacute;n en el eje z.
+	 */
+	public void setAccelerometer(float x, float y, float z){
+		gravity[0] = x;
+		gravity[1] = y;
+		gravity[2] = z;
+		hasGravity = true;
+	}//setAccelerometer
+	
+	/**
+	 * Registra una lectura del magnet&oacute;metro.
+	 * @param x - El campo magn&eacute;tico en el eje x.
+	 * @param y - El campo magn&eacute;tico en el eje y.
+	 * @param z - El campo magn&eacute;tico en el eje z.
+	 */
+	public void setMagnetometer(float x, float y, float z){
+		geomagnetic[0] = x;
+		geomagnetic[1] = y;
+		geomagnetic[2] = z;
+		hasGeomagnetic = true;
+	}//setMagnetometer
+	
+	/**
+	 * Olvida la orientaci&oacute;n estimada y las lecturas registradas.
+	 */
+	public void reset(){
+		lock.beginWrite();
+		Quaternions.identity(quaternion);
+		onReset();
+		lock.endWrite();
+		hasGravity = false;
+		hasGeomagnetic = false;
+		lastGyroscopeTime = -1;
+		estimated = false;
+	}//reset
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica cu&aacute;ntas veces se ha actualizado la orientaci&oacute;n.
+	 * @return long - El n&uacute;mero de actualizaciones.
+	 */
+	public long getVersion(){
+		return lock.getVersion();
+	}//getVersion
+	
+	/**
+	 * Copia la orientaci&oacute;n estimada.
+	 * @param out - Donde se copia el cuaterni&oacute;n <tt>{w, x, y, z}</tt>.
+	 * @return long - La versi&oacute;n de la orientaci&oacute;n copiada.
+	 */
+	public long readQuaternion(float[] out){
+		long start;
+		do{
+			start = lock.beginRead();
+			out[0] = quaternion[0];
+			out[1] = quaternion[1];
+			out[2] = quaternion[2];
+			out[3] = quaternion[3];
+		}while(!lock.validate(start));
+		return lock.versionOf(start);
+	}//readQuaternion
+	
+	/**
+	 * Copia la orientaci&oacute;n estimada como azimut, inclinaci&oacute;n y
+	 * giro; igual que <tt>SensorManager.getOrientation</tt>.
+	 * @param orientation - Donde se escriben el azimut, la inclinaci&oacute;n
+	 * y el giro, en radianes.
+	 * @return long - La versi&oacute;n de la orientaci&oacute;n copiada.
+	 * @see Quaternions#toOrientation(float[], float[])
+	 */
+	public long readOrientation(float[] orientation){
+		long start;
+		float w, x, y, z;
+		do{
+			start = lock.beginRead();
+			w = quaternion[0];
+			x = quaternion[1];
+			y = quaternion[2];
+			z = quaternion[3];
+		}while(!lock.validate(start));
+		Quaternions.quaternionToOrientation(w, x, y, z, orientation);
+		return lock.versionOf(start);
+	}//readOrientation
+	
+	// métodos de implementación
+	
+	/**
+	 * Actualiza la orientaci&oacute;n con una lectura del giroscopio.<p/>
+	 *
+	 * La primera lectura, o la primera tras una pausa mayor a
+	 * <tt>MAX_GYROSCOPE_GAP</tt>, s&oacute;lo marca el inicio de la
+	 * integraci&oacute;n; y si la orientaci&oacute;n a&uacute;n no se ha
+	 * estimado, la inicia con el aceler&oacute;metro y el
+	 * magnet&oacute;metro.
+	 * @param timestamp - El momento de la lectura en nanosegundos.
+	 * @param x - La velocidad angular en el eje x, en radianes por segundo.
+	 * @param y - La velocidad angular en el eje y, en radianes por segundo.
+	 * @param z - La velocidad angular en el eje z, en radianes por segundo.
+	 * @return boolean - <tt>true</tt> si la orientaci&oacute;n se
+	 * actualiz&oacute;.
+	 */
+	public boolean updateGyroscope(long timestamp, float x, float y, float z){
+		long last = lastGyroscopeTime;
+		lastGyroscopeTime = timestamp;
+		long elapsed = timestamp -last;
+		if(last < 0 || elapsed <= 0 || elapsed > MAX_GYROSCOPE_GAP){
+			if(!estimated && hasGravity && hasGeomagnetic &&
+					Quaternions.fromGravityAndField(gravity, geomagnetic,
+							matrix)){
+				lock.beginWrite();
+				Quaternions.fromRotationMatrix(matrix, quaternion);
+				onReset();
+				lock.endWrite();
+				estimated = true;
+				return true;
+			}//si puede estimar la orientación inicial
+			return false;
+		}//si no hay intervalo que integrar
+		lock.beginWrite();
+		integrate(elapsed *1e-9f, x, y, z);
+		lock.endWrite();
+		estimated = true;
+		return true;
+	}//updateGyroscope
+	
+	// métodos auxiliares
+	
+	/**
+	 * Integra una lectura del giroscopio y corrige la deriva con las
+	 * &uacute;ltimas lecturas del aceler&oacute;metro y del
+	 * magnet&oacute;metro, actualizando <tt>quaternion</tt>.
+	 * @param dt - El intervalo desde la lectura anterior, en segundos.
+	 * @param x - La velocidad angular en el eje x, en radianes por segundo.
+	 * @param y - La velocidad angular en el eje y, en radianes por segundo.
+	 * @param z - La velocidad angular en el eje z, en radianes por segundo.
+	 */
+	protected abstract void integrate(float dt, float x, float y, float z);
+	
+	/**
+	 * Avisa que <tt>quaternion</tt> se asign&oacute; sin integrar, para que
+	 * las subclases actualicen su estado. La implementaci&oacute;n por
+	 * omisi&oacute;n no hace nada.
+	 */
+	protected void onReset(){}
+	
+}//OrientationFilter class
@@ -0,0 +1,335 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Operaciones con cuaterniones y matrices de rotaci&oacute;n sobre arreglos
+ * primitivos.<p/>
+ *
+ * Un cuaterni&oacute;n es un arreglo de cuatro flotantes <tt>{w, x, y, z}</tt>
+ * y una matriz de rotaci&oacute;n es un arreglo de nueve flotantes por
+ * renglones. Ninguna operaci&oacute;n crea objetos: los resultados se
+ * escriben en los arreglos que se pasan como par&aacute;metros, los cuales
+ * pueden ser los mismos que los operandos.<p/>
+ *
+ * Se usan las mismas convenciones que <tt>android.hardware.SensorManager</tt>:
+ * la rotaci&oacute;n lleva las coordenadas del dispositivo a las del mundo,
+ * cuyo eje x apunta al este, el y al norte magn&eacute;tico y el z hacia
+ * arriba.
+ * @see android.hardware.SensorManager#getRotationMatrix(float[], float[], float[], float[])
+ * @see android.hardware.SensorManager#getOrientation(float[], float[])
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public final class Quaternions {
+
+	// métodos constructores
+	
+	/**
+	 * No se permiten instancias de &eacute;sta clase.
+	 */
+	private Quaternions(){}
+	
+	// métodos estáticos
+	
+	/**
+	 * Asigna el cuaterni&oacute;n identidad.
+	 * @param q - Donde se escribe el cuaterni&oacute;n.
+	 */
+	public static void identity(float[] q){
+		q[0] = 1;
+		q[1] = 0;
+		q[2] = 0;
+		q[3] = 0;
+	}//identity
+	
+	/**
+	 * Multiplica dos cuaterniones: <tt>out = a b</tt>.
+	 * @param a - El primer factor.
+	 * @param b - El segundo factor.
+	 * @param out - Donde se escribe el producto; puede ser <tt>a</tt> o
+	 * <tt>b</tt>.
+	 */
+	public static void multiply(float[] a, float[] b, float[] out){
+		float w = a[0] *b[0] -a[1] *b[1] -a[2] *b[2] -a[3] *b[3];
+		float x = a[0] *b[1] +a[1] *b[0] +a[2] *b[3] -a[3] *b[2];
+		float y = a[0] *b[2] -a[1] *b[3] +a[2] *b[0] +a[3] *b[1];
+		float z = a[0] *b[3] +a[1] *b[2] -a[2] *b[1] +a[3] *b[0];
+		out[0] = w;
+		out[1] = x;
+		out[2] = y;
+		out[3] = z;
+	}//multiply
+	
+	/**
+	 * Normaliza un cuaterni&oacute;n. Si su norma es cero, asigna la
+	 * identidad.
+	 * @param q - El cuaterni&oacute;n a normalizar.
+	 */
+	public static void normalize(float[] q){
+		float norm = (float)Math.sqrt(q[0] *q[0] +q[1] *q[1] +q[2] *q[2]
+				+q[3] *q[3]);
+		if(norm == 0){
+			identity(q);
+			return;
+		}//si no puede normalizarse
+		float inverse = 1 /norm;
+		q[0] *= inverse;
+		q[1] *= inverse;
+		q[2] *= inverse;
+		q[3] *= inverse;
+	}//normalize
+	
+	/**
+	 * Producto punto de dos cuaterniones.
+	 * @param a - El primer cuaterni&oacute;n.
+	 * @param b - El segundo cuaterni&oacute;n.
+	 * @return float - El producto punto.
+	 */
+	public static float dot(float[] a, float[] b){
+		return a[0] *b[0] +a[1] *b[1] +a[2] *b[2] +a[3] *b[3];
+	}//dot
+	
+	/**
+	 * Interpola esf&eacute;ricamente entre dos cuaterniones unitarios; el
+	 * resultado gira a velocidad constante por el camino m&aacute;s corto.
+	 * Si los cuaterniones son casi iguales se interpola linealmente y se
+	 * normaliza.
+	 * @param a - El cuaterni&oacute;n inicial.
+	 * @param b - El cuaterni&oacute;n final.
+	 * @param t - La fracci&oacute;n del camino, entre 0 y 1.
+	 * @param out - Donde se escribe el resultado; puede ser <tt>a</tt> o
+	 * <tt>b</tt>.
+	 */
+	public static void slerp(float[] a, float[] b, float t, float[] out){
+		float cos = dot(a, b);
+		float sign = 1;
+		if(cos < 0){
+			cos = -cos;
+			sign = -1;
+		}//toma el camino más corto
+		float wa, wb;
+		if(cos > 0.9995f){
+			wa = 1 -t;
+			wb = t;
+		}else{
+			double angle = Math.acos(cos);
+			double sin = Math.sin(angle);
+			wa = (float)(Math.sin((1 -t) *angle) /sin);
+			wb = (float)(Math.sin(t *angle) /sin);
+		}//si son casi iguales interpola linealmente
+		wb *= sign;
+		out[0] = wa *a[0] +wb *b[0];
+		out[1] = wa *a[1] +wb *b[1];
+		out[2] = wa *a[2] +wb *b[2];
+		out[3] = wa *a[3] +wb *b[3];
+		normalize(out);
+	}//slerp
+	
+	/**
+	 * Gira un cuaterni&oacute;n con una velocidad angular medida en las
+	 * coordenadas del dispositivo durante un intervalo: <tt>q = q dq</tt>,
+	 * donde <tt>dq</tt> es el giro exacto de &aacute;ngulo
+	 * <tt>|w| dt</tt>.
+	 * @param q - El cuaterni&oacute;n a girar.
+	 * @param wx - La velocidad angular en el eje x, en radianes por segundo.
+	 * @param wy - La velocidad angular en el eje y, en radianes por segundo.
+	 * @param wz - La velocidad angular en el eje z, en radianes por segundo.
+	 * @param dt - El intervalo en segundos.
+	 */
+	public static void integrate(float[] q, float wx, float wy, float wz,
+			float dt){
+		float rate = (float)Math.sqrt(wx *wx +wy *wy +wz *wz);
+		if(rate == 0)
+			return;
+		float half = rate *dt *0.5f;
+		float s = (float)Math.sin(half) /rate;
+		float dw = (float)Math.cos(half);
+		float dx = wx *s;
+		float dy = wy *s;
+		float dz = wz *s;
+		float w = q[0] *dw -q[1] *dx -q[2] *dy -q[3] *dz;
+		float x = q[0] *dx +q[1] *dw +q[2] *dz -q[3] *dy;
+		float y = q[0] *dy -q[1] *dz +q[2] *dw +q[3] *dx;
+		float z = q[0] *dz +q[1] *dy -q[2] *dx +q[3] *dw;
+		q[0] = w;
+		q[1] = x;
+		q[2] = y;
+		q[3] = z;
+		normalize(q);
+	}//integrate
+	
+	/**
+	 * Calcula la matriz de rotaci&oacute;n de un cuaterni&oacute;n unitario.
+	 * @param q - El cuaterni&oacute;n.
+	 * @param r - Donde se escribe la matriz, de nueve elementos.
+	 */
+	public static void toRotationMatrix(float[] q, float[] r){
+		float w = q[0], x = q[1], y = q[2], z = q[3];
+		float xx = x *x, yy = y *y, zz = z *z;
+		float xy = x *y, xz = x *z, yz = y *z;
+		float wx = w *x, wy = w *y, wz = w *z;
+		r[0] = 1 -2 *(yy +zz);
+		r[1] = 2 *(xy -wz);
+		r[2] = 2 *(xz +wy);
+		r[3] = 2 *(xy +wz);
+		r[4] = 1 -2 *(xx +zz);
+		r[5] = 2 *(yz -wx);
+		r[6] = 2 *(xz -wy);
+		r[7] = 2 *(yz +wx);
+		r[8] = 1 -2 *(xx +yy);
+	}//toRotationMatrix
+	
+	/**
+	 * Calcula el cuaterni&oacute;n unitario de una matriz de
+	 * rotaci&oacute;n. El resultado siempre tiene <tt>w</tt> no negativo.
+	 * @param r - La matriz, de nueve elementos.
+	 * @param q - Donde se escribe el cuaterni&oacute;n.
+	 */
+	public static void fromRotationMatrix(float[] r, float[] q){
+		float trace = r[0] +r[4] +r[8];
+		float w, x, y, z;
+		if(trace > 0){
+			float s = (float)Math.sqrt(trace +1) *2;
+			w = s /4;
+			x = (r[7] -r[5]) /s;
+			y = (r[2] -r[6]) /s;
+			z = (r[3] -r[1]) /s;
+		}else if(r[0] > r[4] && r[0] > r[8]){
+			float s = (float)Math.sqrt(1 +r[0] -r[4] -r[8]) *2;
+			w = (r[7] -r[5]) /s;
+			x = s /4;
+			y = (r[1] +r[3]) /s;
+			z = (r[2] +r[6]) /s;
+		}else if(r[4] > r[8]){
+			float s = (float)Math.sqrt(1 +r[4] -r[0] -r[8]) *2;
+			w = (r[2] -r[6]) /s;
+			x = (r[1] +r[3]) /s;
+			y = s /4;
+			z = (r[5] +r[7]) /s;
+		}else{
+			float s = (float)Math.sqrt(1 +r[8] -r[0] -r[4]) *2;
+			w = (r[3] -r[1]) /s;
+			x = (r[2] +r[6]) /s;
+			y = (r[5] +r[7]) /s;
+			z = s /4;
+		}//elige el cálculo numéricamente estable
+		if(w < 0){
+			w = -w;
+			x = -x;
+			y = -y;
+			z = -z;
+		}//usa el hemisferio de w positivo
+		q[0] = w;
+		q[1] = x;
+		q[2] = y;
+		q[3] = z;
+		normalize(q);
+	}//fromRotationMatrix
+	
+	/**
+	 * Calcula la matriz de rotaci&oacute;n a partir de la gravedad y el campo
+	 * magn&eacute;tico medidos en las coordenadas del dispositivo; igual que
+	 * <tt>SensorManager.getRotationMatrix</tt>.
+	 * @param gravity - El vector de gravedad.
+	 * @param geomagnetic - El vector del campo magn&eacute;tico.
+	 * @param r - Donde se escribe la matriz, de nueve elementos.
+	 * @return boolean - <tt>false</tt> si los vectores son casi paralelos y no
+	 * se puede calcular la matriz; en cuyo caso <tt>r</tt> no se modifica.
+	 */
+	public static boolean fromGravityAndField(float[] gravity,
+			float[] geomagnetic, float[] r){
+		float ax = gravity[0], ay = gravity[1], az = gravity[2];
+		float ex = geomagnetic[0], ey = geomagnetic[1], ez = geomagnetic[2];
+		float hx = ey *az -ez *ay;
+		float hy = ez *ax -ex *az;
+		float hz = ex *ay -ey *ax;
+		float normH = (float)Math.sqrt(hx *hx +hy *hy +hz *hz);
+		float normA = (float)Math.sqrt(ax *ax +ay *ay +az *az);
+		if(normH < 0.1f || normA == 0)
+			return false;
+		float inverseH = 1 /normH;
+		hx *= inverseH;
+		hy *= inverseH;
+		hz *= inverseH;
+		float inverseA = 1 /normA;
+		ax *= inverseA;
+		ay *= inverseA;
+		az *= inverseA;
+		r[0] = hx;
+		r[1] = hy;
+		r[2] = hz;
+		r[3] = ay *hz -az *hy;
+		r[4] = az *hx -ax *hz;
+		r[5] = ax *hy -ay *hx;
+		r[6] = ax;
+		r[7] = ay;
+		r[8] = az;
+		return true;
+	}//fromGravityAndField
+	
+	/**
+	 * Calcula el azimut, la inclinaci&oacute;n y el giro de una matriz de
+	 * rotaci&oacute;n; igual que <tt>SensorManager.getOrientation</tt>.
+	 * @param r - La matriz, de nueve elementos.
+	 * @param orientation - Donde se escriben el azimut, la inclinaci&oacute;n
+	 * y el giro, en radianes.
+	 */
+	public static void toOrientation(float[] r, float[] orientation){
+		orientation[0] = (float)Math.atan2(r[1], r[4]);
+		orientation[1] = (float)Math.asin(-r[7]);
+		orientation[2] = (float)Math.atan2(-r[6], r[8]);
+	}//toOrientation
+	
+	/**
+	 * Calcula el azimut, la inclinaci&oacute;n y el giro de un
+	 * cuaterni&oacute;n unitario sin calcular toda la matriz de
+	 * rotaci&oacute;n.
+	 * @param q - El cuaterni&oacute;n.
+	 * @param orientation - Donde se escriben el azimut, la inclinaci&oacute;n
+	 * y el giro, en radianes.
+	 * @see #toOrientation(float[], float[])
+	 */
+	public static void quaternionToOrientation(float[] q, float[] orientation){
+		quaternionToOrientation(q[0], q[1], q[2], q[3], orientation);
+	}//quaternionToOrientation
+	
+	/**
+	 * Calcula el azimut, la inclinaci&oacute;n y el giro del cuaterni&oacute;n
+	 * unitario con los componentes dados.
+	 * @param w - El componente real.
+	 * @param x - El componente x.
+	 * @param y - El componente y.
+	 * @param z - El componente z.
+	 * @param orientation - Donde se escriben el azimut, la inclinaci&oacute;n
+	 * y el giro, en radianes.
+	 * @see #quaternionToOrientation(float[], float[])
+	 */
+	public static void quaternionToOrientation(float w, float x, float y,
+			float z, float[] orientation){
+		float r1 = 2 *(x *y -w *z);
+		float r4 = 1 -2 *(x *x +z *z);
+		float r6 = 2 *(x *z -w *y);
+		float r7 = 2 *(y *z +w *x);
+		float r8 = 1 -2 *(x *x +y *y);
+		orientation[0] = (float)Math.atan2(r1, r4);
+		orientation[1] = (float)Math.asin(Math.max(-1, Math.min(1, -r7)));
+		orientation[2] = (float)Math.atan2(-r6, r8);
+	}//quaternionToOrientation
+	
+}//Quaternions class
@@ -0,0 +1,327 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Entrega las lecturas de un sensor a frecuencia fija.<p/>
+ *
+ * Los sensores entregan sus eventos a intervalos irregulares. Esta etapa
+ * observa las lecturas y, en cada m&uacute;ltiplo de <tt>PERIOD</tt>
+ * nanosegundos que queda entre dos lecturas consecutivas, entrega a un
+ * <tt>Resampler.Receiver</tt> los valores interpolados linealmente entre
+ * ambas; o, para un vector de rotaci&oacute;n, interpolados
+ * esf&eacute;ricamente entre sus cuaterniones. Como los instantes son
+ * m&uacute;ltiplos del periodo, varios sensores con el mismo periodo se
+ * entregan en los mismos instantes.<p/>
+ *
+ * S&oacute;lo se conserva la lectura anterior: cada instante se entrega en
+ * cuanto llega la primera lectura posterior a &eacute;l. Si entre dos
+ * lecturas pasan m&aacute;s de <tt>MAX_GAP</tt> nanosegundos no se interpola
+ * entre ellas; se avisa del hueco y se contin&uacute;a con los instantes
+ * posteriores. Las lecturas que no son posteriores a la anterior se
+ * descartan y se cuentan como tard&iacute;as. Todo el almacenamiento se
+ * reserva al construir la etapa, que nunca descarta lecturas del receptor.
+ * @see SensorSampleListener#addStage(SampleStage)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class Resampler implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * Recibe las lecturas a frecuencia fija, en el hilo que procesa los
+	 * eventos del receptor.
+	 */
+	public interface Receiver {
+		
+		/**
+		 * Recibe una lectura interpolada. El arreglo <tt>values</tt> se
+		 * reutiliza; no debe conservarse su referencia.
+		 * @param timestamp - El instante de la lectura en nanosegundos; un
+		 * m&uacute;ltiplo del periodo.
+		 * @param values - Los valores interpolados.
+		 * @param count - Cu&aacute;ntos valores tiene la lectura.
+		 */
+		void onResample(long timestamp, float[] values, int count);
+		
+		/**
+		 * Avisa que entre dos lecturas pasaron m&aacute;s de
+		 * <tt>MAX_GAP</tt> nanosegundos; los instantes entre ellas no se
+		 * entregan.
+		 * @param from - El momento de la lectura anterior al hueco.
+		 * @param to - El momento de la lectura posterior al hueco.
+		 */
+		void onGap(long from, long to);
+		
+	}//Receiver interface
+	
+	/**
+	 * Quien recibe las lecturas.
+	 */
+	private final Receiver receiver;
+	
+	/**
+	 * Los valores de la lectura anterior.
+	 */
+	private final float[] previous;
+	
+	/**
+	 * Los valores interpolados que se entregan.
+	 */
+	private final float[] output;
+	
+	/**
+	 * Los cuaterniones de la lectura anterior, de la actual y el
+	 * interpolado, cuando se interpolan rotaciones.
+	 */
+	private final float[] from, to, between;
+	
+	/**
+	 * El momento de la lectura anterior en nanosegundos; o -1 si no hay.
+	 */
+	private long previousTime = -1;
+	
+	/**
+	 * El siguiente instante a entregar.
+	 */
+	private long nextTick;
+	
+	/**
+	 * Cu&aacute;ntos valores tiene la lectura anterior.
+	 */
+	private int previousCount;
+	
+	// contadores
+	private volatile long emitted;
+	private volatile long gaps;
+	private volatile long late;
+	
+	/**
+	 * El periodo de las lecturas entregadas en nanosegundos.
+	 */
+	public final long PERIOD;
+	
+	/**
+	 * El intervalo m&aacute;ximo en nanosegundos entre dos lecturas para
+	 * interpolar entre ellas.
+	 */
+	public final long MAX_GAP;
+	
+	/**
+	 * N&uacute;mero m&aacute;ximo de valores de cada lectura.
+	 */
+	public final int AXES;
+	
+	/**
+	 * Indica si las lecturas son vectores de rotaci&oacute;n y se interpolan
+	 * esf&eacute;ricamente.
+	 */
+	public final boolean ROTATION;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye una etapa que interpola linealmente cada valor.
+	 * @param receiver - Quien recibe las lecturas.
+	 * @param axes - El n&uacute;mero m&aacute;ximo de valores de cada
+	 * lectura.
+	 * @param period - El periodo de las lecturas entregadas en nanosegundos.
+	 * @param maxGap - El intervalo m&aacute;ximo en nanosegundos entre dos
+	 * lecturas para interpolar entre ellas.
+	 * @throws IllegalArgumentException - Si el n&uacute;mero de valores o el
+	 * periodo no son positivos, o si el intervalo es menor que el periodo.
+	 */
+	public Resampler(Receiver receiver, int axes, long period, long maxGap){
+		this(receiver, axes, period, maxGap, false);
+	}//constructor
+	
+	/**
+	 * Construye una etapa que interpola linealmente cada valor, o que
+	 * interpola esf&eacute;ricamente vectores de rotaci&oacute;n como los de
+	 * <tt>RotationSensorListener</tt>. Si un vector de rotaci&oacute;n no
+	 * trae el cuarto componente se reconstruye, y las lecturas entregadas
+	 * tienen los mismos valores que la lectura que cierra el intervalo.
+	 * @param receiver - Quien recibe las lecturas.
+	 * @param axes - El n&uacute;mero m&aacute;ximo de valores de cada
+	 * lectura.
+	 * @param period - El periodo de las lecturas entregadas en nanosegundos.
+	 * @param maxGap - El intervalo m&aacute;ximo en nanosegundos entre dos
+	 * lecturas para interpolar entre ellas.
+	 * @param rotation - <tt>true</tt> si las lecturas son vectores de
+	 * rotaci&oacute;n.
+	 * @throws IllegalArgumentException - Si el n&uacute;mero de valores o el
+	 * periodo no son positivos, si el intervalo es menor que el periodo o si
+	 * un vector de rotaci&oacute;n tiene menos de tres valores.
+	 */
+	public Resampler(Receiver receiver, int axes, long period, long maxGap,
+			boolean rotation){
+		if(axes <= 0 || period <= 0 || maxGap < period)
+			throw new IllegalArgumentException("axes y period deben ser " +
+					"positivos y maxGap no puede ser menor que period");
+		if(rotation && axes < 3)
+			throw new IllegalArgumentException("un vector de rotaci\u00F3n " +
+					"tiene al menos tres valores");
+		this.receiver = receiver;
+		AXES = axes;
+		PERIOD = period;
+		MAX_GAP = maxGap;
+		ROTATION = rotation;
+		previous = new float[axes];
+		output = new float[axes];
+		from = new float[4];
+		to = new float[4];
+		between = new float[4];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Da cu&aacute;ntas lecturas se han entregado.
+	 * @return long - El n&uacute;mero de lecturas entregadas.
+	 */
+	public long getEmittedCount(){
+		return emitted;
+	}//getEmittedCount
+	
+	/**
+	 * Da cu&aacute;ntos huecos se han avisado.
+	 * @return long - El n&uacute;mero de huecos.
+	 */
+	public long getGapCount(){
+		return gaps;
+	}//getGapCount
+	
+	/**
+	 * Da cu&aacute;ntas lecturas se han descartado por llegar tarde.
+	 * @return long - El n&uacute;mero de lecturas tard&iacute;as.
+	 */
+	public long getLateCount(){
+		return late;
+	}//getLateCount
+	
+	// métodos de modificación
+	
+	/**
+	 * Olvida la lectura anterior; la siguiente lectura inicia de nuevo la
+	 * interpolaci&oacute;n.
+	 */
+	public void clear(){
+		previousTime = -1;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		int n = Math.min(count, AXES);
+		long last = previousTime;
+		if(last >= 0 && timestamp <= last){
+			late++;
+			return true;
+		}//si no es posterior a la anterior
+		if(last < 0 || timestamp -last > MAX_GAP){
+			if(last >= 0){
+				gaps++;
+				receiver.onGap(last, timestamp);
+			}//si hay un hueco
+			nextTick = ceilTick(timestamp);
+		}else{
+			if(ROTATION){
+				toQuaternion(previous, previousCount, from);
+				toQuaternion(values, n, to);
+			}//si interpola rotaciones
+			float span = timestamp -last;
+			while(nextTick <= timestamp){
+				float t = (nextTick -last) /span;
+				if(ROTATION)
+					interpolateRotation(t, values, n);
+				else
+					for(int i = 0; i < n; i++)
+						output[i] = previous[i] +t *(values[i] -previous[i]);
+				emitted++;
+				receiver.onResample(nextTick, output, n);
+				nextTick += PERIOD;
+			}//entrega los instantes hasta la lectura
+		}//inicia o interpola
+		if(timestamp == nextTick){
+			System.arraycopy(values, 0, output, 0, n);
+			emitted++;
+			receiver.onResample(nextTick, output, n);
+			nextTick += PERIOD;
+		}//si la lectura cae en un instante
+		System.arraycopy(values, 0, previous, 0, n);
+		previousCount = n;
+		previousTime = timestamp;
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Da el primer instante que no es anterior al momento dado.
+	 * @param timestamp - El momento en nanosegundos.
+	 * @return long - El instante; un m&uacute;ltiplo del periodo.
+	 */
+	private long ceilTick(long timestamp){
+		long ticks = timestamp /PERIOD;
+		if(ticks *PERIOD < timestamp)
+			ticks++;
+		return ticks *PERIOD;
+	}//ceilTick
+	
+	/**
+	 * Escribe el cuaterni&oacute;n de un vector de rotaci&oacute;n,
+	 * reconstruyendo el cuarto componente si no est&aacute;.
+	 * @param vector - El vector de rotaci&oacute;n <tt>{x, y, z[, w]}</tt>.
+	 * @param count - Cu&aacute;ntos valores tiene el vector.
+	 * @param q - Donde se escribe el cuaterni&oacute;n <tt>{w, x, y, z}</tt>.
+	 */
+	private static void toQuaternion(float[] vector, int count, float[] q){
+		float x = vector[0], y = vector[1], z = vector[2];
+		q[0] = count >= 4 ? vector[3] :
+				(float)Math.sqrt(Math.max(0, 1 -x *x -y *y -z *z));
+		q[1] = x;
+		q[2] = y;
+		q[3] = z;
+	}//toQuaternion
+	
+	/**
+	 * Interpola esf&eacute;ricamente entre <tt>from</tt> y <tt>to</tt> y
+	 * escribe el resultado como vector de rotaci&oacute;n en
+	 * <tt>output</tt>. Los valores despu&eacute;s del cuarto se interpolan
+	 * linealmente.
+	 * @param t - La fracci&oacute;n del intervalo.
+	 * @param values - Los valores de la lectura que cierra el intervalo.
+	 * @param count - Cu&aacute;ntos valores tiene la lectura.
+	 */
+	private void interpolateRotation(float t, float[] values, int count){
+		Quaternions.slerp(from, to, t, between);
+		if(between[0] < 0)
+			for(int i = 0; i < 4; i++)
+				between[i] = -between[i];
+		output[0] = between[1];
+		output[1] = between[2];
+		output[2] = between[3];
+		if(count >= 4)
+			output[3] = between[0];
+		for(int i = 4; i < count; i++)
+			output[i] = previous[i] +t *(values[i] -previous[i]);
+	}//interpolateRotation
+	
+}//Resampler class
@@ -0,0 +1,130 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Lote de lecturas de un sensor.<p/>
+ * 
+ * Acumula lecturas en arreglos primitivos (uno de momentos y uno por eje)
+ * creados una sola vez, hasta juntar un n&uacute;mero dado de lecturas o
+ * hasta que entre la primera y la &uacute;ltima pase un tiempo dado. Los
+ * arreglos se reutilizan para cada lote; quien los reciba debe copiar lo que
+ * quiera conservar.
+ * @see SensorSampleListener#enableBatching(int, long)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SampleBatch {
+
+	// atributos de clase
+	
+	/**
+	 * Los momentos de los eventos del lote, en nanosegundos.
+	 */
+	public final long[] timestamps;
+	
+	/**
+	 * Los valores de los eventos del lote; un arreglo por eje.
+	 */
+	public final float[][] axes;
+	
+	/**
+	 * Cu&aacute;ntas lecturas hay en el lote.
+	 */
+	private int count;
+	
+	/**
+	 * Tiempo m&aacute;ximo en nanosegundos entre la primera y la &uacute;ltima
+	 * lectura de un lote. Si no es positivo, s&oacute;lo se considera el
+	 * n&uacute;mero de lecturas.
+	 */
+	private final long maxSpan;
+	
+	/**
+	 * N&uacute;mero m&aacute;ximo de lecturas de un lote.
+	 */
+	public final int CAPACITY;
+	
+	/**
+	 * N&uacute;mero de ejes de cada lectura.
+	 */
+	public final int AXES;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un lote con la capacidad, ejes y tiempo m&aacute;ximo dados.
+	 * @param capacity - El n&uacute;mero m&aacute;ximo de lecturas del lote.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @param maxSpan - El tiempo m&aacute;ximo en nanosegundos entre la primera
+	 * y la &uacute;ltima lectura; o 0 para no limitarlo.
+	 * @throws IllegalArgumentException - Si la capacidad o el n&uacute;mero de
+	 * ejes no son positivos.
+	 */
+	public SampleBatch(int capacity, int axes, long maxSpan){
+		if(capacity <= 0 || axes <= 0)
+			throw new IllegalArgumentException("capacity y axes deben ser " +
+					"positivos");
+		CAPACITY = capacity;
+		AXES = axes;
+		this.maxSpan = maxSpan;
+		timestamps = new long[capacity];
+		this.axes = new float[axes][capacity];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas hay en el lote.
+	 * @return int - El n&uacute;mero de lecturas.
+	 */
+	public int size(){
+		return count;
+	}//size
+	
+	// métodos de implementación
+	
+	/**
+	 * Agrega una lectura al lote.<p/>
+	 * 
+	 * Si la lectura tiene menos valores que ejes el lote, los ejes faltantes
+	 * se registran como <tt>Float.NaN</tt>.
+	 * @param timestamp - El momento del evento en nanosegundos.
+	 * @param values - Los valores le&iacute;dos.
+	 * @param valueCount - Cu&aacute;ntos valores de <tt>values</tt> son
+	 * v&aacute;lidos.
+	 * @return boolean - <tt>true</tt> si el lote est&aacute; completo y debe
+	 * entregarse.
+	 */
+	public boolean add(long timestamp, float[] values, int valueCount){
+		timestamps[count] = timestamp;
+		for(int i = 0; i < AXES; i++)
+			axes[i][count] = i < valueCount ? values[i] : Float.NaN;
+		count++;
+		return (count == CAPACITY) ||
+				((maxSpan > 0) && (timestamp -timestamps[0] >= maxSpan));
+	}//add
+	
+	/**
+	 * Vac&iacute;a el lote.
+	 */
+	public void clear(){
+		count = 0;
+	}//clear
+	
+}//SampleBatch class
@@ -0,0 +1,315 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Arma el texto que muestra un receptor sin crear objetos nuevos.<p/>
+ *
+ * El texto se escribe en un arreglo de caracteres que s&oacute;lo crece
+ * hasta alcanzar el tama&ntilde;o del texto m&aacute;s largo. Los valores
+ * flotantes se escriben con un n&uacute;mero fijo de decimales.<p/>
+ *
+ * Se usan dos arreglos: en uno se escribe y el otro guarda el &uacute;ltimo
+ * texto confirmado con <tt>commit()</tt>. Al confirmar, si el texto es igual
+ * al anterior no se hace nada; de lo contrario los arreglos se intercambian.
+ * As&iacute; el arreglo confirmado no se modifica hasta la siguiente
+ * confirmaci&oacute;n con cambios y puede entregarse a una vista que lo
+ * conserve sin copiarlo.<p/>
+ *
+ * No es seguro usarlo desde varios hilos a la vez.
+ * @see SensorSampleListener#formatDisplay(SampleFormatter)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SampleFormatter {
+
+	// atributos de clase
+	
+	/**
+	 * El arreglo donde se escribe el texto.
+	 */
+	private char[] buffer;
+	
+	/**
+	 * Cu&aacute;ntos caracteres de <tt>buffer</tt> forman el texto.
+	 */
+	private int length;
+	
+	/**
+	 * El arreglo con el &uacute;ltimo texto confirmado.
+	 */
+	private char[] committed;
+	
+	/**
+	 * Cu&aacute;ntos caracteres de <tt>committed</tt> forman el texto.
+	 */
+	private int committedLength;
+	
+	/**
+	 * El n&uacute;mero de decimales de los valores flotantes.
+	 */
+	private int precision;
+	
+	/**
+	 * Decimales por omisi&oacute;n.
+	 */
+	public static final int DEFAULT_PRECISION = 3;
+	
+	/**
+	 * N&uacute;mero m&aacute;ximo de decimales.
+	 */
+	public static final int MAX_PRECISION = 9;
+	
+	/**
+	 * Potencias de diez hasta <tt>MAX_PRECISION</tt>.
+	 */
+	private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L,
+		100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+	
+	/**
+	 * Valor absoluto a partir del cual un flotante ya no se escribe con
+	 * decimales fijos.
+	 */
+	private static final double FIXED_LIMIT = 1e9;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un formateador con los decimales por omisi&oacute;n.
+	 * @see #DEFAULT_PRECISION
+	 */
+	public SampleFormatter(){
+		this(DEFAULT_PRECISION);
+	}//constructor
+	
+	/**
+	 * Construye un formateador con los decimales dados.
+	 * @param precision - El n&uacute;mero de decimales de los flotantes.
+	 * @throws IllegalArgumentException - Si los decimales son negativos o
+	 * mayores a <tt>MAX_PRECISION</tt>.
+	 */
+	public SampleFormatter(int precision){
+		setPrecision(precision);
+		buffer = new char[64];
+		committed = new char[64];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Ajusta el n&uacute;mero de decimales de los flotantes.
+	 * @param precision - El n&uacute;mero de decimales.
+	 * @throws IllegalArgumentException - Si los decimales son negativos o
+	 * mayores a <tt>MAX_PRECISION</tt>.
+	 */
+	public void setPrecision(int precision){
+		if(precision < 0 || precision > MAX_PRECISION)
+			throw new IllegalArgumentException("precision debe estar entre 0 y "
+					+MAX_PRECISION);
+		this.precision = precision;
+	}//setPrecision
+	
+	/**
+	 * Da el n&uacute;mero de decimales de los flotantes.
+	 * @return int - El n&uacute;mero de decimales.
+	 */
+	public int getPrecision(){
+		return precision;
+	}//getPrecision
+	
+	/**
+	 * Da cu&aacute;ntos caracteres se han escrito desde <tt>clear()</tt>.
+	 * @return int - La longitud del texto en curso.
+	 */
+	public int length(){
+		return length;
+	}//length
+	
+	/**
+	 * Da el arreglo con el &uacute;ltimo texto confirmado. No debe
+	 * modificarse.
+	 * @return char[] - El arreglo confirmado.
+	 * @see #getCommittedLength()
+	 */
+	public char[] getCommitted(){
+		return committed;
+	}//getCommitted
+	
+	/**
+	 * Da la longitud del &uacute;ltimo texto confirmado.
+	 * @return int - Cu&aacute;ntos caracteres de <tt>getCommitted()</tt> forman
+	 * el texto.
+	 */
+	public int getCommittedLength(){
+		return committedLength;
+	}//getCommittedLength
+	
+	// métodos de implementación
+	
+	/**
+	 * Descarta el texto en curso para empezar uno nuevo.
+	 * @return SampleFormatter - &Eacute;ste formateador.
+	 */
+	public SampleFormatter clear(){
+		length = 0;
+		return this;
+	}//clear
+	
+	/**
+	 * Escribe un car&aacute;cter.
+	 * @param c - El car&aacute;cter a escribir.
+	 * @return SampleFormatter - &Eacute;ste formateador.
+	 */
+	public SampleFormatter append(char c){
+		ensureCapacity(length +1);
+		buffer[length++] = c;
+		return this;
+	}//append
+	
+	/**
+	 * Escribe una cadena.
+	 * @param s - La cadena a escribir.
+	 * @return SampleFormatter - &Eacute;ste formateador.
+	 */
+	public SampleFormatter append(String s){
+		int n = s.length();
+		ensureCapacity(length +n);
+		s.getChars(0, n, buffer, length);
+		length += n;
+		return this;
+	}//append
+	
+	/**
+	 * Escribe un entero en base diez.
+	 * @param value - El entero a escribir.
+	 * @return SampleFormatter - &Eacute;ste formateador.
+	 */
+	public SampleFormatter append(long value){
+		if(value == Long.MIN_VALUE)
+			return append("-9223372036854775808");
+		if(value < 0){
+			append('-');
+			value = -value;
+		}//si es negativo
+		appendDigits(value, 1);
+		return this;
+	}//append
+	
+	/**
+	 * Escribe un flotante con el n&uacute;mero fijo de decimales.<p/>
+	 *
+	 * Los valores no num&eacute;ricos, infinitos o con valor absoluto mayor a
+	 * mil millones se escriben como lo hace <tt>Float.toString(float)</tt>.
+	 * @param value - El flotante a escribir.
+	 * @return SampleFormatter - &Eacute;ste formateador.
+	 */
+	public SampleFormatter append(float value){
+		if(Float.isNaN(value))
+			return append("NaN");
+		double abs = Math.abs((double)value);
+		if(abs >= FIXED_LIMIT)
+			return append(Float.toString(value));
+		long scale = POWERS_OF_TEN[precision];
+		long scaled = Math.round(abs *scale);
+		if(value < 0 && scaled != 0)
+			append('-');
+		appendDigits(scaled /scale, 1);
+		if(precision > 0){
+			append('.');
+			appendDigits(scaled %scale, precision);
+		}//si hay decimales
+		return this;
+	}//append
+	
+	/**
+	 * Confirma el texto en curso.<p/>
+	 *
+	 * Si es distinto al &uacute;ltimo texto confirmado, pasa a ser el texto
+	 * confirmado. En cualquier caso, el texto en curso queda vac&iacute;o.
+	 * @return boolean - <tt>true</tt> si el texto confirmado cambi&oacute;.
+	 */
+	public boolean commit(){
+		boolean changed = !sameAsCommitted();
+		if(changed){
+			char[] swap = committed;
+			committed = buffer;
+			committedLength = length;
+			buffer = swap;
+		}//si el texto cambió
+		length = 0;
+		return changed;
+	}//commit
+	
+	/**
+	 * Da el texto en curso como una cadena nueva.
+	 * @return String - El texto en curso.
+	 */
+	@Override
+	public String toString(){
+		return new String(buffer, 0, length);
+	}//toString
+	
+	// métodos auxiliares
+	
+	/**
+	 * Escribe un entero no negativo con al menos el n&uacute;mero de
+	 * d&iacute;gitos dado, rellenando con ceros a la izquierda.
+	 * @param value - El entero a escribir.
+	 * @param minDigits - El n&uacute;mero m&iacute;nimo de d&iacute;gitos.
+	 */
+	private void appendDigits(long value, int minDigits){
+		int digits = 1;
+		for(long rest = value /10; rest != 0; rest /= 10)
+			digits++;
+		if(digits < minDigits)
+			digits = minDigits;
+		ensureCapacity(length +digits);
+		for(int i = length +digits -1; i >= length; i--){
+			buffer[i] = (char)('0' +(value %10));
+			value /= 10;
+		}//escribe los dígitos de derecha a izquierda
+		length += digits;
+	}//appendDigits
+	
+	/**
+	 * Indica si el texto en curso es igual al &uacute;ltimo texto confirmado.
+	 * @return boolean - <tt>true</tt> si son iguales.
+	 */
+	private boolean sameAsCommitted(){
+		if(length != committedLength)
+			return false;
+		for(int i = 0; i < length; i++)
+			if(buffer[i] != committed[i])
+				return false;
+		return true;
+	}//sameAsCommitted
+	
+	/**
+	 * Asegura que el arreglo donde se escribe pueda contener los caracteres
+	 * dados. Tras un intercambio el otro arreglo crece cuando le toque.
+	 * @param capacity - El n&uacute;mero de caracteres requerido.
+	 */
+	private void ensureCapacity(int capacity){
+		if(capacity <= buffer.length)
+			return;
+		char[] grown = new char[Math.max(capacity, buffer.length *2)];
+		System.arraycopy(buffer, 0, grown, 0, length);
+		buffer = grown;
+	}//ensureCapacity
+	
+}//SampleFormatter class
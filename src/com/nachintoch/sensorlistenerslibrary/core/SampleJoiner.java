@@ -0,0 +1,389 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Junta las lecturas de varios receptores por el momento en que
+ * ocurrieron.<p/>
+ *
+ * Es un consumidor de <tt>SensorEventDispatcher</tt>, que ya mezcla las
+ * lecturas de todos los receptores que lo comparten en orden de tiempo con
+ * una ventana de reordenamiento acotada. El primer receptor dado es el
+ * principal: por cada una de sus lecturas se busca en cada uno de los
+ * dem&aacute;s la lectura m&aacute;s cercana, o se interpola entre la
+ * anterior y la posterior, y si todas est&aacute;n a no m&aacute;s de
+ * <tt>MAX_SKEW</tt> nanosegundos se entrega la tupla a un
+ * <tt>SampleJoiner.Receiver</tt>. Si alg&uacute;n receptor no tiene lectura
+ * cercana la tupla se descarta y se cuenta como sin pareja.<p/>
+ *
+ * Una lectura principal se retiene hasta que cada uno de los dem&aacute;s
+ * receptores entrega una lectura propia que no es anterior a ella; cada
+ * receptor se compara s&oacute;lo con su lectura m&aacute;s reciente, de modo
+ * que uno r&aacute;pido no obliga a juntar antes de que llegue la pareja de
+ * uno lento. Si un receptor deja de entregar lecturas, las principales se
+ * retienen hasta llenar las <tt>CAPACITY</tt> posiciones; entonces la
+ * m&aacute;s antigua se junta con lo que haya y se cuenta como forzada.<p/>
+ *
+ * Las parejas s&oacute;lo son correctas si las lecturas llegan en orden de
+ * tiempo, que es lo que garantiza <tt>SensorEventDispatcher</tt> al
+ * liberarlas tras su ventana de reordenamiento; las lecturas anteriores a la
+ * &uacute;ltima del mismo receptor se descartan y se cuentan como
+ * tard&iacute;as. De cada receptor se conservan sus &uacute;ltimas
+ * <tt>CAPACITY</tt> lecturas; todo el almacenamiento se reserva al construir
+ * el objeto y juntar lecturas no crea objetos.
+ * @see SensorEventDispatcher
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SampleJoiner implements SensorEventDispatcher.Consumer {
+
+	// atributos de clase
+	
+	/**
+	 * Recibe las tuplas en el hilo del distribuidor.
+	 */
+	public interface Receiver {
+		
+		/**
+		 * Recibe una tupla. Los arreglos se reutilizan; no deben conservarse
+		 * sus referencias.
+		 * @param timestamp - El momento de la lectura principal en
+		 * nanosegundos.
+		 * @param values - Los valores de todos los receptores, uno tras otro
+		 * en el orden en que se dieron; los de cada receptor empiezan en
+		 * <tt>getOffset(int)</tt>.
+		 * @param timestamps - El momento de la lectura de cada receptor; el de
+		 * la lectura principal si se interpol&oacute;.
+		 */
+		void onTuple(long timestamp, float[] values, long[] timestamps);
+		
+	}//Receiver interface
+	
+	/**
+	 * Quien recibe las tuplas.
+	 */
+	private final Receiver receiver;
+	
+	/**
+	 * Los receptores que se juntan; el primero es el principal.
+	 */
+	private final SensorSampleListener[] sources;
+	
+	/**
+	 * Cu&aacute;ntos valores se toman de cada receptor.
+	 */
+	private final int[] axes;
+	
+	/**
+	 * La posici&oacute;n de los valores de cada receptor en la tupla.
+	 */
+	private final int[] offsets;
+	
+	/**
+	 * El n&uacute;mero m&aacute;ximo de valores de un receptor.
+	 */
+	private final int stride;
+	
+	// últimas lecturas de cada receptor en arreglos circulares
+	private final long[] times;
+	private final float[] samples;
+	private final int[] heads;
+	private final int[] sizes;
+	
+	// lecturas principales retenidas en un arreglo circular
+	private final long[] pendingTimes;
+	private final float[] pendingSamples;
+	private int pendingHead;
+	private int pendingSize;
+	
+	// la tupla que se entrega
+	private final float[] tuple;
+	private final long[] tupleTimes;
+	
+	// contadores
+	private volatile long emitted;
+	private volatile long unmatched;
+	private volatile long late;
+	private volatile long forced;
+	
+	/**
+	 * La distancia m&aacute;xima en nanosegundos entre la lectura principal
+	 * y las de los dem&aacute;s receptores.
+	 */
+	public final long MAX_SKEW;
+	
+	/**
+	 * N&uacute;mero de lecturas que se conservan de cada receptor.
+	 */
+	public final int CAPACITY;
+	
+	/**
+	 * Indica si se interpola entre la lectura anterior y la posterior en
+	 * lugar de tomar la m&aacute;s cercana.
+	 */
+	public final boolean INTERPOLATE;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un objeto que junta las lecturas de los receptores dados.
+	 * @param receiver - Quien recibe las tuplas.
+	 * @param maxSkew - La distancia m&aacute;xima en nanosegundos entre la
+	 * lectura principal y las de los dem&aacute;s receptores.
+	 * @param capacity - El n&uacute;mero de lecturas que se conservan de cada
+	 * receptor; debe alcanzar para las que llegan en <tt>2 maxSkew</tt>
+	 * nanosegundos.
+	 * @param interpolate - <tt>true</tt> para interpolar entre la lectura
+	 * anterior y la posterior; <tt>false</tt> para tomar la m&aacute;s
+	 * cercana.
+	 * @param sources - Los receptores; el primero es el principal.
+	 * @throws IllegalArgumentException - Si no hay al menos dos receptores, o
+	 * si la distancia o la capacidad no son positivas.
+	 */
+	public SampleJoiner(Receiver receiver, long maxSkew, int capacity,
+			boolean interpolate, SensorSampleListener... sources){
+		if(receiver == null || sources == null || sources.length < 2)
+			throw new IllegalArgumentException("se necesitan un receiver y " +
+					"al menos dos receptores");
+		if(maxSkew <= 0 || capacity <= 0)
+			throw new IllegalArgumentException("maxSkew y capacity deben ser " +
+					"positivos");
+		this.receiver = receiver;
+		this.sources = sources.clone();
+		MAX_SKEW = maxSkew;
+		CAPACITY = capacity;
+		INTERPOLATE = interpolate;
+		int n = sources.length;
+		axes = new int[n];
+		offsets = new int[n];
+		int total = 0, widest = 0;
+		for(int s = 0; s < n; s++){
+			axes[s] = sources[s].getAxisCount();
+			offsets[s] = total;
+			total += axes[s];
+			widest = Math.max(widest, axes[s]);
+		}//acomoda los valores de cada receptor
+		stride = widest;
+		times = new long[n *capacity];
+		samples = new float[n *capacity *widest];
+		heads = new int[n];
+		sizes = new int[n];
+		pendingTimes = new long[capacity];
+		pendingSamples = new float[capacity *axes[0]];
+		tuple = new float[total];
+		tupleTimes = new long[n];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Da la posici&oacute;n de los valores de un receptor en las tuplas.
+	 * @param source - El &iacute;ndice del receptor, en el orden en que se
+	 * dieron.
+	 * @return int - La posici&oacute;n de su primer valor.
+	 */
+	public int getOffset(int source){
+		return offsets[source];
+	}//getOffset
+	
+	/**
+	 * Da cu&aacute;ntas tuplas se han entregado.
+	 * @return long - El n&uacute;mero de tuplas.
+	 */
+	public long getEmittedCount(){
+		return emitted;
+	}//getEmittedCount
+	
+	/**
+	 * Da cu&aacute;ntas lecturas principales se descartaron porque
+	 * alg&uacute;n receptor no ten&iacute;a una lectura cercana.
+	 * @return long - El n&uacute;mero de lecturas sin pareja.
+	 */
+	public long getUnmatchedCount(){
+		return unmatched;
+	}//getUnmatchedCount
+	
+	/**
+	 * Da cu&aacute;ntas lecturas se descartaron por llegar despu&eacute;s de
+	 * una m&aacute;s reciente del mismo receptor.
+	 * @return long - El n&uacute;mero de lecturas tard&iacute;as.
+	 */
+	public long getLateCount(){
+		return late;
+	}//getLateCount
+	
+	/**
+	 * Da cu&aacute;ntas lecturas principales se juntaron sin esperar a todos
+	 * los receptores, porque ya no cab&iacute;an m&aacute;s lecturas
+	 * retenidas. Tambi&eacute;n se cuentan como entregadas o sin pareja.
+	 * @return long - El n&uacute;mero de lecturas forzadas.
+	 */
+	public long getForcedCount(){
+		return forced;
+	}//getForcedCount
+	
+	// métodos de modificación
+	
+	/**
+	 * Junta las lecturas principales retenidas con las lecturas que hay, sin
+	 * esperar m&aacute;s. Debe llamarse desde el hilo del distribuidor o
+	 * despu&eacute;s de detenerlo.
+	 */
+	public void flush(){
+		while(pendingSize > 0)
+			resolve();
+	}//flush
+	
+	// métodos de implementación
+	
+	@Override
+	public void onSensorEvent(SensorSampleListener source, int sensorType,
+			int accuracy, long timestamp, float[] values, int offset,
+			int count){
+		int s = indexOf(source);
+		if(s < 0)
+			return;
+		if(sizes[s] > 0 && timestamp < times[s *CAPACITY +newestSlot(s)]){
+			late++;
+			return;
+		}//si es anterior a la última del receptor
+		int n = Math.min(count, axes[s]);
+		int slot = (heads[s] +sizes[s]) %CAPACITY;
+		if(sizes[s] == CAPACITY)
+			heads[s] = (heads[s] +1) %CAPACITY;
+		else
+			sizes[s]++;
+		times[s *CAPACITY +slot] = timestamp;
+		System.arraycopy(values, offset, samples,
+				(s *CAPACITY +slot) *stride, n);
+		if(s == 0){
+			if(pendingSize == CAPACITY){
+				forced++;
+				resolve();
+			}//si ya no caben lecturas retenidas
+			int index = (pendingHead +pendingSize) %CAPACITY;
+			pendingTimes[index] = timestamp;
+			System.arraycopy(values, offset, pendingSamples,
+					index *axes[0], n);
+			pendingSize++;
+		}//retiene la lectura principal
+		while(pendingSize > 0 && isReady(pendingTimes[pendingHead]))
+			resolve();
+	}//onSensorEvent
+	
+	// métodos auxiliares
+	
+	/**
+	 * Da el &iacute;ndice de un receptor.
+	 * @param source - El receptor.
+	 * @return int - Su &iacute;ndice, o -1 si no se junta.
+	 */
+	private int indexOf(SensorSampleListener source){
+		for(int s = 0; s < sources.length; s++)
+			if(sources[s] == source)
+				return s;
+		return -1;
+	}//indexOf
+	
+	/**
+	 * Da la posici&oacute;n de la lectura m&aacute;s reciente de un receptor
+	 * en su arreglo circular.
+	 * @param s - El &iacute;ndice del receptor.
+	 * @return int - La posici&oacute;n.
+	 */
+	private int newestSlot(int s){
+		return (heads[s] +sizes[s] -1) %CAPACITY;
+	}//newestSlot
+	
+	/**
+	 * Indica si ya no puede llegar una lectura mejor para juntar con la
+	 * lectura principal del momento dado; es decir, si la lectura m&aacute;s
+	 * reciente de cada uno de los dem&aacute;s receptores no es anterior a
+	 * ella.
+	 * @param timestamp - El momento de la lectura principal.
+	 * @return boolean - <tt>true</tt> si puede juntarse.
+	 */
+	private boolean isReady(long timestamp){
+		for(int s = 1; s < sources.length; s++)
+			if(sizes[s] == 0 || times[s *CAPACITY +newestSlot(s)] < timestamp)
+				return false;
+		return true;
+	}//isReady
+	
+	/**
+	 * Junta la lectura principal retenida m&aacute;s antigua y entrega la
+	 * tupla, o la cuenta como sin pareja.
+	 */
+	private void resolve(){
+		int index = pendingHead;
+		long timestamp = pendingTimes[index];
+		pendingHead = (pendingHead +1) %CAPACITY;
+		pendingSize--;
+		System.arraycopy(pendingSamples, index *axes[0], tuple, 0, axes[0]);
+		tupleTimes[0] = timestamp;
+		for(int s = 1; s < sources.length; s++)
+			if(!pair(s, timestamp)){
+				unmatched++;
+				return;
+			}//si el receptor no tiene lectura cercana
+		emitted++;
+		receiver.onTuple(timestamp, tuple, tupleTimes);
+	}//resolve
+	
+	/**
+	 * Escribe en la tupla los valores de un receptor para el momento dado.
+	 * @param s - El &iacute;ndice del receptor.
+	 * @param timestamp - El momento de la lectura principal.
+	 * @return boolean - <tt>false</tt> si el receptor no tiene lectura
+	 * cercana.
+	 */
+	private boolean pair(int s, long timestamp){
+		int before = -1, after = -1;
+		for(int i = sizes[s] -1; i >= 0; i--){
+			int slot = (heads[s] +i) %CAPACITY;
+			if(times[s *CAPACITY +slot] <= timestamp){
+				before = slot;
+				break;
+			}//si es la última que no es posterior
+			after = slot;
+		}//busca las lecturas alrededor del momento
+		long beforeGap = before < 0 ? Long.MAX_VALUE :
+				timestamp -times[s *CAPACITY +before];
+		long afterGap = after < 0 ? Long.MAX_VALUE :
+				times[s *CAPACITY +after] -timestamp;
+		int target = offsets[s];
+		if(INTERPOLATE && beforeGap <= MAX_SKEW && afterGap <= MAX_SKEW){
+			float t = (float)beforeGap /(beforeGap +afterGap);
+			int from = (s *CAPACITY +before) *stride;
+			int to = (s *CAPACITY +after) *stride;
+			for(int i = 0; i < axes[s]; i++)
+				tuple[target +i] = samples[from +i] +t *(samples[to +i] -
+						samples[from +i]);
+			tupleTimes[s] = timestamp;
+			return true;
+		}//si puede interpolar
+		int nearest = beforeGap <= afterGap ? before : after;
+		if(Math.min(beforeGap, afterGap) > MAX_SKEW)
+			return false;
+		System.arraycopy(samples, (s *CAPACITY +nearest) *stride, tuple,
+				target, axes[s]);
+		tupleTimes[s] = times[s *CAPACITY +nearest];
+		return true;
+	}//pair
+	
+}//SampleJoiner class
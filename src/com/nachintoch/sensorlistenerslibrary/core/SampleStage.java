@@ -0,0 +1,49 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Etapa del procesamiento de las lecturas de un receptor.<p/>
+ *
+ * Las etapas asignadas a un receptor reciben cada lectura en orden, antes de
+ * que se registre. Una etapa puede s&oacute;lo observar la lectura, puede
+ * corregir sus valores en el mismo arreglo o puede descartarla; en cuyo caso
+ * ni las etapas siguientes ni el receptor la ven.<p/>
+ *
+ * Las etapas se llaman desde el hilo que procesa los eventos del receptor y
+ * no deben crear objetos nuevos ni bloquearse.
+ * @see SensorSampleListener#addStage(SampleStage)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public interface SampleStage {
+
+	/**
+	 * Procesa una lectura.
+	 * @param timestamp - El momento del evento en nanosegundos.
+	 * @param values - Los valores le&iacute;dos; la etapa puede modificarlos.
+	 * El arreglo pertenece al receptor, as&iacute; que no debe conservarse su
+	 * referencia.
+	 * @param count - Cu&aacute;ntos valores de <tt>values</tt> son
+	 * v&aacute;lidos.
+	 * @return boolean - <tt>true</tt> si la lectura debe continuar;
+	 * <tt>false</tt> para descartarla.
+	 */
+	public boolean process(long timestamp, float[] values, int count);
+	
+}//SampleStage interface
@@ -0,0 +1,478 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Distribuidor de eventos de varios sensores a un solo hilo consumidor.<p/>
+ * 
+ * Los receptores <i>nachintoch</i> publican sus lecturas en un buffer
+ * circular de capacidad fija que admite varios hilos productores sin
+ * candados. Un hilo propio del distribuidor toma las lecturas, las ordena
+ * por el momento en que ocurrieron y las entrega a un
+ * <tt>SensorEventDispatcher.Consumer</tt>; de modo que el procesamiento
+ * pesado ocurre fuera del hilo que entrega los eventos de los sensores.<p/>
+ * 
+ * Para ordenar eventos de sensores que llegan por separado, cada lectura se
+ * retiene hasta que se recibe otra al menos <tt>reorderWindow</tt>
+ * nanosegundos m&aacute;s reciente, o hasta que pasan <tt>reorderWindow</tt>
+ * nanosegundos de <tt>System.nanoTime()</tt> sin que llegue ninguna. Las
+ * lecturas que llegan despu&eacute;s de haberse entregado una
+ * m&aacute;s reciente se entregan de inmediato y se cuentan como tard&iacute;as.
+ * <p/>
+ * 
+ * Todo el almacenamiento se reserva al construir el distribuidor; publicar y
+ * entregar lecturas no crea objetos nuevos. Si el buffer est&aacute; lleno la
+ * lectura se descarta sin detener al productor.
+ * @see SensorSampleListener#setDispatcher(SensorEventDispatcher)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SensorEventDispatcher implements Runnable {
+
+	// atributos de clase
+	
+	/**
+	 * N&uacute;mero m&aacute;ximo de valores que se conservan de cada lectura.
+	 */
+	public static final int MAX_VALUES = SensorSnapshot.DEFAULT_CAPACITY;
+	
+	/**
+	 * Recibe las lecturas en el hilo del distribuidor.
+	 */
+	public interface Consumer {
+		
+		/**
+		 * Recibe una lectura. El arreglo <tt>values</tt> se reutiliza; no debe
+		 * conservarse su referencia.
+		 * @param source - El receptor que public&oacute; la lectura.
+		 * @param sensorType - El tipo del sensor.
+		 * @param accuracy - La presici&oacute;n del evento.
+		 * @param timestamp - El momento del evento en nanosegundos.
+		 * @param values - Contiene los valores le&iacute;dos.
+		 * @param offset - La posici&oacute;n del primer valor en <tt>values</tt>.
+		 * @param count - Cu&aacute;ntos valores tiene la lectura.
+		 */
+		void onSensorEvent(SensorSampleListener source, int sensorType,
+				int accuracy, long timestamp, float[] values, int offset,
+				int count);
+		
+	}//Consumer interface
+	
+	/**
+	 * Quien recibe las lecturas.
+	 */
+	private final Consumer consumer;
+	
+	/**
+	 * Siguiente n&uacute;mero de secuencia a reservar por los productores.
+	 */
+	private final AtomicLong claimed = new AtomicLong();
+	
+	/**
+	 * Para cada casilla del buffer, el n&uacute;mero de secuencia m&aacute;s
+	 * uno de la &uacute;ltima lectura publicada en ella.
+	 */
+	private final AtomicLongArray published;
+	
+	/**
+	 * N&uacute;mero de secuencia de la siguiente lectura a tomar por el
+	 * consumidor.
+	 */
+	private volatile long consumed;
+	
+	/**
+	 * M&aacute;scara para obtener la casilla de un n&uacute;mero de secuencia.
+	 */
+	private final int mask;
+	
+	// casillas del buffer circular
+	private final SensorSampleListener[] sources;
+	private final int[] types;
+	private final int[] accuracies;
+	private final long[] timestamps;
+	private final int[] counts;
+	private final float[] values;
+	
+	// lecturas retenidas por el consumidor para ordenarlas
+	private final SensorSampleListener[] stagedSources;
+	private final int[] stagedTypes;
+	private final int[] stagedAccuracies;
+	private final long[] stagedTimestamps;
+	private final int[] stagedCounts;
+	private final float[] stagedValues;
+	
+	/**
+	 * Mont&iacute;culo de m&iacute;nimos con los &iacute;ndices de las lecturas
+	 * retenidas, ordenado por momento del evento.
+	 */
+	private final int[] heap;
+	
+	/**
+	 * &Iacute;ndices de lecturas retenidas libres.
+	 */
+	private final int[] free;
+	
+	/**
+	 * Cu&aacute;ntas lecturas retenidas hay.
+	 */
+	private int heapSize;
+	
+	/**
+	 * El momento m&aacute;s reciente recibido por el consumidor.
+	 */
+	private long newestTimestamp = Long.MIN_VALUE;
+	
+	/**
+	 * El momento de la &uacute;ltima lectura entregada.
+	 */
+	private long lastDelivered = Long.MIN_VALUE;
+	
+	/**
+	 * Tiempo en nanosegundos que se retiene una lectura en espera de otras
+	 * m&aacute;s antiguas.
+	 */
+	private final long reorderWindow;
+	
+	/**
+	 * Tiempo en nanosegundos que el consumidor duerme cuando no hay lecturas.
+	 */
+	private final long idleWait;
+	
+	/**
+	 * Cu&aacute;ntas lecturas se han descartado por estar lleno el buffer.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+	
+	/**
+	 * Cu&aacute;ntas lecturas se han entregado.
+	 */
+	private volatile long delivered;
+	
+	/**
+	 * Cu&aacute;ntas lecturas se han entregado fuera de orden.
+	 */
+	private volatile long late;
+	
+	/**
+	 * Indica si el hilo consumidor debe seguir ejecut&aacute;ndose.
+	 */
+	private volatile boolean running;
+	
+	/**
+	 * El hilo consumidor.
+	 */
+	private Thread thread;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un distribuidor.
+	 * @param consumer - Quien recibe las lecturas.
+	 * @param capacity - El n&uacute;mero de lecturas que puede contener el
+	 * buffer; se redondea a la siguiente potencia de 2.
+	 * @param reorderWindow - El tiempo en nanosegundos que se retiene una
+	 * lectura para ordenarla; o 0 para entregar en orden de llegada.
+	 * @param idleWait - El tiempo en nanosegundos que duerme el consumidor
+	 * cuando no hay lecturas.
+	 * @throws IllegalArgumentException - Si la capacidad no es positiva o el
+	 * consumidor es una referencia nula.
+	 */
+	public SensorEventDispatcher(Consumer consumer, int capacity,
+			long reorderWindow, long idleWait){
+		if(consumer == null)
+			throw new IllegalArgumentException("consumer no puede ser nulo");
+		if(capacity <= 0 || capacity > (1 << 30))
+			throw new IllegalArgumentException("capacity fuera de rango");
+		int size = Integer.highestOneBit(capacity);
+		if(size < capacity)
+			size <<= 1;
+		this.consumer = consumer;
+		this.reorderWindow = reorderWindow;
+		this.idleWait = idleWait;
+		mask = size -1;
+		published = new AtomicLongArray(size);
+		sources = new SensorSampleListener[size];
+		types = new int[size];
+		accuracies = new int[size];
+		timestamps = new long[size];
+		counts = new int[size];
+		values = new float[size *MAX_VALUES];
+		stagedSources = new SensorSampleListener[size];
+		stagedTypes = new int[size];
+		stagedAccuracies = new int[size];
+		stagedTimestamps = new long[size];
+		stagedCounts = new int[size];
+		stagedValues = new float[size *MAX_VALUES];
+		heap = new int[size];
+		free = new int[size];
+		for(int i = 0; i < size; i++)
+			free[i] = size -1 -i;
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas se han descartado por estar lleno el
+	 * buffer.
+	 * @return long - El n&uacute;mero de lecturas descartadas.
+	 */
+	public long getDroppedCount(){
+		return dropped.get();
+	}//getDroppedCount
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas se han entregado al consumidor.
+	 * @return long - El n&uacute;mero de lecturas entregadas.
+	 */
+	public long getDeliveredCount(){
+		return delivered;
+	}//getDeliveredCount
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas se entregaron despu&eacute;s de una
+	 * m&aacute;s reciente.
+	 * @return long - El n&uacute;mero de lecturas tard&iacute;as.
+	 */
+	public long getLateCount(){
+		return late;
+	}//getLateCount
+	
+	/**
+	 * Indica si el hilo consumidor est&aacute; en ejecuci&oacute;n.
+	 * @return boolean - <tt>true</tt> si el distribuidor est&aacute; activo.
+	 */
+	public boolean isRunning(){
+		return running;
+	}//isRunning
+	
+	// métodos de implementación
+	
+	/**
+	 * Inicia el hilo consumidor. Si se detuvo antes, espera a que el hilo
+	 * anterior termine de entregar sus lecturas; as&iacute; nunca hay dos
+	 * consumidores. No debe llamarse desde el consumidor.
+	 */
+	public synchronized void start(){
+		if(running)
+			return;
+		joinConsumer();
+		running = true;
+		thread = new Thread(this, "SensorEventDispatcher");
+		thread.start();
+	}//start
+	
+	/**
+	 * Detiene el hilo consumidor despu&eacute;s de entregar las lecturas
+	 * pendientes, y espera a que termine; salvo si se llama desde el
+	 * consumidor.
+	 */
+	public synchronized void stop(){
+		running = false;
+		if(thread != null)
+			LockSupport.unpark(thread);
+		joinConsumer();
+	}//stop
+	
+	/**
+	 * Publica una lectura. Puede llamarse desde cualquier hilo y nunca
+	 * espera; si el buffer est&aacute; lleno descarta la lectura.
+	 * @param source - El receptor que publica la lectura.
+	 * @param accuracy - La presici&oacute;n del evento.
+	 * @param timestamp - El momento del evento en nanosegundos.
+	 * @param lectures - Los valores le&iacute;dos.
+	 * @param count - Cu&aacute;ntos valores de <tt>lectures</tt> son
+	 * v&aacute;lidos. S&oacute;lo se conservan los primeros
+	 * <tt>MAX_VALUES</tt>.
+	 * @return boolean - <tt>true</tt> si la lectura se public&oacute;.
+	 */
+	public boolean publish(SensorSampleListener source, int accuracy,
+			long timestamp, float[] lectures, int count){
+		long sequence;
+		do{
+			sequence = claimed.get();
+			if(sequence -consumed > mask){
+				dropped.incrementAndGet();
+				return false;
+			}//si el buffer está lleno
+		}while(!claimed.compareAndSet(sequence, sequence +1));
+		int slot = (int)sequence & mask;
+		int length = Math.min(count, MAX_VALUES);
+		sources[slot] = source;
+		types[slot] = source.SENSOR_TYPE;
+		accuracies[slot] = accuracy;
+		timestamps[slot] = timestamp;
+		counts[slot] = length;
+		System.arraycopy(lectures, 0, values, slot *MAX_VALUES, length);
+		published.lazySet(slot, sequence +1);
+		return true;
+	}//publish
+	
+	/**
+	 * Ciclo del hilo consumidor.
+	 */
+	@Override
+	public void run(){
+		long lastArrival = System.nanoTime();
+		while(running){
+			if(drain()){
+				lastArrival = System.nanoTime();
+				release(false);
+				continue;
+			}//si llegaron lecturas entrega las que estén listas
+			long wait = idleWait;
+			if(heapSize > 0){
+				long quiet = System.nanoTime() -lastArrival;
+				if(quiet >= reorderWindow)
+					release(true);
+				else if(reorderWindow -quiet < wait)
+					wait = reorderWindow -quiet;
+			}//si hay lecturas retenidas
+			LockSupport.parkNanos(this, wait);
+		}//mientras esté activo
+		drain();
+		release(true);
+	}//run
+	
+	// métodos auxiliares
+	
+	/**
+	 * Espera a que termine el hilo consumidor y lo olvida. Si se llama desde
+	 * el mismo consumidor no espera, y el hilo termina al volver del
+	 * consumidor.
+	 */
+	private void joinConsumer(){
+		Thread current = thread;
+		if(current == null || current == Thread.currentThread())
+			return;
+		boolean interrupted = false;
+		while(current.isAlive()){
+			try{
+				current.join();
+			}catch(InterruptedException e){
+				interrupted = true;
+			}//espera aunque se interrumpa
+		}//mientras el consumidor siga activo
+		thread = null;
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}//joinConsumer
+	
+	/**
+	 * Mueve las lecturas publicadas del buffer al mont&iacute;culo.
+	 * @return boolean - <tt>true</tt> si se tom&oacute; al menos una lectura.
+	 */
+	private boolean drain(){
+		long sequence = consumed;
+		long start = sequence;
+		int slot = (int)sequence & mask;
+		while(published.get(slot) == sequence +1){
+			if(heapSize == heap.length)
+				deliver(pop());
+			int index = free[heap.length -heapSize -1];
+			stagedSources[index] = sources[slot];
+			stagedTypes[index] = types[slot];
+			stagedAccuracies[index] = accuracies[slot];
+			stagedTimestamps[index] = timestamps[slot];
+			stagedCounts[index] = counts[slot];
+			System.arraycopy(values, slot *MAX_VALUES, stagedValues,
+					index *MAX_VALUES, counts[slot]);
+			sources[slot] = null;
+			push(index);
+			if(timestamps[slot] > newestTimestamp)
+				newestTimestamp = timestamps[slot];
+			sequence++;
+			slot = (int)sequence & mask;
+		}//toma las lecturas publicadas en orden
+		if(sequence != start)
+			consumed = sequence;
+		return sequence != start;
+	}//drain
+	
+	/**
+	 * Entrega las lecturas retenidas que ya no pueden ser precedidas por
+	 * otras.
+	 * @param all - Si deben entregarse todas las lecturas retenidas.
+	 */
+	private void release(boolean all){
+		long limit = newestTimestamp -reorderWindow;
+		while(heapSize > 0 && (all || stagedTimestamps[heap[0]] <= limit))
+			deliver(pop());
+	}//release
+	
+	/**
+	 * Entrega una lectura retenida al consumidor y libera su &iacute;ndice.
+	 */
+	private void deliver(int index){
+		long timestamp = stagedTimestamps[index];
+		if(timestamp < lastDelivered)
+			late++;
+		else
+			lastDelivered = timestamp;
+		SensorSampleListener source = stagedSources[index];
+		stagedSources[index] = null;
+		free[heap.length -heapSize -1] = index;
+		consumer.onSensorEvent(source, stagedTypes[index],
+				stagedAccuracies[index], timestamp, stagedValues,
+				index *MAX_VALUES, stagedCounts[index]);
+		delivered++;
+	}//deliver
+	
+	/**
+	 * Agrega un &iacute;ndice al mont&iacute;culo.
+	 */
+	private void push(int index){
+		int child = heapSize++;
+		long timestamp = stagedTimestamps[index];
+		while(child > 0){
+			int parent = (child -1) >>> 1;
+			if(stagedTimestamps[heap[parent]] <= timestamp)
+				break;
+			heap[child] = heap[parent];
+			child = parent;
+		}//sube el índice
+		heap[child] = index;
+	}//push
+	
+	/**
+	 * Quita el &iacute;ndice de la lectura m&aacute;s antigua del
+	 * mont&iacute;culo.
+	 */
+	private int pop(){
+		int top = heap[0];
+		int last = heap[--heapSize];
+		long timestamp = stagedTimestamps[last];
+		int parent = 0;
+		int child;
+		while((child = 2 *parent +1) < heapSize){
+			if(child +1 < heapSize &&
+					stagedTimestamps[heap[child +1]] < stagedTimestamps[heap[child]])
+				child++;
+			if(timestamp <= stagedTimestamps[heap[child]])
+				break;
+			heap[parent] = heap[child];
+			parent = child;
+		}//baja el índice
+		heap[parent] = last;
+		return top;
+	}//pop
+	
+}//SensorEventDispatcher class
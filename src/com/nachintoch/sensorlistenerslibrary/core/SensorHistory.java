@@ -0,0 +1,229 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historial de lecturas de un sensor de capacidad fija.<p/>
+ *
+ * Las lecturas se guardan en un buffer circular de arreglos primitivos: uno
+ * de tipo <tt>long</tt> con los momentos de los eventos y uno de tipo
+ * <tt>float</tt> por cada eje. Una vez construido, registrar una lectura no
+ * crea objetos nuevos.<p/>
+ *
+ * Admite un solo escritor (el hilo que entrega los eventos del sensor) y
+ * cualquier n&uacute;mero de lectores, sin candados. Los lectores copian las
+ * lecturas a arreglos propios y despu&eacute;s verifican que el escritor no
+ * las haya sobreescrito mientras se copiaban; las que s&iacute; lo fueron se
+ * descartan de la copia. El contador de lecturas publicadas sigue el
+ * protocolo de <tt>SequenceLock</tt>, con las mismas barreras de memoria.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SensorHistory {
+
+	// atributos de clase
+
+	/**
+	 * Momentos en los que ocurrieron los eventos registrados, en nanosegundos.
+	 */
+	private final long[] timestamps;
+
+	/**
+	 * Valores registrados; un arreglo por eje.
+	 */
+	private final float[][] columns;
+
+	/**
+	 * N&uacute;mero de lecturas publicadas desde la creaci&oacute;n del
+	 * historial. La lectura <i>n</i> ocupa la casilla <i>n</i> m&oacute;dulo
+	 * el tama&ntilde;o de los arreglos.
+	 */
+	private final AtomicLong published = new AtomicLong();
+
+	/**
+	 * N&uacute;mero m&aacute;ximo de lecturas que conserva el historial.
+	 */
+	public final int CAPACITY;
+
+	/**
+	 * N&uacute;mero de ejes que registra el historial.
+	 */
+	public final int AXES;
+
+	// métodos constructores
+
+	/**
+	 * Construye un historial con la capacidad y n&uacute;mero de ejes dados.
+	 * @param capacity - El n&uacute;mero de lecturas a conservar.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @throws IllegalArgumentException - Si alguno de los par&aacute;metros
+	 * no es positivo.
+	 */
+	public SensorHistory(int capacity, int axes){
+		if(capacity <= 0 || axes <= 0)
+			throw new IllegalArgumentException("capacity y axes deben ser " +
+					"positivos");
+		CAPACITY = capacity;
+		AXES = axes;
+		// una casilla adicional para la lectura que se esté escribiendo
+		timestamps = new long[capacity +1];
+		columns = new float[axes][capacity +1];
+	}//constructor
+
+	// métodos de acceso
+
+	/**
+	 * Indica cu&aacute;ntas lecturas se han registrado desde la
+	 * creaci&oacute;n del historial; incluidas las que ya se descartaron.
+	 * @return long - El n&uacute;mero total de lecturas registradas.
+	 */
+	public long getTotalCount(){
+		return published.get();
+	}//getTotalCount
+
+	/**
+	 * Indica cu&aacute;ntas lecturas contiene actualmente el historial.
+	 * @return int - El n&uacute;mero de lecturas disponibles.
+	 */
+	public int size(){
+		long count = published.get();
+		return count < CAPACITY ? (int)count : CAPACITY;
+	}//size
+
+	// métodos de implementación
+
+	/**
+	 * Registra una lectura. S&oacute;lo debe llamarse desde el hilo escritor.
+	 * <p/>
+	 *
+	 * Si la lectura tiene menos valores que ejes el historial, los ejes
+	 * faltantes se registran como <tt>Float.NaN</tt>.
+	 * @param timestamp - El momento del evento en nanosegundos.
+	 * @param values - Los valores le&iacute;dos.
+	 * @param count - Cu&aacute;ntos valores de <tt>values</tt> son
+	 * v&aacute;lidos.
+	 */
+	public void record(long timestamp, float[] values, int count){
+		long sequence = published.get();
+		int slot = (int)(sequence % timestamps.length);
+		timestamps[slot] = timestamp;
+		for(int i = 0; i < AXES; i++)
+			columns[i][slot] = i < count ? values[i] : Float.NaN;
+		// la siguiente casilla no se escribe antes de publicar ésta
+		SequenceLock.advance(published);
+	}//record
+
+	/**
+	 * Copia las &uacute;ltimas lecturas registradas, de la m&aacute;s antigua
+	 * a la m&aacute;s reciente.<p/>
+	 *
+	 * Cada arreglo de <tt>axes</tt> recibe los valores de un eje; los
+	 * elementos nulos se ignoran. Todos los arreglos deben tener espacio para
+	 * al menos <tt>count</tt> elementos.
+	 * @param count - Cu&aacute;ntas lecturas copiar como m&aacute;ximo.
+	 * @param times - Donde se copian los momentos de los eventos. Puede ser nulo.
+	 * @param axes - Donde se copian los valores de cada eje. Puede ser nulo.
+	 * @return int - El n&uacute;mero de lecturas copiadas.
+	 */
+	public int copyLast(int count, long[] times, float[][] axes){
+		long end = published.get();
+		long start = end -Math.min(count, Math.min(end, CAPACITY));
+		return copyRange(start, end, times, axes);
+	}//copyLast
+
+	/**
+	 * Copia las lecturas posteriores al momento dado, de la m&aacute;s antigua
+	 * a la m&aacute;s reciente.<p/>
+	 *
+	 * Si hay m&aacute;s lecturas que espacio en <tt>times</tt>, se copian las
+	 * m&aacute;s antiguas; as&iacute; que pasando el &uacute;ltimo momento
+	 * copiado en la siguiente llamada se recorre el historial sin perder
+	 * lecturas mientras el escritor no las descarte.
+	 * @param since - El momento en nanosegundos a partir del cual copiar
+	 * (exclusivo).
+	 * @param times - Donde se copian los momentos de los eventos.
+	 * @param axes - Donde se copian los valores de cada eje. Puede ser nulo.
+	 * @return int - El n&uacute;mero de lecturas copiadas.
+	 */
+	public int copySince(long since, long[] times, float[][] axes){
+		long end = published.get();
+		long low = end -Math.min(end, CAPACITY);
+		long high = end;
+		while(low < high){
+			long middle = (low +high) >>> 1;
+			if(timestamps[(int)(middle % timestamps.length)] > since)
+				high = middle;
+			else
+				low = middle +1;
+		}//busca la primera lectura posterior a since
+		return copyRange(low, Math.min(end, low +times.length), times, axes);
+	}//copySince
+
+	/**
+	 * Elimina todas las lecturas del historial. S&oacute;lo debe llamarse
+	 * desde el hilo escritor.
+	 */
+	public void clear(){
+		published.set(0);
+	}//clear
+
+	// métodos auxiliares
+
+	/**
+	 * Copia las lecturas con n&uacute;mero de secuencia en
+	 * [<tt>start</tt>, <tt>end</tt>) y descarta las que el escritor haya
+	 * sobreescrito durante la copia.
+	 * @return int - El n&uacute;mero de lecturas copiadas.
+	 */
+	private int copyRange(long start, long end, long[] times, float[][] axes){
+		int count = (int)(end -start);
+		if(count <= 0)
+			return 0;
+		int length = timestamps.length;
+		int first = (int)(start % length);
+		int tail = Math.min(count, length -first);
+		if(times != null){
+			System.arraycopy(timestamps, first, times, 0, tail);
+			System.arraycopy(timestamps, 0, times, tail, count -tail);
+		}//copia los momentos
+		if(axes != null){
+			for(int i = 0; i < axes.length && i < AXES; i++){
+				if(axes[i] == null)
+					continue;
+				System.arraycopy(columns[i], first, axes[i], 0, tail);
+				System.arraycopy(columns[i], 0, axes[i], tail, count -tail);
+			}//copia cada eje
+		}//si se pidieron los valores
+		// la casilla de la lectura published está siendo escrita
+		long oldestValid = SequenceLock.recheck(published) -length +1;
+		int lost = (int)Math.min(count, Math.max(0, oldestValid -start));
+		if(lost > 0){
+			count -= lost;
+			if(times != null)
+				System.arraycopy(times, lost, times, 0, count);
+			if(axes != null)
+				for(int i = 0; i < axes.length && i < AXES; i++)
+					if(axes[i] != null)
+						System.arraycopy(axes[i], lost, axes[i], 0, count);
+		}//descarta las lecturas sobreescritas
+		return count;
+	}//copyRange
+
+}//SensorHistory class
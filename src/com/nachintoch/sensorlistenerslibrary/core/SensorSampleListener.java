@@ -0,0 +1,868 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Recibe las lecturas de un sensor sin depender de Android.<p/>
+ * 
+ * Contiene el estado y el procesamiento de las lecturas comunes a todos los
+ * receptores <i>nachintoch</i>: la copia de los valores, las copias
+ * consistentes, el historial, la entrega por lotes, la publicaci&oacute;n en
+ * un distribuidor y el procesamiento en un ejecutor. Las lecturas se reciben
+ * como datos primitivos con <tt>onSensorSample(int, long, float[])</tt>, de
+ * modo que pueden provenir de un sensor de Android, de una grabaci&oacute;n o
+ * de un generador sint&eacute;tico; lo que permite medir y probar el
+ * procesamiento en cualquier m&aacute;quina virtual de Java.<p/>
+ * 
+ * Los receptores de Android extienden &eacute;sta clase y s&oacute;lo
+ * traducen los eventos de sensor y muestran los datos en pantalla.
+ * @see SensorTypes
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public abstract class SensorSampleListener {
+
+	// atributos de clase
+	
+	/**
+	 * La presici&oacute;n del evento.
+	 */
+	protected int accuracy;
+	
+	/**
+	 * El momento en el que ocurrio el evento en nanosegundos.
+	 */
+	protected long eventTime;
+	
+	/**
+	 * Indica si en alg&uacute;n momento cambi&oacute; la presici&oacute;n del
+	 * sensor desde que se comenz&oacute; su monitorizaci&oacute;n.
+	 */
+	protected boolean didAccuracyChanged;
+	
+	/**
+	 * Contiene una copia de los valores registrados por el sensor en el
+	 * &uacute;ltimo evento.
+	 */
+	protected float[] lectures;
+	
+	/**
+	 * Historial de las lecturas del sensor. Es una referencia nula mientras
+	 * no se solicite conservar el historial.
+	 * @see #enableHistory(int)
+	 */
+	protected SensorHistory history;
+	
+	/**
+	 * Contador de secuencia que protege <tt>accuracy</tt>, <tt>eventTime</tt> y
+	 * <tt>lectures</tt> mientras se actualizan con un evento.
+	 * @see #readSnapshot(SensorSnapshot)
+	 */
+	protected final SequenceLock lectureLock = new SequenceLock();
+	
+	/**
+	 * Lote en el que se acumulan las lecturas cuando se solicita entregarlas
+	 * por lotes. Es una referencia nula mientras no se solicite.
+	 * @see #enableBatching(int, long)
+	 */
+	protected SampleBatch batch;
+	
+	/**
+	 * Distribuidor en el que se publican las lecturas. Es una referencia nula
+	 * mientras no se asigne uno.
+	 * @see #setDispatcher(SensorEventDispatcher)
+	 */
+	protected SensorEventDispatcher dispatcher;
+	
+	/**
+	 * Ejecutor en el que se procesan los eventos. Es una referencia nula
+	 * mientras se procesen en el hilo que los entrega.
+	 * @see #setCallbackExecutor(CallbackExecutor)
+	 */
+	protected CallbackExecutor executor;
+	
+	/**
+	 * Etapas por las que pasa cada lectura antes de registrarse. Es una
+	 * referencia nula mientras no se agregue ninguna; se reemplaza en lugar de
+	 * modificarse.
+	 * @see #addStage(SampleStage)
+	 */
+	protected volatile SampleStage[] stages;
+	
+	/**
+	 * Copia de la lectura sobre la que trabajan las etapas, para no modificar
+	 * el arreglo del evento.
+	 */
+	private float[] stageValues;
+	
+	/**
+	 * Estad&iacute;sticas de las &uacute;ltimas lecturas. Es una referencia
+	 * nula mientras no se soliciten.
+	 * @see #enableStatistics(int)
+	 */
+	protected SlidingStatistics statistics;
+	
+	/**
+	 * Etapa que reduce la frecuencia de las lecturas. Es una referencia nula
+	 * mientras no se solicite.
+	 * @see #enableDecimation(int)
+	 */
+	protected Decimator decimator;
+	
+	/**
+	 * Etapa que descarta las lecturas que no cambian significativamente. Es
+	 * una referencia nula mientras no se solicite.
+	 * @see #enableDeadband(float, float, long)
+	 */
+	protected Deadband deadband;
+	
+	/**
+	 * Etapa que suaviza las lecturas con un filtro de Kalman. Es una
+	 * referencia nula mientras no se solicite.
+	 * @see #enableKalmanSmoothing(float, float, boolean)
+	 */
+	protected KalmanSmoother kalman;
+	
+	/**
+	 * Tipo del sensor observado.
+	 */
+	public final int SENSOR_TYPE;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un receptor para el tipo de sensor dado.
+	 * @param type - El identificador del tipo de sensor.
+	 * @see SensorTypes
+	 */
+	public SensorSampleListener(int type){
+		SENSOR_TYPE = type;
+	}//constructor
+	
+	// métodos de modificación
+	
+	/**
+	 * Comienza a conservar el historial de las lecturas del sensor.<p/>
+	 * 
+	 * Si ya se conservaba un historial, se descarta y se comienza uno nuevo.
+	 * @param capacity - El n&uacute;mero de lecturas a conservar.
+	 * @see #getHistory()
+	 * @see #getAxisCount()
+	 */
+	public void enableHistory(int capacity){
+		history = new SensorHistory(capacity, getAxisCount());
+	}//enableHistory
+	
+	/**
+	 * Deja de conservar el historial de las lecturas del sensor.
+	 */
+	public void disableHistory(){
+		history = null;
+	}//disableHistory
+	
+	/**
+	 * Solicita entregar las lecturas por lotes.<p/>
+	 * 
+	 * Mientras se entreguen por lotes, en lugar de llamar a
+	 * <tt>notificate()</tt> con cada evento, se acumulan las lecturas y se
+	 * llama a <tt>onBatch(long[], float[][], int)</tt> cuando se juntan
+	 * <tt>size</tt> lecturas o cuando entre la primera y la &uacute;ltima
+	 * pasan <tt>maxSpan</tt> nanosegundos; lo que ocurra primero. El tiempo
+	 * s&oacute;lo se revisa al llegar un evento.
+	 * @param size - El n&uacute;mero m&aacute;ximo de lecturas de un lote.
+	 * @param maxSpan - El tiempo m&aacute;ximo en nanosegundos que abarca un
+	 * lote; o 0 para no limitarlo.
+	 * @see #onBatch(long[], float[][], int)
+	 */
+	public void enableBatching(int size, long maxSpan){
+		batch = new SampleBatch(size, getAxisCount(), maxSpan);
+	}//enableBatching
+	
+	/**
+	 * Deja de entregar las lecturas por lotes y vuelve a llamar a
+	 * <tt>notificate()</tt> con cada evento. Las lecturas del lote incompleto
+	 * se descartan.
+	 */
+	public void disableBatching(){
+		batch = null;
+	}//disableBatching
+	
+	/**
+	 * Asigna el distribuidor en el que se publican las lecturas de cada
+	 * evento.<p/>
+	 * 
+	 * Varios receptores pueden compartir el mismo distribuidor para que un
+	 * solo hilo procese en orden los eventos de todos sus sensores.
+	 * @param dispatcher - El distribuidor; o una referencia nula para dejar de
+	 * publicar las lecturas.
+	 */
+	public void setDispatcher(SensorEventDispatcher dispatcher){
+		this.dispatcher = dispatcher;
+	}//setDispatcher
+	
+	/**
+	 * Asigna el ejecutor en el que se procesan los eventos.<p/>
+	 * 
+	 * Con un ejecutor asignado, el hilo del sensor s&oacute;lo copia la lectura
+	 * a la cola del ejecutor; <tt>retrieveData</tt>, <tt>notificate()</tt> y
+	 * la entrega de lotes ocurren en el ejecutor, y la pantalla se actualiza
+	 * en el hilo de la interfaz.
+	 * @param executor - El ejecutor; o una referencia nula para procesar los
+	 * eventos en el hilo que los entrega.
+	 */
+	public void setCallbackExecutor(CallbackExecutor executor){
+		this.executor = executor;
+	}//setCallbackExecutor
+	
+	/**
+	 * Agrega una etapa al final de las que procesan cada lectura antes de
+	 * registrarse.<p/>
+	 * 
+	 * Las etapas pueden corregir los valores de la lectura, de modo que
+	 * <tt>lectures</tt>, los ejes de las subclases, el historial y los lotes
+	 * contienen los valores corregidos; o pueden descartarla, en cuyo caso el
+	 * evento se ignora por completo.
+	 * @param stage - La etapa a agregar.
+	 * @see SampleStage
+	 */
+	public synchronized void addStage(SampleStage stage){
+		SampleStage[] current = stages;
+		int n = current == null ? 0 : current.length;
+		SampleStage[] next = new SampleStage[n +1];
+		if(current != null)
+			System.arraycopy(current, 0, next, 0, n);
+		next[n] = stage;
+		stages = next;
+	}//addStage
+	
+	/**
+	 * Quita una etapa. Si no estaba agregada no hace nada.
+	 * @param stage - La etapa a quitar.
+	 */
+	public synchronized void removeStage(SampleStage stage){
+		SampleStage[] current = stages;
+		if(current == null)
+			return;
+		int index = -1;
+		for(int i = 0; i < current.length; i++)
+			if(current[i] == stage){
+				index = i;
+				break;
+			}//si es la etapa buscada
+		if(index < 0)
+			return;
+		if(current.length == 1){
+			stages = null;
+			return;
+		}//si era la única etapa
+		SampleStage[] next = new SampleStage[current.length -1];
+		System.arraycopy(current, 0, next, 0, index);
+		System.arraycopy(current, index +1, next, index, next.length -index);
+		stages = next;
+	}//removeStage
+	
+	/**
+	 * Comienza a calcular estad&iacute;sticas de las &uacute;ltimas
+	 * lecturas.<p/>
+	 * 
+	 * Se agrega una etapa que mantiene el promedio, la varianza, la
+	 * ra&iacute;z del promedio de los cuadrados, el m&iacute;nimo y el
+	 * m&aacute;ximo de cada eje. Si ya se calculaban, se descartan y se
+	 * comienza de nuevo.
+	 * @param window - El n&uacute;mero de lecturas de la ventana.
+	 * @return SlidingStatistics - Las estad&iacute;sticas.
+	 * @see #getStatistics()
+	 */
+	public SlidingStatistics enableStatistics(int window){
+		disableStatistics();
+		SlidingStatistics created = new SlidingStatistics(window,
+				getAxisCount());
+		statistics = created;
+		addStage(created);
+		return created;
+	}//enableStatistics
+	
+	/**
+	 * Deja de calcular estad&iacute;sticas de las lecturas.
+	 */
+	public void disableStatistics(){
+		SlidingStatistics current = statistics;
+		if(current == null)
+			return;
+		removeStage(current);
+		statistics = null;
+	}//disableStatistics
+	
+	/**
+	 * Comienza a reducir la frecuencia de las lecturas por el factor dado.<p/>
+	 * 
+	 * Se agrega una etapa que de cada <tt>ratio</tt> lecturas s&oacute;lo deja
+	 * continuar una, filtrada para que no se confundan las frecuencias que ya
+	 * no caben en la frecuencia reducida. Las dem&aacute;s lecturas no llegan
+	 * a <tt>retrieveData</tt> ni a <tt>notificate()</tt>. Las etapas agregadas
+	 * antes ven todas las lecturas, y las agregadas despu&eacute;s s&oacute;lo
+	 * las que contin&uacute;an. Si ya se reduc&iacute;a, se comienza de nuevo
+	 * al final de las etapas.
+	 * @param ratio - El factor por el que se reduce la frecuencia.
+	 * @return Decimator - La etapa que reduce la frecuencia.
+	 * @see Decimator
+	 */
+	public Decimator enableDecimation(int ratio){
+		disableDecimation();
+		Decimator created = new Decimator(getAxisCount(), ratio);
+		decimator = created;
+		addStage(created);
+		return created;
+	}//enableDecimation
+	
+	/**
+	 * Deja de reducir la frecuencia de las lecturas.
+	 */
+	public void disableDecimation(){
+		Decimator current = decimator;
+		if(current == null)
+			return;
+		removeStage(current);
+		decimator = null;
+	}//disableDecimation
+	
+	/**
+	 * Comienza a descartar las lecturas que no cambian
+	 * significativamente.<p/>
+	 * 
+	 * Se agrega una etapa que s&oacute;lo deja continuar una lectura si
+	 * alg&uacute;n eje cambi&oacute; m&aacute;s que su umbral y si pas&oacute;
+	 * el tiempo m&iacute;nimo desde la &uacute;ltima que continu&oacute;; las
+	 * dem&aacute;s no llegan a <tt>retrieveData</tt>, a la pantalla ni a
+	 * <tt>notificate()</tt>. Un cambio que llega antes del tiempo
+	 * m&iacute;nimo queda pendiente y se entrega con la siguiente lectura o
+	 * con <tt>flushDeadband(long)</tt>. Es &uacute;til para los sensores que cambian
+	 * poco, como los de luz, proximidad, presi&oacute;n, humedad y
+	 * temperatura. Los umbrales por eje se ajustan en la etapa. Si ya se
+	 * descartaban, se comienza de nuevo al final de las etapas.
+	 * @param absolute - El cambio m&iacute;nimo en las unidades del sensor.
+	 * @param relative - El cambio m&iacute;nimo como fracci&oacute;n del valor
+	 * anterior.
+	 * @param minInterval - El tiempo m&iacute;nimo en nanosegundos entre dos
+	 * lecturas que contin&uacute;an; o 0 para no limitarlo.
+	 * @return Deadband - La etapa que descarta las lecturas.
+	 * @see Deadband#setThreshold(int, float, float)
+	 */
+	public Deadband enableDeadband(float absolute, float relative,
+			long minInterval){
+		disableDeadband();
+		Deadband created = new Deadband(getAxisCount(), absolute, relative,
+				minInterval);
+		deadband = created;
+		addStage(created);
+		return created;
+	}//enableDeadband
+	
+	/**
+	 * Entrega la lectura que la etapa de <tt>enableDeadband</tt> conserva como
+	 * pendiente, si ya pas&oacute; su tiempo m&iacute;nimo. La lectura pasa
+	 * por las etapas que siguen a esa y luego se registra como cualquier
+	 * otra.<p/>
+	 * 
+	 * Debe llamarse desde el hilo que procesa los eventos, cuando pase el
+	 * momento que indica <tt>getDeadband().getDeadline()</tt>; as&iacute; los
+	 * sensores que s&oacute;lo reportan cambios no se quedan con un valor
+	 * atrasado.
+	 * @param now - El momento actual en nanosegundos, en el reloj de los
+	 * eventos.
+	 * @return boolean - <tt>true</tt> si se entreg&oacute; una lectura.
+	 * @see Deadband#flush(long, float[])
+	 */
+	public boolean flushDeadband(long now){
+		Deadband current = deadband;
+		SampleStage[] pipeline = stages;
+		float[] staged = stageValues;
+		if((current == null) || (pipeline == null) || (staged == null))
+			return false;
+		int index = -1;
+		for(int i = 0; i < pipeline.length; i++)
+			if(pipeline[i] == current){
+				index = i;
+				break;
+			}//si es la etapa buscada
+		if(index < 0)
+			return false;
+		long timestamp = current.flush(now, staged);
+		if(timestamp < 0)
+			return false;
+		for(int i = index +1; i < pipeline.length; i++)
+			if(!pipeline[i].process(timestamp, staged, staged.length))
+				return false;
+		deliver(accuracy, timestamp, staged);
+		return true;
+	}//flushDeadband
+	
+	/**
+	 * Deja de descartar las lecturas que no cambian significativamente.
+	 */
+	public void disableDeadband(){
+		Deadband current = deadband;
+		if(current == null)
+			return;
+		removeStage(current);
+		deadband = null;
+	}//disableDeadband
+	
+	/**
+	 * Comienza a suavizar las lecturas con un filtro de Kalman.<p/>
+	 * 
+	 * Se agrega una etapa que reemplaza cada eje por su estimado, de modo
+	 * que los ejes y <tt>notificate()</tt> ven las lecturas suavizadas. Es
+	 * &uacute;til para los sensores de tres ejes, que son ruidosos. Si ya se
+	 * suavizaba, se comienza de nuevo al final de las etapas.
+	 * @param processNoise - La varianza por segundo con la que cambia cada
+	 * eje, o su tendencia; con m&aacute;s ruido del proceso se siguen
+	 * m&aacute;s r&aacute;pido las lecturas.
+	 * @param measurementNoise - La varianza del ruido de cada lectura.
+	 * @param trend - <tt>true</tt> para estimar tambi&eacute;n la tendencia de
+	 * cada eje, lo que reduce el retraso cuando la se&ntilde;al cambia de
+	 * manera sostenida.
+	 * @return KalmanSmoother - La etapa que suaviza las lecturas.
+	 * @throws IllegalArgumentException - Si alguna varianza no es positiva.
+	 * @see KalmanSmoother
+	 */
+	public KalmanSmoother enableKalmanSmoothing(float processNoise,
+			float measurementNoise, boolean trend){
+		KalmanSmoother created = new KalmanSmoother(getAxisCount(),
+				processNoise, measurementNoise, trend);
+		disableKalmanSmoothing();
+		kalman = created;
+		addStage(created);
+		return created;
+	}//enableKalmanSmoothing
+	
+	/**
+	 * Deja de suavizar las lecturas con el filtro de Kalman.
+	 */
+	public void disableKalmanSmoothing(){
+		KalmanSmoother current = kalman;
+		if(current == null)
+			return;
+		removeStage(current);
+		kalman = null;
+	}//disableKalmanSmoothing
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica la presici&oacute;n.
+	 * @return int - La presici&oacute;n.
+	 */
+	public int getAccuracy() {
+		return accuracy;
+	}//getAccuracy
+	
+	/**
+	 * Indica el momento del evento.
+	 * @return long - El momento en el que ocurrio el evento en nanosegundos.
+	 */
+	public long getEventTime(){
+		return eventTime;
+	}//getEventTime
+	
+	/**
+	 * Indica cu&aacute;ntos eventos ha registrado el receptor.<p/>
+	 * 
+	 * Permite saber sin copiar los datos si hubo un evento nuevo desde la
+	 * &uacute;ltima copia tomada con <tt>readSnapshot(SensorSnapshot)</tt>.
+	 * @return long - El n&uacute;mero de eventos registrados.
+	 * @see SensorSnapshot#version
+	 */
+	public long getVersion(){
+		return lectureLock.getVersion();
+	}//getVersion
+	
+	/**
+	 * Copia los datos del &uacute;ltimo evento a la estructura dada.<p/>
+	 * 
+	 * Todos los datos copiados corresponden al mismo evento, aunque se llame
+	 * desde un hilo distinto al que recibe los eventos; y a diferencia de
+	 * leer cada eje por separado, no pueden mezclarse valores de eventos
+	 * distintos. Nunca bloquea al hilo del sensor.
+	 * @param snapshot - Donde se copian los datos.
+	 * @return long - La versi&oacute;n de los datos copiados.
+	 * @see #getVersion()
+	 */
+	public long readSnapshot(SensorSnapshot snapshot){
+		while(!tryReadSnapshot(snapshot));
+		return snapshot.version;
+	}//readSnapshot
+	
+	/**
+	 * Intenta copiar los datos del &uacute;ltimo evento a la estructura dada
+	 * sin esperar.<p/>
+	 * 
+	 * Si el hilo del sensor est&aacute; registrando un evento durante la copia
+	 * el intento falla y el contenido de <tt>snapshot</tt> no es
+	 * v&aacute;lido.
+	 * @param snapshot - Donde se copian los datos.
+	 * @return boolean - <tt>true</tt> si la copia es consistente.
+	 */
+	public boolean tryReadSnapshot(SensorSnapshot snapshot){
+		long start = lectureLock.tryBeginRead();
+		if(start < 0)
+			return false;
+		float[] current = lectures;
+		int count = 0;
+		if(current != null){
+			count = Math.min(current.length, snapshot.values.length);
+			System.arraycopy(current, 0, snapshot.values, 0, count);
+		}//si hay datos
+		int currentAccuracy = accuracy;
+		long currentTime = eventTime;
+		if(!lectureLock.validate(start))
+			return false;
+		snapshot.count = count;
+		snapshot.accuracy = currentAccuracy;
+		snapshot.eventTime = currentTime;
+		snapshot.version = lectureLock.versionOf(start);
+		return true;
+	}//tryReadSnapshot
+	
+	/**
+	 * Da el historial de las lecturas del sensor.
+	 * @return SensorHistory - El historial, o una referencia nula si no se ha
+	 * solicitado conservarlo.
+	 * @see #enableHistory(int)
+	 */
+	public SensorHistory getHistory(){
+		return history;
+	}//getHistory
+	
+	/**
+	 * Da las estad&iacute;sticas de las &uacute;ltimas lecturas.
+	 * @return SlidingStatistics - Las estad&iacute;sticas, o una referencia
+	 * nula si no se han solicitado.
+	 * @see #enableStatistics(int)
+	 */
+	public SlidingStatistics getStatistics(){
+		return statistics;
+	}//getStatistics
+	
+	/**
+	 * Da la etapa que reduce la frecuencia de las lecturas.
+	 * @return Decimator - La etapa, o una referencia nula si no se ha
+	 * solicitado reducir la frecuencia.
+	 * @see #enableDecimation(int)
+	 */
+	public Decimator getDecimator(){
+		return decimator;
+	}//getDecimator
+	
+	/**
+	 * Da la etapa que descarta las lecturas que no cambian
+	 * significativamente.
+	 * @return Deadband - La etapa, o una referencia nula si no se ha
+	 * solicitado.
+	 * @see #enableDeadband(float, float, long)
+	 */
+	public Deadband getDeadband(){
+		return deadband;
+	}//getDeadband
+	
+	/**
+	 * Da la etapa que suaviza las lecturas con un filtro de Kalman.
+	 * @return KalmanSmoother - La etapa, o una referencia nula si no se ha
+	 * solicitado.
+	 * @see #enableKalmanSmoothing(float, float, boolean)
+	 */
+	public KalmanSmoother getKalmanSmoother(){
+		return kalman;
+	}//getKalmanSmoother
+	
+	// métodos de implementación
+	
+	/**
+	 * Indica la presici&oacute;n.<p/>
+	 * 
+	 * La presici&oacute;n se indica explicitamente como cadena.
+	 * @return String - La presici&oacute;n.
+	 */
+	public String getAccuracyString(){
+		switch(accuracy){
+		case SensorTypes.SENSOR_STATUS_UNRELIABLE :
+			return "Los datos obtenidos por el sensor no son confiables";
+		case SensorTypes.SENSOR_STATUS_ACCURACY_LOW :
+			return "La presici\u00F3n es baja";
+		case SensorTypes.SENSOR_STATUS_ACCURACY_MEDIUM :
+			return "La presici\u00F3n es promedio";
+		case SensorTypes.SENSOR_STATUS_ACCURACY_HIGH :
+			return "La presici\u00F3n es \u00F3ptima";
+		default :
+			return "La presici\u00F3n es desconocida";
+		}//muestra la presición como cadena
+	}//getAccuracy
+	
+	/**
+	 * Devuelve como cadena de caracteres el tipo del sensor.
+	 */
+	public String getTypeString(){
+		switch(SENSOR_TYPE) {
+		case SensorTypes.TYPE_ACCELEROMETER :
+			return "Aceler\u00F3metro";
+		case SensorTypes.TYPE_GRAVITY :
+			return "Aceler\u00F3metro gravitacional";
+		case SensorTypes.TYPE_GYROSCOPE :
+			return "Giroscopio";
+		case SensorTypes.TYPE_LIGHT :
+			return "Sensor fotoel\u00E9ctrico";
+		case SensorTypes.TYPE_LINEAR_ACCELERATION :
+			return "Aceler\u00F3metro lineal";
+		case SensorTypes.TYPE_MAGNETIC_FIELD :
+			return "Magnet\u00F3metro";
+		case SensorTypes.TYPE_PRESSURE :
+			return "Bar\u00F3metro";
+		case SensorTypes.TYPE_PROXIMITY :
+			return "Sensor de proximidad";
+		case SensorTypes.TYPE_ROTATION_VECTOR :
+			return "Sensor de rotaci\u00F3n";
+		case SensorTypes.TYPE_AMBIENT_TEMPERATURE :
+			return "Term\u00F3metro";
+		case SensorTypes.TYPE_RELATIVE_HUMIDITY :
+			return "Sensor de humedad";
+		case SensorTypes.TYPE_ORIENTATION :
+			return "Sensor de orientaci\u00F3n del dispositivo";
+		case SensorTypes.TYPE_TEMPERATURE :
+			return "Term\u00F3metro";
+		default:
+			return "Sensor no identificado";
+		}//identifica o no el tipo de sensor
+	}//getTypeString
+	
+	/**
+	 * Indica cu&aacute;ntos valores entrega el tipo de sensor observado en cada
+	 * evento.<p/>
+	 * 
+	 * Para el sensor de rotaci&oacute;n se cuenta el coseno del medio
+	 * &aacute;ngulo, aunque no todos los dispositivos lo entregan.
+	 * @return int - El n&uacute;mero de ejes del sensor.
+	 */
+	public int getAxisCount(){
+		switch(SENSOR_TYPE) {
+		case SensorTypes.TYPE_ACCELEROMETER :
+		case SensorTypes.TYPE_GRAVITY :
+		case SensorTypes.TYPE_GYROSCOPE :
+		case SensorTypes.TYPE_LINEAR_ACCELERATION :
+		case SensorTypes.TYPE_MAGNETIC_FIELD :
+		case SensorTypes.TYPE_ORIENTATION :
+			return 3;
+		case SensorTypes.TYPE_ROTATION_VECTOR :
+			return 4;
+		default:
+			return 1;
+		}//identifica el número de ejes
+	}//getAxisCount
+	
+	/**
+	 * Recibe la lectura de un evento de sensor.<p/>
+	 * 
+	 * Si se asign&oacute; un ejecutor, la lectura se le entrega para
+	 * procesarla en otro hilo; de lo contrario se procesa en el hilo que llama.
+	 * @param accuracy - La presici&oacute;n del evento.
+	 * @param timestamp - El momento en el que ocurrio el evento en
+	 * nanosegundos.
+	 * @param values - Los valores le&iacute;dos por el sensor. El arreglo puede
+	 * reutilizarse en cuanto &eacute;ste m&eacute;todo termine.
+	 * @see #processEvent(int, long, float[])
+	 * @see #setCallbackExecutor(CallbackExecutor)
+	 */
+	public void onSensorSample(int accuracy, long timestamp, float[] values){
+		CallbackExecutor target = executor;
+		if(target != null)
+			target.submit(this, accuracy, timestamp, values, values.length);
+		else
+			processEvent(accuracy, timestamp, values);
+	}//onSensorSample
+	
+	/**
+	 * Muestra las lecturas como una cadena.
+	 * @return String - Una representacion legible de las lecturas del sensor.
+	 */
+	public String showLectures(){
+		float[] data = lectures;
+		if(data == null)
+			return "";
+		StringBuilder text = new StringBuilder(data.length *20);
+		for(int i = 0; i < data.length; i++){
+			if(i > 0)
+				text.append('\n');
+			text.append("Datos ").append(i).append(":\t").append(data[i]);
+		}//recupera los datos leidos
+		return text.toString();
+	}//showLectures
+	
+	// métodos auxiliares
+	
+	/**
+	 * Notifica de alguna manera que acaba de ocurrir un cambio en los datos
+	 * del sensor.
+	 * @see #processEvent(int, long, float[])
+	 */
+	protected abstract void notificate();
+	
+	/**
+	 * Procesa un evento de sensor.<p/>
+	 * 
+	 * Una vez que <tt>lectures</tt> tiene el tama&ntilde;o del sensor,
+	 * procesar un evento no crea objetos nuevos mientras <tt>display()</tt>
+	 * y <tt>notificate()</tt> tampoco lo hagan.<p/>
+	 * 
+	 * Si hay etapas, la lectura pasa por ellas antes de registrarse; y si
+	 * alguna la descarta, el evento se ignora.
+	 * @param accuracy - La presici&oacute;n del sensor.
+	 * @param timeOcurred - El momento en el que ocurrio el evento.
+	 * @param values - Los valores recuperados por el sensor.
+	 * @see #retrieveData(int, long, float[])
+	 * @see #display()
+	 * @see #addStage(SampleStage)
+	 */
+	protected void processEvent(int accuracy, long timeOcurred, float[] values){
+		SampleStage[] pipeline = stages;
+		if(pipeline != null){
+			float[] staged = stageValues;
+			if((staged == null) || (staged.length != values.length))
+				stageValues = staged = new float[values.length];
+			System.arraycopy(values, 0, staged, 0, values.length);
+			for(SampleStage stage : pipeline)
+				if(!stage.process(timeOcurred, staged, staged.length))
+					return;
+			values = staged;
+		}//si hay etapas
+		deliver(accuracy, timeOcurred, values);
+	}//processEvent
+	
+	/**
+	 * Registra una lectura que ya pas&oacute; por las etapas, la publica, la
+	 * muestra y la notifica o la agrega al lote.
+	 * @param accuracy - La presici&oacute;n del sensor.
+	 * @param timeOcurred - El momento en el que ocurrio el evento.
+	 * @param values - Los valores de la lectura.
+	 * @see #processEvent(int, long, float[])
+	 */
+	private void deliver(int accuracy, long timeOcurred, float[] values){
+		retrieveData(accuracy, timeOcurred, values);
+		SensorEventDispatcher target = dispatcher;
+		if(target != null)
+			target.publish(this, accuracy, eventTime, lectures, lectures.length);
+		display();
+		SampleBatch current = batch;
+		if(current == null){
+			notificate();
+		}else if(current.add(eventTime, lectures, lectures.length)){
+			onBatch(current.timestamps, current.axes, current.size());
+			current.clear();
+		}//entrega el evento o el lote
+	}//deliver
+	
+	/**
+	 * Muestra los datos del &uacute;ltimo evento. Se llama con cada evento
+	 * procesado, antes de <tt>notificate()</tt>.<p/>
+	 * 
+	 * La implementaci&oacute;n por omisi&oacute;n no hace nada.
+	 */
+	protected void display(){}
+	
+	/**
+	 * Escribe el texto con el que se muestran los datos del &uacute;ltimo
+	 * evento: el encabezado seguido de los valores le&iacute;dos.<p/>
+	 * 
+	 * Las subclases que conocen el significado de cada valor lo
+	 * sobreescriben para etiquetarlos. No debe crear objetos nuevos.
+	 * @param out - Donde se escribe el texto.
+	 * @see #formatHeader(SampleFormatter)
+	 */
+	protected void formatDisplay(SampleFormatter out){
+		formatHeader(out);
+		out.append("\n\tDatos leidos: ");
+		float[] data = lectures;
+		if(data != null)
+			for(int i = 0; i < data.length; i++){
+				if(i > 0)
+					out.append(", ");
+				out.append(data[i]);
+			}//escribe los valores leidos
+	}//formatDisplay
+	
+	/**
+	 * Escribe el tipo del sensor y su presici&oacute;n.
+	 * @param out - Donde se escribe el texto.
+	 * @see #getTypeString()
+	 * @see #getAccuracyString()
+	 */
+	protected void formatHeader(SampleFormatter out){
+		out.append(getTypeString()).append("\n\tPresici\u00F3n: ")
+				.append(getAccuracyString());
+	}//formatHeader
+	
+	/**
+	 * Recibe un lote de lecturas cuando se solicit&oacute; entregarlas por
+	 * lotes.<p/>
+	 * 
+	 * Los arreglos se reutilizan para el siguiente lote, as&iacute; que no
+	 * deben conservarse sus referencias. La implementaci&oacute;n por
+	 * omisi&oacute;n no hace nada.
+	 * @param timestamps - Los momentos de los eventos en nanosegundos.
+	 * @param axes - Los valores de los eventos; un arreglo por eje.
+	 * @param count - Cu&aacute;ntas lecturas contiene el lote.
+	 * @see #enableBatching(int, long)
+	 */
+	protected void onBatch(long[] timestamps, float[][] axes, int count){}
+	
+	/**
+	 * Recupera los datos leidos del sensor.<p/>
+	 * 
+	 * Los valores se copian a <tt>lectures</tt>, pues el sistema reutiliza el
+	 * arreglo del evento. S&oacute;lo se crea un arreglo nuevo cuando cambia el
+	 * n&uacute;mero de valores.
+	 * @param accuracy - La presici&oacute;n del sensor.
+	 * @param timeOcurred - El momento en el que ocurrio el evento.
+	 * @param values - Los valores recuperados por el sensor.
+	 * @see #onSensorSample(int, long, float[])
+	 */
+	protected void retrieveData(int accuracy, long timeOcurred, float[] values){
+		lectureLock.beginWrite();
+		this.accuracy = accuracy;
+		eventTime = timeOcurred;
+		if((lectures == null) || (lectures.length != values.length))
+			lectures = new float[values.length];
+		System.arraycopy(values, 0, lectures, 0, values.length);
+		lectureLock.endWrite();
+		if(history != null)
+			history.record(timeOcurred, lectures, lectures.length);
+	}//retrieveData
+	
+	// métodos estáticos
+	
+	/**
+	 * Da una instancia de &eacute;sta clase cuya implementaci&oacute;n de
+	 * <tt><b>notificate</b></tt> consiste en un m&eacute;todo vac&iacute;o.
+	 * @param type - El tipo del sensor a observar.
+	 * @return SensorSampleListener - Una instancia de &eacute;sta clase.
+	 */
+	public static SensorSampleListener getInstance(int type){
+		return new SensorSampleListener(type) {
+			protected void notificate(){}
+		};
+	}//getInstance
+	
+}//SensorSampleListener class
@@ -0,0 +1,85 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Copia consistente de los datos de un evento de sensor.<p/>
+ * 
+ * Es una estructura de atributos p&uacute;blicos que el usuario crea una vez
+ * y reutiliza en cada lectura; de modo que leer el estado de un receptor no
+ * crea objetos nuevos.
+ * @see SensorSampleListener#readSnapshot(SensorSnapshot)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SensorSnapshot {
+
+	// atributos de clase
+	
+	/**
+	 * Los valores le&iacute;dos por el sensor. S&oacute;lo los primeros
+	 * <tt>count</tt> son v&aacute;lidos.
+	 */
+	public final float[] values;
+	
+	/**
+	 * Cu&aacute;ntos elementos de <tt>values</tt> son v&aacute;lidos.
+	 */
+	public int count;
+	
+	/**
+	 * La presici&oacute;n del evento.
+	 */
+	public int accuracy;
+	
+	/**
+	 * El momento en el que ocurrio el evento en nanosegundos.
+	 */
+	public long eventTime;
+	
+	/**
+	 * El n&uacute;mero de eventos que hab&iacute;a registrado el receptor
+	 * cuando se tom&oacute; la copia.
+	 */
+	public long version;
+	
+	/**
+	 * Capacidad por omisi&oacute;n de <tt>values</tt>; el m&aacute;ximo de
+	 * valores que entrega un evento de sensor.
+	 */
+	public static final int DEFAULT_CAPACITY = 5;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye una copia con capacidad para <tt>DEFAULT_CAPACITY</tt> valores.
+	 * @see #DEFAULT_CAPACITY
+	 */
+	public SensorSnapshot(){
+		this(DEFAULT_CAPACITY);
+	}//constructor por omisión
+	
+	/**
+	 * Construye una copia con la capacidad dada.
+	 * @param capacity - Cu&aacute;ntos valores puede contener la copia.
+	 */
+	public SensorSnapshot(int capacity){
+		values = new float[capacity];
+	}//constructor
+	
+}//SensorSnapshot class
@@ -0,0 +1,129 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Identificadores de los tipos de sensor y de las presiciones de sus
+ * eventos.<p/>
+ * 
+ * Tienen los mismos valores que las constantes de
+ * <tt>android.hardware.Sensor</tt> y <tt>android.hardware.SensorManager</tt>
+ * hasta el nivel 17 de API de Android; de modo que pueden usarse unas u otras
+ * indistintamente, pero &eacute;stas no requieren de Android.
+ * @see android.hardware.Sensor
+ * @see android.hardware.SensorManager
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public final class SensorTypes {
+
+	// atributos de clase
+	
+	/**
+	 * Aceler&oacute;metro.
+	 */
+	public static final int TYPE_ACCELEROMETER = 1;
+	
+	/**
+	 * Magnet&oacute;metro.
+	 */
+	public static final int TYPE_MAGNETIC_FIELD = 2;
+	
+	/**
+	 * Sensor de orientaci&oacute;n. Android lo considera obsoleto.
+	 */
+	public static final int TYPE_ORIENTATION = 3;
+	
+	/**
+	 * Giroscopio.
+	 */
+	public static final int TYPE_GYROSCOPE = 4;
+	
+	/**
+	 * Sensor fotoel&eacute;ctrico.
+	 */
+	public static final int TYPE_LIGHT = 5;
+	
+	/**
+	 * Bar&oacute;metro.
+	 */
+	public static final int TYPE_PRESSURE = 6;
+	
+	/**
+	 * Term&oacute;metro del dispositivo. Android lo considera obsoleto.
+	 */
+	public static final int TYPE_TEMPERATURE = 7;
+	
+	/**
+	 * Sensor de proximidad.
+	 */
+	public static final int TYPE_PROXIMITY = 8;
+	
+	/**
+	 * Aceler&oacute;metro gravitacional.
+	 */
+	public static final int TYPE_GRAVITY = 9;
+	
+	/**
+	 * Aceler&oacute;metro lineal.
+	 */
+	public static final int TYPE_LINEAR_ACCELERATION = 10;
+	
+	/**
+	 * Sensor de rotaci&oacute;n.
+	 */
+	public static final int TYPE_ROTATION_VECTOR = 11;
+	
+	/**
+	 * Sensor de humedad.
+	 */
+	public static final int TYPE_RELATIVE_HUMIDITY = 12;
+	
+	/**
+	 * Term&oacute;metro ambiental.
+	 */
+	public static final int TYPE_AMBIENT_TEMPERATURE = 13;
+	
+	/**
+	 * Los datos obtenidos por el sensor no son confiables.
+	 */
+	public static final int SENSOR_STATUS_UNRELIABLE = 0;
+	
+	/**
+	 * La presici&oacute;n es baja.
+	 */
+	public static final int SENSOR_STATUS_ACCURACY_LOW = 1;
+	
+	/**
+	 * La presici&oacute;n es promedio.
+	 */
+	public static final int SENSOR_STATUS_ACCURACY_MEDIUM = 2;
+	
+	/**
+	 * La presici&oacute;n es &oacute;ptima.
+	 */
+	public static final int SENSOR_STATUS_ACCURACY_HIGH = 3;
+	
+	// métodos constructores
+	
+	/**
+	 * No se deben crear instancias de &eacute;sta clase.
+	 */
+	private SensorTypes(){}
+	
+}//SensorTypes class
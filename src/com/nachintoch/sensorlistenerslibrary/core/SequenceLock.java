@@ -0,0 +1,275 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de secuencia para publicar datos entre hilos sin candados.<p/>
+ * 
+ * Un solo hilo escritor encierra sus modificaciones entre
+ * <tt>beginWrite()</tt> y <tt>endWrite()</tt>; lo que hace impar el contador
+ * mientras escribe. Los lectores toman el valor del contador con
+ * <tt>beginRead()</tt>, copian los datos y confirman con
+ * <tt>validate(long)</tt> que el contador no cambi&oacute; durante la copia;
+ * si cambi&oacute;, la copia puede mezclar datos de dos escrituras y debe
+ * repetirse.<p/>
+ * 
+ * S&oacute;lo puede haber un escritor: dos hilos que escriban a la vez
+ * deben sincronizarse entre s&iacute; por otro medio. El escritor nunca
+ * espera a los lectores.<p/>
+ * 
+ * Los datos son variables normales, as&iacute; que en procesadores con un
+ * modelo de memoria d&eacute;bil, como ARM, el contador impar podr&iacute;a
+ * verse despu&eacute;s de los datos que el escritor guarda, y los datos que
+ * el lector copia podr&iacute;an leerse despu&eacute;s de confirmar. Como en
+ * <tt>java.util.concurrent.locks.StampedLock</tt>, el escritor pone una
+ * barrera de escritura despu&eacute;s de hacer impar el contador y el lector
+ * una barrera de lectura antes de confirmar; con <tt>VarHandle</tt> si
+ * existe, o con <tt>sun.misc.Unsafe</tt>. Donde no hay ninguna de las dos,
+ * como en Java 6 o versiones anteriores de Android, el escritor incrementa
+ * el contador con una operaci&oacute;n at&oacute;mica y el lector confirma
+ * con <tt>compareAndSet</tt>; que ordena la copia antes de la
+ * confirmaci&oacute;n sin barreras expl&iacute;citas.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public final class SequenceLock {
+
+	// atributos de clase
+	
+	/**
+	 * El contador de secuencia. Es impar mientras hay una escritura en curso.
+	 */
+	private final AtomicLong sequence = new AtomicLong();
+	
+	/**
+	 * Indica si la plataforma tiene barreras de memoria expl&iacute;citas.
+	 */
+	private static final boolean FENCES;
+	
+	static {
+		boolean available;
+		try{
+			available = Fences.STORE != null && Fences.LOAD != null;
+		}catch(Throwable e){
+			available = false;
+		}//si no existe java.lang.invoke
+		FENCES = available;
+	}
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica cu&aacute;ntas escrituras se han completado. Sirve para saber
+	 * sin copiar los datos si hubo cambios desde la &uacute;ltima lectura.
+	 * @return long - El n&uacute;mero de escrituras completadas.
+	 */
+	public long getVersion(){
+		return sequence.get() >>> 1;
+	}//getVersion
+	
+	/**
+	 * Indica a qu&eacute; versi&oacute;n corresponden los datos de una lectura
+	 * validada.
+	 * @param start - El valor devuelto por <tt>beginRead()</tt>.
+	 * @return long - El n&uacute;mero de escrituras completadas al comenzar la
+	 * lectura.
+	 */
+	public long versionOf(long start){
+		return start >>> 1;
+	}//versionOf
+	
+	// métodos de implementación
+	
+	/**
+	 * Marca el inicio de una escritura. S&oacute;lo debe llamarse desde el hilo
+	 * escritor.<p/>
+	 * 
+	 * Ninguno de los datos que se guarden despu&eacute;s puede verse antes
+	 * que el contador impar.
+	 */
+	public void beginWrite(){
+		advance(sequence);
+	}//beginWrite
+	
+	/**
+	 * Marca el fin de una escritura. S&oacute;lo debe llamarse desde el hilo
+	 * escritor.<p/>
+	 * 
+	 * Publica el contador par con <tt>lazySet</tt>, que no deja pasar
+	 * despu&eacute;s de &eacute;l a los datos guardados antes.
+	 */
+	public void endWrite(){
+		sequence.lazySet(sequence.get() +1);
+	}//endWrite
+	
+	/**
+	 * Comienza una lectura; esperando activamente si hay una escritura en
+	 * curso.
+	 * @return long - El valor del contador que debe pasarse a
+	 * <tt>validate(long)</tt>.
+	 */
+	public long beginRead(){
+		long current = sequence.get();
+		while((current & 1) != 0)
+			current = sequence.get();
+		return current;
+	}//beginRead
+	
+	/**
+	 * Comienza una lectura sin esperar.
+	 * @return long - El valor del contador que debe pasarse a
+	 * <tt>validate(long)</tt>; o -1 si hay una escritura en curso.
+	 */
+	public long tryBeginRead(){
+		long current = sequence.get();
+		return (current & 1) == 0 ? current : -1;
+	}//tryBeginRead
+	
+	/**
+	 * Indica si los datos copiados desde <tt>beginRead()</tt> son
+	 * consistentes. Ninguna de las lecturas de los datos hechas antes puede
+	 * ocurrir despu&eacute;s de volver a leer el contador.
+	 * @param start - El valor devuelto por <tt>beginRead()</tt>.
+	 * @return boolean - <tt>true</tt> si no hubo escrituras durante la copia.
+	 */
+	public boolean validate(long start){
+		if(start < 0)
+			return false;
+		if(!FENCES)
+			return sequence.compareAndSet(start, start);
+		Fences.loadFence();
+		return sequence.get() == start;
+	}//validate
+	
+	// métodos estáticos
+	
+	/**
+	 * Incrementa un contador de secuencia de otra clase del paquete que sigue
+	 * el mismo protocolo. Los datos guardados antes se ven antes que el nuevo
+	 * valor, y ninguno de los guardados despu&eacute;s puede verse antes que
+	 * &eacute;l. S&oacute;lo debe llamarse desde el hilo escritor.
+	 * @param counter - El contador a incrementar.
+	 */
+	static void advance(AtomicLong counter){
+		if(!FENCES){
+			counter.incrementAndGet();
+			return;
+		}//sin barreras usa una operación atómica
+		counter.lazySet(counter.get() +1);
+		Fences.storeFence();
+	}//advance
+	
+	/**
+	 * Vuelve a leer un contador de secuencia de otra clase del paquete que
+	 * sigue el mismo protocolo, para confirmar una copia. Ninguna de las
+	 * lecturas de los datos hechas antes puede ocurrir despu&eacute;s.
+	 * @param counter - El contador a leer.
+	 * @return long - El valor del contador al terminar la copia.
+	 */
+	static long recheck(AtomicLong counter){
+		if(!FENCES){
+			long current = counter.get();
+			while(!counter.compareAndSet(current, current))
+				current = counter.get();
+			return current;
+		}//sin barreras confirma con una operación atómica
+		Fences.loadFence();
+		return counter.get();
+	}//recheck
+	
+	/**
+	 * Las barreras de memoria de la plataforma. Est&aacute; aparte para que
+	 * <tt>SequenceLock</tt> pueda cargarse donde no existe
+	 * <tt>java.lang.invoke</tt>.
+	 */
+	private static final class Fences {
+		
+		// atributos de clase
+		
+		/**
+		 * La barrera de escritura; o una referencia nula si no existe.
+		 */
+		static final MethodHandle STORE;
+		
+		/**
+		 * La barrera de lectura; o una referencia nula si no existe.
+		 */
+		static final MethodHandle LOAD;
+		
+		static {
+			MethodHandle store = null, load = null;
+			MethodType type = MethodType.methodType(void.class);
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			try{
+				Class<?> handles = Class.forName("java.lang.invoke.VarHandle");
+				store = lookup.findStatic(handles, "storeFence", type);
+				load = lookup.findStatic(handles, "loadFence", type);
+			}catch(Throwable e){
+				try{
+					Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+					Field field = unsafeClass.getDeclaredField("theUnsafe");
+					field.setAccessible(true);
+					Object unsafe = field.get(null);
+					store = lookup.findVirtual(unsafeClass, "storeFence", type)
+							.bindTo(unsafe);
+					load = lookup.findVirtual(unsafeClass, "loadFence", type)
+							.bindTo(unsafe);
+				}catch(Throwable other){
+					store = null;
+					load = null;
+				}//busca las barreras de Unsafe
+			}//busca las barreras de VarHandle
+			STORE = store;
+			LOAD = load;
+		}
+		
+		// métodos estáticos
+		
+		/**
+		 * Impide que las escrituras posteriores se vean antes que las
+		 * anteriores.
+		 */
+		static void storeFence(){
+			try{
+				STORE.invokeExact();
+			}catch(Throwable e){
+				throw new IllegalStateException(e);
+			}//las barreras no lanzan excepciones
+		}//storeFence
+		
+		/**
+		 * Impide que las lecturas anteriores ocurran despu&eacute;s de las
+		 * posteriores.
+		 */
+		static void loadFence(){
+			try{
+				LOAD.invokeExact();
+			}catch(Throwable e){
+				throw new IllegalStateException(e);
+			}//las barreras no lanzan excepciones
+		}//loadFence
+		
+	}//Fences class
+	
+}//SequenceLock class
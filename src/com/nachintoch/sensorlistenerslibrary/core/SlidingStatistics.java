@@ -0,0 +1,307 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Estad&iacute;sticas de las &uacute;ltimas lecturas de un sensor.<p/>
+ *
+ * Mantiene, para cada eje y sobre una ventana de las &uacute;ltimas
+ * <tt>WINDOW</tt> lecturas, el promedio, la varianza, la ra&iacute;z del
+ * promedio de los cuadrados, el m&iacute;nimo y el m&aacute;ximo. Cada
+ * lectura las actualiza en tiempo constante y sin crear objetos: el promedio
+ * y la varianza con la f&oacute;rmula de Welford (agregando la lectura nueva
+ * y quitando la que sale de la ventana) y el m&iacute;nimo y el
+ * m&aacute;ximo con colas mon&oacute;tonas.<p/>
+ *
+ * Es una etapa que s&oacute;lo observa las lecturas. Las estad&iacute;sticas
+ * se leen desde cualquier hilo con <tt>readSnapshot(StatisticsSnapshot)</tt>
+ * sin bloquear al hilo del sensor. Si un eje recibe un valor no
+ * num&eacute;rico, sus estad&iacute;sticas dejan de serlo hasta llamar a
+ * <tt>clear()</tt>.
+ * @see SensorSampleListener#enableStatistics(int)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SlidingStatistics implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * Las lecturas de la ventana; un arreglo circular por eje.
+	 */
+	private final float[][] samples;
+	
+	/**
+	 * El promedio de cada eje.
+	 */
+	private final double[] mean;
+	
+	/**
+	 * La suma de los cuadrados de las diferencias con el promedio de cada eje.
+	 */
+	private final double[] squares;
+	
+	/**
+	 * El m&iacute;nimo de cada eje, tomado de <tt>minQueue</tt>.
+	 */
+	private final float[] min;
+	
+	/**
+	 * El m&aacute;ximo de cada eje, tomado de <tt>maxQueue</tt>.
+	 */
+	private final float[] max;
+	
+	/**
+	 * Colas circulares con los n&uacute;meros de las lecturas que pueden
+	 * llegar a ser el m&iacute;nimo de cada eje; sus valores son crecientes.
+	 */
+	private final long[][] minQueue;
+	
+	/**
+	 * Colas circulares con los n&uacute;meros de las lecturas que pueden
+	 * llegar a ser el m&aacute;ximo de cada eje; sus valores son decrecientes.
+	 */
+	private final long[][] maxQueue;
+	
+	/**
+	 * Posici&oacute;n del primer elemento de cada cola de m&iacute;nimos.
+	 */
+	private final int[] minFirst;
+	
+	/**
+	 * Cu&aacute;ntos elementos tiene cada cola de m&iacute;nimos.
+	 */
+	private final int[] minCount;
+	
+	/**
+	 * Posici&oacute;n del primer elemento de cada cola de m&aacute;ximos.
+	 */
+	private final int[] maxFirst;
+	
+	/**
+	 * Cu&aacute;ntos elementos tiene cada cola de m&aacute;ximos.
+	 */
+	private final int[] maxCount;
+	
+	/**
+	 * Cu&aacute;ntas lecturas se han procesado desde <tt>clear()</tt>.
+	 */
+	private long total;
+	
+	/**
+	 * El momento de la lectura m&aacute;s reciente en nanosegundos.
+	 */
+	private long timestamp;
+	
+	/**
+	 * Contador de secuencia que protege las estad&iacute;sticas mientras se
+	 * actualizan.
+	 */
+	private final SequenceLock lock = new SequenceLock();
+	
+	/**
+	 * N&uacute;mero de lecturas de la ventana.
+	 */
+	public final int WINDOW;
+	
+	/**
+	 * N&uacute;mero de ejes de cada lectura.
+	 */
+	public final int AXES;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye las estad&iacute;sticas para la ventana y ejes dados.
+	 * @param window - El n&uacute;mero de lecturas de la ventana.
+	 * @param axes - El n&uacute;mero de ejes de cada lectura.
+	 * @throws IllegalArgumentException - Si la ventana o el n&uacute;mero de
+	 * ejes no son positivos.
+	 */
+	public SlidingStatistics(int window, int axes){
+		if(window <= 0 || axes <= 0)
+			throw new IllegalArgumentException("window y axes deben ser " +
+					"positivos");
+		WINDOW = window;
+		AXES = axes;
+		samples = new float[axes][window];
+		mean = new double[axes];
+		squares = new double[axes];
+		min = new float[axes];
+		max = new float[axes];
+		minQueue = new long[axes][window];
+		maxQueue = new long[axes][window];
+		minFirst = new int[axes];
+		minCount = new int[axes];
+		maxFirst = new int[axes];
+		maxCount = new int[axes];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica cu&aacute;ntas lecturas hay en la ventana.
+	 * @return int - El n&uacute;mero de lecturas en la ventana.
+	 */
+	public int size(){
+		return (int)Math.min(total, WINDOW);
+	}//size
+	
+	/**
+	 * Copia las estad&iacute;sticas actuales a la estructura dada.<p/>
+	 *
+	 * Todos los valores copiados corresponden a la misma ventana, aunque se
+	 * llame desde un hilo distinto al que procesa las lecturas. Si la
+	 * estructura tiene menos ejes, s&oacute;lo se copian los primeros.
+	 * @param snapshot - Donde se copian las estad&iacute;sticas.
+	 * @return long - Cu&aacute;ntas lecturas se hab&iacute;an procesado.
+	 */
+	public long readSnapshot(StatisticsSnapshot snapshot){
+		int axes = Math.min(AXES, snapshot.mean.length);
+		long start;
+		long count;
+		do{
+			start = lock.beginRead();
+			count = total;
+			snapshot.timestamp = timestamp;
+			System.arraycopy(mean, 0, snapshot.mean, 0, axes);
+			System.arraycopy(squares, 0, snapshot.variance, 0, axes);
+			System.arraycopy(min, 0, snapshot.min, 0, axes);
+			System.arraycopy(max, 0, snapshot.max, 0, axes);
+		}while(!lock.validate(start));
+		int n = (int)Math.min(count, WINDOW);
+		for(int i = 0; i < axes; i++){
+			double m = snapshot.mean[i];
+			double v = n > 0 ? Math.max(snapshot.variance[i] /n, 0) : 0;
+			snapshot.variance[i] = v;
+			snapshot.rms[i] = Math.sqrt(v +m *m);
+		}//calcula la varianza y la raíz del promedio de los cuadrados
+		snapshot.count = n;
+		snapshot.version = count;
+		return count;
+	}//readSnapshot
+	
+	// métodos de implementación
+	
+	/**
+	 * Agrega una lectura a la ventana y quita la m&aacute;s antigua si la
+	 * ventana est&aacute; llena. Los ejes faltantes se registran como
+	 * <tt>Float.NaN</tt>.
+	 * @return boolean - Siempre <tt>true</tt>; las estad&iacute;sticas no
+	 * descartan lecturas.
+	 */
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		lock.beginWrite();
+		long seq = total;
+		int slot = (int)(seq %WINDOW);
+		boolean full = seq >= WINDOW;
+		for(int i = 0; i < AXES; i++){
+			float value = i < count ? values[i] : Float.NaN;
+			float[] axis = samples[i];
+			double oldMean = mean[i];
+			if(full){
+				double leaving = axis[slot];
+				double newMean = oldMean +(value -leaving) /WINDOW;
+				squares[i] += (value -leaving) *(value -newMean +leaving -oldMean);
+				mean[i] = newMean;
+			}else{
+				double newMean = oldMean +(value -oldMean) /(seq +1);
+				squares[i] += (value -oldMean) *(value -newMean);
+				mean[i] = newMean;
+			}//actualiza el promedio y la varianza
+			axis[slot] = value;
+			min[i] = pushMin(i, seq, value);
+			max[i] = pushMax(i, seq, value);
+		}//actualiza cada eje
+		total = seq +1;
+		this.timestamp = timestamp;
+		lock.endWrite();
+		return true;
+	}//process
+	
+	/**
+	 * Vac&iacute;a la ventana.
+	 */
+	public void clear(){
+		lock.beginWrite();
+		total = 0;
+		for(int i = 0; i < AXES; i++){
+			mean[i] = 0;
+			squares[i] = 0;
+			min[i] = 0;
+			max[i] = 0;
+			minCount[i] = 0;
+			maxCount[i] = 0;
+		}//reinicia cada eje
+		lock.endWrite();
+	}//clear
+	
+	// métodos auxiliares
+	
+	/**
+	 * Agrega una lectura a la cola de m&iacute;nimos de un eje, quitando las
+	 * que ya no pueden ser el m&iacute;nimo y las que salieron de la ventana.
+	 * @param axis - El eje.
+	 * @param seq - El n&uacute;mero de la lectura.
+	 * @param value - El valor de la lectura.
+	 * @return float - El m&iacute;nimo de la ventana.
+	 */
+	private float pushMin(int axis, long seq, float value){
+		long[] queue = minQueue[axis];
+		float[] values = samples[axis];
+		int first = minFirst[axis];
+		int n = minCount[axis];
+		if(n > 0 && queue[first] <= seq -WINDOW){
+			first = (first +1) %WINDOW;
+			n--;
+		}//si el mínimo salió de la ventana
+		while(n > 0 && values[(int)(queue[(first +n -1) %WINDOW] %WINDOW)] >= value)
+			n--;
+		queue[(first +n) %WINDOW] = seq;
+		minFirst[axis] = first;
+		minCount[axis] = n +1;
+		return values[(int)(queue[first] %WINDOW)];
+	}//pushMin
+	
+	/**
+	 * Agrega una lectura a la cola de m&aacute;ximos de un eje, quitando las
+	 * que ya no pueden ser el m&aacute;ximo y las que salieron de la ventana.
+	 * @param axis - El eje.
+	 * @param seq - El n&uacute;mero de la lectura.
+	 * @param value - El valor de la lectura.
+	 * @return float - El m&aacute;ximo de la ventana.
+	 */
+	private float pushMax(int axis, long seq, float value){
+		long[] queue = maxQueue[axis];
+		float[] values = samples[axis];
+		int first = maxFirst[axis];
+		int n = maxCount[axis];
+		if(n > 0 && queue[first] <= seq -WINDOW){
+			first = (first +1) %WINDOW;
+			n--;
+		}//si el máximo salió de la ventana
+		while(n > 0 && values[(int)(queue[(first +n -1) %WINDOW] %WINDOW)] <= value)
+			n--;
+		queue[(first +n) %WINDOW] = seq;
+		maxFirst[axis] = first;
+		maxCount[axis] = n +1;
+		return values[(int)(queue[first] %WINDOW)];
+	}//pushMax
+	
+}//SlidingStatistics class
@@ -0,0 +1,405 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Analiza el espectro de las &uacute;ltimas lecturas de un sensor; por
+ * ejemplo, la vibraci&oacute;n medida por el aceler&oacute;metro.<p/>
+ *
+ * Es una etapa que s&oacute;lo observa las lecturas. Conserva las
+ * &uacute;ltimas <tt>SIZE</tt> lecturas de un eje, o de la magnitud de la
+ * lectura, y cada <tt>HOP</tt> lecturas les quita el promedio, les aplica la
+ * ventana y calcula su transformada r&aacute;pida de Fourier. Del espectro
+ * obtiene la potencia de cada frecuencia, la de cada banda y la frecuencia
+ * dominante, interpolada entre las frecuencias vecinas. La frecuencia de
+ * muestreo se estima con los momentos de las lecturas de la ventana.<p/>
+ *
+ * La transformada es de base 2 y se calcula en el mismo arreglo; la ventana,
+ * los factores de giro y el orden de los &iacute;ndices se calculan al
+ * construir el analizador, de modo que analizar no crea objetos. Los
+ * resultados se leen desde cualquier hilo con
+ * <tt>readSnapshot(SpectrumSnapshot)</tt> sin bloquear al hilo del sensor, o
+ * se reciben con cada espectro en un <tt>SpectrumAnalyzer.Receiver</tt>.
+ * @see SensorSampleListener#addStage(SampleStage)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SpectrumAnalyzer implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * Recibe cada espectro en el hilo que procesa los eventos del receptor.
+	 */
+	public interface Receiver {
+		
+		/**
+		 * Recibe un espectro. Los arreglos se reutilizan; no deben
+		 * conservarse sus referencias.
+		 * @param timestamp - El momento de la lectura m&aacute;s reciente de
+		 * la ventana en nanosegundos.
+		 * @param power - La potencia de cada frecuencia, de 0 a la mitad de
+		 * la frecuencia de muestreo.
+		 * @param bandEnergy - La potencia de cada banda.
+		 * @param dominantFrequency - La frecuencia dominante en hertz.
+		 * @param sampleRate - La frecuencia de muestreo estimada en hertz.
+		 */
+		void onSpectrum(long timestamp, float[] power, float[] bandEnergy,
+				float dominantFrequency, float sampleRate);
+		
+	}//Receiver interface
+	
+	/**
+	 * Quien recibe los espectros; o una referencia nula.
+	 */
+	private final Receiver receiver;
+	
+	// las últimas lecturas en arreglos circulares
+	private final float[] input;
+	private final long[] times;
+	private int next;
+	private long total;
+	
+	/**
+	 * Cu&aacute;ntas lecturas han llegado desde el &uacute;ltimo espectro.
+	 */
+	private int sinceLast;
+	
+	// la transformada
+	private final float[] real;
+	private final float[] imaginary;
+	private final float[] window;
+	private final float[] cosines;
+	private final float[] sines;
+	private final int[] reversed;
+	
+	/**
+	 * El factor que convierte el cuadrado de la transformada en potencia.
+	 */
+	private final float scale;
+	
+	/**
+	 * Los l&iacute;mites de las bandas en hertz.
+	 */
+	private final float[] bandEdges;
+	
+	// los resultados
+	private final float[] power;
+	private final float[] bandEnergy;
+	private float dominantFrequency;
+	private float dominantPower;
+	private float sampleRate;
+	private long timestamp;
+	
+	/**
+	 * Contador de secuencia que protege los resultados mientras se
+	 * actualizan.
+	 */
+	private final SequenceLock lock = new SequenceLock();
+	
+	/**
+	 * N&uacute;mero de lecturas de la ventana; una potencia de 2.
+	 */
+	public final int SIZE;
+	
+	/**
+	 * Cada cu&aacute;ntas lecturas se calcula un espectro.
+	 */
+	public final int HOP;
+	
+	/**
+	 * El eje que se analiza, o <tt>CHANNEL_MAGNITUDE</tt>.
+	 */
+	public final int CHANNEL;
+	
+	/**
+	 * Indica que se analiza la magnitud de la lectura en lugar de un eje.
+	 */
+	public static final int CHANNEL_MAGNITUDE = -1;
+	
+	/**
+	 * Ventana rectangular; no modifica las lecturas.
+	 */
+	public static final int WINDOW_RECTANGULAR = 0;
+	
+	/**
+	 * Ventana de Hann.
+	 */
+	public static final int WINDOW_HANN = 1;
+	
+	/**
+	 * Ventana de Hamming.
+	 */
+	public static final int WINDOW_HAMMING = 2;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un analizador de la magnitud de las lecturas con ventana de
+	 * Hann.
+	 * @param size - El n&uacute;mero de lecturas de la ventana; una potencia
+	 * de 2.
+	 * @param hop - Cada cu&aacute;ntas lecturas se calcula un espectro.
+	 * @param bandEdges - Los l&iacute;mites de las bandas en hertz, en orden;
+	 * la banda <tt>i</tt> va de <tt>bandEdges[i]</tt> a
+	 * <tt>bandEdges[i + 1]</tt>.
+	 * @param receiver - Quien recibe los espectros; o una referencia nula.
+	 * @throws IllegalArgumentException - Si alg&uacute;n par&aacute;metro
+	 * est&aacute; fuera de rango.
+	 */
+	public SpectrumAnalyzer(int size, int hop, float[] bandEdges,
+			Receiver receiver){
+		this(size, hop, WINDOW_HANN, CHANNEL_MAGNITUDE, bandEdges, receiver);
+	}//constructor
+	
+	/**
+	 * Construye un analizador.
+	 * @param size - El n&uacute;mero de lecturas de la ventana; una potencia
+	 * de 2.
+	 * @param hop - Cada cu&aacute;ntas lecturas se calcula un espectro; a lo
+	 * m&aacute;s <tt>size</tt>.
+	 * @param windowType - La ventana: <tt>WINDOW_RECTANGULAR</tt>,
+	 * <tt>WINDOW_HANN</tt> o <tt>WINDOW_HAMMING</tt>.
+	 * @param channel - El eje que se analiza, o <tt>CHANNEL_MAGNITUDE</tt>.
+	 * @param bandEdges - Los l&iacute;mites de las bandas en hertz, en orden;
+	 * la banda <tt>i</tt> va de <tt>bandEdges[i]</tt> a
+	 * <tt>bandEdges[i + 1]</tt>. Puede ser una referencia nula si no se
+	 * necesitan bandas.
+	 * @param receiver - Quien recibe los espectros; o una referencia nula.
+	 * @throws IllegalArgumentException - Si alg&uacute;n par&aacute;metro
+	 * est&aacute; fuera de rango.
+	 */
+	public SpectrumAnalyzer(int size, int hop, int windowType, int channel,
+			float[] bandEdges, Receiver receiver){
+		if(size < 4 || Integer.bitCount(size) != 1)
+			throw new IllegalArgumentException("size debe ser una potencia " +
+					"de 2 mayor a 2");
+		if(hop <= 0 || hop > size)
+			throw new IllegalArgumentException("hop debe estar entre 1 y size");
+		if(channel < CHANNEL_MAGNITUDE)
+			throw new IllegalArgumentException("channel fuera de rango");
+		if(windowType < WINDOW_RECTANGULAR || windowType > WINDOW_HAMMING)
+			throw new IllegalArgumentException("windowType desconocido");
+		SIZE = size;
+		HOP = hop;
+		CHANNEL = channel;
+		this.receiver = receiver;
+		this.bandEdges = bandEdges == null || bandEdges.length < 2 ?
+				new float[0] : bandEdges.clone();
+		for(int i = 1; i < this.bandEdges.length; i++)
+			if(!(this.bandEdges[i] > this.bandEdges[i -1]))
+				throw new IllegalArgumentException("bandEdges debe ser " +
+						"creciente");
+		input = new float[size];
+		times = new long[size];
+		real = new float[size];
+		imaginary = new float[size];
+		window = new float[size];
+		double squares = 0;
+		for(int i = 0; i < size; i++){
+			double phase = 2 *Math.PI *i /size;
+			switch(windowType){
+			case WINDOW_HANN :
+				window[i] = (float)(0.5 -0.5 *Math.cos(phase));
+				break;
+			case WINDOW_HAMMING :
+				window[i] = (float)(0.54 -0.46 *Math.cos(phase));
+				break;
+			default :
+				window[i] = 1;
+				break;
+			}//calcula la ventana
+			squares += window[i] *window[i];
+		}//prepara la ventana
+		scale = (float)(1 /(size *squares));
+		cosines = new float[size /2];
+		sines = new float[size /2];
+		for(int i = 0; i < size /2; i++){
+			double phase = -2 *Math.PI *i /size;
+			cosines[i] = (float)Math.cos(phase);
+			sines[i] = (float)Math.sin(phase);
+		}//prepara los factores de giro
+		reversed = new int[size];
+		int bits = Integer.numberOfTrailingZeros(size);
+		for(int i = 0; i < size; i++)
+			reversed[i] = Integer.reverse(i) >>> (32 -bits);
+		power = new float[size /2 +1];
+		bandEnergy = new float[Math.max(this.bandEdges.length -1, 0)];
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Da el n&uacute;mero de bandas.
+	 * @return int - El n&uacute;mero de bandas.
+	 */
+	public int getBandCount(){
+		return bandEnergy.length;
+	}//getBandCount
+	
+	/**
+	 * Da cu&aacute;ntos espectros se han calculado.
+	 * @return long - El n&uacute;mero de espectros.
+	 */
+	public long getSpectrumCount(){
+		return lock.getVersion();
+	}//getSpectrumCount
+	
+	/**
+	 * Copia el &uacute;ltimo espectro calculado.
+	 * @param snapshot - Donde se copia; creado para &eacute;ste analizador.
+	 * @return long - Cu&aacute;ntos espectros se hab&iacute;an calculado.
+	 */
+	public long readSnapshot(SpectrumSnapshot snapshot){
+		int bins = Math.min(power.length, snapshot.power.length);
+		int bands = Math.min(bandEnergy.length, snapshot.bandEnergy.length);
+		long start;
+		do{
+			start = lock.beginRead();
+			System.arraycopy(power, 0, snapshot.power, 0, bins);
+			System.arraycopy(bandEnergy, 0, snapshot.bandEnergy, 0, bands);
+			snapshot.dominantFrequency = dominantFrequency;
+			snapshot.dominantPower = dominantPower;
+			snapshot.sampleRate = sampleRate;
+			snapshot.timestamp = timestamp;
+		}while(!lock.validate(start));
+		snapshot.version = lock.versionOf(start);
+		return snapshot.version;
+	}//readSnapshot
+	
+	// métodos de modificación
+	
+	/**
+	 * Olvida las lecturas de la ventana; el siguiente espectro se calcula
+	 * cuando vuelva a llenarse.
+	 */
+	public void clear(){
+		total = 0;
+		next = 0;
+		sinceLast = 0;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		float value;
+		if(CHANNEL == CHANNEL_MAGNITUDE){
+			float squares = 0;
+			for(int i = 0; i < count; i++)
+				squares += values[i] *values[i];
+			value = (float)Math.sqrt(squares);
+		}else if(CHANNEL < count){
+			value = values[CHANNEL];
+		}else{
+			return true;
+		}//toma el valor que se analiza
+		input[next] = value;
+		times[next] = timestamp;
+		next = (next +1) & (SIZE -1);
+		total++;
+		if(++sinceLast >= HOP && total >= SIZE){
+			sinceLast = 0;
+			analyze();
+		}//si toca calcular un espectro
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Calcula el espectro de la ventana y publica los resultados.
+	 */
+	private void analyze(){
+		int n = SIZE;
+		int oldest = next;
+		double sum = 0;
+		for(int i = 0; i < n; i++)
+			sum += input[(oldest +i) & (n -1)];
+		float mean = (float)(sum /n);
+		for(int i = 0; i < n; i++){
+			int target = reversed[i];
+			real[target] = (input[(oldest +i) & (n -1)] -mean) *window[i];
+			imaginary[target] = 0;
+		}//quita el promedio, aplica la ventana y ordena
+		transform();
+		long first = times[oldest];
+		long last = times[(oldest +n -1) & (n -1)];
+		float rate = last > first ? (n -1) /((last -first) *1e-9f) : 0;
+		lock.beginWrite();
+		int dominant = 1;
+		for(int k = 0; k <= n /2; k++){
+			float p = real[k] *real[k] +imaginary[k] *imaginary[k];
+			p *= (k == 0 || k == n /2) ? scale : 2 *scale;
+			power[k] = p;
+			if(k > 0 && k < n /2 && p > power[dominant])
+				dominant = k;
+		}//calcula la potencia de cada frecuencia
+		float offset = 0;
+		if(dominant +1 < n /2){
+			float a = power[dominant -1], b = power[dominant];
+			float c = power[dominant +1];
+			float curvature = a -2 *b +c;
+			if(curvature < 0)
+				offset = 0.5f *(a -c) /curvature;
+		}//interpola el máximo con una parábola
+		float resolution = rate /n;
+		dominantFrequency = (dominant +offset) *resolution;
+		dominantPower = power[dominant];
+		for(int b = 0; b < bandEnergy.length; b++){
+			float energy = 0;
+			if(resolution > 0){
+				int from = Math.max((int)Math.ceil(bandEdges[b] /resolution), 0);
+				float upper = bandEdges[b +1] /resolution;
+				for(int k = from; k <= n /2 && k < upper; k++)
+					energy += power[k];
+			}//suma las frecuencias de la banda
+			bandEnergy[b] = energy;
+		}//calcula la potencia de cada banda
+		sampleRate = rate;
+		timestamp = last;
+		lock.endWrite();
+		if(receiver != null)
+			receiver.onSpectrum(last, power, bandEnergy, dominantFrequency,
+					rate);
+	}//analyze
+	
+	/**
+	 * Calcula la transformada de <tt>real</tt> e <tt>imaginary</tt>, ya en
+	 * orden de &iacute;ndices invertidos, en los mismos arreglos.
+	 */
+	private void transform(){
+		int n = SIZE;
+		for(int length = 2; length <= n; length <<= 1){
+			int half = length >> 1;
+			int step = n /length;
+			for(int start = 0; start < n; start += length)
+				for(int j = 0; j < half; j++){
+					float c = cosines[j *step], s = sines[j *step];
+					int even = start +j, odd = even +half;
+					float re = real[odd] *c -imaginary[odd] *s;
+					float im = real[odd] *s +imaginary[odd] *c;
+					real[odd] = real[even] -re;
+					imaginary[odd] = imaginary[even] -im;
+					real[even] += re;
+					imaginary[even] += im;
+				}//combina las mitades
+		}//para cada tamaño de transformada
+	}//transform
+	
+}//SpectrumAnalyzer class
@@ -0,0 +1,86 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Copia consistente del &uacute;ltimo espectro calculado por un
+ * <tt>SpectrumAnalyzer</tt>.<p/>
+ *
+ * Como <tt>StatisticsSnapshot</tt>, es una estructura de atributos
+ * p&uacute;blicos que el usuario crea una vez y reutiliza en cada lectura.
+ * @see SpectrumAnalyzer#readSnapshot(SpectrumSnapshot)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class SpectrumSnapshot {
+
+	// atributos de clase
+	
+	/**
+	 * La potencia de cada frecuencia, de 0 a la mitad de la frecuencia de
+	 * muestreo; en las unidades del sensor al cuadrado.
+	 */
+	public final float[] power;
+	
+	/**
+	 * La potencia de cada banda; la suma de las potencias de sus
+	 * frecuencias.
+	 */
+	public final float[] bandEnergy;
+	
+	/**
+	 * La frecuencia con m&aacute;s potencia, sin contar la frecuencia 0, en
+	 * hertz.
+	 */
+	public float dominantFrequency;
+	
+	/**
+	 * La potencia de la frecuencia dominante.
+	 */
+	public float dominantPower;
+	
+	/**
+	 * La frecuencia de muestreo estimada de la ventana, en hertz.
+	 */
+	public float sampleRate;
+	
+	/**
+	 * El momento de la lectura m&aacute;s reciente de la ventana en
+	 * nanosegundos.
+	 */
+	public long timestamp;
+	
+	/**
+	 * Cu&aacute;ntos espectros se hab&iacute;an calculado cuando se
+	 * tom&oacute; la copia; 0 si a&uacute;n no hay ninguno.
+	 */
+	public long version;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye una copia para el analizador dado.
+	 * @param analyzer - El analizador del que se copiar&aacute;n los
+	 * espectros.
+	 */
+	public SpectrumSnapshot(SpectrumAnalyzer analyzer){
+		power = new float[analyzer.SIZE /2 +1];
+		bandEnergy = new float[analyzer.getBandCount()];
+	}//constructor
+	
+}//SpectrumSnapshot class
@@ -0,0 +1,91 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Copia consistente de las estad&iacute;sticas de una ventana de
+ * lecturas.<p/>
+ *
+ * Como <tt>SensorSnapshot</tt>, es una estructura de atributos p&uacute;blicos
+ * que el usuario crea una vez y reutiliza en cada lectura. Cada arreglo tiene
+ * un elemento por eje.
+ * @see SlidingStatistics#readSnapshot(StatisticsSnapshot)
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class StatisticsSnapshot {
+
+	// atributos de clase
+	
+	/**
+	 * El promedio de cada eje.
+	 */
+	public final double[] mean;
+	
+	/**
+	 * La varianza de cada eje, tomando la ventana como poblaci&oacute;n.
+	 */
+	public final double[] variance;
+	
+	/**
+	 * La ra&iacute;z del promedio de los cuadrados de cada eje.
+	 */
+	public final double[] rms;
+	
+	/**
+	 * El valor m&iacute;nimo de cada eje.
+	 */
+	public final float[] min;
+	
+	/**
+	 * El valor m&aacute;ximo de cada eje.
+	 */
+	public final float[] max;
+	
+	/**
+	 * Cu&aacute;ntas lecturas hay en la ventana.
+	 */
+	public int count;
+	
+	/**
+	 * El momento de la lectura m&aacute;s reciente de la ventana en
+	 * nanosegundos.
+	 */
+	public long timestamp;
+	
+	/**
+	 * Cu&aacute;ntas lecturas se hab&iacute;an procesado cuando se tom&oacute;
+	 * la copia.
+	 */
+	public long version;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye una copia para el n&uacute;mero de ejes dado.
+	 * @param axes - El n&uacute;mero de ejes.
+	 */
+	public StatisticsSnapshot(int axes){
+		mean = new double[axes];
+		variance = new double[axes];
+		rms = new double[axes];
+		min = new float[axes];
+		max = new float[axes];
+	}//constructor
+	
+}//StatisticsSnapshot class
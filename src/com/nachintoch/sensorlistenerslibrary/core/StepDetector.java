@@ -0,0 +1,264 @@
+package com.nachintoch.sensorlistenerslibrary.core;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Detecta pasos en las lecturas del aceler&oacute;metro.<p/>
+ *
+ * Es una etapa que s&oacute;lo observa las lecturas. De la magnitud de cada
+ * lectura quita la gravedad, estimada con un promedio lento, y el ruido, con
+ * un pasa bajas de <tt>SMOOTHING_CUTOFF</tt> hertz. Cada m&aacute;ximo de la
+ * se&ntilde;al que resulta es un paso si supera el umbral, si la
+ * se&ntilde;al cruz&oacute; por debajo de la gravedad desde el paso anterior
+ * y si desde &eacute;ste pas&oacute; al menos el periodo refractario.<p/>
+ *
+ * El umbral se adapta a la forma de caminar: es una fracci&oacute;n del
+ * promedio de la altura de los &uacute;ltimos pasos, que decae cuando no hay
+ * pasos, y nunca es menor al umbral m&iacute;nimo. Todo el estado es de
+ * tama&ntilde;o fijo y procesar una lectura no crea objetos; de modo que
+ * puede validarse con grabaciones en cualquier m&aacute;quina virtual, por
+ * ejemplo con <tt>TraceReplayer</tt>.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class StepDetector implements SampleStage {
+
+	// atributos de clase
+	
+	/**
+	 * Recibe los pasos en el hilo que procesa los eventos del receptor.
+	 */
+	public interface Receiver {
+		
+		/**
+		 * Avisa que se detect&oacute; un paso.
+		 * @param timestamp - El momento del m&aacute;ximo del paso en
+		 * nanosegundos.
+		 * @param steps - Cu&aacute;ntos pasos se han detectado.
+		 */
+		void onStep(long timestamp, long steps);
+		
+	}//Receiver interface
+	
+	/**
+	 * Quien recibe los pasos; o una referencia nula.
+	 */
+	private final Receiver receiver;
+	
+	// estado de los filtros
+	private float smooth;
+	private float baseline;
+	private float previous;
+	private long previousTime;
+	private boolean rising;
+	private long lastTime = -1;
+	
+	// estado del detector
+	private boolean armed;
+	private float peakAverage;
+	private long lastStep = -1;
+	private volatile long steps;
+	
+	/**
+	 * El umbral m&iacute;nimo en metros por segundo al cuadrado.
+	 */
+	private final float minThreshold;
+	
+	/**
+	 * La fracci&oacute;n del promedio de la altura de los pasos que se usa
+	 * como umbral.
+	 */
+	private final float ratio;
+	
+	/**
+	 * El periodo refractario en nanosegundos.
+	 */
+	private final long refractory;
+	
+	/**
+	 * Frecuencia de corte en hertz del pasa bajas que quita el ruido.
+	 */
+	public static final float SMOOTHING_CUTOFF = 4f;
+	
+	/**
+	 * Frecuencia de corte en hertz del promedio que estima la gravedad.
+	 */
+	public static final float BASELINE_CUTOFF = 0.25f;
+	
+	/**
+	 * Constante de tiempo en segundos con la que decae el promedio de la
+	 * altura de los pasos cuando no hay pasos.
+	 */
+	public static final float DECAY_TIME = 2f;
+	
+	/**
+	 * Umbral m&iacute;nimo por omisi&oacute;n, en metros por segundo al
+	 * cuadrado.
+	 */
+	public static final float DEFAULT_MIN_THRESHOLD = 0.6f;
+	
+	/**
+	 * Fracci&oacute;n del promedio de la altura de los pasos por
+	 * omisi&oacute;n.
+	 */
+	public static final float DEFAULT_RATIO = 0.5f;
+	
+	/**
+	 * Periodo refractario por omisi&oacute;n en nanosegundos; permite hasta
+	 * cuatro pasos por segundo.
+	 */
+	public static final long DEFAULT_REFRACTORY = 250000000L;
+	
+	/**
+	 * Intervalo m&aacute;ximo en nanosegundos entre dos lecturas para
+	 * procesarlas juntas; un intervalo mayor reinicia los filtros.
+	 */
+	public static final long MAX_GAP = 1000000000L;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un detector con los par&aacute;metros por omisi&oacute;n.
+	 * @param receiver - Quien recibe los pasos; o una referencia nula.
+	 */
+	public StepDetector(Receiver receiver){
+		this(receiver, DEFAULT_MIN_THRESHOLD, DEFAULT_RATIO,
+				DEFAULT_REFRACTORY);
+	}//constructor
+	
+	/**
+	 * Construye un detector.
+	 * @param receiver - Quien recibe los pasos; o una referencia nula.
+	 * @param minThreshold - El umbral m&iacute;nimo en metros por segundo al
+	 * cuadrado.
+	 * @param ratio - La fracci&oacute;n del promedio de la altura de los pasos
+	 * que se usa como umbral; entre 0 y 1.
+	 * @param refractory - El tiempo m&iacute;nimo entre dos pasos en
+	 * nanosegundos.
+	 * @throws IllegalArgumentException - Si alg&uacute;n par&aacute;metro
+	 * est&aacute; fuera de rango.
+	 */
+	public StepDetector(Receiver receiver, float minThreshold, float ratio,
+			long refractory){
+		if(!(minThreshold > 0) || !(ratio > 0 && ratio <= 1) ||
+				refractory < 0)
+			throw new IllegalArgumentException("par\u00E1metros fuera de " +
+					"rango");
+		this.receiver = receiver;
+		this.minThreshold = minThreshold;
+		this.ratio = ratio;
+		this.refractory = refractory;
+		peakAverage = minThreshold /ratio;
+	}//constructor
+	
+	// métodos de acceso
+	
+	/**
+	 * Da cu&aacute;ntos pasos se han detectado.
+	 * @return long - El n&uacute;mero de pasos.
+	 */
+	public long getStepCount(){
+		return steps;
+	}//getStepCount
+	
+	/**
+	 * Da el umbral actual.
+	 * @return float - El umbral en metros por segundo al cuadrado.
+	 */
+	public float getThreshold(){
+		return Math.max(minThreshold, ratio *peakAverage);
+	}//getThreshold
+	
+	// métodos de modificación
+	
+	/**
+	 * Reinicia el detector y la cuenta de pasos.
+	 */
+	public void clear(){
+		lastTime = -1;
+		lastStep = -1;
+		peakAverage = minThreshold /ratio;
+		steps = 0;
+	}//clear
+	
+	// métodos de implementación
+	
+	@Override
+	public boolean process(long timestamp, float[] values, int count){
+		float squares = 0;
+		for(int i = 0; i < count && i < 3; i++)
+			squares += values[i] *values[i];
+		float magnitude = (float)Math.sqrt(squares);
+		long last = lastTime;
+		lastTime = timestamp;
+		long elapsed = timestamp -last;
+		if(last < 0 || elapsed <= 0 || elapsed > MAX_GAP){
+			smooth = magnitude;
+			baseline = magnitude;
+			previous = 0;
+			previousTime = timestamp;
+			rising = false;
+			armed = false;
+			return true;
+		}//si debe reiniciar los filtros
+		float dt = elapsed *1e-9f;
+		smooth += weight(dt, SMOOTHING_CUTOFF) *(magnitude -smooth);
+		baseline += weight(dt, BASELINE_CUTOFF) *(magnitude -baseline);
+		peakAverage *= 1 -dt /(DECAY_TIME +dt);
+		float signal = smooth -baseline;
+		if(signal < 0)
+			armed = true;
+		if(signal < previous && rising)
+			peak(previous, previousTime);
+		rising = signal > previous;
+		previous = signal;
+		previousTime = timestamp;
+		return true;
+	}//process
+	
+	// métodos auxiliares
+	
+	/**
+	 * Revisa si un m&aacute;ximo de la se&ntilde;al es un paso.
+	 * @param height - La altura del m&aacute;ximo.
+	 * @param timestamp - El momento del m&aacute;ximo.
+	 */
+	private void peak(float height, long timestamp){
+		if(!armed || height <= getThreshold() ||
+				(lastStep >= 0 && timestamp -lastStep < refractory))
+			return;
+		armed = false;
+		lastStep = timestamp;
+		peakAverage += 0.25f *(height -peakAverage);
+		long total = ++steps;
+		if(receiver != null)
+			receiver.onStep(timestamp, total);
+	}//peak
+	
+	/**
+	 * Calcula el peso de un pasa bajas de primer orden.
+	 * @param dt - El intervalo en segundos.
+	 * @param cutoff - La frecuencia de corte en hertz.
+	 * @return float - El peso de la lectura nueva.
+	 */
+	private static float weight(float dt, float cutoff){
+		float timeConstant = (float)(1 /(2 *Math.PI *cutoff));
+		return dt /(timeConstant +dt);
+	}//weight
+	
+}//StepDetector class
@@ -0,0 +1,46 @@
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * N&uacute;cleo de la biblioteca que no depende de Android.<p/>
+ * 
+ * Contiene el estado y el procesamiento de las lecturas de los sensores; las
+ * cuales se reciben como datos primitivos identificados por el tipo de sensor
+ * (<tt>SensorTypes</tt>). As&iacute;, el procesamiento puede medirse, probarse
+ * y alimentarse con lecturas grabadas en cualquier m&aacute;quina virtual de
+ * Java; mientras que las clases del paquete
+ * <tt>com.nachintoch.sensorlistenerslibrary</tt> s&oacute;lo adaptan los
+ * eventos de Android.<p/>
+ * Nachintoch Sensor Listeners Library.<br/>
+ * Copyright 2012, 2013, Manuel Castillo.<p/>
+ * Nachintoch Sensor Listeners Library is free software: you can redistribute it and/or modify<br/>
+ *  it under the terms of the Lesser GNU General Public License as published by<br/>
+ *  the Free Software Foundation, either version 3 of the License, or<br/>
+ *  (at your option) any later version.<p/>
+ *
+ *  Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,<br/>
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of<br/>
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the<br/>
+ *  Lesser GNU General Public License for more details.<p/>
+ *
+ *  You should have received a copy of the Lesser GNU General Public License<br/>
+ *  along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ * @author <a href="mailto:teshanatsch@gmail.com">nacintoch</a>
+ * @since Febrero 2013.
+ * @version 1.0, Febrero 2013.
+ */
+package com.nachintoch.sensorlistenerslibrary.core;
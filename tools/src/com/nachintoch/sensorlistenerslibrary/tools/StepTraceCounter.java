@@ -0,0 +1,98 @@
+package com.nachintoch.sensorlistenerslibrary.tools;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.FileReader;
+import java.io.IOException;
+
+import com.nachintoch.sensorlistenerslibrary.core.SensorSampleListener;
+import com.nachintoch.sensorlistenerslibrary.core.SensorTypes;
+import com.nachintoch.sensorlistenerslibrary.core.StepDetector;
+
+/**
+ * Cuenta los pasos de una grabaci&oacute;n del aceler&oacute;metro, para
+ * validar el detector de pasos sin un dispositivo.<p/>
+ *
+ * La grabaci&oacute;n tiene el formato de <tt>TraceReplayer</tt>. Puede
+ * ejecutarse desde la l&iacute;nea de comandos:<br/>
+ * <tt>java com.nachintoch.sensorlistenerslibrary.tools.StepTraceCounter
+ * &lt;archivo&gt; [pasos esperados]</tt><br/>
+ * y si se dan los pasos esperados informa tambi&eacute;n el error.
+ * @see StepDetector
+ * @see TraceReplayer
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class StepTraceCounter {
+
+	// métodos constructores
+	
+	/**
+	 * No se permiten instancias de &eacute;sta clase.
+	 */
+	private StepTraceCounter(){}
+	
+	// métodos estáticos
+	
+	/**
+	 * Cuenta los pasos de una grabaci&oacute;n.
+	 * @param path - La ruta de la grabaci&oacute;n.
+	 * @param detector - El detector de pasos.
+	 * @return long - Cu&aacute;ntos pasos se detectaron.
+	 * @throws IOException - Si ocurre un error al leer la grabaci&oacute;n.
+	 */
+	public static long count(String path, StepDetector detector)
+			throws IOException {
+		SensorSampleListener listener =
+				SensorSampleListener.getInstance(SensorTypes.TYPE_ACCELEROMETER);
+		listener.addStage(detector);
+		FileReader trace = new FileReader(path);
+		try{
+			new TraceReplayer().replay(trace, listener);
+		}finally{
+			trace.close();
+		}//reproduce la grabación
+		return detector.getStepCount();
+	}//count
+	
+	/**
+	 * Cuenta los pasos de una grabaci&oacute;n con los par&aacute;metros por
+	 * omisi&oacute;n del detector e informa el resultado.
+	 * @param args - La ruta de la grabaci&oacute;n y, opcionalmente, los
+	 * pasos esperados.
+	 * @throws IOException - Si ocurre un error al leer la grabaci&oacute;n.
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1 || args.length > 2){
+			System.err.println("Uso: StepTraceCounter <archivo> " +
+					"[pasos esperados]");
+			System.exit(1);
+		}//si faltan argumentos
+		long steps = count(args[0], new StepDetector(null));
+		if(args.length == 1){
+			System.out.println(steps +" pasos");
+			return;
+		}//si no hay pasos esperados
+		long expected = Long.parseLong(args[1]);
+		double error = expected == 0 ? 0 :
+				100.0 *(steps -expected) /expected;
+		System.out.println(steps +" pasos de " +expected +" esperados (" +
+				String.format("%.1f", error) +"%)");
+	}//main
+	
+}//StepTraceCounter class
@@ -0,0 +1,155 @@
+package com.nachintoch.sensorlistenerslibrary.tools;
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import com.nachintoch.sensorlistenerslibrary.core.SensorSampleListener;
+
+/**
+ * Reproduce lecturas grabadas en un receptor del n&uacute;cleo.<p/>
+ * 
+ * Cada l&iacute;nea de la grabaci&oacute;n contiene el momento del evento en
+ * nanosegundos, la presici&oacute;n y los valores le&iacute;dos; separados
+ * por comas, puntos y comas o espacios. Las l&iacute;neas vac&iacute;as y las
+ * que comienzan con <tt>#</tt> se ignoran. Las lecturas se entregan tan
+ * r&aacute;pido como se leen, sin respetar el tiempo entre eventos; de modo
+ * que minutos de grabaci&oacute;n se procesan en milisegundos.<p/>
+ * 
+ * Puede ejecutarse desde la l&iacute;nea de comandos:<br/>
+ * <tt>java com.nachintoch.sensorlistenerslibrary.tools.TraceReplayer
+ * &lt;tipo de sensor&gt; &lt;archivo&gt;</tt>
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class TraceReplayer {
+
+	// atributos de clase
+	
+	/**
+	 * N&uacute;mero m&aacute;ximo de valores por lectura.
+	 */
+	public static final int MAX_VALUES = 16;
+	
+	/**
+	 * Arreglos para entregar las lecturas; uno por cada n&uacute;mero posible
+	 * de valores.
+	 */
+	private final float[][] scratch;
+	
+	/**
+	 * Cu&aacute;ntas l&iacute;neas no pudieron interpretarse.
+	 */
+	private long malformed;
+	
+	// métodos constructores
+	
+	/**
+	 * Construye un reproductor.
+	 */
+	public TraceReplayer(){
+		scratch = new float[MAX_VALUES +1][];
+		for(int i = 0; i <= MAX_VALUES; i++)
+			scratch[i] = new float[i];
+	}//constructor por omisión
+	
+	// métodos de acceso
+	
+	/**
+	 * Indica cu&aacute;ntas l&iacute;neas no pudieron interpretarse.
+	 * @return long - El n&uacute;mero de l&iacute;neas ignoradas por estar mal
+	 * formadas.
+	 */
+	public long getMalformedCount(){
+		return malformed;
+	}//getMalformedCount
+	
+	// métodos de implementación
+	
+	/**
+	 * Entrega al receptor todas las lecturas de la grabaci&oacute;n.
+	 * @param trace - La grabaci&oacute;n.
+	 * @param listener - El receptor.
+	 * @return long - Cu&aacute;ntas lecturas se entregaron.
+	 * @throws IOException - Si ocurre un error al leer la grabaci&oacute;n.
+	 */
+	public long replay(Reader trace, SensorSampleListener listener)
+			throws IOException {
+		BufferedReader reader = trace instanceof BufferedReader ?
+				(BufferedReader)trace : new BufferedReader(trace);
+		long count = 0;
+		String line;
+		while((line = reader.readLine()) != null){
+			line = line.trim();
+			if(line.length() == 0 || line.charAt(0) == '#')
+				continue;
+			String[] fields = line.split("[,;\\s]+");
+			int values = fields.length -2;
+			if(values < 1 || values > MAX_VALUES){
+				malformed++;
+				continue;
+			}//si no tiene valores
+			try{
+				long timestamp = Long.parseLong(fields[0]);
+				int accuracy = Integer.parseInt(fields[1]);
+				float[] lectures = scratch[values];
+				for(int i = 0; i < values; i++)
+					lectures[i] = Float.parseFloat(fields[i +2]);
+				listener.onSensorSample(accuracy, timestamp, lectures);
+				count++;
+			}catch(NumberFormatException e){
+				malformed++;
+			}//interpreta la línea
+		}//recorre la grabación
+		return count;
+	}//replay
+	
+	// métodos estáticos
+	
+	/**
+	 * Reproduce una grabaci&oacute;n en un receptor sin notificaciones e
+	 * informa cu&aacute;ntas lecturas se procesaron y en cu&aacute;nto tiempo.
+	 * @param args - El tipo de sensor y la ruta de la grabaci&oacute;n.
+	 * @throws IOException - Si ocurre un error al leer la grabaci&oacute;n.
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length != 2){
+			System.err.println("Uso: TraceReplayer <tipo de sensor> <archivo>");
+			System.exit(1);
+		}//si faltan argumentos
+		SensorSampleListener listener =
+				SensorSampleListener.getInstance(Integer.parseInt(args[0]));
+		TraceReplayer replayer = new TraceReplayer();
+		FileReader trace = new FileReader(args[1]);
+		long start = System.nanoTime();
+		long count;
+		try{
+			count = replayer.replay(trace, listener);
+		}finally{
+			trace.close();
+		}//reproduce la grabación
+		long elapsed = System.nanoTime() -start;
+		System.out.println(listener.getTypeString() +": " +count +
+				" lecturas en " +elapsed /1000000 +" ms; " +
+				replayer.getMalformedCount() +" l\u00EDneas ignoradas");
+	}//main
+	
+}//TraceReplayer class
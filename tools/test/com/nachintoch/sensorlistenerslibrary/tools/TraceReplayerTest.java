@@ -0,0 +1,68 @@
+package com.nachintoch.sensorlistenerslibrary.tools;
+
+
+/*
+ * Nachintoch Sensor Listeners Library.
+ * Copyright 2012, 2013, Manuel Castillo.
+ * Nachintoch Listeners Library is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Nachintoch Sensor Listeners Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Lesser GNU General Public License for more details.
+ *
+ * You should have received a copy of the Lesser GNU General Public License
+ * along with Nachintoch Sensor Listeners Library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import com.nachintoch.sensorlistenerslibrary.core.SensorSampleListener;
+import com.nachintoch.sensorlistenerslibrary.core.SensorSnapshot;
+import com.nachintoch.sensorlistenerslibrary.core.SensorTypes;
+
+/**
+ * Comprueba la reproducci&oacute;n de lecturas grabadas.
+ * @author <a href="mailto:manuelignacio_castillolpez@yahoo.com">nacintoch</a>
+ * @version 1.0, Febrero 2013.
+ */
+public class TraceReplayerTest {
+
+	// métodos de implementación
+	
+	/**
+	 * Se entregan las l&iacute;neas v&aacute;lidas con cualquier separador,
+	 * y se cuentan las mal formadas.
+	 */
+	@Test
+	public void replaysValidLinesAndCountsMalformed() throws IOException {
+		String trace = "# grabación\n" +
+				"1000,3,0.5,1.5,9.5\n" +
+				"\n" +
+				"2000; 3; 0.25; 1.25; 9.25\n" +
+				"3000 2 x 1 2\n" +
+				"4000\n" +
+				"5000\t1\t1\t2\t3\n";
+		SensorSampleListener listener =
+				SensorSampleListener.getInstance(SensorTypes.TYPE_ACCELEROMETER);
+		TraceReplayer replayer = new TraceReplayer();
+		assertEquals(3, replayer.replay(new StringReader(trace), listener));
+		assertEquals(2, replayer.getMalformedCount());
+		SensorSnapshot snapshot = new SensorSnapshot();
+		listener.readSnapshot(snapshot);
+		assertEquals(5000L, snapshot.eventTime);
+		assertEquals(1, snapshot.accuracy);
+		assertEquals(3, snapshot.count);
+		assertEquals(3, snapshot.values[2], 0);
+		assertEquals(3, listener.getVersion());
+	}//replaysValidLinesAndCountsMalformed
+	
+}//TraceReplayerTest class